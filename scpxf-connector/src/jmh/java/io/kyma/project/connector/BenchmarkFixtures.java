@@ -0,0 +1,104 @@
+package io.kyma.project.connector;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.metrics.MetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test data shared by the benchmarks: key stores and certificates like the ones issued by
+ * Kyma / Extension Factory and a metrics instance that is not reported anywhere.
+ */
+public final class BenchmarkFixtures {
+
+	private BenchmarkFixtures() {
+	}
+
+	/**
+	 * Creates a key store holding a new key pair and a self signed certificate
+	 *
+	 * @param subject distinguished name of the certificate, e.g. <code>CN=benchmark</code>
+	 * @param keystorePassword password of the key store and the key entry
+	 * @return {@link KeyStore} with a single key entry
+	 */
+	public static KeyStore createKeyStore(String subject, char[] keystorePassword) {
+		try {
+			KeyPair keyPair = createKeyPair();
+
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(null, keystorePassword);
+			keyStore.setKeyEntry("extension-factory-key", keyPair.getPrivate(), keystorePassword,
+					new Certificate[] { createCertificate(subject, keyPair) });
+			return keyStore;
+		} catch (Exception e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates a PEM encoded certificate chain as returned by the certificate signing endpoint
+	 *
+	 * @param length number of certificates in the chain
+	 * @return concatenated PEM encoded certificates
+	 */
+	public static String createCertificateChain(int length) {
+		try {
+			Base64.Encoder encoder = Base64.getMimeEncoder(64, "\n".getBytes());
+			StringBuilder result = new StringBuilder();
+			for (int counter = 0; counter < length; counter++) {
+				X509Certificate certificate = createCertificate("CN=benchmark-" + counter, createKeyPair());
+				result.append("-----BEGIN CERTIFICATE-----\n")
+						.append(encoder.encodeToString(certificate.getEncoded()))
+						.append("\n-----END CERTIFICATE-----\n");
+			}
+			return result.toString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates metrics that are recorded in memory only
+	 *
+	 * @return {@link ConnectorMetrics} backed by a {@link SimpleMeterRegistry}
+	 */
+	public static ConnectorMetrics createMetrics() {
+		ConnectorMetrics metrics = new ConnectorMetrics();
+		metrics.setMeterRegistry(new SimpleMeterRegistry());
+		metrics.setProperties(new MetricsProperties());
+		return metrics;
+	}
+
+	private static KeyPair createKeyPair() throws GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		return generator.generateKeyPair();
+	}
+
+	private static X509Certificate createCertificate(String subject, KeyPair keyPair)
+			throws OperatorCreationException, GeneralSecurityException {
+		X500Name name = new X500Name(subject);
+		long now = System.currentTimeMillis();
+
+		return new JcaX509CertificateConverter().getCertificate(new JcaX509v3CertificateBuilder(name,
+				BigInteger.valueOf(now), new Date(now), new Date(now + TimeUnit.DAYS.toMillis(90)), name,
+				keyPair.getPublic()).build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+	}
+
+}
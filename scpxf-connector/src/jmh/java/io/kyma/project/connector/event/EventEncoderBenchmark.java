@@ -0,0 +1,79 @@
+package io.kyma.project.connector.event;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the JSON serialization of an {@link EventModel} with small and large data maps,
+ * by the {@link EventEncoder} used for publishing and by plain data binding for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEncoderBenchmark {
+
+	/**
+	 * Number of entries of the data map, every tenth entry is a nested map
+	 */
+	@Param({ "5", "500" })
+	private int dataEntries;
+
+	private ObjectMapper objectMapper;
+
+	private EventEncoder eventEncoder;
+
+	private EventModel event;
+
+	@Setup
+	public void setUp() {
+		objectMapper = new ObjectMapper();
+		eventEncoder = new EventEncoder();
+		eventEncoder.setObjectMapper(objectMapper);
+
+		Map<String, Object> data = new HashMap<String, Object>();
+		for (int counter = 0; counter < dataEntries; counter++) {
+			if (counter % 10 == 9) {
+				Map<String, Object> nested = new HashMap<String, Object>();
+				nested.put("id", counter);
+				nested.put("name", "nested-" + counter);
+				nested.put("active", Boolean.TRUE);
+				data.put("entry" + counter, nested);
+			} else {
+				data.put("entry" + counter, "value-" + counter);
+			}
+		}
+
+		event = new EventModel("person.created", "v1", EventEncoder.formatEventTime(Instant.now()), data);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		return eventEncoder.encode(event);
+	}
+
+	@Benchmark
+	public byte[] dataBinding() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(event);
+	}
+
+}
@@ -0,0 +1,61 @@
+package io.kyma.project.connector.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the subscription check performed for every published event, for subscribed and
+ * unsubscribed events. The checked events are created per invocation like in the publishing path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSubscriptionModelBenchmark {
+
+	/**
+	 * Number of active subscriptions
+	 */
+	@Param({ "10", "1000" })
+	private int subscriptions;
+
+	private EventSubscriptionModel model;
+
+	private String subscribedName;
+
+	@Setup
+	public void setUp() {
+		List<EventSubscriptionModel.Event> events = new ArrayList<EventSubscriptionModel.Event>();
+		for (int counter = 0; counter < subscriptions; counter++) {
+			events.add(new EventSubscriptionModel.Event("business.object" + counter + ".changed", "v1"));
+		}
+		model = new EventSubscriptionModel(events);
+		subscribedName = "business.object" + (subscriptions / 2) + ".changed";
+	}
+
+	@Benchmark
+	public boolean subscribed() {
+		return model.isEventActive(new EventSubscriptionModel.Event(subscribedName, "v1"));
+	}
+
+	@Benchmark
+	public boolean unsubscribed() {
+		return model.isEventActive(new EventSubscriptionModel.Event("business.object.deleted", "v1"));
+	}
+
+}
@@ -0,0 +1,65 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the parsing of a registration file by the {@link MetadataService}, i.e. validation,
+ * injection of the credentials and computation of identifier, content hash and length. The
+ * file is <code>registration/registrationfile.json</code> unless the system property 
+ * <code>benchmark.registrationFile</code> is set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataDocumentBenchmark {
+
+	private ObjectMapper objectMapper;
+
+	private File registrationFile;
+
+	private MetadataAuthenticationInformation authentication;
+
+	@Setup
+	public void setUp() {
+		objectMapper = new ObjectMapper();
+		registrationFile = new File(System.getProperty("benchmark.registrationFile", 
+				"registration/registrationfile.json"));
+		authentication = new MetadataBasicAuthentication("user", "password");
+
+		if (!registrationFile.isFile()) {
+			throw new IllegalStateException("Registration file not found: " + registrationFile.getAbsolutePath());
+		}
+	}
+
+	@Benchmark
+	public String scan() {
+		MetadataDocument document = new MetadataDocument(registrationFile, null, objectMapper);
+		document.scan();
+		return document.getContentHash();
+	}
+
+	@Benchmark
+	public String scanWithCredentials() {
+		MetadataDocument document = new MetadataDocument(registrationFile, authentication, objectMapper);
+		document.scan();
+		return document.getContentHash();
+	}
+
+}
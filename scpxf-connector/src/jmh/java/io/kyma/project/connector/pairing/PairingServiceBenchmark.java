@@ -0,0 +1,53 @@
+package io.kyma.project.connector.pairing;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kyma.project.connector.BenchmarkFixtures;
+
+/**
+ * Measures the extraction of the PEM encoded certificates from the response of the
+ * certificate signing endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairingServiceBenchmark {
+
+	/**
+	 * Number of certificates in the chain, client certificate and (intermediate) CAs
+	 */
+	@Param({ "2", "3" })
+	private int chainLength;
+
+	private PairingService pairingService;
+
+	private String certificateChain;
+
+	@Setup
+	public void setUp() {
+		pairingService = new PairingService();
+		certificateChain = BenchmarkFixtures.createCertificateChain(chainLength);
+	}
+
+	@Benchmark
+	public List<String> matchCertificates() {
+		return pairingService.matchCertificates(certificateChain);
+	}
+
+}
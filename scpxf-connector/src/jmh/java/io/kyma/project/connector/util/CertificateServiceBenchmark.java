@@ -0,0 +1,48 @@
+package io.kyma.project.connector.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kyma.project.connector.util.CertificateService.CsrResult;
+
+/**
+ * Measures the creation of a certificate signing request including the generation of the
+ * RSA key pair (the key pair pool is disabled).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertificateServiceBenchmark {
+
+	private CertificateService certificateService;
+
+	@Setup
+	public void setUp() {
+		KeyPairPool keyPairPool = new KeyPairPool();
+		keyPairPool.setProperties(new KeyPairPoolProperties());
+		keyPairPool.start();
+
+		certificateService = new CertificateService();
+		certificateService.setKeyPairPool(keyPairPool);
+	}
+
+	@Benchmark
+	public CsrResult createCSR() {
+		return certificateService.createCSR("OU=OrgUnit,O=Organization,L=Waldorf,ST=Waldorf,C=DE,CN=benchmark",
+				KeyPairPool.RSA_2048);
+	}
+
+}
@@ -0,0 +1,85 @@
+package io.kyma.project.connector.util;
+
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import io.kyma.project.connector.BenchmarkFixtures;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+
+/**
+ * Measures the lookup of the cached {@link RestTemplate} of a client certificate, which is
+ * performed for every request, including the fingerprinting of the certificate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientCertRestTemplateBuilderBenchmark {
+
+	private final char[] keystorePassword = "benchmark".toCharArray();
+
+	private KeyStore keyStore;
+
+	private HttpConnectionPoolManager connectionPoolManager;
+
+	private ClientCertRestTemplateBuilder builder;
+
+	@Setup
+	public void setUp() {
+		keyStore = BenchmarkFixtures.createKeyStore("CN=benchmark", keystorePassword);
+		ConnectorMetrics metrics = BenchmarkFixtures.createMetrics();
+
+		HttpConnectionPoolProperties connectionPoolProperties = new HttpConnectionPoolProperties();
+		connectionPoolManager = new HttpConnectionPoolManager();
+		connectionPoolManager.setProperties(connectionPoolProperties);
+		connectionPoolManager.setMetrics(metrics);
+		connectionPoolManager.start();
+
+		SslContextProvider sslContextProvider = new SslContextProvider();
+		sslContextProvider.setProperties(new TlsProperties());
+		sslContextProvider.setMetrics(metrics);
+		sslContextProvider.start();
+
+		builder = new ClientCertRestTemplateBuilder();
+		builder.setRestTemplateBuilder(new RestTemplateBuilder());
+		builder.setConnectionPoolManager(connectionPoolManager);
+		builder.setSslContextProvider(sslContextProvider);
+		builder.setConnectionPoolProperties(connectionPoolProperties);
+		builder.setMetrics(metrics);
+		builder.start();
+
+		builder.applicationConnectorRestTemplate(keyStore, keystorePassword);
+	}
+
+	@TearDown
+	public void tearDown() {
+		connectionPoolManager.stop();
+	}
+
+	@Benchmark
+	public RestTemplate lookup() {
+		return builder.applicationConnectorRestTemplate(keyStore, keystorePassword);
+	}
+
+	@Benchmark
+	public String fingerprint() {
+		return builder.getCertificateFingerprint(keyStore);
+	}
+
+}
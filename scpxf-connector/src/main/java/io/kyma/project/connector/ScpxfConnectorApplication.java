@@ -4,8 +4,8 @@ import java.io.File;
 import java.net.URI;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.util.Collections;
-import java.util.Date;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -13,10 +13,10 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.event.EventEncoder;
 import io.kyma.project.connector.event.EventGatewayService;
 import io.kyma.project.connector.event.EventModel;
-import io.kyma.project.connector.event.EventSubscriptionModel;
-import io.kyma.project.connector.event.EventSubscriptionService;
+import io.kyma.project.connector.event.EventSubscriptionCache;
 import io.kyma.project.connector.metadata.MetadataBasicAuthentication;
 import io.kyma.project.connector.metadata.MetadataOAuth2ClientCredentialsAuthentication;
 import io.kyma.project.connector.metadata.MetadataService;
@@ -35,7 +35,7 @@ public class ScpxfConnectorApplication implements CommandLineRunner {
 	private EventGatewayService eventGatewayService;
 	
 	@Autowired
-	private EventSubscriptionService eventSubscriptionService;
+	private EventSubscriptionCache eventSubscriptionCache;
 	
 	public static void main(String[] args) {
 		SpringApplication.run(ScpxfConnectorApplication.class, args);
@@ -90,17 +90,18 @@ public class ScpxfConnectorApplication implements CommandLineRunner {
 			
 			System.out.println("\nSucessfully registered metadata from registration/registrationfile.json with OAuth2 client credentials");
 			
-			System.out.println("\nReading active Event Subscriptions... This needs to be done periodically...");
-			EventSubscriptionModel eventSubscriptionModel = eventSubscriptionService.getEventSubscriptions(newModel);
+			System.out.println("\nReading active Event Subscriptions... They are refreshed in the background from now on...");
 			
-			if (eventSubscriptionModel.isEventActive(new EventSubscriptionModel.Event("person.created", "v1"))) {
+			EventModel event = new EventModel("person.created", "v1", EventEncoder.formatEventTime(Instant.now()),
+					Collections.singletonMap("personid", "testperson"));
+			
+			if (eventSubscriptionCache.isEventActive(newModel, event)) {
 				System.out.println("person.created-v1 has subscriptions and should be sent");
 			} else  {
 				System.out.println("person.created-v1 has no subscriptions and should not be sent");
 			}
 			
-			eventGatewayService.writeEvent(newModel, new EventModel("person.created", "v1", df.format(new Date()),
-					Collections.singletonMap("personid", "testperson")));
+			eventGatewayService.writeEvent(newModel, event);
 			
 			System.out.println("\nSucessfully sent person.created event for testperson");
 			
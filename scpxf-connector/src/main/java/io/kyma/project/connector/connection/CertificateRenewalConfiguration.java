@@ -0,0 +1,32 @@
+package io.kyma.project.connector.connection;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Spring Configurations relevant for the renewal of application certificates
+ *
+ * @see CertificateRenewalManager
+ * @see CertificateRenewalProperties
+ */
+@Configuration
+public class CertificateRenewalConfiguration {
+
+	/**
+	 * Creates the {@link ScheduledExecutorService} used to renew certificates and to close
+	 * the connections of replaced certificates
+	 *
+	 * @return single threaded {@link ScheduledExecutorService}
+	 */
+	@Bean(name = "CertificateRenewalScheduler", destroyMethod = "shutdownNow")
+	public ScheduledExecutorService certificateRenewalScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("certificate-renewal-%d").setDaemon(true).build());
+	}
+
+}
@@ -0,0 +1,306 @@
+package io.kyma.project.connector.connection;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+import io.micrometer.core.instrument.Meter;
+
+/**
+ * Service that renews the certificates of {@link ManagedConnection}s before they expire.
+ * A certificate is renewed once the configured fraction of its lifetime elapsed (with random
+ * jitter). The renewed connection is prepared completely before it is swapped in:
+ * * the new client including SSL context is built
+ * * connections are established with the new certificate (warm-up)
+ *
+ * Requests in flight on the previous certificate are not affected, its connections are
+ * closed after a grace period. Failed renewals are retried until the certificate expired,
+ * a connection whose certificate cannot be renewed in time is logged and counted by the
+ * <code>kyma.connector.certificate.renewal.abandoned</code> metric.
+ *
+ * @see ManagedConnection
+ * @see CertificateRenewalProperties
+ */
+@Service
+public class CertificateRenewalManager {
+
+	private static final Logger log = LoggerFactory.getLogger(CertificateRenewalManager.class);
+
+	private final Set<ManagedConnection> connections = ConcurrentHashMap.newKeySet();
+
+	private final Map<ManagedConnection, Meter> expiryGauges = new ConcurrentHashMap<ManagedConnection, Meter>();
+
+	private final List<ConnectionRenewalListener> listeners =
+			new CopyOnWriteArrayList<ConnectionRenewalListener>();
+
+	private PairingService pairingService;
+
+	private ConnectorTransportFactory transportFactory;
+
+	private ScheduledExecutorService scheduler;
+
+	private CertificateRenewalProperties properties;
+
+	private ConnectorMetrics metrics;
+
+	/**
+	 * Method used for setter injection
+	 * @param pairingService the service used to renew certificates
+	 */
+	@Autowired
+	public void setPairingService(PairingService pairingService) {
+		this.pairingService = pairingService;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param transportFactory the factory used to create connection snapshots
+	 */
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param scheduler the scheduler running renewals
+	 */
+	@Autowired
+	@Qualifier("CertificateRenewalScheduler")
+	public void setScheduler(ScheduledExecutorService scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration used for renewals
+	 */
+	@Autowired
+	public void setProperties(CertificateRenewalProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param metrics the metrics reporting the time to expiry of the managed certificates
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Registers a listener that is notified about renewed connections
+	 *
+	 * @param listener {@link ConnectionRenewalListener} to be notified
+	 */
+	public void addListener(ConnectionRenewalListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener
+	 *
+	 * @param listener {@link ConnectionRenewalListener} not to be notified anymore
+	 */
+	public void removeListener(ConnectionRenewalListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Starts to manage the given connection, its certificate is renewed in the background
+	 * from now on
+	 *
+	 * @param connectionModel model containing all details for the connection
+	 * @return {@link ManagedConnection} providing the current connection
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the transport
+	 */
+	public ManagedConnection manage(ConnectionModel connectionModel) {
+		ManagedConnection connection = new ManagedConnection(this, transportFactory.createSnapshot(connectionModel));
+		connections.add(connection);
+		Meter expiryGauge = metrics.monitorCertificateExpiry(ConnectorMetrics.SOURCE_RENEWAL,
+				connection.getApplicationName(), () -> connection.getSnapshot().getCertificateExpirationDate());
+		if (expiryGauge != null) {
+			expiryGauges.put(connection, expiryGauge);
+		}
+		scheduleRenewal(connection, renewalTime(connection.getSnapshot()));
+		return connection;
+	}
+
+	/**
+	 * Stops the renewal of the given connection
+	 *
+	 * @param connection connection not to be renewed anymore
+	 */
+	public void unmanage(ManagedConnection connection) {
+		connection.cancel();
+		connections.remove(connection);
+		metrics.remove(expiryGauges.remove(connection));
+	}
+
+	/**
+	 * Returns all managed connections
+	 *
+	 * @return unmodifiable set of {@link ManagedConnection}
+	 */
+	public Set<ManagedConnection> getConnections() {
+		return Collections.unmodifiableSet(connections);
+	}
+
+	/**
+	 * Renews the certificate of the given connection immediately and swaps in the renewed
+	 * connection once it is ready to use. Concurrent renewals of the same connection are
+	 * executed one after the other.
+	 *
+	 * @param connection connection to be renewed
+	 * @return {@link ConnectionSnapshot} with the renewed certificate
+	 * @throws ApplicationConnectorException if anything fails, the current connection is kept
+	 */
+	public ConnectionSnapshot renew(ManagedConnection connection) {
+
+		synchronized (connection) {
+			ConnectionSnapshot previous = connection.getSnapshot();
+
+			ConnectionModel renewedModel = pairingService.renewCertificate(previous.toConnectionModel(),
+					previous.getKeystorePass());
+
+			ConnectionSnapshot renewed = transportFactory.createSnapshot(renewedModel);
+
+			if (properties.isWarmUp()) {
+				warmUp(renewed);
+			}
+
+			connection.swap(renewed);
+
+			notifyListeners(connection, previous, renewed);
+
+			if (!previous.getCertificateFingerprint().equals(renewed.getCertificateFingerprint())) {
+				retireLater(previous.getCertificateFingerprint());
+			}
+
+			scheduleRenewal(connection, renewalTime(renewed));
+
+			return renewed;
+		}
+	}
+
+	/**
+	 * Stops all renewals
+	 */
+	@PreDestroy
+	public void close() {
+		connections.forEach(ManagedConnection::cancel);
+		connections.clear();
+	}
+
+	private void notifyListeners(ManagedConnection connection, ConnectionSnapshot previous,
+			ConnectionSnapshot renewed) {
+		// the renewed connection is in use already, a failing listener must not undo the renewal
+		for (ConnectionRenewalListener listener : listeners) {
+			try {
+				listener.connectionRenewed(connection, previous, renewed);
+			} catch (RuntimeException e) {
+				log.warn("Listener {} failed for renewed connection {}", listener, renewed, e);
+			}
+		}
+	}
+
+	private void warmUp(ConnectionSnapshot renewed) {
+		// establishes connections to the connector service via the transport of the renewed
+		// snapshot, fails the renewal if the new certificate is not accepted
+		try {
+			ResponseEntity<String> response = renewed.getTransport().exchange(
+					RequestEntity.get(renewed.getInfoUrl()).build(), String.class);
+			if (!response.getStatusCode().is2xxSuccessful()) {
+				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
+						response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
+			}
+		} catch (RestClientException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+
+		if (renewed.getEventsInfoUrl() != null) {
+			try {
+				renewed.getTransport().exchange(RequestEntity.get(renewed.getEventsInfoUrl()).build(),
+						String.class);
+			} catch (RestClientException e) {
+				// the gateway is only warmed up, its errors are reported on actual use
+			}
+		}
+	}
+
+	private long renewalTime(ConnectionSnapshot snapshot) {
+		long issued = snapshot.getCertificateIssueDate().getTime();
+		long lifetime = snapshot.getCertificateExpirationTime() - issued;
+		long jitter = properties.getJitterMs() > 0
+				? ThreadLocalRandom.current().nextLong(-properties.getJitterMs(), properties.getJitterMs() + 1)
+				: 0;
+
+		return issued + (long) (lifetime * properties.getLifetimeFraction()) + jitter;
+	}
+
+	private void scheduleRenewal(ManagedConnection connection, long renewalTime) {
+		long delay = Math.max(0, renewalTime - System.currentTimeMillis());
+		try {
+			connection.schedule(scheduler.schedule(() -> renewScheduled(connection), delay, TimeUnit.MILLISECONDS),
+					System.currentTimeMillis() + delay);
+		} catch (RejectedExecutionException e) {
+			// scheduler was shut down, nothing left to renew
+		}
+	}
+
+	private void renewScheduled(ManagedConnection connection) {
+		if (connection.isClosed()) {
+			return;
+		}
+		try {
+			renew(connection);
+		} catch (RuntimeException e) {
+			long retryTime = System.currentTimeMillis() + properties.getRetryIntervalMs();
+			if (retryTime < connection.getSnapshot().getCertificateExpirationTime()) {
+				log.warn("Renewal of connection {} failed, retrying in {} ms", connection.getSnapshot(),
+						properties.getRetryIntervalMs(), e);
+				scheduleRenewal(connection, retryTime);
+			} else {
+				log.error("Renewal of connection {} failed, the certificate expires on {} before the next retry",
+						connection.getSnapshot(), connection.getSnapshot().getCertificateExpirationDate(), e);
+				metrics.recordRenewalAbandoned();
+			}
+		}
+	}
+
+	private void retireLater(String certificateFingerprint) {
+		try {
+			scheduler.schedule(() -> transportFactory.retire(certificateFingerprint), properties.getGracePeriodMs(),
+					TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			transportFactory.retire(certificateFingerprint);
+		}
+	}
+
+}
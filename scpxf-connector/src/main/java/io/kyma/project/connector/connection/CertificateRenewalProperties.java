@@ -0,0 +1,46 @@
+package io.kyma.project.connector.connection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the proactive renewal of application certificates
+ * (prefix <code>kyma.connector.renewal</code>).
+ *
+ * @see CertificateRenewalManager
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.renewal")
+public class CertificateRenewalProperties {
+
+	/**
+	 * Fraction of the certificate lifetime after which it is renewed
+	 */
+	private double lifetimeFraction = 0.7;
+
+	/**
+	 * Maximum random deviation in milliseconds from the renewal time, avoids that many 
+	 * connectors renew at the same time
+	 */
+	private long jitterMs = 300000;
+
+	/**
+	 * Time in milliseconds after which a failed renewal is retried
+	 */
+	private long retryIntervalMs = 60000;
+
+	/**
+	 * Time in milliseconds the connections of a replaced certificate are kept open, so that
+	 * requests in flight can complete
+	 */
+	private long gracePeriodMs = 60000;
+
+	/**
+	 * Establish connections with a renewed certificate before it is swapped in
+	 */
+	private boolean warmUp = true;
+
+}
@@ -0,0 +1,345 @@
+package io.kyma.project.connector.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+import io.micrometer.core.instrument.Meter;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Registry of the connections of many applications (tenants), looked up by application
+ * name. Every application owns a dedicated client with its own connection pool. Registered
+ * connections are cheap to keep, clients are only built when an application is used and are
+ * released when the total number of pooled connections exceeds the configured capacity (least
+ * recently used first, weighted by pool size) or after the configured idle time. A released
+ * client is rebuilt transparently on the next lookup.
+ *
+ * Releasing a client does not break callers still holding its snapshot: its connections are
+ * closed once the requests in flight on them completed, and further requests of the snapshot
+ * open a new pool, which is closed once unused (see 
+ * {@link io.kyma.project.connector.util.HttpConnectionPoolProperties#getPoolIdleMs()}).
+ *
+ * Certificates of registered connections are not renewed by the registry. Connections
+ * registered via {@link #manage(ConnectionModel)} are renewed by the
+ * {@link CertificateRenewalManager} and registered again with the renewed certificate.
+ *
+ * @see ConnectionRegistryProperties
+ * @see ConnectionSnapshot
+ */
+@Service
+public class ConnectionRegistry {
+
+	private final ConcurrentMap<String, Registration> registrations = new ConcurrentHashMap<String, Registration>();
+
+	private final ConcurrentMap<String, Meter> expiryGauges = new ConcurrentHashMap<String, Meter>();
+
+	private final ConcurrentMap<String, ManagedConnection> managedConnections = 
+			new ConcurrentHashMap<String, ManagedConnection>();
+
+	private final ConnectionRenewalListener renewalListener = (connection, previous, current) -> {
+		String applicationName = current.getApplicationName();
+		Registration registration = registrations.get(applicationName);
+		if (registration != null && managedConnections.get(applicationName) == connection) {
+			add(current.toConnectionModel(), registration.getMaxConnections());
+		}
+	};
+
+	private Cache<String, ActiveConnection> connections;
+
+	private ConnectorTransportFactory transportFactory;
+
+	private ConnectionRegistryProperties properties;
+
+	private ConnectorMetrics metrics;
+
+	private CertificateRenewalManager renewalManager;
+
+	/**
+	 * Method used for setter injection
+	 * @param transportFactory the factory creating the clients of the applications
+	 */
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration holding the capacity
+	 */
+	@Autowired
+	public void setProperties(ConnectionRegistryProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param metrics the metrics of active clients and certificate expiry
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param renewalManager the manager renewing the certificates of managed connections
+	 */
+	@Autowired
+	public void setRenewalManager(CertificateRenewalManager renewalManager) {
+		this.renewalManager = renewalManager;
+	}
+
+	/**
+	 * Creates the cache of active clients
+	 */
+	@PostConstruct
+	public void start() {
+		CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+				.maximumWeight(properties.getMaxConnections());
+		if (properties.getIdleMinutes() > 0) {
+			builder.expireAfterAccess(properties.getIdleMinutes(), TimeUnit.MINUTES);
+		}
+
+		connections = builder
+				.weigher((Weigher<String, ActiveConnection>) (name, active) -> active.getRegistration()
+						.getMaxConnections())
+				.removalListener((RemovalListener<String, ActiveConnection>) (n) -> transportFactory.release(
+						n.getValue().getSnapshot().getTransport()))
+				.recordStats()
+				.build();
+
+		metrics.monitorCache("registry.connections", connections);
+		metrics.gauge("kyma.connector.registry.applications", "Registered applications", registrations, Map::size);
+		renewalManager.addListener(renewalListener);
+	}
+
+	/**
+	 * Closes all clients
+	 */
+	@PreDestroy
+	public void close() {
+		renewalManager.removeListener(renewalListener);
+		managedConnections.values().forEach(renewalManager::unmanage);
+		managedConnections.clear();
+		connections.invalidateAll();
+		connections.cleanUp();
+	}
+
+	/**
+	 * Registers the connection of an application with the default pool size, an existing
+	 * registration of the application is replaced and its client closed. The certificate is
+	 * not renewed, see {@link #manage(ConnectionModel)}.
+	 *
+	 * @param connectionModel model containing all details for the connection
+	 */
+	public void register(ConnectionModel connectionModel) {
+		register(connectionModel, properties.getConnectionsPerApplication());
+	}
+
+	/**
+	 * Registers the connection of an application, an existing registration of the application
+	 * is replaced and its client closed. The certificate is not renewed, see
+	 * {@link #manage(ConnectionModel)}.
+	 *
+	 * @param connectionModel model containing all details for the connection
+	 * @param maxConnections maximum number of pooled connections of the application
+	 */
+	public void register(ConnectionModel connectionModel, int maxConnections) {
+		stopRenewal(applicationNameOf(connectionModel));
+		add(connectionModel, maxConnections);
+	}
+
+	/**
+	 * Registers the connection of an application with the default pool size and renews its
+	 * certificate in the background. The connection is registered again with every renewed
+	 * certificate until it is unregistered or registered without renewal.
+	 *
+	 * @param connectionModel model containing all details for the connection
+	 * @return {@link ManagedConnection} whose certificate is renewed
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the transport
+	 */
+	public ManagedConnection manage(ConnectionModel connectionModel) {
+		String applicationName = applicationNameOf(connectionModel);
+		ManagedConnection connection = renewalManager.manage(connectionModel);
+		ManagedConnection replaced = managedConnections.put(applicationName, connection);
+		if (replaced != null) {
+			renewalManager.unmanage(replaced);
+		}
+		add(connectionModel, properties.getConnectionsPerApplication());
+		return connection;
+	}
+
+	/**
+	 * Removes the connection of an application, stops the renewal of its certificate and
+	 * closes its client
+	 *
+	 * @param applicationName name of the application
+	 * @return true if the application was registered
+	 */
+	public boolean unregister(String applicationName) {
+		stopRenewal(applicationName);
+		boolean removed = registrations.remove(applicationName) != null;
+		connections.invalidate(applicationName);
+		metrics.remove(expiryGauges.remove(applicationName));
+		return removed;
+	}
+
+	/**
+	 * Returns the connection of the given application, its client is built if it is not active
+	 *
+	 * @param applicationName name of the application
+	 * @return {@link ConnectionSnapshot} of the application
+	 * @throws ApplicationConnectorException if the application is not registered
+	 * @throws RestTemplateCustomizerException if anything fails with building the client
+	 */
+	public ConnectionSnapshot get(String applicationName) {
+		while (true) {
+			Registration registration = registrations.get(applicationName);
+			if (registration == null) {
+				throw new ApplicationConnectorException(
+						String.format("No connection registered for application %s", applicationName));
+			}
+
+			ActiveConnection active;
+			try {
+				active = connections.get(applicationName, () -> createConnection(registration));
+			} catch (ExecutionException e) {
+				throw unwrap(e.getCause());
+			} catch (UncheckedExecutionException e) {
+				throw unwrap(e.getCause());
+			}
+
+			if (active.getRegistration() == registrations.get(applicationName)) {
+				return active.getSnapshot();
+			}
+			// registration was replaced concurrently, the client of the previous one is closed
+			connections.asMap().remove(applicationName, active);
+		}
+	}
+
+	/**
+	 * Checks whether a connection is registered for the given application
+	 *
+	 * @param applicationName name of the application
+	 * @return true if the application is registered
+	 */
+	public boolean contains(String applicationName) {
+		return registrations.containsKey(applicationName);
+	}
+
+	/**
+	 * Returns the names of all registered applications
+	 *
+	 * @return sorted list of application names
+	 */
+	public List<String> getApplicationNames() {
+		List<String> result = new ArrayList<String>(registrations.keySet());
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Returns the number of registered applications
+	 *
+	 * @return number of registrations
+	 */
+	public int size() {
+		return registrations.size();
+	}
+
+	/**
+	 * Returns the number of applications with an active client
+	 *
+	 * @return number of active clients
+	 */
+	public long getActiveCount() {
+		return connections.size();
+	}
+
+	private void add(ConnectionModel connectionModel, int maxConnections) {
+		String applicationName = applicationNameOf(connectionModel);
+		registrations.put(applicationName, new Registration(connectionModel, Math.max(1, maxConnections),
+				connectionModel.getCertificateExpirationDate()));
+		connections.invalidate(applicationName);
+
+		// the gauge reads the current registration, so it is kept when the registration is replaced
+		expiryGauges.computeIfAbsent(applicationName, (name) -> metrics.monitorCertificateExpiry(
+				ConnectorMetrics.SOURCE_REGISTRY, name, () -> {
+			Registration registration = registrations.get(name);
+			return registration != null ? registration.getCertificateExpirationDate() : null;
+		}));
+	}
+
+	private void stopRenewal(String applicationName) {
+		ManagedConnection managed = managedConnections.remove(applicationName);
+		if (managed != null) {
+			renewalManager.unmanage(managed);
+		}
+	}
+
+	private String applicationNameOf(ConnectionModel connectionModel) {
+		if (connectionModel.getApplicationName() == null) {
+			throw new ApplicationConnectorException("Connection without application name cannot be registered");
+		}
+		return connectionModel.getApplicationName();
+	}
+
+	private ActiveConnection createConnection(Registration registration) {
+		ConnectionModel model = registration.getConnectionModel();
+		String certificateFingerprint = model.getCertificateFingerprint();
+
+		return new ActiveConnection(registration, new ConnectionSnapshot(model, certificateFingerprint,
+				transportFactory.createDedicatedTransport(model.getSslKey(), model.getKeystorePass(),
+						certificateFingerprint, registration.getMaxConnections())));
+	}
+
+	private RuntimeException unwrap(Throwable cause) {
+		if (cause instanceof RuntimeException) {
+			return (RuntimeException) cause;
+		}
+		return new ApplicationConnectorException(cause.getMessage(), cause);
+	}
+
+	@AllArgsConstructor
+	@Getter
+	private static class Registration {
+		private final ConnectionModel connectionModel;
+		private final int maxConnections;
+		private final Date certificateExpirationDate;
+	}
+
+	@AllArgsConstructor
+	@Getter
+	private static class ActiveConnection {
+		private final Registration registration;
+		private final ConnectionSnapshot snapshot;
+	}
+
+}
@@ -0,0 +1,37 @@
+package io.kyma.project.connector.connection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the registry of application connections
+ * (prefix <code>kyma.connector.registry</code>).
+ *
+ * @see ConnectionRegistry
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.registry")
+public class ConnectionRegistryProperties {
+
+	/**
+	 * Maximum number of pooled connections of all active clients together, clients of the
+	 * least recently used applications are closed once it is exceeded (approximately, the
+	 * capacity is enforced per cache segment)
+	 */
+	private int maxConnections = 20000;
+
+	/**
+	 * Maximum number of pooled connections per application, used as weight of its client
+	 */
+	private int connectionsPerApplication = 20;
+
+	/**
+	 * Time in minutes after which the client of an unused application is closed, 0 keeps
+	 * clients until they are evicted by capacity
+	 */
+	private long idleMinutes = 30;
+
+}
@@ -0,0 +1,23 @@
+package io.kyma.project.connector.connection;
+
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+
+/**
+ * Listener that is notified once the certificate of a {@link ManagedConnection} was renewed,
+ * e.g. to persist the new key store.
+ *
+ * @see CertificateRenewalManager#addListener(ConnectionRenewalListener)
+ */
+public interface ConnectionRenewalListener {
+
+	/**
+	 * Called after the renewed connection was swapped in
+	 * 
+	 * @param connection the managed connection
+	 * @param previous the replaced connection
+	 * @param current the connection with the renewed certificate
+	 */
+	public void connectionRenewed(ManagedConnection connection, ConnectionSnapshot previous, 
+			ConnectionSnapshot current);
+
+}
@@ -0,0 +1,431 @@
+package io.kyma.project.connector.connection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import lombok.Data;
+
+/**
+ * Service that persists {@link ConnectionModel}s on the local disk, so that a restarted
+ * process can continue with its connections instead of pairing again. Key material (as
+ * PKCS12), the URLs returned by the info endpoint and the certificate metadata are stored
+ * in one file per application, encrypted with AES-GCM using a key derived from the
+ * provided password (PBKDF2). The key material is kept as PKCS#8 private key and X.509
+ * certificate chain inside the encrypted file, which avoids the costly password based
+ * encryption of a PKCS12 file on every load.
+ *
+ * Loading a connection does not contact Kyma / Extension Factory, the stored URLs are used
+ * as they are. {@link io.kyma.project.connector.pairing.PairingService#getInfo(ConnectionModel)}
+ * only needs to be called once the URLs are suspected to be outdated.
+ *
+ * If enabled, all stored connections are registered at the {@link ConnectionRegistry} on
+ * startup, see {@link #restore(char[])}. Their certificates are renewed by the
+ * {@link CertificateRenewalManager} and the renewed connections are stored again.
+ *
+ * @see ConnectionStoreProperties
+ */
+@Service
+public class ConnectionStore {
+
+	private static final Logger log = LoggerFactory.getLogger(ConnectionStore.class);
+
+	private static final int MAGIC = 0x4B435331;
+
+	private static final int SALT_LENGTH = 16;
+
+	private static final int IV_LENGTH = 12;
+
+	private static final int TAG_LENGTH_BITS = 128;
+
+	private static final String FILE_SUFFIX = ".connection";
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	private ObjectMapper objectMapper;
+
+	private ConnectionStoreProperties properties;
+
+	private ConnectionRegistry registry;
+
+	private CertificateRenewalManager renewalManager;
+
+	/**
+	 * Method used for setter injection
+	 * @param objectMapper the mapper used to serialize connections
+	 */
+	@Autowired
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration holding the storage directory
+	 */
+	@Autowired
+	public void setProperties(ConnectionStoreProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param registry the registry the stored connections are restored to
+	 */
+	@Autowired
+	public void setRegistry(ConnectionRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param renewalManager the manager whose renewed connections are stored again
+	 */
+	@Autowired
+	public void setRenewalManager(CertificateRenewalManager renewalManager) {
+		this.renewalManager = renewalManager;
+	}
+
+	/**
+	 * Restores the stored connections if configured, renewed connections are stored again
+	 */
+	@PostConstruct
+	public void start() {
+		if (properties.isRestoreOnStartup()) {
+			if (properties.getPassword() == null) {
+				throw new ApplicationConnectorException("Stored connections cannot be restored without password");
+			}
+			char[] password = properties.getPassword().toCharArray();
+			renewalManager.addListener(storingListener(password));
+			restore(password);
+		}
+	}
+
+	/**
+	 * Registers all stored connections at the {@link ConnectionRegistry} without contacting
+	 * Kyma / Extension Factory, their certificates are renewed from now on (see
+	 * {@link ConnectionRegistry#manage(ConnectionModel)}). Connections that cannot be loaded
+	 * are logged and skipped.
+	 *
+	 * @param storePassword password the connections were stored with
+	 * @return list of the restored {@link ConnectionModel}s
+	 * @throws ApplicationConnectorException if the directory cannot be read
+	 */
+	public List<ConnectionModel> restore(char[] storePassword) {
+		List<ConnectionModel> result = new ArrayList<ConnectionModel>();
+		for (String applicationName : getApplicationNames()) {
+			try {
+				ConnectionModel connectionModel = load(applicationName, storePassword);
+				if (connectionModel != null) {
+					registry.manage(connectionModel);
+					result.add(connectionModel);
+				}
+			} catch (ApplicationConnectorException | RestTemplateCustomizerException e) {
+				log.warn("Stored connection of {} could not be restored: {}", applicationName, e.getMessage());
+			}
+		}
+		log.info("Restored {} stored connections", result.size());
+		return result;
+	}
+
+	/**
+	 * Stores the given connection, an existing connection of the application is replaced
+	 *
+	 * @param connectionModel model containing all details for the connection
+	 * @param storePassword password used to encrypt the stored connection
+	 * @throws ApplicationConnectorException if anything fails
+	 */
+	public void save(ConnectionModel connectionModel, char[] storePassword) {
+
+		Path file = file(connectionModel.getApplicationName());
+
+		try {
+			byte[] payload = objectMapper.writeValueAsBytes(new StoredConnection(connectionModel));
+
+			byte[] salt = new byte[SALT_LENGTH];
+			byte[] iv = new byte[IV_LENGTH];
+			secureRandom.nextBytes(salt);
+			secureRandom.nextBytes(iv);
+			int iterations = properties.getKeyDerivationIterations();
+			checkIterations(iterations, file);
+
+			ByteArrayOutputStream header = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(header);
+			out.writeInt(MAGIC);
+			out.writeInt(iterations);
+			out.write(salt);
+			out.write(iv);
+			out.flush();
+
+			Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+			cipher.init(Cipher.ENCRYPT_MODE, deriveKey(storePassword, salt, iterations),
+					new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+			cipher.updateAAD(header.toByteArray());
+			header.write(cipher.doFinal(payload));
+
+			Files.createDirectories(file.getParent());
+			Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			try {
+				Files.write(tmp, header.toByteArray());
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(tmp);
+			}
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Loads the stored connection of the given application without contacting Kyma /
+	 * Extension Factory
+	 *
+	 * @param applicationName name of the application
+	 * @param storePassword password the connection was stored with
+	 * @return {@link ConnectionModel} or null if no connection is stored for the application
+	 * @throws ApplicationConnectorException if the file cannot be read or decrypted (e.g. wrong password)
+	 */
+	public ConnectionModel load(String applicationName, char[] storePassword) {
+
+		Path file = file(applicationName);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+
+		try {
+			byte[] content = Files.readAllBytes(file);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+
+			if (content.length < 8 + SALT_LENGTH + IV_LENGTH || in.readInt() != MAGIC) {
+				throw new ApplicationConnectorException("Connection store invalid: " + file);
+			}
+			int iterations = in.readInt();
+			checkIterations(iterations, file);
+			byte[] salt = new byte[SALT_LENGTH];
+			byte[] iv = new byte[IV_LENGTH];
+			in.readFully(salt);
+			in.readFully(iv);
+			int headerLength = 8 + SALT_LENGTH + IV_LENGTH;
+
+			Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+			cipher.init(Cipher.DECRYPT_MODE, deriveKey(storePassword, salt, iterations),
+					new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+			cipher.updateAAD(content, 0, headerLength);
+			byte[] payload = cipher.doFinal(content, headerLength, content.length - headerLength);
+
+			return objectMapper.readValue(payload, StoredConnection.class).toConnectionModel();
+
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new ApplicationConnectorException(
+					String.format("Connection store of %s could not be decrypted: %s", applicationName, e.getMessage()),
+					e);
+		}
+	}
+
+	/**
+	 * Deletes the stored connection of the given application
+	 *
+	 * @param applicationName name of the application
+	 * @return true if a stored connection was deleted
+	 * @throws ApplicationConnectorException if the file cannot be deleted
+	 */
+	public boolean delete(String applicationName) {
+		try {
+			return Files.deleteIfExists(file(applicationName));
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the names of all applications with a stored connection
+	 *
+	 * @return sorted list of application names
+	 * @throws ApplicationConnectorException if the directory cannot be read
+	 */
+	public List<String> getApplicationNames() {
+		Path directory = Paths.get(properties.getDirectory());
+		if (!Files.isDirectory(directory)) {
+			return Collections.emptyList();
+		}
+
+		List<String> result = new ArrayList<String>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				result.add(name.substring(0, name.length() - FILE_SUFFIX.length()));
+			}
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * Creates a listener that stores every renewed connection, so that a restarted process
+	 * continues with the renewed certificate
+	 *
+	 * @param storePassword password used to encrypt the stored connections
+	 * @return {@link ConnectionRenewalListener} to be registered at the {@link CertificateRenewalManager}
+	 */
+	public ConnectionRenewalListener storingListener(char[] storePassword) {
+		char[] password = storePassword.clone();
+		return (connection, previous, current) -> save(current.toConnectionModel(), password);
+	}
+
+	private Path file(String applicationName) {
+		if (applicationName == null || !applicationName.matches("[A-Za-z0-9._-]+")
+				|| applicationName.startsWith(".")) {
+			throw new ApplicationConnectorException(
+					String.format("Application name %s cannot be stored", applicationName));
+		}
+		return Paths.get(properties.getDirectory(), applicationName + FILE_SUFFIX);
+	}
+
+	private void checkIterations(int iterations, Path file) {
+		// read from the file before it is authenticated, must not be trusted
+		if (iterations < 1 || iterations > properties.getMaxKeyDerivationIterations()) {
+			throw new ApplicationConnectorException(String.format(
+					"Connection store invalid, %d key derivation iterations not within 1 and %d: %s", iterations,
+					properties.getMaxKeyDerivationIterations(), file));
+		}
+	}
+
+	private Key deriveKey(char[] password, byte[] salt, int iterations) throws GeneralSecurityException {
+		PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, 256);
+		try {
+			byte[] key = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+			return new SecretKeySpec(key, "AES");
+		} finally {
+			spec.clearPassword();
+		}
+	}
+
+	@Data
+	private static class StoredConnection {
+
+		private String applicationName;
+		private URI metadataUrl;
+		private URI renewCertUrl;
+		private URI revocationCertUrl;
+		private URI infoUrl;
+		private URI eventsInfoUrl;
+		private URI eventsURL;
+
+		private String certificateSubject;
+		private String certificateAlgorithm;
+
+		private char[] keystorePass;
+		private String keyAlias;
+		private String keyAlgorithm;
+		private byte[] privateKey;
+		private List<byte[]> certificateChain;
+
+		StoredConnection() {
+		}
+
+		StoredConnection(ConnectionModel model) throws GeneralSecurityException {
+			applicationName = model.getApplicationName();
+			metadataUrl = model.getMetadataUrl();
+			renewCertUrl = model.getRenewCertUrl();
+			revocationCertUrl = model.getRevocationCertUrl();
+			infoUrl = model.getInfoUrl();
+			eventsInfoUrl = model.getEventsInfoUrl();
+			eventsURL = model.getEventsURL();
+			certificateSubject = model.getCertificateSubject();
+			certificateAlgorithm = model.getCertificateAlgorithm();
+			keystorePass = model.getKeystorePass();
+
+			KeyStore keyStore = model.getSslKey();
+			Enumeration<String> aliases = keyStore.aliases();
+			while (aliases.hasMoreElements() && privateKey == null) {
+				String alias = aliases.nextElement();
+				if (keyStore.isKeyEntry(alias)) {
+					Key key = keyStore.getKey(alias, keystorePass);
+					keyAlias = alias;
+					keyAlgorithm = key.getAlgorithm();
+					privateKey = key.getEncoded();
+					certificateChain = new ArrayList<byte[]>();
+					for (Certificate certificate : keyStore.getCertificateChain(alias)) {
+						certificateChain.add(certificate.getEncoded());
+					}
+				}
+			}
+			if (privateKey == null) {
+				throw new ApplicationConnectorException("Key Store invalid, no private key found");
+			}
+		}
+
+		ConnectionModel toConnectionModel() throws IOException, GeneralSecurityException {
+			CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+			Certificate[] chain = new Certificate[certificateChain.size()];
+			for (int i = 0; i < chain.length; i++) {
+				chain[i] = certificateFactory.generateCertificate(new ByteArrayInputStream(certificateChain.get(i)));
+			}
+
+			KeyStore sslKey = KeyStore.getInstance("JKS");
+			sslKey.load(null, null);
+			sslKey.setKeyEntry(keyAlias,
+					KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(privateKey)),
+					keystorePass, chain);
+
+			ConnectionModel model = new ConnectionModel();
+			model.setApplicationName(applicationName);
+			model.setMetadataUrl(metadataUrl);
+			model.setRenewCertUrl(renewCertUrl);
+			model.setRevocationCertUrl(revocationCertUrl);
+			model.setInfoUrl(infoUrl);
+			model.setEventsInfoUrl(eventsInfoUrl);
+			model.setEventsURL(eventsURL);
+			model.setCertificateSubject(certificateSubject);
+			model.setCertificateAlgorithm(certificateAlgorithm);
+			model.setKeystorePass(keystorePass);
+			model.setSslKey(sslKey);
+			return model;
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+package io.kyma.project.connector.connection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the persistent storage of connections
+ * (prefix <code>kyma.connector.store</code>).
+ *
+ * @see ConnectionStore
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.store")
+public class ConnectionStoreProperties {
+
+	/**
+	 * Directory in which connections are stored, one encrypted file per application
+	 */
+	private String directory = "connections";
+
+	/**
+	 * Number of PBKDF2 iterations used to derive the encryption key from the password,
+	 * higher values slow down brute force attacks but also every load and save
+	 */
+	private int keyDerivationIterations = 20000;
+
+	/**
+	 * Maximum number of PBKDF2 iterations accepted from a stored file, files requiring more
+	 * are rejected instead of deriving the key
+	 */
+	private int maxKeyDerivationIterations = 1000000;
+
+	/**
+	 * Register all stored connections at the {@link ConnectionRegistry} on startup, requires
+	 * the password
+	 */
+	private boolean restoreOnStartup = false;
+
+	/**
+	 * Password of the stored connections used to restore them on startup
+	 */
+	private String password;
+
+}
@@ -0,0 +1,110 @@
+package io.kyma.project.connector.connection;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+
+/**
+ * Connection to Kyma / Extension Factory whose certificate is renewed in the background by
+ * the {@link CertificateRenewalManager}. The current {@link ConnectionSnapshot} should be
+ * retrieved per request (or batch of requests) via {@link #getSnapshot()}, it is swapped
+ * atomically once a renewed certificate is ready to use.
+ * 
+ * @see CertificateRenewalManager#manage(io.kyma.project.connector.connection.model.ConnectionModel)
+ */
+public class ManagedConnection implements AutoCloseable {
+
+	private final CertificateRenewalManager renewalManager;
+
+	private final AtomicReference<ConnectionSnapshot> snapshot;
+
+	private volatile long nextRenewalTime;
+
+	private ScheduledFuture<?> scheduledRenewal;
+
+	private boolean closed;
+
+	ManagedConnection(CertificateRenewalManager renewalManager, ConnectionSnapshot snapshot) {
+		this.renewalManager = renewalManager;
+		this.snapshot = new AtomicReference<ConnectionSnapshot>(snapshot);
+	}
+
+	/**
+	 * Returns the current connection
+	 * 
+	 * @return {@link ConnectionSnapshot} with the currently valid certificate
+	 */
+	public ConnectionSnapshot getSnapshot() {
+		return snapshot.get();
+	}
+
+	/**
+	 * Returns the name of the application
+	 * 
+	 * @return application name
+	 */
+	public String getApplicationName() {
+		return snapshot.get().getApplicationName();
+	}
+
+	/**
+	 * Returns the time the next renewal is scheduled for
+	 * 
+	 * @return {@link Date} of the next renewal or null if none is scheduled
+	 */
+	public Date getNextRenewal() {
+		long time = nextRenewalTime;
+		return time > 0 ? new Date(time) : null;
+	}
+
+	/**
+	 * Renews the certificate immediately
+	 * 
+	 * @return {@link ConnectionSnapshot} with the renewed certificate
+	 * @see CertificateRenewalManager#renew(ManagedConnection)
+	 */
+	public ConnectionSnapshot renew() {
+		return renewalManager.renew(this);
+	}
+
+	/**
+	 * Stops the renewal of this connection
+	 */
+	@Override
+	public void close() {
+		renewalManager.unmanage(this);
+	}
+
+	ConnectionSnapshot swap(ConnectionSnapshot renewed) {
+		return snapshot.getAndSet(renewed);
+	}
+
+	synchronized boolean schedule(ScheduledFuture<?> renewal, long renewalTime) {
+		if (closed) {
+			renewal.cancel(false);
+			return false;
+		}
+		if (scheduledRenewal != null) {
+			scheduledRenewal.cancel(false);
+		}
+		scheduledRenewal = renewal;
+		nextRenewalTime = renewalTime;
+		return true;
+	}
+
+	synchronized void cancel() {
+		closed = true;
+		nextRenewalTime = 0;
+		if (scheduledRenewal != null) {
+			scheduledRenewal.cancel(false);
+			scheduledRenewal = null;
+		}
+	}
+
+	synchronized boolean isClosed() {
+		return closed;
+	}
+
+}
@@ -66,6 +66,31 @@ public class ConnectionModel {
 		}
 	}
 	
+	/**
+	 * Returns the issue date of the application certificate contained in the keystore 
+	 * 
+	 * @return {@link Date} NotBefore date of the certificate or null if no alias is found
+	 * @throws ApplicationConnectorException if anything fails 
+	 */
+	public Date getCertificateIssueDate() {
+		try {
+			Enumeration<String> aliases = sslKey.aliases();
+			
+			if (aliases.hasMoreElements()) {
+				String alias = aliases.nextElement();
+				X509Certificate cert = (X509Certificate) sslKey.getCertificate(alias);
+				
+				return cert.getNotBefore();
+			} else {
+				return null;
+			}
+			
+			
+		} catch (KeyStoreException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+	
 	/**
 	 * Returns the fingerprint date of the application certificate contained in the keystore 
 	 * 
@@ -0,0 +1,159 @@
+package io.kyma.project.connector.connection.model;
+
+import java.net.URI;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * Immutable, thread safe copy of a {@link ConnectionModel} that is bound to the 
+ * {@link ConnectorTransport} of its client certificate. Certificate fingerprint and expiry 
+ * date are computed once at creation, hence using a snapshot requires neither
+ * key store access nor hashing per call.
+ * 
+ * Snapshots are created via 
+ * {@link io.kyma.project.connector.transport.ConnectorTransportFactory#createSnapshot(ConnectionModel)}
+ * 
+ * @see ConnectionModel
+ */
+@Getter
+@ToString(of = { "applicationName", "certificateFingerprint" })
+public final class ConnectionSnapshot {
+	
+	private final String applicationName;
+	private final URI metadataUrl;
+	private final URI renewCertUrl;
+	private final URI revocationCertUrl;
+	private final URI infoUrl;
+	private final URI eventsInfoUrl;
+	private final URI eventsURL;
+	
+	private final String certificateSubject;
+	private final String certificateAlgorithm;
+	
+	private final KeyStore sslKey;
+	private final char[] keystorePass;
+	
+	private final String certificateFingerprint;
+	private final long certificateExpirationTime;
+	private final long certificateIssueTime;
+	
+	private final ConnectorTransport transport;
+	
+	
+	/**
+	 * Creates a snapshot of the given model
+	 * 
+	 * @param connectionModel model to be copied
+	 * @param certificateFingerprint fingerprint of the certificate contained in the key store
+	 * @param transport 2-way-ssl enabled {@link ConnectorTransport} for the key store
+	 * @throws ApplicationConnectorException if the key store does not contain a certificate
+	 */
+	public ConnectionSnapshot(ConnectionModel connectionModel, String certificateFingerprint, 
+			ConnectorTransport transport) {
+		
+		this.applicationName = connectionModel.getApplicationName();
+		this.metadataUrl = connectionModel.getMetadataUrl();
+		this.renewCertUrl = connectionModel.getRenewCertUrl();
+		this.revocationCertUrl = connectionModel.getRevocationCertUrl();
+		this.infoUrl = connectionModel.getInfoUrl();
+		this.eventsInfoUrl = connectionModel.getEventsInfoUrl();
+		this.eventsURL = connectionModel.getEventsURL();
+		this.certificateSubject = connectionModel.getCertificateSubject();
+		this.certificateAlgorithm = connectionModel.getCertificateAlgorithm();
+		this.sslKey = connectionModel.getSslKey();
+		this.keystorePass = clone(connectionModel.getKeystorePass());
+		this.certificateFingerprint = certificateFingerprint;
+		this.transport = transport;
+		
+		Date expirationDate = connectionModel.getCertificateExpirationDate();
+		if (expirationDate == null) {
+			throw new ApplicationConnectorException("Key Store invalid, could not determine certificate expiry");
+		}
+		this.certificateExpirationTime = expirationDate.getTime();
+		
+		Date issueDate = connectionModel.getCertificateIssueDate();
+		this.certificateIssueTime = issueDate.getTime();
+	}
+	
+	/**
+	 * Returns a copy of the password of the key store
+	 * 
+	 * @return password, modifications do not affect the snapshot
+	 */
+	public char[] getKeystorePass() {
+		return clone(keystorePass);
+	}
+	
+	/**
+	 * Returns the expiry date of the application certificate
+	 * 
+	 * @return {@link Date} NotAfter date of the certificate
+	 */
+	public Date getCertificateExpirationDate() {
+		return new Date(certificateExpirationTime);
+	}
+	
+	/**
+	 * Returns the issue date of the application certificate
+	 * 
+	 * @return {@link Date} NotBefore date of the certificate
+	 */
+	public Date getCertificateIssueDate() {
+		return new Date(certificateIssueTime);
+	}
+	
+	/**
+	 * Creates a new, mutable {@link ConnectionModel} with the values of this snapshot
+	 * 
+	 * @return {@link ConnectionModel} holding the same connection details
+	 */
+	public ConnectionModel toConnectionModel() {
+		ConnectionModel result = new ConnectionModel();
+		result.setApplicationName(applicationName);
+		result.setMetadataUrl(metadataUrl);
+		result.setRenewCertUrl(renewCertUrl);
+		result.setRevocationCertUrl(revocationCertUrl);
+		result.setInfoUrl(infoUrl);
+		result.setEventsInfoUrl(eventsInfoUrl);
+		result.setEventsURL(eventsURL);
+		result.setCertificateSubject(certificateSubject);
+		result.setCertificateAlgorithm(certificateAlgorithm);
+		result.setSslKey(sslKey);
+		result.setKeystorePass(clone(keystorePass));
+		return result;
+	}
+	
+	/**
+	 * Checks whether this snapshot still reflects the given model, i.e. the model has the
+	 * same values and the same {@link KeyStore} instance
+	 * 
+	 * @param connectionModel model to be compared
+	 * @return true if the model was not changed since the snapshot was taken
+	 */
+	public boolean matches(ConnectionModel connectionModel) {
+		return sslKey == connectionModel.getSslKey()
+				&& Arrays.equals(keystorePass, connectionModel.getKeystorePass())
+				&& Objects.equals(applicationName, connectionModel.getApplicationName())
+				&& Objects.equals(metadataUrl, connectionModel.getMetadataUrl())
+				&& Objects.equals(renewCertUrl, connectionModel.getRenewCertUrl())
+				&& Objects.equals(revocationCertUrl, connectionModel.getRevocationCertUrl())
+				&& Objects.equals(infoUrl, connectionModel.getInfoUrl())
+				&& Objects.equals(eventsInfoUrl, connectionModel.getEventsInfoUrl())
+				&& Objects.equals(eventsURL, connectionModel.getEventsURL())
+				&& Objects.equals(certificateSubject, connectionModel.getCertificateSubject())
+				&& Objects.equals(certificateAlgorithm, connectionModel.getCertificateAlgorithm());
+	}
+	
+	private static char[] clone(char[] password) {
+		return password != null ? password.clone() : null;
+	}
+	
+}
@@ -0,0 +1,243 @@
+package io.kyma.project.connector.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Service that publishes events asynchronously. Events are put into a bounded
+ * in-memory queue which is drained by a pool of worker threads, hence the calling
+ * thread is never blocked by the Event Gateway. If the queue is full the configured
+ * {@link OverflowPolicy} is applied. Events without an active subscription are not
+ * queued at all if skipping of unsubscribed events is enabled, neither are duplicates
+ * if deduplication is enabled.
+ * 
+ * @see EventGatewayService
+ * @see EventPublishingProperties
+ */
+@Service
+public class AsyncEventPublisher {
+
+	/**
+	 * Behavior when an event is published while the queue is full
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Block the producer until space is available or the offer timeout elapsed
+		 */
+		BLOCK,
+		/**
+		 * Reject the new event immediately
+		 */
+		REJECT,
+		/**
+		 * Drop the oldest queued event to make room for the new one
+		 */
+		DROP_OLDEST
+	}
+
+	private EventGatewayService gatewayService;
+
+	private ConnectorTransportFactory transportFactory;
+
+	private EventPublishingProperties properties;
+
+	private BlockingDeque<QueuedEvent> queue;
+
+	private ExecutorService workers;
+
+	private volatile boolean stopped;
+
+	/**
+	 * Method used for setter injection
+	 * @param gatewayService the service used to send events
+	 */
+	@Autowired
+	public void setGatewayService(EventGatewayService gatewayService) {
+		this.gatewayService = gatewayService;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param transportFactory the factory used to create connection snapshots
+	 */
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration used for queue and workers
+	 */
+	@Autowired
+	public void setProperties(EventPublishingProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Creates the queue and starts the worker threads
+	 */
+	@PostConstruct
+	public void start() {
+		queue = new LinkedBlockingDeque<QueuedEvent>(properties.getQueueCapacity());
+		workers = Executors.newFixedThreadPool(properties.getQueueWorkers(),
+				new ThreadFactoryBuilder().setNameFormat("async-event-publisher-%d").setDaemon(true).build());
+
+		for (int counter = 0; counter < properties.getQueueWorkers(); counter++) {
+			workers.execute(this::drain);
+		}
+	}
+
+	/**
+	 * Stops the worker threads, events still queued and events published afterwards are
+	 * completed as dropped
+	 */
+	@PreDestroy
+	public void stop() {
+		stopped = true;
+		workers.shutdownNow();
+
+		List<QueuedEvent> remaining = new ArrayList<QueuedEvent>();
+		queue.drainTo(remaining);
+		remaining.forEach((e) -> e.getResult().complete(EventPublishResult.dropped(e.getEvent(),
+				new ApplicationConnectorException("Publisher has been stopped"))));
+	}
+
+	/**
+	 * Number of events currently waiting to be sent
+	 * 
+	 * @return size of the queue
+	 */
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * Enqueues an event for publishing to the connection specified in the ConnectionModel.
+	 * 
+	 * @param connectionModel The connection to be used for event forwarding
+	 * @param event the event to be published
+	 * @return {@link CompletableFuture} that is completed once the event was sent, failed or
+	 * was dropped because of the {@link OverflowPolicy}
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 * @see #publish(ConnectionSnapshot, EventModel)
+	 */
+	public CompletableFuture<EventPublishResult> publish(ConnectionModel connectionModel, EventModel event) {
+		return publish(transportFactory.createSnapshot(connectionModel), event);
+	}
+
+	/**
+	 * Enqueues an event for publishing to the connection specified in the ConnectionSnapshot.
+	 * 
+	 * @param connection The connection to be used for event forwarding
+	 * @param event the event to be published
+	 * @return {@link CompletableFuture} that is completed once the event was sent, failed or
+	 * was dropped because of the {@link OverflowPolicy} or because the publisher was stopped
+	 */
+	public CompletableFuture<EventPublishResult> publish(ConnectionSnapshot connection, EventModel event) {
+
+		if (!gatewayService.isSubscribed(connection, event)) {
+			return CompletableFuture.completedFuture(EventPublishResult.skipped(event));
+		}
+
+		return gatewayService.deduplicate(connection, event, () -> enqueue(connection, event));
+	}
+
+	private CompletableFuture<EventPublishResult> enqueue(ConnectionSnapshot connection, EventModel event) {
+		QueuedEvent queuedEvent = new QueuedEvent(connection, event, new CompletableFuture<EventPublishResult>());
+
+		if (stopped) {
+			reject(queuedEvent, "Publisher has been stopped");
+			return queuedEvent.getResult();
+		}
+
+		switch (properties.getOverflowPolicy()) {
+		case BLOCK:
+			try {
+				if (!queue.offerLast(queuedEvent, properties.getOfferTimeoutMs(), TimeUnit.MILLISECONDS)) {
+					reject(queuedEvent, "Event queue is full, timed out after %d ms", properties.getOfferTimeoutMs());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				reject(queuedEvent, "Interrupted while waiting for space in the event queue");
+			}
+			break;
+		case REJECT:
+			if (!queue.offerLast(queuedEvent)) {
+				reject(queuedEvent, "Event queue is full");
+			}
+			break;
+		case DROP_OLDEST:
+			while (!queue.offerLast(queuedEvent)) {
+				QueuedEvent oldest = queue.pollFirst();
+				if (oldest != null) {
+					reject(oldest, "Event dropped from full queue in favour of a newer event");
+				}
+			}
+			break;
+		}
+
+		// stopped concurrently after the queue was drained, nobody takes the event anymore
+		if (stopped && queue.removeIf((queued) -> queued == queuedEvent)) {
+			reject(queuedEvent, "Publisher has been stopped");
+		}
+
+		return queuedEvent.getResult();
+	}
+
+	private void reject(QueuedEvent queuedEvent, String message, Object... args) {
+		queuedEvent.getResult().complete(EventPublishResult.dropped(queuedEvent.getEvent(),
+				new ApplicationConnectorException(String.format(message, args))));
+	}
+
+	private void drain() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				QueuedEvent queuedEvent = queue.takeFirst();
+				try {
+					queuedEvent.getResult().complete(gatewayService.publish(queuedEvent.getConnection(),
+							queuedEvent.getEvent(), null));
+				} catch (RuntimeException e) {
+					queuedEvent.getResult().complete(EventPublishResult.failed(queuedEvent.getEvent(),
+							new ApplicationConnectorException(e.getMessage(), e)));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Data
+	@AllArgsConstructor
+	private static class QueuedEvent {
+
+		private ConnectionSnapshot connection;
+		private EventModel event;
+		private CompletableFuture<EventPublishResult> result;
+
+	}
+
+}
@@ -0,0 +1,163 @@
+package io.kyma.project.connector.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Collects events for one connection and publishes them as a batch as soon as
+ * one of the following limits is reached:
+ * * maximum number of events
+ * * maximum number of serialized bytes
+ * * linger time of the oldest event in the batch
+ * 
+ * Events of a batch are sent concurrently, the outcome is reported per event.
+ * Events without an active subscription are skipped before they are serialized if 
+ * skipping of unsubscribed events is enabled, so are duplicates if deduplication is enabled.
+ * Instances are thread safe and are created via 
+ * {@link EventGatewayService#createBatchAccumulator(ConnectionSnapshot)} or
+ * {@link EventGatewayService#createBatchAccumulator(ConnectionModel)}.
+ * 
+ * @see EventGatewayService
+ * @see EventPublishResult
+ */
+public class EventBatchAccumulator implements AutoCloseable {
+
+	private final EventGatewayService gatewayService;
+	private final ConnectionSnapshot connection;
+	private final ScheduledExecutorService scheduler;
+
+	private final int maxSize;
+	private final long maxBytes;
+	private final long lingerMs;
+
+	private List<PendingEvent> pending = new ArrayList<PendingEvent>();
+	private long pendingBytes;
+	private ScheduledFuture<?> lingerTimer;
+	private boolean closed;
+
+	EventBatchAccumulator(EventGatewayService gatewayService, ConnectionSnapshot connection,
+			ScheduledExecutorService scheduler, int maxSize, long maxBytes, long lingerMs) {
+		this.gatewayService = gatewayService;
+		this.connection = connection;
+		this.scheduler = scheduler;
+		this.maxSize = maxSize;
+		this.maxBytes = maxBytes;
+		this.lingerMs = lingerMs;
+	}
+
+	/**
+	 * Adds an event to the current batch.
+	 * 
+	 * @param event the event to be published
+	 * @return {@link CompletableFuture} that is completed once the event was sent or failed
+	 * @throws ApplicationConnectorException if the accumulator is closed or the event cannot be serialized
+	 */
+	public CompletableFuture<EventPublishResult> append(EventModel event) {
+
+		if (!gatewayService.isSubscribed(connection, event)) {
+			return CompletableFuture.completedFuture(EventPublishResult.skipped(event));
+		}
+
+		return gatewayService.deduplicate(connection, event, () -> add(event));
+	}
+
+	private CompletableFuture<EventPublishResult> add(EventModel event) {
+		PendingEvent pendingEvent = new PendingEvent(event, gatewayService.encode(event),
+				new CompletableFuture<EventPublishResult>());
+
+		List<List<PendingEvent>> batches = new ArrayList<List<PendingEvent>>(2);
+
+		synchronized (this) {
+			if (closed) {
+				throw new ApplicationConnectorException("Event batch accumulator is already closed");
+			}
+
+			// flush first if the new event would exceed the byte limit of the current batch
+			if (!pending.isEmpty() && pendingBytes + pendingEvent.getPayload().length > maxBytes) {
+				batches.add(drain());
+			}
+
+			pending.add(pendingEvent);
+			pendingBytes += pendingEvent.getPayload().length;
+
+			if (pending.size() >= maxSize || pendingBytes >= maxBytes) {
+				batches.add(drain());
+			} else if (lingerTimer == null) {
+				lingerTimer = scheduler.schedule(this::flush, lingerMs, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		batches.forEach(this::send);
+
+		return pendingEvent.getResult();
+	}
+
+	/**
+	 * Sends all events collected so far, regardless of the configured limits.
+	 */
+	public void flush() {
+		List<PendingEvent> batch;
+		synchronized (this) {
+			batch = drain();
+		}
+		send(batch);
+	}
+
+	/**
+	 * Flushes all collected events and rejects further events.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			closed = true;
+		}
+		flush();
+	}
+
+	private List<PendingEvent> drain() {
+		List<PendingEvent> batch = pending;
+		pending = new ArrayList<PendingEvent>();
+		pendingBytes = 0;
+		if (lingerTimer != null) {
+			lingerTimer.cancel(false);
+			lingerTimer = null;
+		}
+		return batch;
+	}
+
+	private void send(List<PendingEvent> batch) {
+		for (PendingEvent pendingEvent : batch) {
+			EventModel event = pendingEvent.getEvent();
+			CompletableFuture<EventPublishResult> result = pendingEvent.getResult();
+			try {
+				gatewayService.publishAsync(connection, event, pendingEvent.getPayload())
+						.whenComplete((published, error) -> result.complete(
+								error == null ? published : EventPublishResult.failed(event, error)));
+			} catch (RuntimeException e) {
+				// the remaining events of the batch are sent nevertheless
+				result.complete(EventPublishResult.failed(event, e));
+			}
+		}
+	}
+
+	@Data
+	@AllArgsConstructor
+	private static class PendingEvent {
+
+		private EventModel event;
+		private byte[] payload;
+		private CompletableFuture<EventPublishResult> result;
+
+	}
+
+}
@@ -0,0 +1,279 @@
+package io.kyma.project.connector.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+
+/**
+ * Detects copies of events that were delivered to the same application within a sliding
+ * window. Events are identified by their idempotency key or, if none is given, by a hash
+ * of type, version, time and data, hence duplicates are detected without serializing them.
+ * Only data values other than maps, collections and scalars are converted as they would be
+ * serialized, so they are compared by their JSON representation.
+ *
+ * Delivered events are remembered in time-partitioned Bloom filters: the window is divided
+ * into partitions, new events are added to the current one and the oldest is discarded as
+ * a whole once it expires. Memory is bounded by the expected number of events, at the
+ * price of the configured false positive rate. If more events than expected are delivered,
+ * partitions are rotated as soon as they are full, which keeps the false positive rate but
+ * shortens the window. Events in flight are tracked exactly, a copy sent concurrently is a
+ * duplicate as well unless the original is in flight for longer than the configured timeout.
+ * Failed events are not remembered, so they can be published again.
+ *
+ * @see EventGatewayService
+ * @see EventPublishingProperties
+ */
+@Component
+public class EventDeduplicator {
+
+	private final Deque<BloomFilter<byte[]>> partitions = new ArrayDeque<BloomFilter<byte[]>>();
+
+	// registration time per key, in the order of registration
+	private final Map<HashCode, Long> inFlight = new LinkedHashMap<HashCode, Long>();
+
+	private final AtomicLong duplicates = new AtomicLong();
+
+	private EventPublishingProperties properties;
+
+	private ConnectorMetrics metrics;
+
+	private ObjectMapper objectMapper;
+
+	private long partitionMs;
+
+	private long partitionCapacity;
+
+	// events added to the current partition, approximateElementCount() of small filters is too inexact
+	private long partitionSize;
+
+	private long partitionStart;
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration of the deduplication window
+	 */
+	@Autowired
+	public void setProperties(EventPublishingProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param metrics the metrics counting dropped duplicates
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param objectMapper the mapper used to convert event data that is neither a map, a
+	 * collection nor a scalar
+	 */
+	@Autowired
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Creates the partitions of the window if deduplication is enabled
+	 */
+	@PostConstruct
+	public void start() {
+		if (!isEnabled()) {
+			return;
+		}
+		partitionMs = Math.max(1,
+				properties.getDeduplicationWindowMs() / Math.max(1, properties.getDeduplicationPartitions()));
+		partitionCapacity = Math.max(1,
+				properties.getDeduplicationExpectedEvents() / Math.max(1, properties.getDeduplicationPartitions()));
+		reset(System.currentTimeMillis());
+		metrics.counter("kyma.connector.events.duplicates", "Events dropped as duplicates", duplicates,
+				AtomicLong::doubleValue);
+	}
+
+	/**
+	 * Checks whether deduplication is enabled
+	 *
+	 * @return true if duplicates are dropped
+	 */
+	public boolean isEnabled() {
+		return properties.isDeduplicationEnabled();
+	}
+
+	/**
+	 * Returns the number of events detected as duplicates
+	 *
+	 * @return number of duplicates
+	 */
+	public long getDuplicateCount() {
+		return duplicates.get();
+	}
+
+	/**
+	 * Registers an event that is about to be sent. Every registered key has to be passed to
+	 * {@link #release(HashCode, boolean)} once the event was sent or failed.
+	 *
+	 * @param connection the connection the event is sent to, duplicates are detected per
+	 * application
+	 * @param event the event to be sent
+	 * @return key of the event or null if the event is a duplicate
+	 */
+	public HashCode register(ConnectionSnapshot connection, EventModel event) {
+		HashCode key = createKey(connection, event);
+		byte[] bytes = key.asBytes();
+
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			rotate(now);
+			expireInFlight(now);
+			if (!inFlight.containsKey(key) && partitions.stream().noneMatch((p) -> p.mightContain(bytes))) {
+				inFlight.put(key, now);
+				return key;
+			}
+		}
+		duplicates.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Releases an event registered via {@link #register(ConnectionSnapshot, EventModel)}
+	 *
+	 * @param key key of the event
+	 * @param delivered true if the event was accepted by the Event Gateway, it is remembered
+	 * for the window then
+	 */
+	public synchronized void release(HashCode key, boolean delivered) {
+		inFlight.remove(key);
+		if (delivered) {
+			rotate(System.currentTimeMillis());
+			partitions.getLast().put(key.asBytes());
+			partitionSize++;
+		}
+	}
+
+	private void expireInFlight(long now) {
+		long registeredBefore = now - properties.getDeduplicationInFlightTimeoutMs();
+		Iterator<Long> registrations = inFlight.values().iterator();
+		while (registrations.hasNext() && registrations.next() < registeredBefore) {
+			registrations.remove();
+		}
+	}
+
+	private void rotate(long now) {
+		if (now - partitionStart >= partitionMs * partitions.size()) {
+			// idle for longer than the window, all partitions expired
+			reset(now);
+			return;
+		}
+		while (now - partitionStart >= partitionMs) {
+			partitions.removeFirst();
+			partitions.addLast(createPartition());
+			partitionStart += partitionMs;
+		}
+		if (partitionSize >= partitionCapacity) {
+			// more events than expected, a full partition would exceed the false positive rate
+			partitions.removeFirst();
+			partitions.addLast(createPartition());
+			partitionStart = now;
+		}
+	}
+
+	private void reset(long now) {
+		partitions.clear();
+		// one more partition than configured, so events are remembered for at least the window
+		for (int counter = 0; counter <= Math.max(1, properties.getDeduplicationPartitions()); counter++) {
+			partitions.addLast(createPartition());
+		}
+		partitionStart = now;
+	}
+
+	private BloomFilter<byte[]> createPartition() {
+		partitionSize = 0;
+		int count = Math.max(1, properties.getDeduplicationPartitions());
+		return BloomFilter.create(Funnels.byteArrayFunnel(), partitionCapacity,
+				properties.getDeduplicationFalsePositiveRate() / (count + 1));
+	}
+
+	private HashCode createKey(ConnectionSnapshot connection, EventModel event) {
+		Hasher hasher = Hashing.murmur3_128().newHasher();
+		putValue(hasher, String.valueOf(connection.getEventsURL()));
+
+		if (event.getIdempotencyKey() != null) {
+			hasher.putByte((byte) 'k');
+			putValue(hasher, event.getIdempotencyKey());
+			return hasher.hash();
+		}
+
+		hasher.putByte((byte) 'c');
+		putValue(hasher, event.getEventType());
+		putValue(hasher, event.getEventTypeVersion());
+		putValue(hasher, event.getEventTime());
+		putValue(hasher, event.getData());
+		return hasher.hash();
+	}
+
+	private void putValue(Hasher hasher, Object value) {
+		if (value == null) {
+			hasher.putByte((byte) 0);
+		} else if (value instanceof Map) {
+			// maps with the same entries have the same key regardless of their order
+			Map<?, ?> map = (Map<?, ?>) value;
+			Object[] keys = map.keySet().toArray();
+			Arrays.sort(keys, (a, b) -> String.valueOf(a).compareTo(String.valueOf(b)));
+			hasher.putByte((byte) 'm').putInt(keys.length);
+			for (Object key : keys) {
+				putValue(hasher, String.valueOf(key));
+				putValue(hasher, map.get(key));
+			}
+		} else if (value instanceof Iterable) {
+			hasher.putByte((byte) 'l');
+			for (Object element : (Iterable<?>) value) {
+				putValue(hasher, element);
+			}
+			hasher.putByte((byte) 'e');
+		} else if (value instanceof Object[]) {
+			putValue(hasher, Arrays.asList((Object[]) value));
+		} else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character) {
+			// scalars are compared by their JSON representation, e.g. 1 and 1L are equal
+			String text = value.toString();
+			hasher.putByte((byte) (value instanceof CharSequence || value instanceof Character ? 's' : 'v'))
+					.putInt(text.length()).putString(text, StandardCharsets.UTF_8);
+		} else {
+			// other objects are converted to the maps, lists and scalars they are serialized to
+			putValue(hasher, toJsonValue(value));
+		}
+	}
+
+	private Object toJsonValue(Object value) {
+		try {
+			return objectMapper.convertValue(value, Object.class);
+		} catch (IllegalArgumentException e) {
+			throw new ApplicationConnectorException("Event data cannot be serialized: " + e.getMessage(), e);
+		}
+	}
+
+}
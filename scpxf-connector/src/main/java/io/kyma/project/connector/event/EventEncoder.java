@@ -0,0 +1,110 @@
+package io.kyma.project.connector.event;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+
+/**
+ * Serializes {@link EventModel} objects to the JSON payload expected by the Kyma /
+ * Extension Factory Event Gateway.
+ *
+ * Compared to a generic {@link ObjectMapper} call the encoder avoids per event overhead:
+ * * the envelope is written directly with pre-encoded field names
+ * * data is written with an {@link ObjectWriter} that is resolved once
+ * * output is collected in a buffer that is reused per thread
+ *
+ * Instances are thread safe.
+ *
+ * @see EventGatewayService
+ */
+@Component
+public class EventEncoder {
+
+	private static final SerializableString EVENT_TYPE = new SerializedString("event-type");
+	private static final SerializableString EVENT_TYPE_VERSION = new SerializedString("event-type-version");
+	private static final SerializableString EVENT_TIME = new SerializedString("event-time");
+	private static final SerializableString DATA = new SerializedString("data");
+
+	private static final DateTimeFormatter EVENT_TIME_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME
+			.withZone(ZoneOffset.UTC);
+
+	private static final ThreadLocal<ByteArrayBuilder> BUFFERS = ThreadLocal
+			.withInitial(() -> new ByteArrayBuilder(1024));
+
+	private JsonFactory jsonFactory;
+
+	private ObjectWriter dataWriter;
+
+	/**
+	 * Method used for setter injection
+	 * @param objectMapper the mapper whose configuration is used to serialize event data
+	 */
+	@Autowired
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.jsonFactory = objectMapper.getFactory();
+		this.dataWriter = objectMapper.writerFor(Map.class);
+	}
+
+	/**
+	 * Formats a point in time as expected for the event-time of an {@link EventModel}
+	 * (RFC 3339, UTC)
+	 *
+	 * @param eventTime the point in time to be formatted
+	 * @return formatted event time
+	 */
+	public static String formatEventTime(Instant eventTime) {
+		return EVENT_TIME_FORMATTER.format(eventTime);
+	}
+
+	/**
+	 * Serializes the given event
+	 *
+	 * @param event the event to be serialized
+	 * @return UTF-8 encoded JSON
+	 * @throws ApplicationConnectorException if the event data cannot be serialized
+	 */
+	public byte[] encode(EventModel event) {
+
+		ByteArrayBuilder buffer = BUFFERS.get();
+		buffer.reset();
+
+		try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+			generator.writeStartObject();
+			generator.writeFieldName(EVENT_TYPE);
+			generator.writeString(event.getEventType());
+			generator.writeFieldName(EVENT_TYPE_VERSION);
+			generator.writeString(event.getEventTypeVersion());
+			generator.writeFieldName(EVENT_TIME);
+			generator.writeString(event.getEventTime());
+			generator.writeFieldName(DATA);
+			if (event.getData() == null) {
+				generator.writeNull();
+			} else {
+				dataWriter.writeValue(generator, event.getData());
+			}
+			generator.writeEndObject();
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+
+		byte[] result = buffer.toByteArray();
+		buffer.reset();
+		return result;
+	}
+
+}
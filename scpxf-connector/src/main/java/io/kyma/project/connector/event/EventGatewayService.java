@@ -1,16 +1,33 @@
 package io.kyma.project.connector.event;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+
+import com.google.common.hash.HashCode;
 
 import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.event.outbox.OutboxManager;
 import io.kyma.project.connector.exception.ApplicationConnectorException;
-import io.kyma.project.connector.util.ClientCertRestTemplateBuilder;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.transport.CompressionProperties;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+import io.kyma.project.connector.transport.GzipCompression;
+import io.micrometer.core.instrument.Timer;
 
 /**
 * Service that "pairs" the client with Kyma / Extension Factory. It supports the following steps:
@@ -26,46 +43,337 @@ import io.kyma.project.connector.util.ClientCertRestTemplateBuilder;
 @Service
 public class EventGatewayService {
 	
-	private ClientCertRestTemplateBuilder restTemplateBuilder;
+	private ConnectorTransportFactory transportFactory;
+	
+	private EventEncoder eventEncoder;
+	
+	private ScheduledExecutorService publishingScheduler;
+	
+	private EventPublishingProperties properties;
+	
+	private EventSubscriptionCache subscriptionCache;
+	
+	private CompressionProperties compressionProperties;
+	
+	private ConnectorMetrics metrics;
+	
+	private EventDeduplicator deduplicator;
+	
+	private OutboxManager outboxManager;
 
 	
 	/**
  	* Method used for setter injection
- 	* @param restTemplateBuilder the builder used to acquire RestTemplate
+ 	* @param transportFactory the factory used to acquire the {@link ConnectorTransport}
+ 	*/
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param eventEncoder the encoder used to serialize events
+ 	*/
+	@Autowired
+	public void setEventEncoder(EventEncoder eventEncoder) {
+		this.eventEncoder = eventEncoder;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param publishingScheduler the scheduler used to flush batches after their linger time
+ 	*/
+	@Autowired
+	@Qualifier("EventPublishingScheduler")
+	public void setPublishingScheduler(ScheduledExecutorService publishingScheduler) {
+		this.publishingScheduler = publishingScheduler;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param properties the configuration used for batching
  	*/
 	@Autowired
-	public void setRestTemplateBuilder(ClientCertRestTemplateBuilder restTemplateBuilder) {
-		this.restTemplateBuilder = restTemplateBuilder;
+	public void setProperties(EventPublishingProperties properties) {
+		this.properties = properties;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param subscriptionCache the cache used to skip events without subscription
+ 	*/
+	@Autowired
+	public void setSubscriptionCache(EventSubscriptionCache subscriptionCache) {
+		this.subscriptionCache = subscriptionCache;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param compressionProperties the configuration used for compressing events
+ 	*/
+	@Autowired
+	public void setCompressionProperties(CompressionProperties compressionProperties) {
+		this.compressionProperties = compressionProperties;
+	}
+	
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param metrics the metrics recording latency and outcome of published events
+ 	*/
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param deduplicator the deduplicator used to drop copies of delivered events
+ 	*/
+	@Autowired
+	public void setDeduplicator(EventDeduplicator deduplicator) {
+		this.deduplicator = deduplicator;
+	}
+	
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param outboxManager the outboxes storing events that could not be delivered
+ 	*/
+	@Autowired
+	public void setOutboxManager(OutboxManager outboxManager) {
+		this.outboxManager = outboxManager;
+	}
+	
+	
+	boolean isSubscribed(ConnectionSnapshot connection, EventModel event) {
+		return !properties.isSkipUnsubscribed() || subscriptionCache.isEventActive(connection, event);
+	}
+	
+	CompletableFuture<EventPublishResult> deduplicate(ConnectionSnapshot connection, EventModel event,
+			Supplier<CompletableFuture<EventPublishResult>> publisher) {
+		
+		if (!deduplicator.isEnabled()) {
+			return publisher.get();
+		}
+		
+		HashCode key = deduplicator.register(connection, event);
+		if (key == null) {
+			return CompletableFuture.completedFuture(EventPublishResult.duplicate(event));
+		}
+		
+		try {
+			return publisher.get().whenComplete((result, error) -> deduplicator.release(key, 
+					result != null && result.getOutcome() == EventPublishResult.Outcome.SENT));
+		} catch (RuntimeException e) {
+			deduplicator.release(key, false);
+			throw e;
+		}
+	}
+	
+	byte[] encode(EventModel event) {
+		return eventEncoder.encode(event);
+	}
+	
+	private RequestEntity<byte[]> createRequest(ConnectionSnapshot connection, byte[] payload) {
+		
+		RequestEntity.BodyBuilder request = RequestEntity.post(connection.getEventsURL())
+				.contentType(MediaType.APPLICATION_JSON_UTF8);
+		
+		if (compressionProperties.isCompressEvents(payload.length)) {
+			return request.header(HttpHeaders.CONTENT_ENCODING, GzipCompression.GZIP)
+					.body(GzipCompression.compress(payload));
+		}
+		
+		return request.body(payload);
+	}
+	
+	private void checkResponse(ResponseEntity<String> response) {
+		metrics.recordResponseBytes(ConnectorMetrics.EVENT_PUBLISH, getContentLength(response));
+		
+		if (!response.getStatusCode().is2xxSuccessful()) {
+			throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
+					response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
+		}
+	}
+	
+	private long getContentLength(ResponseEntity<String> response) {
+		long contentLength = response.getHeaders().getContentLength();
+		if (contentLength < 0 && response.getBody() != null) {
+			// chunked response, the decoded length is a sufficient approximation
+			return response.getBody().length();
+		}
+		return contentLength;
+	}
+	
+	private void recordEvent(Timer.Sample sample, EventModel event, RequestEntity<byte[]> request, 
+			String outcome) {
+		metrics.recordRequestBytes(ConnectorMetrics.EVENT_PUBLISH, request.getBody().length);
+		metrics.recordEvent(sample, event.getEventType(), event.getEventTypeVersion(), outcome);
+	}
+	
+	private void postEvent(ConnectionSnapshot connection, EventModel event, byte[] payload) {
+		Timer.Sample sample = metrics.start();
+		RequestEntity<byte[]> request = createRequest(connection, payload);
+		String outcome = ConnectorMetrics.FAILURE;
+		try {
+			checkResponse(connection.getTransport().exchange(request, String.class));
+			outcome = ConnectorMetrics.SUCCESS;
+		} catch (RestClientException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		} finally {
+			recordEvent(sample, event, request, outcome);
+		}
+	}
+	
+	EventPublishResult publish(ConnectionSnapshot connection, EventModel event, byte[] payload) {
+		try {
+			postEvent(connection, event, payload != null ? payload : encode(event));
+			return EventPublishResult.sent(event);
+		} catch (ApplicationConnectorException e) {
+			return EventPublishResult.failed(event, e);
+		}
 	}
 	
+	CompletableFuture<EventPublishResult> publishAsync(ConnectionSnapshot connection, EventModel event, 
+			byte[] payload) {
+		
+		Timer.Sample sample = metrics.start();
+		RequestEntity<byte[]> request;
+		try {
+			request = createRequest(connection, payload != null ? payload : encode(event));
+		} catch (ApplicationConnectorException e) {
+			return CompletableFuture.completedFuture(EventPublishResult.failed(event, e));
+		}
+		
+		return connection.getTransport().exchangeAsync(request, String.class).handle((response, error) -> {
+			String outcome = ConnectorMetrics.FAILURE;
+			try {
+				if (error != null) {
+					RestClientException cause = ConnectorTransport.unwrap(error);
+					throw new ApplicationConnectorException(cause.getMessage(), cause);
+				}
+				checkResponse(response);
+				outcome = ConnectorMetrics.SUCCESS;
+				return EventPublishResult.sent(event);
+			} catch (ApplicationConnectorException e) {
+				return EventPublishResult.failed(event, e);
+			} finally {
+				recordEvent(sample, event, request, outcome);
+			}
+		});
+	}
 	
 	
 	/**
 	 * Publishes a given event to the connection specified in the ConnectionModel.
+	 * If skipping of unsubscribed events is enabled, events without an active 
+	 * subscription are silently ignored, so are duplicates if deduplication is enabled.
 	 * @param connectionModel The connection to be used for event forwarding
 	 * @param event the event to be published
 	 * @throws ApplicationConnectorException if connection fails
 	 */
 	public void writeEvent(ConnectionModel connectionModel, EventModel event) {
-		
-		RestTemplate restTemplate = 
-				restTemplateBuilder.applicationConnectorRestTemplate(
-						connectionModel.getSslKey(), 
-						connectionModel.getKeystorePass());
+		writeEvent(transportFactory.createSnapshot(connectionModel), event);
+	}
 	
-
+	/**
+	 * Publishes a given event to the connection specified in the ConnectionSnapshot.
+	 * If skipping of unsubscribed events is enabled, events without an active 
+	 * subscription are silently ignored, so are duplicates if deduplication is enabled.
+	 * If the outbox is enabled, an event that cannot be delivered is stored in the outbox
+	 * of its application and replayed in the background.
+	 * @param connection The connection to be used for event forwarding
+	 * @param event the event to be published
+	 * @throws ApplicationConnectorException if connection fails and the event is not stored
+	 */
+	public void writeEvent(ConnectionSnapshot connection, EventModel event) {
+		
+		if (!isSubscribed(connection, event)) {
+			return;
+		}
+		
 		try {
-			ResponseEntity<String> response = restTemplate.exchange(connectionModel.getEventsURL(), HttpMethod.POST,
-					new HttpEntity<EventModel>(event), String.class);
-
-			if (!response.getStatusCode().is2xxSuccessful()) {
-				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
-						response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
+			deduplicate(connection, event, () -> {
+				postEvent(connection, event, encode(event));
+				return CompletableFuture.completedFuture(EventPublishResult.sent(event));
+			});
+		} catch (ApplicationConnectorException e) {
+			// only events that reached the transport are stored, others would fail again
+			if (!outboxManager.isEnabled() || !(e.getCause() instanceof RestClientException)) {
+				throw e;
 			}
-		} catch (RestClientException e) {
-			throw new ApplicationConnectorException(e.getMessage(), e);
+			outboxManager.store(connection, event);
 		}
 		
 	}
 	
+	/**
+	 * Publishes a batch of events to the connection specified in the ConnectionModel. 
+	 * @param connectionModel The connection to be used for event forwarding
+	 * @param events the events to be published
+	 * @return one {@link EventPublishResult} per event in the order of the given events
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 * @see #writeEvents(ConnectionSnapshot, List)
+	 */
+	public List<EventPublishResult> writeEvents(ConnectionModel connectionModel, List<EventModel> events) {
+		return writeEvents(transportFactory.createSnapshot(connectionModel), events);
+	}
+	
+	/**
+	 * Publishes a batch of events to the connection specified in the ConnectionSnapshot. 
+	 * The events are sent concurrently over the same connection, a failure of one event 
+	 * does not affect the others. Events without an active subscription are reported as
+	 * skipped if skipping of unsubscribed events is enabled, copies of delivered events as
+	 * duplicates if deduplication is enabled.
+	 * @param connection The connection to be used for event forwarding
+	 * @param events the events to be published
+	 * @return one {@link EventPublishResult} per event in the order of the given events
+	 */
+	public List<EventPublishResult> writeEvents(ConnectionSnapshot connection, List<EventModel> events) {
+		
+		List<CompletableFuture<EventPublishResult>> results = events.stream()
+				.map((e) -> publishBatched(connection, e))
+				.collect(Collectors.toList());
+		
+		return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+	}
+	
+	private CompletableFuture<EventPublishResult> publishBatched(ConnectionSnapshot connection, EventModel event) {
+		try {
+			CompletableFuture<EventPublishResult> result = isSubscribed(connection, event) 
+					? deduplicate(connection, event, () -> publishAsync(connection, event, null))
+					: CompletableFuture.completedFuture(EventPublishResult.skipped(event));
+			// failures are reported per event rather than as CompletionException of the batch
+			return result.handle((published, error) -> 
+					error == null ? published : EventPublishResult.failed(event, error));
+		} catch (RuntimeException e) {
+			return CompletableFuture.completedFuture(EventPublishResult.failed(event, e));
+		}
+	}
+	
+	/**
+	 * Creates an {@link EventBatchAccumulator} for the connection specified in the ConnectionModel.
+	 * @param connectionModel The connection to be used for event forwarding
+	 * @return {@link EventBatchAccumulator} bound to the connection
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 * @see #createBatchAccumulator(ConnectionSnapshot)
+	 */
+	public EventBatchAccumulator createBatchAccumulator(ConnectionModel connectionModel) {
+		return createBatchAccumulator(transportFactory.createSnapshot(connectionModel));
+	}
+	
+	/**
+	 * Creates an {@link EventBatchAccumulator} that collects events for the given connection
+	 * and flushes them as soon as the configured batch size, byte size or linger time is reached.
+	 * @param connection The connection to be used for event forwarding
+	 * @return {@link EventBatchAccumulator} bound to the connection
+	 */
+	public EventBatchAccumulator createBatchAccumulator(ConnectionSnapshot connection) {
+		return new EventBatchAccumulator(this, connection, publishingScheduler, properties.getBatchMaxSize(), 
+				properties.getBatchMaxBytes(), properties.getBatchLingerMs());
+	}
+	
 }
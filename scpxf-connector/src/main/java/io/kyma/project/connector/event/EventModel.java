@@ -2,10 +2,12 @@ package io.kyma.project.connector.event;
 
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Model Object that holds all information needed to publish an event to
@@ -14,10 +16,13 @@ import lombok.Data;
  * Data is supposed to be JSON and captured in a Map<String, Object> object
  * called data.
  * 
+ * The optional idempotency key identifies copies of the same business event, it is
+ * used for deduplication only and is not sent to the Event Gateway.
  * 
  * @author Andreas Krause
  */
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class EventModel {
 
@@ -32,4 +37,12 @@ public class EventModel {
 
 	private Map<String, Object> data;
 
+	@JsonProperty("idempotency-key")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String idempotencyKey;
+
+	public EventModel(String eventType, String eventTypeVersion, String eventTime, Map<String, Object> data) {
+		this(eventType, eventTypeVersion, eventTime, data, null);
+	}
+
 }
@@ -0,0 +1,69 @@
+package io.kyma.project.connector.event;
+
+import java.util.concurrent.CompletionException;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Model Object that holds the outcome of publishing a single event to
+ * Kyma/Extension Factory.
+ *
+ * @see EventGatewayService
+ */
+@Data
+@AllArgsConstructor
+public class EventPublishResult {
+
+	/**
+	 * Possible outcomes of publishing an event
+	 */
+	public enum Outcome {
+		SENT, SKIPPED, DUPLICATE, FAILED, DROPPED
+	}
+
+	private EventModel event;
+	private Outcome outcome;
+	private ApplicationConnectorException error;
+
+	/**
+	 * Method that checks whether the event was handled without error, i.e. it was either
+	 * accepted by the Event Gateway or intentionally not sent as nobody subscribed to it or
+	 * it was delivered already
+	 *
+	 * @return true if the event was sent, skipped or a duplicate
+	 */
+	public boolean isSuccessful() {
+		return outcome == Outcome.SENT || outcome == Outcome.SKIPPED || outcome == Outcome.DUPLICATE;
+	}
+
+	static EventPublishResult sent(EventModel event) {
+		return new EventPublishResult(event, Outcome.SENT, null);
+	}
+
+	static EventPublishResult skipped(EventModel event) {
+		return new EventPublishResult(event, Outcome.SKIPPED, null);
+	}
+
+	static EventPublishResult duplicate(EventModel event) {
+		return new EventPublishResult(event, Outcome.DUPLICATE, null);
+	}
+
+	static EventPublishResult dropped(EventModel event, ApplicationConnectorException reason) {
+		return new EventPublishResult(event, Outcome.DROPPED, reason);
+	}
+
+	static EventPublishResult failed(EventModel event, ApplicationConnectorException error) {
+		return new EventPublishResult(event, Outcome.FAILED, error);
+	}
+
+	static EventPublishResult failed(EventModel event, Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause instanceof ApplicationConnectorException) {
+			return failed(event, (ApplicationConnectorException) cause);
+		}
+		return failed(event, new ApplicationConnectorException(String.valueOf(cause.getMessage()), cause));
+	}
+
+}
@@ -0,0 +1,58 @@
+package io.kyma.project.connector.event;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Spring Configurations relevant for publishing events
+ *
+ * @see EventGatewayService
+ * @see EventPublishingProperties
+ */
+@Configuration
+public class EventPublishingConfiguration {
+
+	/**
+	 * Creates the {@link ExecutorService} used to send events concurrently
+	 *
+	 * @param properties {@link EventPublishingProperties} holding the pool size
+	 * @return {@link ExecutorService} with a fixed number of daemon threads
+	 */
+	@Bean(name = "EventPublishingExecutor", destroyMethod = "shutdown")
+	public ExecutorService eventPublishingExecutor(EventPublishingProperties properties) {
+		return Executors.newFixedThreadPool(properties.getPublishThreads(),
+				new ThreadFactoryBuilder().setNameFormat("event-publisher-%d").setDaemon(true).build());
+	}
+
+	/**
+	 * Creates the {@link ExecutorService} used to read event subscriptions, so refreshes
+	 * do not compete with sending events
+	 *
+	 * @param properties {@link EventPublishingProperties} holding the pool size
+	 * @return {@link ExecutorService} with a fixed number of daemon threads
+	 */
+	@Bean(name = "EventSubscriptionRefreshExecutor", destroyMethod = "shutdown")
+	public ExecutorService eventSubscriptionRefreshExecutor(EventPublishingProperties properties) {
+		return Executors.newFixedThreadPool(properties.getSubscriptionRefreshThreads(),
+				new ThreadFactoryBuilder().setNameFormat("event-subscription-refresh-%d").setDaemon(true).build());
+	}
+
+	/**
+	 * Creates the {@link ScheduledExecutorService} used to flush batches after
+	 * their linger time elapsed
+	 *
+	 * @return single threaded {@link ScheduledExecutorService}
+	 */
+	@Bean(name = "EventPublishingScheduler", destroyMethod = "shutdown")
+	public ScheduledExecutorService eventPublishingScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("event-batch-flusher-%d").setDaemon(true).build());
+	}
+
+}
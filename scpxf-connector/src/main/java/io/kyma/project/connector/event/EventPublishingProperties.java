@@ -0,0 +1,161 @@
+package io.kyma.project.connector.event;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for publishing events to the Kyma / Extension Factory
+ * Event Gateway (prefix <code>kyma.connector.events</code>).
+ *
+ * @see EventGatewayService
+ * @see EventBatchAccumulator
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.events")
+public class EventPublishingProperties {
+
+	/**
+	 * Number of threads used to send events of a batch concurrently
+	 */
+	private int publishThreads = 8;
+
+	/**
+	 * Maximum number of events collected before a batch is flushed
+	 */
+	private int batchMaxSize = 100;
+
+	/**
+	 * Maximum number of serialized bytes collected before a batch is flushed
+	 */
+	private long batchMaxBytes = 1024 * 1024;
+
+	/**
+	 * Maximum time in milliseconds an event waits in a batch before it is flushed
+	 */
+	private long batchLingerMs = 50;
+
+	/**
+	 * Maximum number of events waiting in the queue of the {@link AsyncEventPublisher}
+	 */
+	private int queueCapacity = 10000;
+
+	/**
+	 * Number of threads draining the queue of the {@link AsyncEventPublisher}
+	 */
+	private int queueWorkers = 4;
+
+	/**
+	 * Behavior of the {@link AsyncEventPublisher} when the queue is full
+	 */
+	private AsyncEventPublisher.OverflowPolicy overflowPolicy = AsyncEventPublisher.OverflowPolicy.BLOCK;
+
+	/**
+	 * Maximum time in milliseconds a producer is blocked if the overflow policy is BLOCK
+	 */
+	private long offerTimeoutMs = 1000;
+
+	/**
+	 * Skip events without an active subscription instead of sending them
+	 */
+	private boolean skipUnsubscribed = false;
+
+	/**
+	 * Interval in milliseconds in which cached event subscriptions are refreshed
+	 */
+	private long subscriptionRefreshMs = 60000;
+
+	/**
+	 * Maximum random deviation in milliseconds from the refresh interval, avoids that
+	 * many connectors refresh at the same time
+	 */
+	private long subscriptionRefreshJitterMs = 5000;
+
+	/**
+	 * Time in milliseconds after which subscriptions that could not be read are requested 
+	 * again, events are sent regardless of their subscription in the meantime
+	 */
+	private long subscriptionRetryMs = 10000;
+
+	/**
+	 * Number of threads reading event subscriptions
+	 */
+	private int subscriptionRefreshThreads = 2;
+
+	/**
+	 * Drop events whose idempotency key (or content if no key is given) was delivered to the
+	 * same application within the deduplication window
+	 */
+	private boolean deduplicationEnabled = false;
+
+	/**
+	 * Time in milliseconds a delivered event is remembered for deduplication
+	 */
+	private long deduplicationWindowMs = 600000;
+
+	/**
+	 * Number of partitions the deduplication window is divided into, the memory of the
+	 * oldest partition is released at once when it expires
+	 */
+	private int deduplicationPartitions = 10;
+
+	/**
+	 * Expected number of delivered events per deduplication window, the memory used is 
+	 * sized accordingly
+	 */
+	private long deduplicationExpectedEvents = 1000000;
+
+	/**
+	 * Probability that an event is wrongly considered a duplicate (and dropped) if the 
+	 * expected number of events is not exceeded
+	 */
+	private double deduplicationFalsePositiveRate = 0.000001;
+
+	/**
+	 * Time in milliseconds after which an event that is still in flight no longer blocks its
+	 * copies, e.g. because its outcome was never reported
+	 */
+	private long deduplicationInFlightTimeoutMs = 60000;
+
+	/**
+	 * Store events that could not be delivered by 
+	 * {@link EventGatewayService#writeEvent(io.kyma.project.connector.connection.model.ConnectionSnapshot, EventModel)}
+	 * in a durable outbox per application and replay them in the background instead of
+	 * failing
+	 */
+	private boolean outboxEnabled = false;
+
+	/**
+	 * Directory holding the outboxes, one sub directory per application
+	 */
+	private String outboxDirectory = "outbox";
+
+	/**
+	 * Size of a single outbox segment file in bytes, an event must fit into one segment
+	 */
+	private int outboxSegmentSize = 16 * 1024 * 1024;
+
+	/**
+	 * Maximum number of events per second replayed from the outbox of an application
+	 */
+	private double outboxReplayRate = 100;
+
+	/**
+	 * Maximum number of events replayed concurrently
+	 */
+	private int outboxReplayBatchSize = 100;
+
+	/**
+	 * Time in milliseconds to wait after a failed replay or if the outbox is empty
+	 */
+	private long outboxRetryIntervalMs = 5000;
+
+	/**
+	 * Number of failed replays after which an event is moved to the dead letter outbox of 
+	 * its application
+	 */
+	private int outboxMaxAttempts = 10;
+
+}
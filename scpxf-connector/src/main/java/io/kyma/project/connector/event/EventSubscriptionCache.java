@@ -0,0 +1,336 @@
+package io.kyma.project.connector.event;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+
+
+/**
+* Service that caches the active Event Subscriptions per connection and refreshes them
+* in the background, hence checking for a subscription does not require a call to
+* Kyma / Extension Factory. Concurrent refreshes of the same connection are collapsed
+* into a single call.
+* 
+* If a refresh fails, the last known subscriptions are kept. Subscriptions that could not
+* be read are not requested again before the retry interval elapsed, events are considered
+* active in the meantime, so they are sent rather than lost.
+* 
+* @see EventSubscriptionService
+* @see EventSubscriptionListener
+*/
+@Service
+public class EventSubscriptionCache {
+	
+	private static final Logger log = LoggerFactory.getLogger(EventSubscriptionCache.class);
+	
+	private final ConcurrentMap<URI, CachedSubscriptions> cache = 
+			new ConcurrentHashMap<URI, CachedSubscriptions>();
+	
+	private final List<EventSubscriptionListener> listeners = 
+			new CopyOnWriteArrayList<EventSubscriptionListener>();
+	
+	private EventSubscriptionService subscriptionService;
+	
+	private ConnectorTransportFactory transportFactory;
+	
+	private ExecutorService refreshExecutor;
+	
+	private ScheduledExecutorService refreshScheduler;
+	
+	private EventPublishingProperties properties;
+	
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param subscriptionService the service used to read subscriptions
+ 	*/
+	@Autowired
+	public void setSubscriptionService(EventSubscriptionService subscriptionService) {
+		this.subscriptionService = subscriptionService;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param transportFactory the factory used to create connection snapshots
+ 	*/
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param refreshExecutor the executor running the refresh calls
+ 	*/
+	@Autowired
+	@Qualifier("EventSubscriptionRefreshExecutor")
+	public void setRefreshExecutor(ExecutorService refreshExecutor) {
+		this.refreshExecutor = refreshExecutor;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param refreshScheduler the scheduler triggering periodic refreshes
+ 	*/
+	@Autowired
+	@Qualifier("EventPublishingScheduler")
+	public void setRefreshScheduler(ScheduledExecutorService refreshScheduler) {
+		this.refreshScheduler = refreshScheduler;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param properties the configuration holding the refresh interval
+ 	*/
+	@Autowired
+	public void setProperties(EventPublishingProperties properties) {
+		this.properties = properties;
+	}
+	
+	/**
+	 * Registers a listener that is notified when active subscriptions change
+	 * @param listener the listener to be added
+	 */
+	public void addListener(EventSubscriptionListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes a previously registered listener
+	 * @param listener the listener to be removed
+	 */
+	public void removeListener(EventSubscriptionListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Returns the cached subscriptions of a connection. 
+	 * 
+	 * @param connectionModel model containing all details for the current connection
+	 * @return {@link EventSubscriptionModel} with the active subscriptions
+	 * @throws ApplicationConnectorException if the initial read fails
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 * @see #getEventSubscriptions(ConnectionSnapshot)
+	 */
+	public EventSubscriptionModel getEventSubscriptions(ConnectionModel connectionModel) {
+		return getEventSubscriptions(transportFactory.createSnapshot(connectionModel));
+	}
+	
+	/**
+	 * Returns the cached subscriptions of a connection. On first access the subscriptions 
+	 * are read synchronously and a periodic background refresh is scheduled.
+	 * 
+	 * @param connection the current connection
+	 * @return {@link EventSubscriptionModel} with the active subscriptions
+	 * @throws ApplicationConnectorException if the initial read fails or failed within the
+	 * retry interval
+	 */
+	public EventSubscriptionModel getEventSubscriptions(ConnectionSnapshot connection) {
+		
+		CachedSubscriptions cached = cache.computeIfAbsent(connection.getEventsInfoUrl(), 
+				(url) -> new CachedSubscriptions());
+		cached.connection = connection;
+		
+		EventSubscriptionModel current = cached.subscriptions;
+		if (current != null) {
+			return current;
+		}
+		
+		ApplicationConnectorException error = cached.error;
+		if (error != null && System.currentTimeMillis() - cached.errorTime < properties.getSubscriptionRetryMs()) {
+			throw new ApplicationConnectorException("Event subscriptions unavailable: " + error.getMessage(), error);
+		}
+		
+		try {
+			return refresh(connection).join();
+		} catch (CompletionException e) {
+			throw toApplicationConnectorException(e);
+		}
+	}
+	
+	/**
+	 * Method that checks whether an event has an active subscription using the cached subscriptions
+	 * 
+	 * @param connectionModel model containing all details for the current connection
+	 * @param event to be checked
+	 * @return true if the event type and version have an active subscription
+	 * @throws ApplicationConnectorException if the initial read fails
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 */
+	public boolean isEventActive(ConnectionModel connectionModel, EventModel event) {
+		return isEventActive(transportFactory.createSnapshot(connectionModel), event);
+	}
+	
+	/**
+	 * Method that checks whether an event has an active subscription using the cached subscriptions
+	 * 
+	 * @param connection the current connection
+	 * @param event to be checked
+	 * @return true if the event type and version have an active subscription or if the 
+	 * subscriptions cannot be read
+	 */
+	public boolean isEventActive(ConnectionSnapshot connection, EventModel event) {
+		EventSubscriptionModel subscriptions;
+		try {
+			subscriptions = getEventSubscriptions(connection);
+		} catch (ApplicationConnectorException e) {
+			// unknown subscriptions, the event is sent rather than lost
+			return true;
+		}
+		return subscriptions.isEventActive(
+				new EventSubscriptionModel.Event(event.getEventType(), event.getEventTypeVersion()));
+	}
+	
+	/**
+	 * Triggers a refresh of the subscriptions. If a refresh for this connection is already 
+	 * running no additional call is made, the running refresh is returned instead.
+	 * 
+	 * @param connection the current connection
+	 * @return {@link CompletableFuture} completed with the refreshed subscriptions
+	 */
+	public CompletableFuture<EventSubscriptionModel> refresh(ConnectionSnapshot connection) {
+		
+		CachedSubscriptions cached = cache.computeIfAbsent(connection.getEventsInfoUrl(), 
+				(url) -> new CachedSubscriptions());
+		cached.connection = connection;
+		
+		synchronized (cached) {
+			if (cached.inFlight != null) {
+				return cached.inFlight;
+			}
+			
+			// the returned future completes once the cache was updated, so callers joining it
+			// see the outcome of the refresh
+			CompletableFuture<EventSubscriptionModel> inFlight = CompletableFuture.supplyAsync(
+					() -> subscriptionService.getEventSubscriptions(connection), refreshExecutor)
+					.whenComplete((result, error) -> {
+				EventSubscriptionModel previous = cached.subscriptions;
+				synchronized (cached) {
+					if (result != null) {
+						cached.subscriptions = result;
+						cached.error = null;
+					} else {
+						cached.error = toApplicationConnectorException(error);
+						cached.errorTime = System.currentTimeMillis();
+					}
+					cached.inFlight = null;
+					scheduleRefresh(cached, result != null ? properties.getSubscriptionRefreshMs()
+							: properties.getSubscriptionRetryMs());
+				}
+				
+				if (result != null && previous != null && !previous.equals(result)) {
+					notifyListeners(connection, previous, result);
+				}
+			});
+			if (!inFlight.isDone()) {
+				cached.inFlight = inFlight;
+			}
+			
+			return inFlight;
+		}
+	}
+	
+	/**
+	 * Stops the background refresh of a connection and removes its cached subscriptions
+	 * 
+	 * @param connection the connection to be evicted
+	 */
+	public void evict(ConnectionSnapshot connection) {
+		evict(connection.getEventsInfoUrl());
+	}
+	
+	private void evict(URI eventsInfoUrl) {
+		CachedSubscriptions cached = cache.remove(eventsInfoUrl);
+		if (cached != null) {
+			synchronized (cached) {
+				cached.evicted = true;
+				if (cached.scheduledRefresh != null) {
+					cached.scheduledRefresh.cancel(false);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stops all background refreshes
+	 */
+	@PreDestroy
+	public void clear() {
+		cache.keySet().forEach(this::evict);
+	}
+	
+	private void notifyListeners(ConnectionSnapshot connection, EventSubscriptionModel previous,
+			EventSubscriptionModel current) {
+		// the subscriptions are cached already, a failing listener must not fail the refresh
+		for (EventSubscriptionListener listener : listeners) {
+			try {
+				listener.subscriptionsChanged(connection, previous, current);
+			} catch (RuntimeException e) {
+				log.warn("Listener {} failed for changed subscriptions of {}", listener, 
+						connection.getEventsInfoUrl(), e);
+			}
+		}
+	}
+	
+	private static ApplicationConnectorException toApplicationConnectorException(Throwable error) {
+		Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (cause instanceof ApplicationConnectorException) {
+			return (ApplicationConnectorException) cause;
+		}
+		return new ApplicationConnectorException(cause.getMessage(), cause);
+	}
+	
+	private void scheduleRefresh(CachedSubscriptions cached, long interval) {
+		if (cached.evicted || refreshScheduler.isShutdown()) {
+			return;
+		}
+		
+		if (cached.scheduledRefresh != null) {
+			cached.scheduledRefresh.cancel(false);
+		}
+		
+		long jitter = Math.min(properties.getSubscriptionRefreshJitterMs(), interval / 2);
+		long delay = interval 
+				+ (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+		
+		cached.scheduledRefresh = refreshScheduler.schedule(() -> refresh(cached.connection), 
+				Math.max(delay, 0), TimeUnit.MILLISECONDS);
+	}
+	
+	private static class CachedSubscriptions {
+		
+		private volatile ConnectionSnapshot connection;
+		private volatile EventSubscriptionModel subscriptions;
+		private volatile ApplicationConnectorException error;
+		private volatile long errorTime;
+		private CompletableFuture<EventSubscriptionModel> inFlight;
+		private ScheduledFuture<?> scheduledRefresh;
+		private boolean evicted;
+		
+	}
+
+}
@@ -0,0 +1,24 @@
+package io.kyma.project.connector.event;
+
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+
+/**
+ * Listener that is notified by the {@link EventSubscriptionCache} whenever the
+ * set of active event subscriptions of a connection changes.
+ *
+ * @see EventSubscriptionCache#addListener(EventSubscriptionListener)
+ */
+@FunctionalInterface
+public interface EventSubscriptionListener {
+
+	/**
+	 * Invoked after a refresh returned a different set of active subscriptions.
+	 * 
+	 * @param connection the connection the subscriptions belong to
+	 * @param previous subscriptions before the refresh
+	 * @param current subscriptions after the refresh
+	 */
+	public void subscriptionsChanged(ConnectionSnapshot connection, EventSubscriptionModel previous,
+			EventSubscriptionModel current);
+
+}
@@ -1,5 +1,6 @@
 package io.kyma.project.connector.event;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -15,6 +16,7 @@ import lombok.EqualsAndHashCode;
  * 
  * @author Andreas Krause
  */
+@EqualsAndHashCode
 public class EventSubscriptionModel {
 	
 	private Set<Event> events;
@@ -45,6 +47,14 @@ public class EventSubscriptionModel {
 		return events.contains(event);
 	}
 	
+	/**
+ 	* Method that returns all events with an active subscription
+ 	* @return unmodifiable set of active events
+ 	*/
+	public Set<Event> getEvents() {
+		return Collections.unmodifiableSet(events);
+	}
+	
 	
 	
 	@Data
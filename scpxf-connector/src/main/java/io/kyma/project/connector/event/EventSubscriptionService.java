@@ -6,14 +6,18 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
 import io.kyma.project.connector.exception.ApplicationConnectorException;
-import io.kyma.project.connector.util.ClientCertRestTemplateBuilder;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 
 
@@ -28,16 +32,27 @@ import lombok.Data;
 public class EventSubscriptionService {
 	
 	
-	private ClientCertRestTemplateBuilder restTemplateBuilder;
+	private ConnectorTransportFactory transportFactory;
+	
+	private ConnectorMetrics metrics;
 
 	
 	/**
  	* Method used for setter injection
- 	* @param restTemplateBuilder the builder used to acquire RestTemplate
+ 	* @param transportFactory the factory used to acquire the {@link ConnectorTransport}
+ 	*/
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+	
+	/**
+ 	* Method used for setter injection
+ 	* @param metrics the metrics recording latency and outcome of the retrieval
  	*/
 	@Autowired
-	public void setRestTemplateBuilder(ClientCertRestTemplateBuilder restTemplateBuilder) {
-		this.restTemplateBuilder = restTemplateBuilder;
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
 	}
 	
 	/**
@@ -45,16 +60,25 @@ public class EventSubscriptionService {
  	* @param connectionModel model containing all details for the current connection 
  	*/
 	public EventSubscriptionModel getEventSubscriptions(ConnectionModel connectionModel) {
+		return getEventSubscriptions(transportFactory.createSnapshot(connectionModel));
+	}
+	
+	/**
+ 	* Method that retrieves active event subscriptions
+ 	* @param connection the current connection 
+ 	*/
+	public EventSubscriptionModel getEventSubscriptions(ConnectionSnapshot connection) {
 		
-		RestTemplate restTemplate = 
-				restTemplateBuilder.applicationConnectorRestTemplate(
-						connectionModel.getSslKey(), 
-						connectionModel.getKeystorePass());
+		ConnectorTransport transport = connection.getTransport();
 		
+		Timer.Sample sample = metrics.start();
+		String outcome = ConnectorMetrics.FAILURE;
 		try {
 			ResponseEntity<EventSubscriptionResponse> response = 
-					restTemplate.getForEntity(connectionModel.getEventsInfoUrl(), 
+					transport.exchange(RequestEntity.get(connection.getEventsInfoUrl()).build(), 
 							EventSubscriptionResponse.class);
+			metrics.recordResponseBytes(ConnectorMetrics.EVENT_SUBSCRIPTIONS, 
+					response.getHeaders().getContentLength());
 			if (response.getStatusCode() != HttpStatus.OK) {
 				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
 						response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
@@ -65,10 +89,13 @@ public class EventSubscriptionService {
 						.map((e) -> new EventSubscriptionModel.Event(e.getName(), e.getVersion()))
 						.collect(Collectors.toList());
 			
+			outcome = ConnectorMetrics.SUCCESS;
 			return new EventSubscriptionModel(subscriptions);
 			
 		} catch (RestClientException e) {
 			throw new ApplicationConnectorException(e.getMessage(), e);
+		} finally {
+			metrics.recordOperation(sample, ConnectorMetrics.EVENT_SUBSCRIPTIONS, outcome);
 		}
 	}
 	
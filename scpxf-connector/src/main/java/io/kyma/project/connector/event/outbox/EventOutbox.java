@@ -0,0 +1,304 @@
+package io.kyma.project.connector.event.outbox;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kyma.project.connector.event.EventModel;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+
+/**
+ * Durable, file based outbox for events that could not (yet) be delivered to the
+ * Event Gateway. Events are appended to memory mapped segment files in the given
+ * directory, hence the backlog survives restarts and is not kept on the heap.
+ * 
+ * Events are consumed in order via {@link #read(int)} and {@link #acknowledge(OutboxRecord)},
+ * fully acknowledged segments are deleted. The position of the oldest unacknowledged event
+ * is kept in a checkpoint file. Delivery is at least once, the last events before a crash 
+ * may be replayed again. Events that cannot be deserialized anymore are returned without
+ * event, so they can be skipped.
+ * 
+ * Segment files are unmapped once they are no longer needed, the outbox must not be used 
+ * after it was closed.
+ * 
+ * @see OutboxReplayer
+ */
+public class EventOutbox implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(EventOutbox.class);
+
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	private static final String CHECKPOINT_FILE = "checkpoint";
+
+	private final Path directory;
+	private final int segmentSize;
+	private final ObjectMapper objectMapper;
+
+	private final TreeSet<Long> segmentIds = new TreeSet<Long>();
+
+	private final MappedByteBuffer checkpoint;
+
+	private OutboxSegment head;
+	private OutboxSegment tail;
+
+	private long readSegmentId;
+	private int readOffset;
+
+	private boolean closed;
+
+	private EventOutbox(Path directory, int segmentSize, ObjectMapper objectMapper) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.objectMapper = objectMapper;
+
+		Files.createDirectories(directory);
+
+		try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+			for (Path segment : segments) {
+				String name = segment.getFileName().toString();
+				segmentIds.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			checkpoint = channel.map(MapMode.READ_WRITE, 0, 12);
+		}
+		readSegmentId = checkpoint.getLong(0);
+		readOffset = checkpoint.getInt(8);
+
+		if (segmentIds.isEmpty()) {
+			segmentIds.add(0L);
+		}
+		head = openSegment(segmentIds.last());
+
+		// segments older than the checkpoint have been acknowledged but not yet deleted
+		if (!segmentIds.contains(readSegmentId)) {
+			readSegmentId = segmentIds.ceiling(readSegmentId) != null ? segmentIds.ceiling(readSegmentId)
+					: head.getId();
+			readOffset = 0;
+		}
+		for (Long id : new ArrayList<Long>(segmentIds.headSet(readSegmentId))) {
+			deleteSegment(id);
+		}
+	}
+
+	/**
+	 * Opens (or creates) an outbox in the given directory.
+	 * 
+	 * @param directory directory holding segment and checkpoint files
+	 * @param segmentSize size of a single segment file in bytes, an event must fit into one segment
+	 * @param objectMapper mapper used to serialize events
+	 * @return {@link EventOutbox} positioned at the oldest unacknowledged event
+	 * @throws ApplicationConnectorException if the outbox cannot be opened
+	 */
+	public static EventOutbox open(Path directory, int segmentSize, ObjectMapper objectMapper) {
+		try {
+			return new EventOutbox(directory, segmentSize, objectMapper);
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+
+	private OutboxSegment openSegment(long id) throws IOException {
+		return OutboxSegment.open(directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX)), id, segmentSize);
+	}
+
+	private void deleteSegment(long id) throws IOException {
+		segmentIds.remove(id);
+		if (tail != null && tail.getId() == id) {
+			tail.delete();
+			tail = null;
+		} else {
+			Files.deleteIfExists(directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX)));
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new ApplicationConnectorException("Event outbox " + directory + " is already closed");
+		}
+	}
+
+	/**
+	 * Appends an event to the outbox.
+	 * 
+	 * @param event the event to be stored
+	 * @throws ApplicationConnectorException if the event cannot be serialized, is larger 
+	 * than a segment or cannot be written
+	 */
+	public synchronized void append(EventModel event) {
+		checkOpen();
+		try {
+			byte[] payload = objectMapper.writeValueAsBytes(event);
+
+			if (payload.length + OutboxSegment.HEADER_SIZE > segmentSize) {
+				throw new ApplicationConnectorException(
+						String.format("Event of %d bytes exceeds outbox segment size of %d bytes", 
+								payload.length, segmentSize));
+			}
+
+			if (!head.append(payload)) {
+				head.seal();
+				head.force();
+				head.close();
+				head = openSegment(head.getId() + 1);
+				segmentIds.add(head.getId());
+				head.append(payload);
+			}
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads the oldest unacknowledged events without removing them.
+	 * 
+	 * @param maxEvents maximum number of events to be returned
+	 * @return up to maxEvents records in append order, empty if the outbox is empty
+	 * @throws ApplicationConnectorException if the segments cannot be read
+	 */
+	public synchronized List<OutboxRecord> read(int maxEvents) {
+		checkOpen();
+		List<OutboxRecord> result = new ArrayList<OutboxRecord>();
+
+		try {
+			long segmentId = readSegmentId;
+			int offset = readOffset;
+
+			while (result.size() < maxEvents) {
+				OutboxSegment segment = getSegment(segmentId);
+				OutboxSegment.Frame frame = segment.read(offset);
+
+				if (frame != null) {
+					result.add(new OutboxRecord(segmentId, frame.getNextOffset(), readEvent(frame)));
+					offset = frame.getNextOffset();
+				} else if (segmentId < head.getId()) {
+					segmentId = segmentIds.higher(segmentId);
+					offset = 0;
+				} else {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+
+		return result;
+	}
+
+	private EventModel readEvent(OutboxSegment.Frame frame) {
+		try {
+			return objectMapper.readValue(frame.getPayload(), EventModel.class);
+		} catch (IOException e) {
+			log.error("Event in outbox {} cannot be deserialized", directory, e);
+			return null;
+		}
+	}
+
+	private OutboxSegment getSegment(long segmentId) throws IOException {
+		if (segmentId == head.getId()) {
+			return head;
+		}
+		if (tail == null || tail.getId() != segmentId) {
+			if (tail != null) {
+				tail.close();
+			}
+			tail = openSegment(segmentId);
+		}
+		return tail;
+	}
+
+	/**
+	 * Acknowledges the given record and all records before it. Segments that are 
+	 * fully acknowledged are deleted.
+	 * 
+	 * @param record the last record that was delivered successfully
+	 * @throws ApplicationConnectorException if the checkpoint cannot be written
+	 */
+	public synchronized void acknowledge(OutboxRecord record) {
+		checkOpen();
+		try {
+			for (Long id : new ArrayList<Long>(segmentIds.headSet(record.getSegmentId()))) {
+				deleteSegment(id);
+			}
+
+			readSegmentId = record.getSegmentId();
+			readOffset = record.getNextOffset();
+
+			// move on to the next segment if this one is exhausted
+			while (readSegmentId < head.getId() && getSegment(readSegmentId).read(readOffset) == null) {
+				long exhausted = readSegmentId;
+				readSegmentId = segmentIds.higher(readSegmentId);
+				readOffset = 0;
+				deleteSegment(exhausted);
+			}
+
+			checkpoint.putLong(0, readSegmentId);
+			checkpoint.putInt(8, readOffset);
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Method that checks whether unacknowledged events are stored
+	 * 
+	 * @return true if all events have been acknowledged
+	 */
+	public synchronized boolean isEmpty() {
+		checkOpen();
+		return readSegmentId == head.getId() && readOffset == head.getWritePosition();
+	}
+
+	/**
+	 * Number of segment files currently held on disk
+	 * 
+	 * @return number of segments
+	 */
+	public synchronized int getSegmentCount() {
+		return segmentIds.size();
+	}
+
+	/**
+	 * Forces all written events and the checkpoint to the storage device.
+	 */
+	public synchronized void flush() {
+		checkOpen();
+		head.force();
+		checkpoint.force();
+	}
+
+	/**
+	 * Flushes the outbox and releases the mappings of its files
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		flush();
+		closed = true;
+		head.close();
+		if (tail != null) {
+			tail.close();
+			tail = null;
+		}
+		OutboxSegment.unmap(checkpoint);
+	}
+
+}
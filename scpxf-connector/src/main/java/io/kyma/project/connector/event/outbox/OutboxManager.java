@@ -0,0 +1,234 @@
+package io.kyma.project.connector.event.outbox;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kyma.project.connector.connection.CertificateRenewalManager;
+import io.kyma.project.connector.connection.ConnectionRenewalListener;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.event.EventGatewayService;
+import io.kyma.project.connector.event.EventModel;
+import io.kyma.project.connector.event.EventPublishingProperties;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+
+/**
+ * Keeps an {@link EventOutbox} and an {@link OutboxReplayer} per application if the outbox
+ * is enabled. Events that could not be delivered are stored via
+ * {@link #store(ConnectionSnapshot, EventModel)} and replayed with the connection they were
+ * last stored with. Once the {@link CertificateRenewalManager} renewed the certificate of an
+ * application, its outbox is replayed with the renewed connection.
+ *
+ * Outboxes are opened on first use. The backlog an application left in its outbox before a
+ * restart is replayed as soon as its connection is passed to {@link #replay(ConnectionSnapshot)}
+ * (or the next event is stored). Events that are given up are moved to the dead letter outbox
+ * of the application, which is not replayed.
+ *
+ * @see EventGatewayService#writeEvent(ConnectionSnapshot, EventModel)
+ * @see EventPublishingProperties
+ */
+@Component
+public class OutboxManager {
+
+	private static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+
+	private final ConcurrentMap<String, ApplicationOutbox> outboxes = new ConcurrentHashMap<String, ApplicationOutbox>();
+
+	private EventPublishingProperties properties;
+
+	private EventGatewayService gatewayService;
+
+	private ObjectMapper objectMapper;
+
+	private CertificateRenewalManager renewalManager;
+
+	private final ConnectionRenewalListener renewalListener = (connection, previous, current) -> {
+		ApplicationOutbox outbox = outboxes.get(current.getApplicationName());
+		if (outbox != null) {
+			outbox.connection.set(current);
+		}
+	};
+
+	private boolean closed;
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration of the outboxes
+	 */
+	@Autowired
+	public void setProperties(EventPublishingProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param gatewayService the service used to replay events
+	 */
+	@Autowired
+	public void setGatewayService(EventGatewayService gatewayService) {
+		this.gatewayService = gatewayService;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param objectMapper the mapper used to serialize stored events
+	 */
+	@Autowired
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param renewalManager the manager whose renewed connections are used for replays
+	 */
+	@Autowired
+	public void setRenewalManager(CertificateRenewalManager renewalManager) {
+		this.renewalManager = renewalManager;
+	}
+
+	/**
+	 * Replays outboxes with the renewed connection after a certificate renewal
+	 */
+	@PostConstruct
+	public void start() {
+		renewalManager.addListener(renewalListener);
+	}
+
+	/**
+	 * Checks whether the outbox is enabled
+	 *
+	 * @return true if undelivered events are stored
+	 */
+	public boolean isEnabled() {
+		return properties.isOutboxEnabled();
+	}
+
+	/**
+	 * Stores an event in the outbox of its application, it is replayed in the background
+	 *
+	 * @param connection the connection the event is replayed to
+	 * @param event the event to be stored
+	 * @throws ApplicationConnectorException if the event cannot be stored
+	 */
+	public void store(ConnectionSnapshot connection, EventModel event) {
+		replay(connection).outbox.append(event);
+	}
+
+	/**
+	 * Starts replaying the outbox of the given application, e.g. the backlog left before a
+	 * restart. Later replays use the given connection.
+	 *
+	 * @param connection the connection events of the application are replayed to
+	 * @return the outbox of the application
+	 * @throws ApplicationConnectorException if the outbox cannot be opened
+	 */
+	public ApplicationOutbox replay(ConnectionSnapshot connection) {
+		ApplicationOutbox outbox;
+		synchronized (this) {
+			if (closed) {
+				throw new ApplicationConnectorException("Event outbox is already closed");
+			}
+			outbox = outboxes.computeIfAbsent(connection.getApplicationName(), (name) -> open(name, connection));
+		}
+		outbox.connection.set(connection);
+		return outbox;
+	}
+
+	/**
+	 * Stops all replays and closes the outboxes
+	 */
+	@PreDestroy
+	public void close() {
+		synchronized (this) {
+			closed = true;
+		}
+		renewalManager.removeListener(renewalListener);
+		outboxes.values().forEach(ApplicationOutbox::close);
+		outboxes.clear();
+	}
+
+	private ApplicationOutbox open(String applicationName, ConnectionSnapshot connection) {
+		Path directory = Paths.get(properties.getOutboxDirectory(),
+				applicationName.replaceAll("[^A-Za-z0-9._-]", "_"));
+
+		EventOutbox outbox = EventOutbox.open(directory, properties.getOutboxSegmentSize(), objectMapper);
+		EventOutbox deadLetters = EventOutbox.open(directory.resolve(DEAD_LETTER_DIRECTORY),
+				properties.getOutboxSegmentSize(), objectMapper);
+
+		AtomicReference<ConnectionSnapshot> current = new AtomicReference<ConnectionSnapshot>(connection);
+		OutboxReplayer replayer = new OutboxReplayer(gatewayService, current::get, outbox,
+				properties.getOutboxReplayRate(), properties.getOutboxReplayBatchSize(),
+				properties.getOutboxRetryIntervalMs(), properties.getOutboxMaxAttempts(), deadLetters);
+		replayer.start();
+
+		return new ApplicationOutbox(outbox, deadLetters, replayer, current);
+	}
+
+	/**
+	 * Outbox of an application together with its replayer
+	 */
+	public static final class ApplicationOutbox {
+
+		private final EventOutbox outbox;
+
+		private final EventOutbox deadLetters;
+
+		private final OutboxReplayer replayer;
+
+		private final AtomicReference<ConnectionSnapshot> connection;
+
+		private ApplicationOutbox(EventOutbox outbox, EventOutbox deadLetters, OutboxReplayer replayer,
+				AtomicReference<ConnectionSnapshot> connection) {
+			this.outbox = outbox;
+			this.deadLetters = deadLetters;
+			this.replayer = replayer;
+			this.connection = connection;
+		}
+
+		/**
+		 * Returns the events not delivered yet
+		 *
+		 * @return {@link EventOutbox} being replayed
+		 */
+		public EventOutbox getOutbox() {
+			return outbox;
+		}
+
+		/**
+		 * Returns the connection the events are replayed to
+		 *
+		 * @return {@link ConnectionSnapshot} used by the next replay
+		 */
+		public ConnectionSnapshot getConnection() {
+			return connection.get();
+		}
+
+		/**
+		 * Returns the events that were given up
+		 *
+		 * @return {@link EventOutbox} that is not replayed
+		 */
+		public EventOutbox getDeadLetters() {
+			return deadLetters;
+		}
+
+		private void close() {
+			replayer.close();
+			outbox.close();
+			deadLetters.close();
+		}
+
+	}
+
+}
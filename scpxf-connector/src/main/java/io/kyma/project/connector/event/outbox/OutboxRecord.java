@@ -0,0 +1,24 @@
+package io.kyma.project.connector.event.outbox;
+
+import io.kyma.project.connector.event.EventModel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Model Object that holds an event read from the {@link EventOutbox} together
+ * with its position, which is needed to acknowledge it.
+ *
+ * @see EventOutbox#acknowledge(OutboxRecord)
+ */
+@Data
+@AllArgsConstructor
+public class OutboxRecord {
+
+	private long segmentId;
+	private int nextOffset;
+	/**
+	 * The stored event, null if it cannot be deserialized anymore
+	 */
+	private EventModel event;
+
+}
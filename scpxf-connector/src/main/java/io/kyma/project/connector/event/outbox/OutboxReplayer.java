@@ -0,0 +1,204 @@
+package io.kyma.project.connector.event.outbox;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.event.EventGatewayService;
+import io.kyma.project.connector.event.EventModel;
+import io.kyma.project.connector.event.EventPublishResult;
+
+/**
+ * Streams the backlog of an {@link EventOutbox} to the Event Gateway at a controlled
+ * rate. Events are read in batches and sent via 
+ * {@link EventGatewayService#writeEvents(ConnectionSnapshot, List)}, successfully delivered 
+ * events are acknowledged in order. If an event fails, the replayer waits for the retry 
+ * interval and continues with the first failed event, hence events of a partially failed 
+ * batch may be delivered more than once.
+ * 
+ * An event that failed the given number of attempts is moved to the dead letter outbox (or
+ * dropped if there is none), so it does not block the events behind it. Events that cannot
+ * be deserialized are dropped right away. Both are logged as errors.
+ * 
+ * @see EventOutbox
+ * @see OutboxManager
+ */
+public class OutboxReplayer implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxReplayer.class);
+
+	private final EventGatewayService gatewayService;
+	private final Supplier<ConnectionSnapshot> connectionSupplier;
+	private final EventOutbox outbox;
+	private final RateLimiter rateLimiter;
+	private final int batchSize;
+	private final long retryIntervalMs;
+	private final int maxAttempts;
+	private final EventOutbox deadLetters;
+
+	private ExecutorService worker;
+
+	private OutboxRecord failedRecord;
+	private int failedAttempts;
+
+	private volatile boolean running;
+
+	/**
+	 * Creates a replayer, it needs to be started explicitly via {@link #start()}
+	 * 
+	 * @param gatewayService service used to send events
+	 * @param connectionSupplier provides the current connection, invoked for every batch
+	 * @param outbox outbox to be drained
+	 * @param eventsPerSecond maximum replay rate
+	 * @param batchSize maximum number of events sent concurrently
+	 * @param retryIntervalMs time to wait after a failed delivery or if the outbox is empty
+	 * @param maxAttempts number of failed deliveries after which an event is given up
+	 * @param deadLetters outbox events that were given up are moved to, null to drop them
+	 */
+	public OutboxReplayer(EventGatewayService gatewayService, Supplier<ConnectionSnapshot> connectionSupplier,
+			EventOutbox outbox, double eventsPerSecond, int batchSize, long retryIntervalMs, int maxAttempts,
+			EventOutbox deadLetters) {
+		this.gatewayService = gatewayService;
+		this.connectionSupplier = connectionSupplier;
+		this.outbox = outbox;
+		this.rateLimiter = RateLimiter.create(eventsPerSecond);
+		this.batchSize = batchSize;
+		this.retryIntervalMs = retryIntervalMs;
+		this.maxAttempts = maxAttempts;
+		this.deadLetters = deadLetters;
+	}
+
+	/**
+	 * Starts replaying in a background thread
+	 */
+	public synchronized void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		worker = Executors.newSingleThreadExecutor(
+				new ThreadFactoryBuilder().setNameFormat("outbox-replayer-%d").setDaemon(true).build());
+		worker.execute(this::replay);
+	}
+
+	/**
+	 * Stops replaying, the current batch is finished before the thread terminates
+	 */
+	@Override
+	public void close() {
+		ExecutorService stopped;
+		synchronized (this) {
+			running = false;
+			stopped = worker;
+		}
+		if (stopped != null) {
+			stopped.shutdown();
+			try {
+				// the outbox may be closed afterwards
+				stopped.awaitTermination(retryIntervalMs + 5000, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void replay() {
+		while (running) {
+			boolean delivered;
+			try {
+				delivered = replayBatch();
+			} catch (RuntimeException e) {
+				log.warn("Replay of event outbox failed, retrying in {} ms", retryIntervalMs, e);
+				delivered = false;
+			}
+			if (!delivered) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(retryIntervalMs);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return true if all events of the batch were delivered
+	 */
+	boolean replayBatch() {
+		List<OutboxRecord> records = outbox.read(batchSize);
+		if (records.isEmpty()) {
+			return false;
+		}
+
+		List<EventModel> events = records.stream().map(OutboxRecord::getEvent).filter(Objects::nonNull)
+				.collect(Collectors.toList());
+
+		List<EventPublishResult> results = Collections.emptyList();
+		if (!events.isEmpty()) {
+			rateLimiter.acquire(events.size());
+			try {
+				results = gatewayService.writeEvents(connectionSupplier.get(), events);
+			} catch (RuntimeException e) {
+				log.warn("Replay of event outbox failed", e);
+				return false;
+			}
+		}
+
+		Iterator<EventPublishResult> result = results.iterator();
+		OutboxRecord lastDelivered = null;
+		for (OutboxRecord record : records) {
+			if (record.getEvent() == null) {
+				log.error("Dropped event of segment {} that cannot be deserialized", record.getSegmentId());
+			} else if (!result.next().isSuccessful() && !giveUp(record)) {
+				break;
+			}
+			lastDelivered = record;
+		}
+
+		if (lastDelivered != null) {
+			outbox.acknowledge(lastDelivered);
+		}
+
+		return lastDelivered == records.get(records.size() - 1);
+	}
+
+	/**
+	 * Counts the failed delivery of the given record
+	 * 
+	 * @return true if the record was moved to the dead letters and can be acknowledged
+	 */
+	private boolean giveUp(OutboxRecord record) {
+		if (failedRecord == null || failedRecord.getSegmentId() != record.getSegmentId()
+				|| failedRecord.getNextOffset() != record.getNextOffset()) {
+			failedRecord = record;
+			failedAttempts = 0;
+		}
+		if (++failedAttempts < maxAttempts) {
+			return false;
+		}
+
+		if (deadLetters != null) {
+			deadLetters.append(record.getEvent());
+		}
+		log.error("Gave up event {} after {} failed deliveries, {}", record.getEvent().getEventType(),
+				failedAttempts, deadLetters != null ? "moved to dead letters" : "dropped");
+		failedRecord = null;
+		failedAttempts = 0;
+		return true;
+	}
+
+}
@@ -0,0 +1,204 @@
+package io.kyma.project.connector.event.outbox;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Append only, memory mapped segment file of the {@link EventOutbox}.
+ * 
+ * Every record is stored as a frame: 4 bytes payload length, 4 bytes CRC32 of the
+ * payload, followed by the payload. A length of 0 marks the end of the written data,
+ * a length of -1 marks a sealed segment.
+ * 
+ * The mapping is released via {@link #close()}, a closed segment must not be accessed anymore.
+ */
+class OutboxSegment {
+
+	static final int HEADER_SIZE = 8;
+
+	static final int END_OF_DATA = 0;
+
+	static final int END_OF_SEGMENT = -1;
+
+	private final long id;
+	private final Path path;
+	private final MappedByteBuffer buffer;
+
+	private int writePosition;
+
+	private OutboxSegment(long id, Path path, MappedByteBuffer buffer) {
+		this.id = id;
+		this.path = path;
+		this.buffer = buffer;
+	}
+
+	static OutboxSegment open(Path path, long id, int size) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			int capacity = (int) Math.max(size, channel.size());
+			OutboxSegment segment = new OutboxSegment(id, path, channel.map(MapMode.READ_WRITE, 0, capacity));
+			segment.recoverWritePosition();
+			return segment;
+		}
+	}
+
+	long getId() {
+		return id;
+	}
+
+	int getWritePosition() {
+		return writePosition;
+	}
+
+	/**
+	 * Scans all frames and positions the writer after the last valid one. A torn
+	 * frame (e.g. crash during append) is discarded.
+	 */
+	private void recoverWritePosition() {
+		int position = 0;
+		while (true) {
+			Frame frame = read(position);
+			if (frame == null) {
+				break;
+			}
+			position = frame.getNextOffset();
+		}
+		if (position + 4 <= buffer.capacity() && buffer.getInt(position) > 0) {
+			buffer.putInt(position, END_OF_DATA);
+		}
+		writePosition = position;
+	}
+
+	/**
+	 * Appends a payload to the segment.
+	 * 
+	 * @return false if the segment has not enough space left
+	 */
+	boolean append(byte[] payload) {
+		if (isSealed() || writePosition + HEADER_SIZE + payload.length > buffer.capacity()) {
+			return false;
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+
+		ByteBuffer target = buffer.duplicate();
+		target.position(writePosition + HEADER_SIZE);
+		target.put(payload);
+
+		buffer.putInt(writePosition + 4, (int) crc.getValue());
+		// length is written last, readers only see complete frames
+		buffer.putInt(writePosition, payload.length);
+
+		writePosition += HEADER_SIZE + payload.length;
+		return true;
+	}
+
+	void seal() {
+		if (writePosition + 4 <= buffer.capacity()) {
+			buffer.putInt(writePosition, END_OF_SEGMENT);
+		}
+	}
+
+	boolean isSealed() {
+		return writePosition + 4 > buffer.capacity() || buffer.getInt(writePosition) == END_OF_SEGMENT;
+	}
+
+	/**
+	 * Reads the frame at the given offset.
+	 * 
+	 * @return the frame or null if there is no (valid) frame at this offset
+	 */
+	Frame read(int offset) {
+		if (offset + HEADER_SIZE > buffer.capacity()) {
+			return null;
+		}
+
+		int length = buffer.getInt(offset);
+		if (length <= 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+			return null;
+		}
+
+		byte[] payload = new byte[length];
+		ByteBuffer source = buffer.duplicate();
+		source.position(offset + HEADER_SIZE);
+		source.get(payload);
+
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+			return null;
+		}
+
+		return new Frame(payload, offset + HEADER_SIZE + length);
+	}
+
+	void force() {
+		buffer.force();
+	}
+
+	/**
+	 * Releases the mapping of the segment file
+	 */
+	void close() {
+		unmap(buffer);
+	}
+
+	/**
+	 * Releases the mapping and deletes the segment file
+	 */
+	void delete() throws IOException {
+		close();
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Releases the memory of a mapped buffer immediately instead of once it was garbage 
+	 * collected, the buffer must not be accessed anymore. The mapping is left to the 
+	 * garbage collector if the JVM does not allow to release it.
+	 */
+	static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			try {
+				// Java 9 and later
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			} catch (NoSuchMethodException e) {
+				// Java 8
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// released by the garbage collector
+		}
+	}
+
+	@Data
+	@AllArgsConstructor
+	static class Frame {
+
+		private byte[] payload;
+		private int nextOffset;
+
+	}
+
+}
@@ -0,0 +1,18 @@
+package io.kyma.project.connector.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+* Exception reported by a transport instead of sending a request while the circuit 
+* breaker of its connection is open.
+* 
+* @see io.kyma.project.connector.transport.CircuitBreaker
+*/
+public class CircuitBreakerOpenException extends RestClientException {
+
+	private static final long serialVersionUID = 4781160942355412630L;
+
+	public CircuitBreakerOpenException(String message) {
+		super(message);
+	}
+}
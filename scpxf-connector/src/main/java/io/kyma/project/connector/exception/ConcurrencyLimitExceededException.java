@@ -0,0 +1,18 @@
+package io.kyma.project.connector.exception;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+* Exception reported by a transport instead of sending a request if no permit of the 
+* concurrency limiter of its connection became available in time.
+* 
+* @see io.kyma.project.connector.transport.AdaptiveConcurrencyLimiter
+*/
+public class ConcurrencyLimitExceededException extends RestClientException {
+
+	private static final long serialVersionUID = -2306618523774150297L;
+
+	public ConcurrencyLimitExceededException(String message) {
+		super(message);
+	}
+}
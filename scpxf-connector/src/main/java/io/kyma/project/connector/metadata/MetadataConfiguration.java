@@ -0,0 +1,33 @@
+package io.kyma.project.connector.metadata;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Spring Configurations relevant for registering metadata
+ *
+ * @see MetadataService
+ * @see MetadataProperties
+ */
+@Configuration
+public class MetadataConfiguration {
+
+	/**
+	 * Creates the {@link ExecutorService} used to register files of a bulk registration
+	 * concurrently
+	 *
+	 * @param properties {@link MetadataProperties} holding the pool size
+	 * @return {@link ExecutorService} with a fixed number of daemon threads
+	 */
+	@Bean(name = "MetadataRegistrationExecutor", destroyMethod = "shutdown")
+	public ExecutorService metadataRegistrationExecutor(MetadataProperties properties) {
+		return Executors.newFixedThreadPool(properties.getRegistrationThreads(),
+				new ThreadFactoryBuilder().setNameFormat("metadata-registration-%d").setDaemon(true).build());
+	}
+
+}
@@ -0,0 +1,202 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+
+import io.kyma.project.connector.exception.MetadataInvalidException;
+
+/**
+ * Registration file that is streamed to Kyma / Extension Factory. The file is copied token
+ * by token, authentication information is injected into <code>api.credentials</code> on
+ * the fly. Hence the (potentially large) API specification is never materialized in memory.
+ *
+ * The content hash is computed over the normalized output (no whitespace, credentials with
+ * sorted keys), so it is stable across formatting changes of the file.
+ *
+ * @see MetadataService
+ * @see MetadataDocumentHttpMessageConverter
+ */
+final class MetadataDocument {
+
+	private final File file;
+
+	private final Map<String, Object> credentials;
+
+	private final JsonFactory jsonFactory;
+
+	private final ObjectWriter credentialsWriter;
+
+	private String identifier;
+
+	private String contentHash;
+
+	private long contentLength = -1;
+
+	private volatile long writtenLength = -1;
+
+	/**
+	 * Creates a document for the given registration file
+	 *
+	 * @param file registration file in the JSON format of the Application Registry
+	 * @param authentication authentication data to be injected, can be null
+	 * @param objectMapper mapper providing the JSON configuration
+	 */
+	MetadataDocument(File file, MetadataAuthenticationInformation authentication, ObjectMapper objectMapper) {
+		this.file = file;
+		this.credentials = authentication != null ? authentication.getAuthenticationInfo() : null;
+		this.jsonFactory = objectMapper.getFactory();
+		this.credentialsWriter = objectMapper.writerFor(Map.class)
+				.with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+	}
+
+	/**
+	 * Reads the complete file once to validate it and to determine identifier, content hash and length
+	 *
+	 * @throws MetadataInvalidException if the file cannot be read or is no JSON object
+	 */
+	void scan() {
+		try {
+			MessageDigest digest = DigestUtils.getSha256Digest();
+			CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+			writeTo(new DigestOutputStream(counter, digest));
+			contentHash = Hex.encodeHexString(digest.digest());
+			contentLength = counter.getCount();
+		} catch (JsonProcessingException e) {
+			throw new MetadataInvalidException(e.getMessage(), e);
+		} catch (IOException e) {
+			throw new MetadataInvalidException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the registration file
+	 *
+	 * @return {@link File} this document is read from
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the identifier of the registration, only available after {@link #scan()}
+	 *
+	 * @return identifier or null if the file has none
+	 */
+	String getIdentifier() {
+		return identifier;
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the effective registration (including authentication data),
+	 * only available after {@link #scan()}
+	 *
+	 * @return hex encoded hash
+	 */
+	String getContentHash() {
+		return contentHash;
+	}
+
+	/**
+	 * Returns the length of the (uncompressed) registration in bytes, only available after 
+	 * {@link #scan()}
+	 *
+	 * @return length in bytes or -1 if the document was not scanned
+	 */
+	long getContentLength() {
+		return contentLength;
+	}
+
+	/**
+	 * Returns the number of bytes of the last request body the registration was written to,
+	 * i.e. the compressed length if the request was compressed
+	 *
+	 * @return length in bytes or -1 if the document was not written
+	 */
+	long getWrittenLength() {
+		return writtenLength;
+	}
+
+	void setWrittenLength(long writtenLength) {
+		this.writtenLength = writtenLength;
+	}
+
+	/**
+	 * Writes the registration including authentication data to the given stream. The stream
+	 * is not closed.
+	 *
+	 * @param outputStream stream to write to
+	 * @throws IOException if reading the file or writing to the stream fails
+	 */
+	void writeTo(OutputStream outputStream) throws IOException {
+
+		try (JsonParser in = jsonFactory.createParser(file);
+				JsonGenerator out = jsonFactory.createGenerator(outputStream)
+						.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+
+			if (in.nextToken() != JsonToken.START_OBJECT) {
+				throw new MetadataInvalidException("Metadata invalid, JSON object expected: " + file);
+			}
+
+			out.writeStartObject();
+			while (in.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = in.getCurrentName();
+				JsonToken value = in.nextToken();
+
+				if ("api".equals(fieldName) && credentials != null && value == JsonToken.START_OBJECT) {
+					out.writeFieldName(fieldName);
+					copyApi(in, out);
+				} else {
+					if ("identifier".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+						identifier = in.getText();
+					}
+					out.writeFieldName(fieldName);
+					out.copyCurrentStructure(in);
+				}
+			}
+			out.writeEndObject();
+		}
+	}
+
+	private void copyApi(JsonParser in, JsonGenerator out) throws IOException {
+
+		out.writeStartObject();
+		while (in.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = in.getCurrentName();
+			in.nextToken();
+
+			if ("credentials".equals(fieldName)) {
+				in.skipChildren();
+			} else {
+				out.writeFieldName(fieldName);
+				out.copyCurrentStructure(in);
+			}
+		}
+		out.writeFieldName("credentials");
+		credentialsWriter.writeValue(out, credentials);
+		out.writeEndObject();
+	}
+
+	@Override
+	public String toString() {
+		return file.toString();
+	}
+
+}
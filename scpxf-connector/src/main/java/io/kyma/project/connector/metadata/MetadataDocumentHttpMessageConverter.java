@@ -0,0 +1,62 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.google.common.io.CountingOutputStream;
+
+import io.kyma.project.connector.transport.GzipCompression;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} that streams a
+ * {@link MetadataDocument} into the request body, compressed if the request specifies gzip
+ * as Content-Encoding. The number of bytes written to the body is kept in the document.
+ * Registered as bean, hence it is picked up by all templates created
+ * via {@link org.springframework.boot.web.client.RestTemplateBuilder}.
+ *
+ * @see MetadataDocument
+ */
+@Component
+class MetadataDocumentHttpMessageConverter extends AbstractHttpMessageConverter<MetadataDocument> {
+
+	MetadataDocumentHttpMessageConverter() {
+		super(MediaType.APPLICATION_JSON);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return MetadataDocument.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	protected boolean canRead(MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected MetadataDocument readInternal(Class<? extends MetadataDocument> clazz, HttpInputMessage inputMessage)
+			throws IOException {
+		throw new HttpMessageNotReadableException("Metadata documents can only be written", inputMessage);
+	}
+
+	@Override
+	protected void writeInternal(MetadataDocument document, HttpOutputMessage outputMessage) throws IOException {
+		CountingOutputStream body = new CountingOutputStream(outputMessage.getBody());
+		if (GzipCompression.isGzip(outputMessage.getHeaders())) {
+			try (OutputStream compressing = GzipCompression.compressing(body)) {
+				document.writeTo(compressing);
+			}
+		} else {
+			document.writeTo(body);
+		}
+		document.setWrittenLength(body.getCount());
+	}
+
+}
@@ -0,0 +1,145 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Keeps the content hash of the last successful registration per application and
+ * identifier. Hashes are held in memory and, if a directory is configured in
+ * {@link MetadataProperties}, persisted so they survive restarts. A failure to read or
+ * persist a hash only costs an unnecessary update later, hence it is ignored.
+ *
+ * @see MetadataService
+ */
+@Component
+class MetadataHashStore {
+
+	private final ConcurrentMap<String, RegisteredContent> registrations =
+			new ConcurrentHashMap<String, RegisteredContent>();
+
+	private MetadataProperties properties;
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration holding the storage directory
+	 */
+	@Autowired
+	public void setProperties(MetadataProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Checks whether the given content was the last one registered for the service
+	 *
+	 * @param metadataUrl URL of the Application Registry of the application
+	 * @param identifier identifier of the registration
+	 * @param id id of the service in the Application Registry
+	 * @param contentHash hash of the content to be registered
+	 * @return true if the service was last registered with the same content
+	 */
+	boolean isUnchanged(URI metadataUrl, String identifier, String id, String contentHash) {
+		RegisteredContent registered = get(key(metadataUrl, identifier));
+		return registered != null && registered.getId().equals(id) && registered.getContentHash().equals(contentHash);
+	}
+
+	/**
+	 * Stores the content hash of a successful registration
+	 *
+	 * @param metadataUrl URL of the Application Registry of the application
+	 * @param identifier identifier of the registration
+	 * @param id id of the service in the Application Registry
+	 * @param contentHash hash of the registered content
+	 */
+	void put(URI metadataUrl, String identifier, String id, String contentHash) {
+		String key = key(metadataUrl, identifier);
+		RegisteredContent registered = new RegisteredContent(id, contentHash);
+		registrations.put(key, registered);
+
+		Path file = file(key);
+		if (file != null) {
+			try {
+				Files.createDirectories(file.getParent());
+				Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+				Files.write(tmp, (id + "\n" + contentHash).getBytes(StandardCharsets.UTF_8));
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				// kept in memory only, the next start sends the update again
+			}
+		}
+	}
+
+	/**
+	 * Removes the content hash of a service, its next registration is always sent
+	 *
+	 * @param metadataUrl URL of the Application Registry of the application
+	 * @param identifier identifier of the registration
+	 */
+	void remove(URI metadataUrl, String identifier) {
+		String key = key(metadataUrl, identifier);
+		registrations.remove(key);
+
+		Path file = file(key);
+		if (file != null) {
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				// the file is overwritten by the next successful registration
+			}
+		}
+	}
+
+	private RegisteredContent get(String key) {
+		RegisteredContent registered = registrations.get(key);
+		if (registered != null) {
+			return registered;
+		}
+
+		Path file = file(key);
+		if (file == null || !Files.isRegularFile(file)) {
+			return null;
+		}
+
+		try {
+			String[] content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\n");
+			if (content.length != 2) {
+				return null;
+			}
+			registered = new RegisteredContent(content[0], content[1]);
+			registrations.putIfAbsent(key, registered);
+			return registered;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private String key(URI metadataUrl, String identifier) {
+		return DigestUtils.sha1Hex(metadataUrl.toString() + "#" + identifier);
+	}
+
+	private Path file(String key) {
+		String directory = properties.getHashStoreDirectory();
+		return directory == null || directory.isEmpty() ? null : Paths.get(directory, key + ".sha256");
+	}
+
+	@Data
+	@AllArgsConstructor
+	private static class RegisteredContent {
+		private String id;
+		private String contentHash;
+	}
+
+}
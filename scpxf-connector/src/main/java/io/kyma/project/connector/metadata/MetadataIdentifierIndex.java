@@ -0,0 +1,94 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Services registered at the Kyma / Extension Factory Application Registry, reduced to
+ * the mapping of identifier to id. The listing is parsed with the Jackson streaming API,
+ * all other attributes of the services are skipped without being materialized.
+ *
+ * @see MetadataListingCache
+ * @see MetadataIdentifierIndexHttpMessageConverter
+ */
+final class MetadataIdentifierIndex {
+
+	private final Map<String, String> ids;
+
+	private MetadataIdentifierIndex(Map<String, String> ids) {
+		this.ids = Collections.unmodifiableMap(ids);
+	}
+
+	/**
+	 * Reads the listing of registered services from the given stream
+	 *
+	 * @param jsonFactory factory used to create the parser
+	 * @param inputStream JSON array of services, the stream is not closed
+	 * @return {@link MetadataIdentifierIndex} of all services with an identifier
+	 * @throws IOException if the stream cannot be read or does not contain a JSON array
+	 */
+	static MetadataIdentifierIndex read(JsonFactory jsonFactory, InputStream inputStream) throws IOException {
+
+		Map<String, String> ids = new HashMap<String, String>();
+
+		try (JsonParser parser = jsonFactory.createParser(inputStream)
+				.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new JsonParseException(parser, "JSON array of services expected");
+			}
+
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				String id = null;
+				String identifier = null;
+
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String fieldName = parser.getCurrentName();
+					JsonToken value = parser.nextToken();
+
+					if ("id".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+						id = parser.getText();
+					} else if ("identifier".equals(fieldName) && value == JsonToken.VALUE_STRING) {
+						identifier = parser.getText();
+					} else {
+						parser.skipChildren();
+					}
+				}
+
+				if (identifier != null && id != null) {
+					ids.put(identifier, id);
+				}
+			}
+		}
+
+		return new MetadataIdentifierIndex(ids);
+	}
+
+	/**
+	 * Returns the id of the service registered with the given identifier
+	 *
+	 * @param identifier identifier of the registration
+	 * @return id of the service or null if no service is registered with the identifier
+	 */
+	String getId(String identifier) {
+		return ids.get(identifier);
+	}
+
+	/**
+	 * Returns the number of registered services with an identifier
+	 *
+	 * @return number of services
+	 */
+	int size() {
+		return ids.size();
+	}
+
+}
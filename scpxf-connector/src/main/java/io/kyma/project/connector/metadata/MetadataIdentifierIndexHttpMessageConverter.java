@@ -0,0 +1,70 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link org.springframework.http.converter.HttpMessageConverter} that reads the listing of
+ * registered services as {@link MetadataIdentifierIndex} directly from the response body.
+ * Registered as bean, hence it is picked up by all templates created via
+ * {@link org.springframework.boot.web.client.RestTemplateBuilder}.
+ *
+ * @see MetadataIdentifierIndex
+ */
+@Component
+class MetadataIdentifierIndexHttpMessageConverter extends AbstractHttpMessageConverter<MetadataIdentifierIndex> {
+
+	private JsonFactory jsonFactory = new JsonFactory();
+
+	MetadataIdentifierIndexHttpMessageConverter() {
+		super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param objectMapper the mapper whose configuration is used to parse listings
+	 */
+	@Autowired
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.jsonFactory = objectMapper.getFactory();
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return MetadataIdentifierIndex.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	protected boolean canWrite(MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected MetadataIdentifierIndex readInternal(Class<? extends MetadataIdentifierIndex> clazz,
+			HttpInputMessage inputMessage) throws IOException {
+		try {
+			return MetadataIdentifierIndex.read(jsonFactory, inputMessage.getBody());
+		} catch (JsonProcessingException e) {
+			throw new HttpMessageNotReadableException("Listing of services invalid: " + e.getOriginalMessage(), 
+					e, inputMessage);
+		}
+	}
+
+	@Override
+	protected void writeInternal(MetadataIdentifierIndex index, HttpOutputMessage outputMessage) {
+		throw new HttpMessageNotWritableException("Listings of services can only be read");
+	}
+
+}
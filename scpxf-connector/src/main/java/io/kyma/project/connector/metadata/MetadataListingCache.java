@@ -0,0 +1,115 @@
+package io.kyma.project.connector.metadata;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Caches the services registered at the Kyma / Extension Factory Application Registry per
+ * application (metadata URL). If the server provided an ETag, the listing is revalidated
+ * with a conditional request (If-None-Match) on every use, so registration decisions are
+ * based on the current listing while unchanged listings are neither transferred nor parsed
+ * again. Listings without ETag are reused for the configured time to live. Local writes
+ * invalidate the listing of the application.
+ *
+ * @see MetadataService
+ * @see MetadataIdentifierIndex
+ */
+@Component
+class MetadataListingCache {
+
+	private final ConcurrentMap<URI, CachedListing> listings = new ConcurrentHashMap<URI, CachedListing>();
+
+	private MetadataProperties properties;
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration holding the time to live
+	 */
+	@Autowired
+	public void setProperties(MetadataProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Returns the services registered for the given metadata URL
+	 *
+	 * @param transport transport used to retrieve the listing
+	 * @param metadataUrl URL of the Application Registry of the application
+	 * @return {@link MetadataIdentifierIndex} of the registered services
+	 * @throws ApplicationConnectorException if the listing cannot be retrieved
+	 */
+	MetadataIdentifierIndex get(ConnectorTransport transport, URI metadataUrl) {
+
+		CachedListing cached = listings.get(metadataUrl);
+		long now = System.currentTimeMillis();
+
+		if (cached != null && cached.getEtag() == null && now < cached.getExpirationTime()) {
+			return cached.getIndex();
+		}
+
+		RequestEntity.HeadersBuilder<?> request = RequestEntity.get(metadataUrl);
+		if (cached != null && cached.getEtag() != null) {
+			request.ifNoneMatch(cached.getEtag());
+		}
+
+		try {
+			ResponseEntity<MetadataIdentifierIndex> response = transport.exchange(request.build(),
+					MetadataIdentifierIndex.class);
+
+			if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+				listings.replace(metadataUrl, cached, new CachedListing(cached.getIndex(), cached.getEtag(),
+						now + properties.getListingTtlMs()));
+				return cached.getIndex();
+			}
+
+			if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
+						response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
+			}
+
+			String etag = response.getHeaders().getETag();
+			if (etag != null || properties.getListingTtlMs() > 0) {
+				listings.put(metadataUrl, new CachedListing(response.getBody(), etag,
+						now + properties.getListingTtlMs()));
+			} else {
+				listings.remove(metadataUrl);
+			}
+
+			return response.getBody();
+
+		} catch (RestClientException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Invalidates the listing of the given metadata URL, the next access retrieves it again
+	 *
+	 * @param metadataUrl URL of the Application Registry of the application
+	 */
+	void invalidate(URI metadataUrl) {
+		listings.remove(metadataUrl);
+	}
+
+	@Data
+	@AllArgsConstructor
+	private static class CachedListing {
+		private MetadataIdentifierIndex index;
+		private String etag;
+		private long expirationTime;
+	}
+
+}
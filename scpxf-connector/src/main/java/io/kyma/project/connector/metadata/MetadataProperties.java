@@ -0,0 +1,44 @@
+package io.kyma.project.connector.metadata;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for registering metadata at the Kyma / Extension Factory
+ * Application Registry (prefix <code>kyma.connector.metadata</code>).
+ *
+ * @see MetadataService
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.metadata")
+public class MetadataProperties {
+
+	/**
+	 * Skip the update of a registered service if its content did not change since the
+	 * last registration
+	 */
+	private boolean skipUnchanged = true;
+
+	/**
+	 * Directory in which content hashes of registered services are stored, if not set
+	 * hashes are only kept in memory
+	 */
+	private String hashStoreDirectory;
+
+	/**
+	 * Number of threads used to register the files of a bulk registration concurrently
+	 */
+	private int registrationThreads = 4;
+
+	/**
+	 * Time in milliseconds the listing of registered services of an application is reused
+	 * without asking the server, only applies to listings without ETag as these are
+	 * revalidated on every use. Other replicas and external changes are not seen within
+	 * this time, hence 0 (no reuse) is the default.
+	 */
+	private long listingTtlMs = 0;
+
+}
@@ -0,0 +1,57 @@
+package io.kyma.project.connector.metadata;
+
+import java.io.File;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Model Object that holds the outcome of registering metadata at the Kyma / Extension
+ * Factory Application Registry.
+ *
+ * @see MetadataService
+ */
+@Data
+@AllArgsConstructor
+public class MetadataRegistrationResult {
+
+	/**
+	 * Possible outcomes of a registration
+	 */
+	public enum Outcome {
+		CREATED, UPDATED, SKIPPED, FAILED
+	}
+
+	private File file;
+	private String identifier;
+	private String id;
+	private Outcome outcome;
+	private RuntimeException error;
+
+	/**
+	 * Method that checks whether the registration was handled without error, i.e. the
+	 * service was created, updated or is already registered with the same content
+	 *
+	 * @return true if the registration did not fail
+	 */
+	public boolean isSuccessful() {
+		return outcome != Outcome.FAILED;
+	}
+
+	static MetadataRegistrationResult created(File file, String identifier, String id) {
+		return new MetadataRegistrationResult(file, identifier, id, Outcome.CREATED, null);
+	}
+
+	static MetadataRegistrationResult updated(File file, String identifier, String id) {
+		return new MetadataRegistrationResult(file, identifier, id, Outcome.UPDATED, null);
+	}
+
+	static MetadataRegistrationResult skipped(File file, String identifier, String id) {
+		return new MetadataRegistrationResult(file, identifier, id, Outcome.SKIPPED, null);
+	}
+
+	static MetadataRegistrationResult failed(File file, String identifier, RuntimeException error) {
+		return new MetadataRegistrationResult(file, identifier, null, Outcome.FAILED, error);
+	}
+
+}
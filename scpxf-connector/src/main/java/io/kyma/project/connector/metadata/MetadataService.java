@@ -1,31 +1,44 @@
 package io.kyma.project.connector.metadata;
 
 import java.io.File;
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
 import io.kyma.project.connector.exception.ApplicationConnectorException;
 import io.kyma.project.connector.exception.MetadataInvalidException;
 import io.kyma.project.connector.exception.RestTemplateCustomizerException;
-import io.kyma.project.connector.util.ClientCertRestTemplateBuilder;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.transport.CompressionProperties;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+import io.kyma.project.connector.transport.GzipCompression;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 
 
@@ -43,159 +56,358 @@ public class MetadataService {
 	
 
 	
-	private ClientCertRestTemplateBuilder restTemplateBuilder;
+	private ConnectorTransportFactory transportFactory;
+	
+	private ObjectMapper objectMapper;
+	
+	private MetadataHashStore hashStore;
+	
+	private MetadataProperties properties;
+	
+	private ExecutorService registrationExecutor;
+	
+	private MetadataListingCache listingCache;
+	
+	private CompressionProperties compressionProperties;
+	
+	private ConnectorMetrics metrics;
 
 	/**
-	 * Sets the {@link ClientCertRestTemplateBuilder} to be used by this object
+	 * Sets the {@link ConnectorTransportFactory} to be used by this object
+	 * 
+	 * @param transportFactory {@link ConnectorTransportFactory} to be used by this Object 
+	 */		
+	@Autowired
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
+	}
+	
+	/**
+	 * Sets the {@link ObjectMapper} to be used by this object
+	 * 
+	 * @param objectMapper {@link ObjectMapper} used to read registration files
+	 */		
+	@Autowired
+	public void setObjectMapper(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+	
+	/**
+	 * Sets the {@link MetadataHashStore} to be used by this object
+	 * 
+	 * @param hashStore {@link MetadataHashStore} holding the content hashes of registered services
+	 */		
+	@Autowired
+	void setHashStore(MetadataHashStore hashStore) {
+		this.hashStore = hashStore;
+	}
+	
+	/**
+	 * Sets the {@link MetadataListingCache} to be used by this object
+	 * 
+	 * @param listingCache {@link MetadataListingCache} holding the registered services per application
+	 */		
+	@Autowired
+	void setListingCache(MetadataListingCache listingCache) {
+		this.listingCache = listingCache;
+	}
+	
+	/**
+	 * Sets the {@link CompressionProperties} to be used by this object
+	 * 
+	 * @param compressionProperties {@link CompressionProperties} deciding on compression of registrations
+	 */		
+	@Autowired
+	public void setCompressionProperties(CompressionProperties compressionProperties) {
+		this.compressionProperties = compressionProperties;
+	}
+	
+	/**
+	 * Sets the {@link ConnectorMetrics} to be used by this object
+	 * 
+	 * @param metrics {@link ConnectorMetrics} recording latency and outcome of registrations
+	 */		
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Sets the {@link MetadataProperties} to be used by this object
+	 * 
+	 * @param properties {@link MetadataProperties} to be used by this Object
+	 */		
+	@Autowired
+	public void setProperties(MetadataProperties properties) {
+		this.properties = properties;
+	}
+	
+	/**
+	 * Sets the {@link ExecutorService} used for bulk registrations
 	 * 
-	 * @param restTemplateBuilder {@link ClientCertRestTemplateBuilder} to be used by this Object 
+	 * @param registrationExecutor {@link ExecutorService} to be used by this Object
 	 */		
 	@Autowired
-	public void setRestTemplateBuilder(ClientCertRestTemplateBuilder restTemplateBuilder) {
-		this.restTemplateBuilder = restTemplateBuilder;
+	@Qualifier("MetadataRegistrationExecutor")
+	public void setRegistrationExecutor(ExecutorService registrationExecutor) {
+		this.registrationExecutor = registrationExecutor;
 	}
 
 
 	
 	
-	private Map<String, MetadataResponse> getMetadata(RestTemplate restTemplate, URI metadataUrl) {
-		
-		Map<String, MetadataResponse> result = new HashMap<String, MetadataResponse>();
+	/**
+	 * Registers metadata to the Kyma / Extension Factory Application Registry using a pointer
+	 * to a file with the appropriate JSON format
+	 * 
+	 * @param connectionModel model containing all details for the connection to Kyma/Extension Factory
+	 * @param authentication model containing authentication data, can be null 
+	 * @return {@link MetadataRegistrationResult} stating whether the service was created, updated or skipped
+	 * @throws ApplicationConnectorException if anything fails
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 * @throws MetadataInvalidException if Metadata is flawed (no syntax check though)
+	 */
+	public MetadataRegistrationResult registerMetadata(ConnectionModel connectionModel, File metaDataFile,
+			MetadataAuthenticationInformation authentication) {
+		return registerMetadata(transportFactory.createSnapshot(connectionModel), metaDataFile, authentication);
+	}
+	
+	/**
+	 * Registers metadata to the Kyma / Extension Factory Application Registry using a pointer
+	 * to a file with the appropriate JSON format. If the service is already registered with 
+	 * identical content (including authentication data), the update is skipped.
+	 * 
+	 * @param connection the connection to Kyma/Extension Factory
+	 * @param authentication model containing authentication data, can be null 
+	 * @return {@link MetadataRegistrationResult} stating whether the service was created, updated or skipped
+	 * @throws ApplicationConnectorException if anything fails
+	 * @throws MetadataInvalidException if Metadata is flawed (no syntax check though)
+	 */
+	public MetadataRegistrationResult registerMetadata(ConnectionSnapshot connection, File metaDataFile,
+			MetadataAuthenticationInformation authentication) {
 		
-		try {
-			ResponseEntity<MetadataResponseList> response = 
-					restTemplate.getForEntity(metadataUrl, MetadataResponseList.class);
+		ConnectorTransport transport = connection.getTransport();
 
-			if (response.getStatusCode() != HttpStatus.OK) {
-				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
-						response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
-			}
-			
-			
-			for (MetadataResponse currentResponse : response.getBody()) {
-				result.put(currentResponse.getIdentifier(), currentResponse);
-			}
-			
-			
-			return result;
-			
-		} catch (RestClientException e) {
-			throw new ApplicationConnectorException(e.getMessage(), e);
-		}
-		
+		MetadataDocument metadata = new MetadataDocument(metaDataFile, authentication, objectMapper);
+		metadata.scan();
+
+		MetadataIdentifierIndex currentMetadata = listingCache.get(transport, connection.getMetadataUrl());
+
+		return register(transport, connection.getMetadataUrl(), currentMetadata, metadata);
+	}
+	
+	/**
+	 * Registers all registration files (*.json) of a directory, see 
+	 * {@link #registerMetadata(ConnectionSnapshot, List, MetadataAuthenticationInformation)}
+	 * 
+	 * @param connectionModel model containing all details for the connection to Kyma/Extension Factory
+	 * @param directory directory containing the registration files
+	 * @param authentication model containing authentication data, can be null 
+	 * @return one {@link MetadataRegistrationResult} per file in the order of the file names
+	 * @throws ApplicationConnectorException if the registered services cannot be retrieved
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 * @throws MetadataInvalidException if the directory cannot be read
+	 */
+	public List<MetadataRegistrationResult> registerMetadataDirectory(ConnectionModel connectionModel, 
+			File directory, MetadataAuthenticationInformation authentication) {
+		return registerMetadataDirectory(transportFactory.createSnapshot(connectionModel), directory, authentication);
 	}
 	
-	@SuppressWarnings("unchecked")
-	private Map<String, Object> getMetadata(File metaDataFile) {
+	/**
+	 * Registers all registration files (*.json) of a directory, see 
+	 * {@link #registerMetadata(ConnectionSnapshot, List, MetadataAuthenticationInformation)}
+	 * 
+	 * @param connection the connection to Kyma/Extension Factory
+	 * @param directory directory containing the registration files
+	 * @param authentication model containing authentication data, can be null 
+	 * @return one {@link MetadataRegistrationResult} per file in the order of the file names
+	 * @throws ApplicationConnectorException if the registered services cannot be retrieved
+	 * @throws MetadataInvalidException if the directory cannot be read
+	 */
+	public List<MetadataRegistrationResult> registerMetadataDirectory(ConnectionSnapshot connection, 
+			File directory, MetadataAuthenticationInformation authentication) {
 		
-		try {
-			return new ObjectMapper().readValue(FileUtils.readFileToByteArray(metaDataFile), HashMap.class);
-		} catch (JsonParseException e) {
-			throw new MetadataInvalidException(e.getMessage(), e);
-		} catch (JsonMappingException e) {
-			throw new MetadataInvalidException(e.getMessage(), e);
-		} catch (IOException e) {
-			throw new MetadataInvalidException(e.getMessage(), e);
+		File[] metaDataFiles = directory.listFiles((dir, name) -> name.endsWith(".json"));
+		if (metaDataFiles == null) {
+			throw new MetadataInvalidException("Directory cannot be read: " + directory);
 		}
+		Arrays.sort(metaDataFiles);
 		
-
+		return registerMetadata(connection, Arrays.asList(metaDataFiles), authentication);
 	}
 	
-	private Map<String, Object> addAuthenticationToMetadata(Map<String, Object> metadata, 
-			MetadataAuthenticationInformation authentication) {
+	/**
+	 * Registers a list of registration files, see 
+	 * {@link #registerMetadata(ConnectionSnapshot, List, MetadataAuthenticationInformation)}
+	 * 
+	 * @param connectionModel model containing all details for the connection to Kyma/Extension Factory
+	 * @param metaDataFiles the registration files
+	 * @param authentication model containing authentication data, can be null 
+	 * @return one {@link MetadataRegistrationResult} per file in the order of the given files
+	 * @throws ApplicationConnectorException if the registered services cannot be retrieved
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
+	 */
+	public List<MetadataRegistrationResult> registerMetadata(ConnectionModel connectionModel, 
+			List<File> metaDataFiles, MetadataAuthenticationInformation authentication) {
+		return registerMetadata(transportFactory.createSnapshot(connectionModel), metaDataFiles, authentication);
+	}
+	
+	/**
+	 * Registers a list of registration files to the Kyma / Extension Factory Application Registry. 
+	 * The registered services are retrieved once, then the files are created or updated 
+	 * concurrently over the same connection. A failure of one file does not affect the 
+	 * others, it is reported in its {@link MetadataRegistrationResult}. Files sharing an 
+	 * identifier with a preceding file of the list fail, as they would override each other.
+	 * 
+	 * @param connection the connection to Kyma/Extension Factory
+	 * @param metaDataFiles the registration files
+	 * @param authentication model containing authentication data, can be null 
+	 * @return one {@link MetadataRegistrationResult} per file in the order of the given files
+	 * @throws ApplicationConnectorException if the registered services cannot be retrieved
+	 */
+	public List<MetadataRegistrationResult> registerMetadata(ConnectionSnapshot connection, 
+			List<File> metaDataFiles, MetadataAuthenticationInformation authentication) {
 		
-		//no api contained, hence nothing to do
-		if (!metadata.containsKey("api")) {
-			return metadata;
-		}
+		ConnectorTransport transport = connection.getTransport();
 		
+		MetadataIdentifierIndex currentMetadata = listingCache.get(transport, connection.getMetadataUrl());
 		
-		@SuppressWarnings("unchecked")
-		Map<String, Object> api = (Map<String, Object>) metadata.get("api");
+		List<MetadataDocument> documents = metaDataFiles.stream()
+				.map((f) -> new MetadataDocument(f, authentication, objectMapper))
+				.collect(Collectors.toList());
 		
-		api.put("credentials", authentication.getAuthenticationInfo());
+		List<CompletableFuture<MetadataDocument>> scanned = documents.stream()
+				.map((d) -> submit(() -> { d.scan(); return d; }))
+				.collect(Collectors.toList());
 		
-		return metadata;
+		Set<String> identifiers = new HashSet<String>();
+		List<CompletableFuture<MetadataRegistrationResult>> results = 
+				new ArrayList<CompletableFuture<MetadataRegistrationResult>>(documents.size());
+		
+		for (int i = 0; i < documents.size(); i++) {
+			MetadataDocument metadata = documents.get(i);
+			try {
+				scanned.get(i).join();
+			} catch (CompletionException e) {
+				results.add(CompletableFuture.completedFuture(
+						MetadataRegistrationResult.failed(metadata.getFile(), null, unwrap(e))));
+				continue;
+			}
+			
+			String metadataIdentifier = metadata.getIdentifier();
+			if (metadataIdentifier != null && !identifiers.add(metadataIdentifier)) {
+				results.add(CompletableFuture.completedFuture(MetadataRegistrationResult.failed(metadata.getFile(), 
+						metadataIdentifier, new MetadataInvalidException(
+								"Identifier already registered by another file: " + metadataIdentifier))));
+			} else {
+				results.add(submit(() -> register(transport, connection.getMetadataUrl(), currentMetadata, metadata))
+						.exceptionally((e) -> MetadataRegistrationResult.failed(metadata.getFile(), 
+								metadataIdentifier, unwrap(e))));
+			}
+		}
 		
+		return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
 	}
 	
-	/**
-	 * Registers metadata to the Kyma / Extension Factory Application Registry using a pointer
-	 * to a file with the appropriate JSON format
-	 * 
-	 * @param connectionModel model containing all details for the connection to Kyma/Extension Factory
-	 * @param authentication model containing authentication data, can be null 
-	 * @throws ApplicationConnectorException if anything fails
-	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link RestTemplate}
-	 * @throws MetadataInvalidException if Metadata is flawed (no syntax check though)
-	 */
-	public void registerMetadata(ConnectionModel connectionModel, File metaDataFile,
-			MetadataAuthenticationInformation authentication) {
+	private RuntimeException unwrap(Throwable failure) {
+		Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+		return cause instanceof RuntimeException 
+				? (RuntimeException) cause : new ApplicationConnectorException(cause.getMessage(), cause);
+	}
+	
+	private <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, registrationExecutor);
+		} catch (RejectedExecutionException e) {
+			CompletableFuture<T> result = new CompletableFuture<T>();
+			result.completeExceptionally(new ApplicationConnectorException(e.getMessage(), e));
+			return result;
+		}
+	}
+	
+	private RequestEntity<MetadataDocument> createRequest(RequestEntity.BodyBuilder request, 
+			MetadataDocument metadata) {
 		
-		RestTemplate restTemplate = 
-				restTemplateBuilder.applicationConnectorRestTemplate(connectionModel.getSslKey(),
-						connectionModel.getKeystorePass());
-
-		Map<String, MetadataResponse> currentMetadata = getMetadata(restTemplate, connectionModel.getMetadataUrl());
-
-		Map<String, Object> metadata = getMetadata(metaDataFile);
+		request.contentType(MediaType.APPLICATION_JSON);
+		if (compressionProperties.isCompressMetadata(metadata.getContentLength())) {
+			request.header(HttpHeaders.CONTENT_ENCODING, GzipCompression.GZIP);
+		}
+		return request.body(metadata);
+	}
+	
+	private MetadataRegistrationResult register(ConnectorTransport transport, URI metadataUrl,
+			MetadataIdentifierIndex currentMetadata, MetadataDocument metadata) {
 		
-		if(authentication != null) {
-			metadata = addAuthenticationToMetadata(metadata, authentication);
+		Timer.Sample sample = metrics.start();
+		String outcome = MetadataRegistrationResult.Outcome.FAILED.name();
+		try {
+			MetadataRegistrationResult result = registerInternal(transport, metadataUrl, currentMetadata, metadata);
+			outcome = result.getOutcome().name();
+			if (result.getOutcome() != MetadataRegistrationResult.Outcome.SKIPPED) {
+				metrics.recordRequestBytes(ConnectorMetrics.METADATA_REGISTER, metadata.getWrittenLength());
+			}
+			return result;
+		} finally {
+			metrics.recordOperation(sample, ConnectorMetrics.METADATA_REGISTER, outcome.toLowerCase());
 		}
-
+	}
+	
+	private MetadataRegistrationResult registerInternal(ConnectorTransport transport, URI metadataUrl,
+			MetadataIdentifierIndex currentMetadata, MetadataDocument metadata) {
+		
+		String metadataIdentifier = metadata.getIdentifier();
+		String metadataId = metadataIdentifier != null ? currentMetadata.getId(metadataIdentifier) : null;
+		
 		try {
-			if (metadata.containsKey("identifier")) {
-
-				String metadataIdentifier = (String) metadata.get("identifier");
-				if (currentMetadata.containsKey(metadataIdentifier)) {
-
-					String metadataId = currentMetadata.get(metadataIdentifier).getId();
-					try {
-						URIBuilder builder = new URIBuilder(connectionModel.getMetadataUrl());
+			if (metadataId != null) {
 
-						URI metadataUpdateUrl = builder.setPath(builder.getPath() + "/" + metadataId).build()
-								.normalize();
-						restTemplate.put(metadataUpdateUrl, metadata);
-
-					} catch (URISyntaxException e) {
-						throw new ApplicationConnectorException(e.getMessage(), e);
-					}
+				if (properties.isSkipUnchanged() && hashStore.isUnchanged(metadataUrl, metadataIdentifier, 
+						metadataId, metadata.getContentHash())) {
+					return MetadataRegistrationResult.skipped(metadata.getFile(), metadataIdentifier, metadataId);
+				}
+				
+				try {
+					URIBuilder builder = new URIBuilder(metadataUrl);
 
-				} else {
-					ResponseEntity<String> response = restTemplate.postForEntity(connectionModel.getMetadataUrl(),
-							metadata, String.class);
+					URI metadataUpdateUrl = builder.setPath(builder.getPath() + "/" + metadataId).build()
+							.normalize();
+					
+					hashStore.remove(metadataUrl, metadataIdentifier);
+					transport.exchange(createRequest(RequestEntity.put(metadataUpdateUrl), metadata), Void.class);
+					listingCache.invalidate(metadataUrl);
+					hashStore.put(metadataUrl, metadataIdentifier, metadataId, metadata.getContentHash());
+					
+					return MetadataRegistrationResult.updated(metadata.getFile(), metadataIdentifier, metadataId);
 
-					if (response.getStatusCode() != HttpStatus.OK) {
-						throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
-								response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
-					}
+				} catch (URISyntaxException e) {
+					throw new ApplicationConnectorException(e.getMessage(), e);
 				}
 
 			} else {
-				ResponseEntity<String> response = restTemplate.postForEntity(connectionModel.getMetadataUrl(),
-						metadata, String.class);
+				ResponseEntity<MetadataCreatedResponse> response = transport.exchange(
+						createRequest(RequestEntity.post(metadataUrl), metadata), MetadataCreatedResponse.class);
+				listingCache.invalidate(metadataUrl);
 
 				if (response.getStatusCode() != HttpStatus.OK) {
 					throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
 							response.getStatusCode().value(), response.getStatusCode().getReasonPhrase()));
 				}
 				
+				String createdId = response.getBody() != null ? response.getBody().getId() : null;
+				if (metadataIdentifier != null && createdId != null) {
+					hashStore.put(metadataUrl, metadataIdentifier, createdId, metadata.getContentHash());
+				}
+				
+				return MetadataRegistrationResult.created(metadata.getFile(), metadataIdentifier, createdId);
 			}
 		} catch (RestClientException e) {
+			listingCache.invalidate(metadataUrl);
 			throw new ApplicationConnectorException(e.getMessage(), e);
 		}
 	}
 	
 	@Data
-	private static class MetadataResponse {
+	private static class MetadataCreatedResponse {
 		private String id;
-		private String provider;
-		private String name;
-		private String description;
-		private String identifier;
 	}
-	
-	@SuppressWarnings("serial")
-	private static class MetadataResponseList extends ArrayList<MetadataResponse> {}
 }
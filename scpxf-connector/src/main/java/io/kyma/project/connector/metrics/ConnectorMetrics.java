@@ -0,0 +1,261 @@
+package io.kyma.project.connector.metrics;
+
+import java.util.Date;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+/**
+ * Records the metrics of all connector operations with Micrometer. If the application
+ * provides a {@link MeterRegistry} (e.g. via Spring Boot Actuator) it is used, otherwise
+ * the measurements go to the global registry {@link Metrics#globalRegistry}.
+ *
+ * The following meters are provided:
+ * * <code>kyma.connector.operations</code> latency and outcome per operation
+ * * <code>kyma.connector.events</code> latency and outcome per event type (if tagged, see
+ *   {@link MetricsProperties#getTaggedEventTypes()})
+ * * <code>kyma.connector.request.bytes</code> / <code>kyma.connector.response.bytes</code> per operation
+ * * <code>cache.*</code> hits, misses and evictions of the client caches
+ * * <code>kyma.connector.http.pool.*</code> usage of the connection pools
+ * * <code>kyma.connector.tls.handshakes</code> full and resumed handshakes
+ * * <code>kyma.connector.transport.retries</code> / <code>kyma.connector.circuitbreaker.*</code> retries and breaker states
+ * * <code>kyma.connector.certificate.expiry</code> time to expiry per application and monitoring component
+ *
+ * @see MetricsProperties
+ */
+@Component
+public class ConnectorMetrics {
+
+	public static final String PAIRING_CONNECT = "pairing.connect";
+	public static final String PAIRING_RENEW = "pairing.renew";
+	public static final String PAIRING_INFO = "pairing.info";
+	public static final String METADATA_REGISTER = "metadata.register";
+	public static final String EVENT_PUBLISH = "event.publish";
+	public static final String EVENT_SUBSCRIPTIONS = "event.subscriptions";
+
+	public static final String SUCCESS = "success";
+	public static final String FAILURE = "failure";
+
+	public static final String SOURCE_REGISTRY = "registry";
+	public static final String SOURCE_RENEWAL = "renewal";
+
+	private static final String OTHER = "other";
+
+	private MeterRegistry registry = Metrics.globalRegistry;
+
+	private MetricsProperties properties;
+
+	/**
+	 * Method used for setter injection, optional
+	 * @param registry the registry the meters are registered at
+	 */
+	@Autowired(required = false)
+	public void setMeterRegistry(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration of the metrics
+	 */
+	@Autowired
+	public void setProperties(MetricsProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Starts the measurement of an operation
+	 *
+	 * @return {@link Timer.Sample} to be passed to one of the record methods
+	 */
+	public Timer.Sample start() {
+		return Timer.start(registry);
+	}
+
+	/**
+	 * Records the latency and outcome of an operation
+	 *
+	 * @param sample sample started via {@link #start()}
+	 * @param operation name of the operation, e.g. {@link #PAIRING_RENEW}
+	 * @param outcome outcome of the operation, e.g. {@link #SUCCESS}
+	 */
+	public void recordOperation(Timer.Sample sample, String operation, String outcome) {
+		if (properties.isEnabled()) {
+			sample.stop(timer("kyma.connector.operations", "Latency of connector operations",
+					Tags.of("operation", operation, "outcome", outcome)));
+		}
+	}
+
+	/**
+	 * Records the latency and outcome of publishing an event, it is tagged with the type
+	 * and version of the event if its type is listed in {@link MetricsProperties#getTaggedEventTypes()}
+	 *
+	 * @param sample sample started via {@link #start()}
+	 * @param eventType type of the event
+	 * @param eventTypeVersion version of the event type
+	 * @param outcome outcome of the operation, e.g. {@link #SUCCESS}
+	 */
+	public void recordEvent(Timer.Sample sample, String eventType, String eventTypeVersion, String outcome) {
+		if (properties.isEnabled()) {
+			boolean tagged = properties.getTaggedEventTypes().contains(eventType);
+			sample.stop(timer("kyma.connector.events", "Latency of publishing events",
+					Tags.of("event.type", tagged ? eventType : OTHER, "event.type.version",
+							tagged ? String.valueOf(eventTypeVersion) : OTHER, "outcome", outcome)));
+		}
+	}
+
+	/**
+	 * Records the size of a request body as sent over the wire
+	 *
+	 * @param operation name of the operation
+	 * @param bytes size in bytes, negative values are ignored
+	 */
+	public void recordRequestBytes(String operation, long bytes) {
+		if (properties.isEnabled() && bytes >= 0) {
+			DistributionSummary.builder("kyma.connector.request.bytes").description("Size of request bodies")
+					.baseUnit("bytes").tags("operation", operation).register(registry).record(bytes);
+		}
+	}
+
+	/**
+	 * Records the size of a response body as received over the wire
+	 *
+	 * @param operation name of the operation
+	 * @param bytes size in bytes, negative values (unknown size) are ignored
+	 */
+	public void recordResponseBytes(String operation, long bytes) {
+		if (properties.isEnabled() && bytes >= 0) {
+			DistributionSummary.builder("kyma.connector.response.bytes").description("Size of response bodies")
+					.baseUnit("bytes").tags("operation", operation).register(registry).record(bytes);
+		}
+	}
+
+	/**
+	 * Records the retry of a failed request
+	 *
+	 * @param reason reason of the retry, e.g. the status code of the failed attempt
+	 */
+	public void recordRetry(String reason) {
+		if (properties.isEnabled()) {
+			registry.counter("kyma.connector.transport.retries", "reason", reason).increment();
+		}
+	}
+
+	/**
+	 * Records the transition of a circuit breaker
+	 *
+	 * @param state state the breaker entered
+	 */
+	public void recordCircuitBreakerTransition(String state) {
+		if (properties.isEnabled()) {
+			registry.counter("kyma.connector.circuitbreaker.transitions", "state", state).increment();
+		}
+	}
+
+	/**
+	 * Records a managed connection whose certificate could not be renewed before it expires
+	 */
+	public void recordRenewalAbandoned() {
+		if (properties.isEnabled()) {
+			registry.counter("kyma.connector.certificate.renewal.abandoned").increment();
+		}
+	}
+
+	/**
+	 * Monitors hits, misses, evictions and size of the given cache, the cache has to record
+	 * its statistics ({@link com.google.common.cache.CacheBuilder#recordStats()})
+	 *
+	 * @param name name of the cache
+	 * @param cache cache to be monitored
+	 */
+	public void monitorCache(String name, Cache<?, ?> cache) {
+		if (properties.isEnabled()) {
+			GuavaCacheMetrics.monitor(registry, cache, name);
+		}
+	}
+
+	/**
+	 * Registers a gauge that is computed from the given object
+	 *
+	 * @param name name of the gauge
+	 * @param description description of the gauge
+	 * @param object object the value is computed from, referenced strongly
+	 * @param value function computing the value
+	 * @param tags key value pairs of tags
+	 */
+	public <T> void gauge(String name, String description, T object, ToDoubleFunction<T> value, String... tags) {
+		if (properties.isEnabled()) {
+			Gauge.builder(name, object, value).description(description).tags(tags).strongReference(true)
+					.register(registry);
+		}
+	}
+
+	/**
+	 * Registers a counter whose value is computed from the given object
+	 *
+	 * @param name name of the counter
+	 * @param description description of the counter
+	 * @param object object the value is computed from, referenced strongly
+	 * @param value function computing the (monotonically increasing) value
+	 * @param tags key value pairs of tags
+	 */
+	public <T> void counter(String name, String description, T object, ToDoubleFunction<T> value, String... tags) {
+		if (properties.isEnabled()) {
+			// the object is referenced by the caller for the lifetime of the application
+			FunctionCounter.builder(name, object, value).description(description).tags(tags).register(registry);
+		}
+	}
+
+	/**
+	 * Registers a gauge of the time until the certificate of the given application expires.
+	 * Only the first registration per application and source is effective until it is removed.
+	 *
+	 * @param source component monitoring the certificate, e.g. {@link #SOURCE_REGISTRY}
+	 * @param applicationName name of the application
+	 * @param expirationDate supplier of the current expiration date, may supply null if unknown
+	 * @return registered {@link Meter} to be passed to {@link #remove(Meter)} or null if disabled
+	 */
+	public Meter monitorCertificateExpiry(String source, String applicationName, Supplier<Date> expirationDate) {
+		if (!properties.isEnabled()) {
+			return null;
+		}
+		return Gauge.builder("kyma.connector.certificate.expiry", expirationDate, (s) -> {
+			Date date = s.get();
+			return date != null ? (date.getTime() - System.currentTimeMillis()) / 1000.0 : Double.NaN;
+		})
+				.description("Time until the application certificate expires").baseUnit("seconds")
+				.tags("application", String.valueOf(applicationName), "source", source).strongReference(true)
+				.register(registry);
+	}
+
+	/**
+	 * Removes a meter, e.g. the certificate gauge of an application that is no longer connected
+	 *
+	 * @param meter meter to be removed, may be null
+	 */
+	public void remove(Meter meter) {
+		if (meter != null) {
+			registry.remove(meter);
+		}
+	}
+
+	private Timer timer(String name, String description, Tags tags) {
+		return Timer.builder(name).description(description).tags(tags)
+				.publishPercentileHistogram(properties.isPercentileHistogram()).register(registry);
+	}
+
+}
@@ -0,0 +1,40 @@
+package io.kyma.project.connector.metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the metrics of the connector
+ * (prefix <code>kyma.connector.metrics</code>).
+ *
+ * @see ConnectorMetrics
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.metrics")
+public class MetricsProperties {
+
+	/**
+	 * Record metrics, if disabled all measurements are discarded
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Publish latency histograms (buckets) in addition to count, sum and maximum, e.g. to
+	 * compute percentiles across instances
+	 */
+	private boolean percentileHistogram = false;
+
+	/**
+	 * Event types whose event metrics are tagged with their type and version, all other
+	 * events are tagged as <code>other</code>. Every tagged type and version is a separate
+	 * time series, hence only a bounded set of types should be listed.
+	 */
+	private Set<String> taggedEventTypes = new HashSet<String>();
+
+}
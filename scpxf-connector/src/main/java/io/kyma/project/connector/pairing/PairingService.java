@@ -20,21 +20,24 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import io.kyma.project.connector.connection.model.ConnectionModel;
 import io.kyma.project.connector.exception.ApplicationConnectorException;
 import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.transport.ConnectorTransport;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
 import io.kyma.project.connector.util.CertificateService;
 import io.kyma.project.connector.util.CertificateService.CsrResult;
-import io.kyma.project.connector.util.ClientCertRestTemplateBuilder;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -60,43 +63,42 @@ public class PairingService {
             Pattern.CASE_INSENSITIVE);
 
 	
-	private RestTemplate pairingTemplate;
-	
 	private CertificateService certService;
 	
-	private ClientCertRestTemplateBuilder restTemplateBuilder;
+	private ConnectorTransportFactory transportFactory;
+	
+	private ConnectorMetrics metrics;
 
 	/**
-	 * Sets the {@link ClientCertRestTemplateBuilder} to be used by this object
+	 * Sets the {@link ConnectorMetrics} to be used by this object
 	 * 
-	 * @param restTemplateBuilder {@link ClientCertRestTemplateBuilder} to be used by this Object 
+	 * @param metrics {@link ConnectorMetrics} to be used by this Object 
 	 */	
 	@Autowired
-	public void setClientCertRestTemplateBuilder(ClientCertRestTemplateBuilder restTemplateBuilder) {
-		this.restTemplateBuilder = restTemplateBuilder;
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
 	}
 
 	/**
-	 * Sets the {@link CertificateService} to be used by this object
+	 * Sets the {@link ConnectorTransportFactory} to be used by this object
 	 * 
-	 * @param certService {@link CertificateService} to be used by this Object 
+	 * @param transportFactory {@link ConnectorTransportFactory} to be used by this Object 
 	 */	
 	@Autowired
-	public void setCertService(CertificateService certService) {
-		this.certService = certService;
+	public void setTransportFactory(ConnectorTransportFactory transportFactory) {
+		this.transportFactory = transportFactory;
 	}
 
 	/**
-	 * Sets the {@link RestTemplate} to be used by this object for the initila pairing step (no 2-way-ssl)
+	 * Sets the {@link CertificateService} to be used by this object
 	 * 
-	 * @param pairingTemplate {@link RestTemplate} to be used by this Object 
-	 */
+	 * @param certService {@link CertificateService} to be used by this Object 
+	 */	
 	@Autowired
-	@Qualifier("PairingTemplate")
-	public void setPairingTemplate(RestTemplate pairingTemplate) {
-		this.pairingTemplate = pairingTemplate;
+	public void setCertService(CertificateService certService) {
+		this.certService = certService;
 	}
-	
+
 	private Encoder base64Encoder = Base64.getEncoder();
 	private Decoder base64Decoder = Base64.getDecoder();
 	
@@ -105,7 +107,8 @@ public class PairingService {
 		
 		try {
 			ResponseEntity<ConnectInfo> response = 
-					pairingTemplate.getForEntity(connectUri, ConnectInfo.class);
+					transportFactory.getPairingTransport().exchange(RequestEntity.get(connectUri).build(), 
+							ConnectInfo.class);
 			
 			if (response.getStatusCode() != HttpStatus.OK) {
 				throw new ApplicationConnectorException(
@@ -120,7 +123,7 @@ public class PairingService {
 		}
 	}
 	
-	private List<String> matchCertificates(String certsString) {
+	List<String> matchCertificates(String certsString) {
 		
 		 Matcher m = CERT_PATTERN.matcher(certsString);
 		 
@@ -140,7 +143,7 @@ public class PairingService {
 		
 	}
 	
-	private KeyStore getCertificateInternal(RestTemplate restTemplate, char[] keystorePassword, URI csrUrl, 
+	private KeyStore getCertificateInternal(ConnectorTransport transport, char[] keystorePassword, URI csrUrl, 
 			byte[] csr, KeyPair keyPair) {
 		
 		String encodedCsr = String.format("-----BEGIN CERTIFICATE REQUEST-----\n%s"
@@ -150,7 +153,9 @@ public class PairingService {
 
 		CsrRequest request = new CsrRequest(doubleEncodedCsr);
 		try {
-			ResponseEntity<CsrResponse> response = restTemplate.postForEntity(csrUrl, request, CsrResponse.class);
+			ResponseEntity<CsrResponse> response = transport.exchange(
+					RequestEntity.post(csrUrl).contentType(MediaType.APPLICATION_JSON).body(request), 
+					CsrResponse.class);
 
 			if (response.getStatusCode() != HttpStatus.CREATED) {
 				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
@@ -205,31 +210,38 @@ public class PairingService {
 	 * @param newKeyStorePassword password to be used for the refreshed keystore
 	 * @return {@link ConnectionModel} that contains updated connection details with refreshed keystore
 	 * @throws ApplicationConnectorException if anything fails
-	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link RestTemplate}
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
 	 */
 	public ConnectionModel renewCertificate(ConnectionModel currentConnectionModel,
 			char[] newKeyStorePassword) {
 		
-		ConnectionModel result = getInfo(currentConnectionModel);
-		
-		CsrResult csr = certService.createCSR(currentConnectionModel.getCertificateSubject(), 
-				currentConnectionModel.getCertificateAlgorithm());
-		
-		RestTemplate restTemplate = 
-				restTemplateBuilder
-				.applicationConnectorRestTemplate(currentConnectionModel.getSslKey(), 
-						currentConnectionModel.getKeystorePass());	
+		Timer.Sample sample = metrics.start();
+		String outcome = ConnectorMetrics.FAILURE;
+		try {
+			ConnectionModel result = getInfo(currentConnectionModel);
 			
-		KeyStore newKey =  getCertificateInternal(	restTemplate, 
-										newKeyStorePassword,
-										currentConnectionModel.getRenewCertUrl(), 
-										csr.getCsr(), 
-										csr.getKeypair());
-		
-		result.setKeystorePass(newKeyStorePassword);
-		result.setSslKey(newKey);
-		
-		return result;
+			CsrResult csr = certService.createCSR(currentConnectionModel.getCertificateSubject(), 
+					currentConnectionModel.getCertificateAlgorithm());
+			
+			ConnectorTransport transport = 
+					transportFactory
+					.getTransport(currentConnectionModel.getSslKey(), 
+							currentConnectionModel.getKeystorePass());	
+				
+			KeyStore newKey =  getCertificateInternal(	transport, 
+											newKeyStorePassword,
+											currentConnectionModel.getRenewCertUrl(), 
+											csr.getCsr(), 
+											csr.getKeypair());
+			
+			result.setKeystorePass(newKeyStorePassword);
+			result.setSslKey(newKey);
+			
+			outcome = ConnectorMetrics.SUCCESS;
+			return result;
+		} finally {
+			metrics.recordOperation(sample, ConnectorMetrics.PAIRING_RENEW, outcome);
+		}
 	}
 	
 	/**
@@ -239,23 +251,31 @@ public class PairingService {
 	 * @param currentConnectionModel model containing all details for the current connection 
 	 * @return {@link ConnectionModel} that contains updated connection details
 	 * @throws ApplicationConnectorException if anything fails
-	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link RestTemplate}
+	 * @throws RestTemplateCustomizerException if anything fails with acquiring the {@link ConnectorTransport}
 	 */
 	public ConnectionModel getInfo(ConnectionModel currentConnectionModel) {
-		return getInfo(currentConnectionModel.getInfoUrl(), 
-				currentConnectionModel.getKeystorePass(), 
-				currentConnectionModel.getSslKey(),
-				currentConnectionModel.getCertificateAlgorithm(),
-				currentConnectionModel.getCertificateSubject());
+		Timer.Sample sample = metrics.start();
+		String outcome = ConnectorMetrics.FAILURE;
+		try {
+			ConnectionModel result = getInfo(currentConnectionModel.getInfoUrl(), 
+					currentConnectionModel.getKeystorePass(), 
+					currentConnectionModel.getSslKey(),
+					currentConnectionModel.getCertificateAlgorithm(),
+					currentConnectionModel.getCertificateSubject());
+			outcome = ConnectorMetrics.SUCCESS;
+			return result;
+		} finally {
+			metrics.recordOperation(sample, ConnectorMetrics.PAIRING_INFO, outcome);
+		}
 	}
 	
 	private ConnectionModel getInfo(URI infoUrl, char[] keystorePassword, KeyStore keyStore,
 			String certificateAlgorithm, String certificateSubject) {
 		
-		RestTemplate restTemplate = 
-				restTemplateBuilder.applicationConnectorRestTemplate(keyStore, keystorePassword);
+		ConnectorTransport transport = transportFactory.getTransport(keyStore, keystorePassword);
 		try {
-			ResponseEntity<InfoResponse> response = restTemplate.getForEntity(infoUrl, InfoResponse.class);
+			ResponseEntity<InfoResponse> response = transport.exchange(RequestEntity.get(infoUrl).build(), 
+					InfoResponse.class);
 
 			if (response.getStatusCode() != HttpStatus.OK) {
 				throw new ApplicationConnectorException(String.format("Error Response Received, code: %d (%s)",
@@ -295,19 +315,25 @@ public class PairingService {
 	 */
 	public ConnectionModel executeInitialPairing(URI connectUri, char[] keystorePassword) {
 		
-		ConnectInfo connectInfo = getConnectInfo(connectUri);
-		
-		CsrResult csr = certService.createCSR(connectInfo.getCertificate().getSubject(), 
-				connectInfo.getCertificate().getKeyAlgorithm());
-		
-		KeyStore keyStore =  getCertificateInternal(pairingTemplate, keystorePassword, connectInfo.getCsrUrl(), 
-				csr.getCsr(), csr.getKeypair());
-		
-		
-		
-		return getInfo(connectInfo.getApi().getInfoUrl(), keystorePassword, keyStore, 
-				connectInfo.getCertificate().getKeyAlgorithm(),
-				connectInfo.getCertificate().getSubject());
+		Timer.Sample sample = metrics.start();
+		String outcome = ConnectorMetrics.FAILURE;
+		try {
+			ConnectInfo connectInfo = getConnectInfo(connectUri);
+			
+			CsrResult csr = certService.createCSR(connectInfo.getCertificate().getSubject(), 
+					connectInfo.getCertificate().getKeyAlgorithm());
+			
+			KeyStore keyStore =  getCertificateInternal(transportFactory.getPairingTransport(), keystorePassword, connectInfo.getCsrUrl(), 
+					csr.getCsr(), csr.getKeypair());
+			
+			ConnectionModel result = getInfo(connectInfo.getApi().getInfoUrl(), keystorePassword, keyStore, 
+					connectInfo.getCertificate().getKeyAlgorithm(),
+					connectInfo.getCertificate().getSubject());
+			outcome = ConnectorMetrics.SUCCESS;
+			return result;
+		} finally {
+			metrics.recordOperation(sample, ConnectorMetrics.PAIRING_CONNECT, outcome);
+		}
 	}
 	
 	@Data
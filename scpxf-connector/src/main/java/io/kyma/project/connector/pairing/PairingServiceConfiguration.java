@@ -1,7 +1,6 @@
 package io.kyma.project.connector.pairing;
 
 import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
@@ -9,6 +8,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.kyma.project.connector.util.HttpConnectionPoolManager;
+import io.kyma.project.connector.util.SslContextProvider;
+
 
 /**
 * Spring Configurations relevant for the "pairing step"
@@ -23,6 +25,10 @@ public class PairingServiceConfiguration {
 	
 	private RestTemplateBuilder restTemplateBuilder;
 	
+	private HttpConnectionPoolManager connectionPoolManager;
+	
+	private SslContextProvider sslContextProvider;
+	
 	/**
 	 * Sets the {@link RestTemplateBuilder} to be used by this object
 	 * 
@@ -34,14 +40,35 @@ public class PairingServiceConfiguration {
 	}
 	
 	/**
-	 * Creates the {@link RestTemplate} Bean with default {@link HttpClient} for consistency
+	 * Sets the {@link HttpConnectionPoolManager} to be used by this object
+	 * 
+	 * @param connectionPoolManager {@link HttpConnectionPoolManager} providing the pooled connections 
+	 */
+	@Autowired
+	public void setConnectionPoolManager(HttpConnectionPoolManager connectionPoolManager) {
+		this.connectionPoolManager = connectionPoolManager;
+	}
+	
+	/**
+	 * Sets the {@link SslContextProvider} to be used by this object
+	 * 
+	 * @param sslContextProvider {@link SslContextProvider} providing the shared SSL context
+	 */
+	@Autowired
+	public void setSslContextProvider(SslContextProvider sslContextProvider) {
+		this.sslContextProvider = sslContextProvider;
+	}
+	
+	/**
+	 * Creates the {@link RestTemplate} Bean with pooled {@link HttpClient} for consistency
 	 * 
 	 * @return generic {@link RestTemplate} based on {@link HttpClient}
 	 */
 	@Bean("PairingTemplate")
 	public RestTemplate pairingRestTemplate() {
 		
-		HttpClient client = HttpClients.createDefault();
+		HttpClient client = connectionPoolManager.createHttpClient("pairing", 
+				sslContextProvider.createSocketFactory(sslContextProvider.getDefaultSslContext()));
 		return restTemplateBuilder
 				.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(client))
 				.build();
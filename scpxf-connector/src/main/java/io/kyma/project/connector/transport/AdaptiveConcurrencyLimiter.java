@@ -0,0 +1,232 @@
+package io.kyma.project.connector.transport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.kyma.project.connector.exception.ConcurrencyLimitExceededException;
+
+/**
+ * Limits the number of concurrent requests of a connection and adapts the limit to the
+ * observed latency (gradient algorithm). The latency of every request is compared to the
+ * long term average: while it holds steady and the limit is used the limit grows, when it
+ * rises the limit shrinks proportionally. Timeouts and overload responses (429, 503, 504)
+ * shrink the limit by a fixed ratio. This way the limit settles where the gateway serves
+ * the most requests without queueing them.
+ *
+ * Requests exceeding the limit wait in FIFO order for a permit. Every granted permit has to
+ * be returned via {@link #release(long, boolean)} or {@link #releaseIgnored()}.
+ *
+ * @see LimitedTransport
+ * @see ConcurrencyLimitProperties
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+	private final String name;
+
+	private final ConcurrencyLimitProperties properties;
+
+	private final int maxLimit;
+
+	private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<CompletableFuture<Void>>();
+
+	private double limit;
+
+	private int inFlight;
+
+	private double longRtt;
+
+	private long samples;
+
+	/**
+	 * Creates a limiter starting with the configured initial limit
+	 *
+	 * @param name name of the limiter used in messages, e.g. the certificate fingerprint
+	 * @param properties configuration of the limiter, read on every adaption
+	 * @param maxLimit highest limit, e.g. the size of the connection pool, capped by the
+	 * configured maximum
+	 */
+	public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties properties, int maxLimit) {
+		this.name = name;
+		this.properties = properties;
+		this.maxLimit = Math.max(1, Math.min(maxLimit, properties.getMaxLimit()));
+		this.limit = clamp(properties.getInitialLimit());
+	}
+
+	/**
+	 * Returns the name of the limiter
+	 *
+	 * @return name of the limiter
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the current limit
+	 *
+	 * @return number of requests that may be in flight concurrently
+	 */
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * Returns the number of requests holding a permit
+	 *
+	 * @return number of requests in flight
+	 */
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Returns the number of requests waiting for a permit
+	 *
+	 * @return number of waiting requests
+	 */
+	public synchronized int getQueued() {
+		return waiters.size();
+	}
+
+	/**
+	 * Requests a permit without blocking
+	 *
+	 * @return {@link CompletableFuture} that is completed once the permit is granted, or
+	 * completed exceptionally with {@link ConcurrencyLimitExceededException} if too many
+	 * requests are waiting already
+	 */
+	public synchronized CompletableFuture<Void> acquireAsync() {
+		if (waiters.isEmpty() && inFlight < getLimit()) {
+			inFlight++;
+			return GRANTED;
+		}
+		if (waiters.size() >= properties.getMaxQueued()) {
+			CompletableFuture<Void> rejected = new CompletableFuture<Void>();
+			rejected.completeExceptionally(new ConcurrencyLimitExceededException(String.format(
+					"Concurrency limit %d of %s reached and %d requests waiting", getLimit(), name, waiters.size())));
+			return rejected;
+		}
+
+		CompletableFuture<Void> waiter = new CompletableFuture<Void>();
+		waiters.add(waiter);
+		return waiter;
+	}
+
+	/**
+	 * Waits for a permit
+	 *
+	 * @param timeoutMs maximum time to wait in milliseconds
+	 * @throws ConcurrencyLimitExceededException if no permit was granted in time or too many
+	 * requests are waiting already
+	 */
+	public void acquire(long timeoutMs) {
+		CompletableFuture<Void> permit = acquireAsync();
+		try {
+			permit.get(timeoutMs, TimeUnit.MILLISECONDS);
+			return;
+		} catch (ExecutionException e) {
+			throw (ConcurrencyLimitExceededException) e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (TimeoutException e) {
+			// removed from the queue below
+		}
+
+		synchronized (this) {
+			if (!waiters.remove(permit)) {
+				// granted concurrently
+				return;
+			}
+		}
+		throw new ConcurrencyLimitExceededException(String.format(
+				"No permit of %s granted within %d ms, concurrency limit %d", name, timeoutMs, getLimit()));
+	}
+
+	/**
+	 * Returns a permit and adapts the limit to the outcome of the request
+	 *
+	 * @param rttNanos latency of the request in nanoseconds
+	 * @param dropped true if the request timed out or the gateway was overloaded
+	 */
+	public void release(long rttNanos, boolean dropped) {
+		List<CompletableFuture<Void>> granted;
+		synchronized (this) {
+			if (dropped) {
+				limit = clamp(limit * properties.getBackoffRatio());
+			} else {
+				adapt(rttNanos);
+			}
+			granted = returnPermit();
+		}
+		grant(granted);
+	}
+
+	/**
+	 * Returns a permit without adapting the limit, e.g. if the request failed before it was
+	 * sent
+	 */
+	public void releaseIgnored() {
+		List<CompletableFuture<Void>> granted;
+		synchronized (this) {
+			granted = returnPermit();
+		}
+		grant(granted);
+	}
+
+	private void adapt(long rttNanos) {
+		double rtt = Math.max(1, rttNanos);
+		samples++;
+		longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / Math.min(samples, properties.getLongWindow());
+		if (longRtt / rtt > 2) {
+			// latency dropped sharply, e.g. after an overload, the average recovers faster
+			longRtt *= 0.95;
+		}
+
+		if (inFlight < limit / 2) {
+			// the limit is not used, the latency does not tell whether a higher one is fine
+			return;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRtt / rtt));
+		double newLimit = limit * gradient + Math.sqrt(limit);
+		limit = clamp(limit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing());
+	}
+
+	private List<CompletableFuture<Void>> returnPermit() {
+		inFlight--;
+		List<CompletableFuture<Void>> granted = new ArrayList<CompletableFuture<Void>>();
+		while (!waiters.isEmpty() && inFlight < getLimit()) {
+			granted.add(waiters.poll());
+			inFlight++;
+		}
+		return granted;
+	}
+
+	private void grant(List<CompletableFuture<Void>> granted) {
+		// completed outside of the lock, as the waiting requests are sent by the completing thread
+		for (CompletableFuture<Void> waiter : granted) {
+			if (!waiter.complete(null)) {
+				releaseIgnored();
+			}
+		}
+	}
+
+	private double clamp(double value) {
+		return Math.max(Math.max(1, properties.getMinLimit()), Math.min(maxLimit, value));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("AdaptiveConcurrencyLimiter(%s, limit %d, in flight %d, queued %d)", name, getLimit(),
+				getInFlight(), getQueued());
+	}
+
+}
@@ -0,0 +1,364 @@
+package io.kyma.project.connector.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Non-blocking {@link ConnectorTransport} based on the Apache HttpClient 5 async client.
+ * Requests are multiplexed over HTTP/2 if the server supports it (negotiated via ALPN), 
+ * otherwise sent over a pool of HTTP/1.1 connections. A few I/O threads serve all
+ * requests in flight.
+ * 
+ * All transports share one client and its I/O threads, each transport uses the connection 
+ * pool of its name in the {@link RoutingAsyncConnectionManager} of the client. The pool is
+ * looked up for every request, so the transport remains usable once its pool was released.
+ * These pools are not counted against the global maximum of the blocking pools (see
+ * {@link io.kyma.project.connector.util.HttpConnectionPoolProperties#getGlobalMaxTotal()}).
+ * 
+ * Compressed (gzip) responses are accepted and decompressed transparently.
+ * 
+ * Request and response bodies are converted with the given message converters and error
+ * responses are mapped to the same {@link RestClientException}s a 
+ * {@link org.springframework.web.client.RestTemplate} would throw. Byte array bodies are sent
+ * as they are, other bodies are streamed by the given executor while they are converted 
+ * (e.g. large registration files), instead of buffering them.
+ * 
+ * @see ConnectorTransportFactory
+ */
+public class AsyncHttpTransport implements ConnectorTransport, Closeable {
+
+	private static final int STREAM_BUFFER_SIZE = 8192;
+
+	private final CloseableHttpAsyncClient client;
+
+	private final RoutingAsyncConnectionManager connectionManager;
+
+	private final String poolName;
+
+	private final Supplier<PoolingAsyncClientConnectionManager> poolFactory;
+
+	private final List<HttpMessageConverter<?>> messageConverters;
+
+	private final Executor executor;
+
+	private final DefaultResponseErrorHandler errorHandler = new DefaultResponseErrorHandler();
+
+	/**
+	 * Creates a transport for an already started client
+	 * 
+	 * @param client started async client using the given connection manager
+	 * @param connectionManager connection manager of the client
+	 * @param poolName name of the connection pool used by this transport
+	 * @param poolFactory creates the connection pool if it does not exist
+	 * @param messageConverters converters for request and response bodies
+	 * @param executor executor streaming request bodies
+	 */
+	public AsyncHttpTransport(CloseableHttpAsyncClient client, RoutingAsyncConnectionManager connectionManager,
+			String poolName, Supplier<PoolingAsyncClientConnectionManager> poolFactory,
+			List<HttpMessageConverter<?>> messageConverters, Executor executor) {
+		this.client = client;
+		this.connectionManager = connectionManager;
+		this.poolName = poolName;
+		this.poolFactory = poolFactory;
+		this.messageConverters = messageConverters;
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns the name of the connection pool used by this transport
+	 * 
+	 * @return name of the pool
+	 */
+	public String getPoolName() {
+		return poolName;
+	}
+
+	@Override
+	public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType) {
+		try {
+			return exchangeAsync(request, responseType).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ResourceAccessException("Interrupted while waiting for response: " + e.getMessage());
+		} catch (ExecutionException e) {
+			throw ConnectorTransport.unwrap(e);
+		}
+	}
+
+	@Override
+	public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request, Class<T> responseType) {
+
+		CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<ResponseEntity<T>>();
+
+		// every failure is reported via the future, callers never see a synchronous exception
+		AsyncRequestProducer requestProducer;
+		try {
+			requestProducer = createRequest(request);
+		} catch (RestClientException e) {
+			result.completeExceptionally(e);
+			return result;
+		} catch (IOException | RuntimeException e) {
+			result.completeExceptionally(new RestClientException(e.getMessage(), e));
+			return result;
+		}
+
+		try {
+			RoutingAsyncConnectionManager.Pool pool = connectionManager.acquire(poolName, poolFactory);
+			HttpClientContext context = HttpClientContext.create();
+			context.setUserToken(pool);
+
+			try {
+				client.execute(requestProducer, SimpleResponseConsumer.create(), context, 
+						new FutureCallback<SimpleHttpResponse>() {
+
+					@Override
+					public void completed(SimpleHttpResponse response) {
+						pool.release();
+						try {
+							result.complete(convertResponse(response, responseType));
+						} catch (RestClientException e) {
+							result.completeExceptionally(e);
+						} catch (IOException e) {
+							result.completeExceptionally(new ResourceAccessException(e.getMessage(), e));
+						} catch (RuntimeException e) {
+							result.completeExceptionally(new RestClientException(e.getMessage(), e));
+						}
+					}
+
+					@Override
+					public void failed(Exception e) {
+						pool.release();
+						result.completeExceptionally(ioError(request, e));
+					}
+
+					@Override
+					public void cancelled() {
+						pool.release();
+						result.completeExceptionally(new ResourceAccessException(String.format(
+								"%s request for \"%s\" cancelled", request.getMethod(), request.getUrl())));
+					}
+				});
+			} catch (RuntimeException e) {
+				pool.release();
+				throw e;
+			}
+		} catch (RuntimeException e) {
+			// e.g. the client was closed or the pool could not be created
+			result.completeExceptionally(ioError(request, e));
+		}
+
+		return result;
+	}
+
+	private ResourceAccessException ioError(RequestEntity<?> request, Exception e) {
+		return new ResourceAccessException(String.format("I/O error on %s request for \"%s\": %s",
+				request.getMethod(), request.getUrl(), e.getMessage()), 
+				e instanceof IOException ? (IOException) e : new IOException(e));
+	}
+
+	@SuppressWarnings("unchecked")
+	private AsyncRequestProducer createRequest(RequestEntity<?> request) throws IOException {
+
+		BasicHttpRequest httpRequest = new BasicHttpRequest(request.getMethod().name(), request.getUrl());
+
+		StreamingOutputMessage body = new StreamingOutputMessage(request.getHeaders());
+
+		if (request.getBody() != null) {
+			Object requestBody = request.getBody();
+			MediaType contentType = request.getHeaders().getContentType();
+
+			HttpMessageConverter<Object> converter = (HttpMessageConverter<Object>) messageConverters.stream()
+					.filter((c) -> c.canWrite(requestBody.getClass(), contentType))
+					.findFirst()
+					.orElseThrow(() -> new RestClientException(String.format(
+							"No HttpMessageConverter for %s and content type \"%s\"", 
+							requestBody.getClass().getName(), contentType)));
+
+			// streaming converters only add their headers here and write the body once it is sent
+			converter.write(requestBody, contentType, body);
+		}
+
+		for (Map.Entry<String, List<String>> header : body.getHeaders().entrySet()) {
+			if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())
+					&& !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+				header.getValue().forEach((value) -> httpRequest.addHeader(header.getKey(), value));
+			}
+		}
+
+		if (!body.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+			httpRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, GzipCompression.GZIP);
+		}
+
+		return new BasicRequestProducer(httpRequest, request.getBody() != null 
+				? createEntity(request.getBody(), body) : null);
+	}
+
+	private AsyncEntityProducer createEntity(Object requestBody, StreamingOutputMessage body) {
+		MediaType mediaType = body.getHeaders().getContentType();
+		ContentType contentType = mediaType != null ? ContentType.parse(mediaType.toString()) 
+				: ContentType.APPLICATION_OCTET_STREAM;
+
+		if (requestBody instanceof byte[]) {
+			// e.g. (compressed) events, sent without copying them
+			return new BasicAsyncEntityProducer((byte[]) requestBody, contentType);
+		}
+		if (body.getStreamingBody() == null) {
+			return new BasicAsyncEntityProducer(body.getBytes(), contentType);
+		}
+
+		StreamingHttpOutputMessage.Body streamingBody = body.getStreamingBody();
+		return new AbstractClassicEntityProducer(STREAM_BUFFER_SIZE, contentType, executor) {
+
+			@Override
+			protected void produceData(ContentType type, OutputStream outputStream) throws IOException {
+				streamingBody.writeTo(outputStream);
+			}
+		};
+	}
+
+	private <T> ResponseEntity<T> convertResponse(SimpleHttpResponse response, Class<T> responseType)
+			throws IOException {
+
+		BufferedClientHttpResponse clientResponse = new BufferedClientHttpResponse(response);
+
+		if (errorHandler.hasError(clientResponse)) {
+			errorHandler.handleError(clientResponse);
+		}
+
+		T body = responseType == null || Void.class.equals(responseType) ? null
+				: new HttpMessageConverterExtractor<T>(responseType, messageConverters).extractData(clientResponse);
+
+		return new ResponseEntity<T>(body, clientResponse.getHeaders(), clientResponse.getStatusCode());
+	}
+
+	/**
+	 * Releases the connection pool of this transport, its connections are closed once the 
+	 * requests in flight on them completed. The shared client is not closed.
+	 */
+	@Override
+	public void close() {
+		connectionManager.release(poolName);
+	}
+
+	private static class StreamingOutputMessage implements StreamingHttpOutputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private Body streamingBody;
+
+		StreamingOutputMessage(HttpHeaders headers) {
+			this.headers.putAll(headers);
+		}
+
+		@Override
+		public void setBody(Body body) {
+			this.streamingBody = body;
+		}
+
+		Body getStreamingBody() {
+			return streamingBody;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return body;
+		}
+
+		byte[] getBytes() {
+			return body.toByteArray();
+		}
+	}
+
+	private static class BufferedClientHttpResponse extends AbstractClientHttpResponse {
+
+		private final SimpleHttpResponse response;
+		private final HttpHeaders headers = new HttpHeaders();
+
+		BufferedClientHttpResponse(SimpleHttpResponse response) {
+			this.response = response;
+			for (Header header : response.getHeaders()) {
+				headers.add(header.getName(), header.getValue());
+			}
+			if (response.getBody() != null && response.getBody().getContentType() != null) {
+				headers.set(HttpHeaders.CONTENT_TYPE, response.getBody().getContentType().toString());
+			}
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return response.getCode();
+		}
+
+		@Override
+		public String getStatusText() {
+			String reason = response.getReasonPhrase();
+			if (reason != null) {
+				return reason;
+			}
+			HttpStatus status = HttpStatus.resolve(response.getCode());
+			return status != null ? status.getReasonPhrase() : "";
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			byte[] body = response.getBodyBytes();
+			if (body == null || body.length == 0) {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+			InputStream result = new ByteArrayInputStream(body);
+			return GzipCompression.isGzip(headers) ? GzipCompression.decompressing(result) : result;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+package io.kyma.project.connector.transport;
+
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker of a connection. It opens after a number of consecutive failures and then
+ * rejects requests for a while, so a struggling gateway is not flooded with requests (and
+ * retries) that are likely to fail. Afterwards a limited number of trial requests is let
+ * through (half open): a success closes the breaker, a failure opens it again.
+ *
+ * @see ResilientTransport
+ * @see ResilienceProperties
+ */
+public class CircuitBreaker {
+
+	/**
+	 * States of a circuit breaker
+	 */
+	public enum State {
+		/**
+		 * Requests are sent, failures are counted
+		 */
+		CLOSED,
+		/**
+		 * Requests are rejected
+		 */
+		OPEN,
+		/**
+		 * Trial requests are sent to probe whether the gateway recovered
+		 */
+		HALF_OPEN
+	}
+
+	private final String name;
+
+	private final ResilienceProperties properties;
+
+	private final Consumer<State> transitionListener;
+
+	private State state = State.CLOSED;
+
+	private int consecutiveFailures;
+
+	private long openedTime;
+
+	private int trialsInFlight;
+
+	/**
+	 * Creates a closed circuit breaker
+	 *
+	 * @param name name of the breaker used in messages, e.g. the certificate fingerprint
+	 * @param properties thresholds and durations, read on every transition
+	 * @param transitionListener notified about every state the breaker enters
+	 */
+	public CircuitBreaker(String name, ResilienceProperties properties, Consumer<State> transitionListener) {
+		this.name = name;
+		this.properties = properties;
+		this.transitionListener = transitionListener;
+	}
+
+	/**
+	 * Returns the name of the circuit breaker
+	 *
+	 * @return name of the breaker
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the current state, an open breaker whose open duration elapsed is reported as
+	 * half open
+	 *
+	 * @return current {@link State}
+	 */
+	public synchronized State getState() {
+		if (state == State.OPEN && System.currentTimeMillis() - openedTime >= properties.getOpenDurationMs()) {
+			return State.HALF_OPEN;
+		}
+		return state;
+	}
+
+	/**
+	 * Asks for permission to send a request. Every granted permission has to be followed by
+	 * a call of {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+	 *
+	 * @return true if the request may be sent
+	 */
+	public synchronized boolean tryAcquire() {
+		if (state == State.CLOSED) {
+			return true;
+		}
+		if (state == State.OPEN) {
+			if (System.currentTimeMillis() - openedTime < properties.getOpenDurationMs()) {
+				return false;
+			}
+			transition(State.HALF_OPEN);
+			trialsInFlight = 0;
+		}
+		if (trialsInFlight < Math.max(1, properties.getHalfOpenPermits())) {
+			trialsInFlight++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a permission without reporting an outcome, e.g. if the request was not sent
+	 * because of a local error
+	 */
+	public synchronized void release() {
+		if (state == State.HALF_OPEN && trialsInFlight > 0) {
+			trialsInFlight--;
+		}
+	}
+
+	/**
+	 * Reports a request that reached a healthy gateway, i.e. any response but 429 and 5xx
+	 */
+	public synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		if (state == State.HALF_OPEN) {
+			transition(State.CLOSED);
+		}
+	}
+
+	/**
+	 * Reports a request that failed with an I/O error or a 429 or 5xx response
+	 */
+	public synchronized void onFailure() {
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN
+				|| (state == State.CLOSED && consecutiveFailures >= properties.getFailureThreshold())) {
+			openedTime = System.currentTimeMillis();
+			transition(State.OPEN);
+		}
+	}
+
+	private void transition(State newState) {
+		state = newState;
+		transitionListener.accept(newState);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CircuitBreaker(%s, %s)", name, getState());
+	}
+
+}
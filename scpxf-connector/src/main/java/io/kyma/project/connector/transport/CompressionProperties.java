@@ -0,0 +1,55 @@
+package io.kyma.project.connector.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for gzip compression of request bodies sent to Kyma / Extension 
+ * Factory (prefix <code>kyma.connector.compression</code>). Compression is opt-in per 
+ * service as it requires support by the receiving endpoint.
+ *
+ * @see GzipCompression
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.compression")
+public class CompressionProperties {
+
+	/**
+	 * Compress events sent to the Event Gateway
+	 */
+	private boolean events = false;
+
+	/**
+	 * Compress registrations sent to the Application Registry
+	 */
+	private boolean metadata = false;
+
+	/**
+	 * Minimum size in bytes of a request body to be compressed, smaller bodies are sent as is
+	 */
+	private long minSize = 1024;
+
+	/**
+	 * Checks whether events of the given size are compressed
+	 * 
+	 * @param size size of the uncompressed body in bytes
+	 * @return true if the body is to be compressed
+	 */
+	public boolean isCompressEvents(long size) {
+		return events && size >= minSize;
+	}
+
+	/**
+	 * Checks whether registrations of the given size are compressed
+	 * 
+	 * @param size size of the uncompressed body in bytes
+	 * @return true if the body is to be compressed
+	 */
+	public boolean isCompressMetadata(long size) {
+		return metadata && size >= minSize;
+	}
+
+}
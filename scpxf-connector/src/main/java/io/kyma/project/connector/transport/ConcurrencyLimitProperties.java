@@ -0,0 +1,74 @@
+package io.kyma.project.connector.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the adaptive limit of concurrent requests per connection
+ * (prefix <code>kyma.connector.concurrency</code>).
+ *
+ * @see AdaptiveConcurrencyLimiter
+ * @see LimitedTransport
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.concurrency")
+public class ConcurrencyLimitProperties {
+
+	/**
+	 * Limit the concurrent requests per connection, if disabled only the connection pool
+	 * limits them
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Limit of a new connection
+	 */
+	private int initialLimit = 10;
+
+	/**
+	 * Lowest limit, also while the gateway is overloaded
+	 */
+	private int minLimit = 1;
+
+	/**
+	 * Highest limit, additionally capped by the connections per route of the connection pool
+	 */
+	private int maxLimit = 200;
+
+	/**
+	 * Ratio of the latency of a request to the long term latency that is still considered 
+	 * steady, higher latencies decrease the limit
+	 */
+	private double tolerance = 1.5;
+
+	/**
+	 * Weight of a new limit compared to the current one, between 0 (never adapt) and 1
+	 */
+	private double smoothing = 0.2;
+
+	/**
+	 * Number of requests the long term latency is averaged over
+	 */
+	private int longWindow = 600;
+
+	/**
+	 * Factor the limit is multiplied with if a request timed out or was rejected because of
+	 * overload (429, 503, 504)
+	 */
+	private double backoffRatio = 0.9;
+
+	/**
+	 * Maximum number of requests waiting for a permit per connection, further requests fail
+	 * immediately
+	 */
+	private int maxQueued = 10000;
+
+	/**
+	 * Maximum time in milliseconds a synchronous request waits for a permit
+	 */
+	private long maxWaitMs = 30000;
+
+}
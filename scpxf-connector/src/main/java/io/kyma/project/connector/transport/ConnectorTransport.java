@@ -0,0 +1,61 @@
+package io.kyma.project.connector.transport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+
+
+/**
+* Interface that is used to generalize the HTTP communication with Kyma / Extension 
+* Factory. Implementations convert request and response bodies with the same 
+* message converters as a {@link org.springframework.web.client.RestTemplate} and 
+* report failures with the same {@link RestClientException}s.
+* 
+* @see RestTemplateTransport
+* @see AsyncHttpTransport
+*/
+public interface ConnectorTransport {
+	
+	/**
+	 * Executes the request and waits for the response.
+	 * 
+	 * @param request the request to be executed
+	 * @param responseType type the response body is converted to
+	 * @return {@link ResponseEntity} holding status, headers and converted body
+	 * @throws RestClientException if the request fails or an error status is received
+	 */
+	public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType);
+	
+	/**
+	 * Executes the request without blocking the calling thread.
+	 * 
+	 * @param request the request to be executed
+	 * @param responseType type the response body is converted to
+	 * @return {@link CompletableFuture} completed with the {@link ResponseEntity} or
+	 * exceptionally with a {@link RestClientException}
+	 */
+	public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request, Class<T> responseType);
+	
+	/**
+	 * Unwraps the failure of an asynchronous request.
+	 * 
+	 * @param failure exception an {@link CompletableFuture} was completed with, possibly wrapped
+	 * @return the {@link RestClientException} that caused the failure
+	 */
+	public static RestClientException unwrap(Throwable failure) {
+		Throwable cause = failure;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) 
+				&& cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof RestClientException) {
+			return (RestClientException) cause;
+		}
+		return new RestClientException(cause.getMessage(), cause);
+	}
+
+}
@@ -0,0 +1,494 @@
+package io.kyma.project.connector.transport;
+
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.HttpsSupport;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.util.ClientCertRestTemplateBuilder;
+import io.kyma.project.connector.util.HttpConnectionPoolManager;
+import io.kyma.project.connector.util.HttpConnectionPoolProperties;
+import io.kyma.project.connector.util.SslContextProvider;
+
+/**
+ * Service that provides the {@link ConnectorTransport} used by all services to communicate
+ * with Kyma / Extension Factory. The implementation is selected via {@link TransportProperties}.
+ * 
+ * Transports are cheap views on shared resources: the blocking transports use the cached
+ * {@link RestTemplate}s of the {@link ClientCertRestTemplateBuilder}, the async transports 
+ * share one client and its I/O threads with a connection pool per certificate. Both look up 
+ * their connection pool per request, so a transport held by a {@link ConnectionSnapshot} 
+ * remains usable after its pool was released.
+ * 
+ * @see ConnectorTransport
+ * @see ConnectionSnapshot
+ */
+@Service
+public class ConnectorTransportFactory {
+
+	private ClientCertRestTemplateBuilder clientCertRestTemplateBuilder;
+
+	private RestTemplateBuilder restTemplateBuilder;
+
+	private RestTemplate pairingTemplate;
+
+	private ExecutorService transportExecutor;
+
+	private TransportProperties properties;
+
+	private HttpConnectionPoolProperties poolProperties;
+
+	private SslContextProvider sslContextProvider;
+
+	private volatile ConnectorTransport pairingTransport;
+
+	private volatile CloseableHttpAsyncClient asyncClient;
+
+	private RoutingAsyncConnectionManager asyncConnectionManager;
+
+	private List<HttpMessageConverter<?>> messageConverters;
+
+	private HttpConnectionPoolManager connectionPoolManager;
+
+	private final ConcurrentMap<ConnectorTransport, String> dedicatedPools = 
+			new ConcurrentHashMap<ConnectorTransport, String>();
+
+	private final AtomicLong dedicatedPoolCounter = new AtomicLong();
+
+	// snapshots of the models passed to the ConnectionModel overloads, by model identity
+	private final Cache<ConnectionModel, ConnectionSnapshot> snapshots = CacheBuilder.newBuilder().weakKeys().build();
+
+	private ConnectorMetrics metrics;
+
+	private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+	private ResilienceProperties resilienceProperties;
+
+	private RetryPolicy retryPolicy;
+
+	private ScheduledExecutorService retryScheduler;
+
+	private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> concurrencyLimiters = 
+			new ConcurrentHashMap<String, AdaptiveConcurrencyLimiter>();
+
+	private ConcurrencyLimitProperties concurrencyLimitProperties;
+
+	/**
+	 * Sets the {@link ConnectorMetrics} to be used by this object, registers the metrics of
+	 * the async connection pools, circuit breakers and concurrency limiters
+	 * 
+	 * @param metrics {@link ConnectorMetrics} to be used by this Object
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+		metrics.gauge("kyma.connector.async.pool.count", "Number of connection pools of the async transport", this,
+				(f) -> f.asyncConnectionManager != null ? f.asyncConnectionManager.getPoolCount() : 0);
+		metrics.gauge("kyma.connector.circuitbreaker.open", "Connections whose circuit breaker is not closed",
+				circuitBreakers, (c) -> c.values().stream().filter((b) -> b.getState() != CircuitBreaker.State.CLOSED)
+						.count());
+		metrics.gauge("kyma.connector.concurrency.limit", "Sum of the concurrency limits of all connections",
+				concurrencyLimiters, (c) -> c.values().stream().mapToInt(AdaptiveConcurrencyLimiter::getLimit).sum());
+		metrics.gauge("kyma.connector.concurrency.inflight", "Requests holding a permit of a concurrency limiter",
+				concurrencyLimiters, (c) -> c.values().stream().mapToInt(AdaptiveConcurrencyLimiter::getInFlight).sum());
+		metrics.gauge("kyma.connector.concurrency.queued", "Requests waiting for a permit of a concurrency limiter",
+				concurrencyLimiters, (c) -> c.values().stream().mapToInt(AdaptiveConcurrencyLimiter::getQueued).sum());
+	}
+
+	/**
+	 * Sets the {@link ConcurrencyLimitProperties} configuring the concurrency limiters
+	 * 
+	 * @param concurrencyLimitProperties {@link ConcurrencyLimitProperties} to be used by this Object
+	 */
+	@Autowired
+	public void setConcurrencyLimitProperties(ConcurrencyLimitProperties concurrencyLimitProperties) {
+		this.concurrencyLimitProperties = concurrencyLimitProperties;
+	}
+
+	/**
+	 * Sets the {@link ResilienceProperties} configuring retries and circuit breakers
+	 * 
+	 * @param resilienceProperties {@link ResilienceProperties} to be used by this Object
+	 */
+	@Autowired
+	public void setResilienceProperties(ResilienceProperties resilienceProperties) {
+		this.resilienceProperties = resilienceProperties;
+		this.retryPolicy = new RetryPolicy(resilienceProperties);
+	}
+
+	/**
+	 * Sets the {@link ScheduledExecutorService} scheduling asynchronous retries
+	 * 
+	 * @param retryScheduler {@link ScheduledExecutorService} to be used by this Object
+	 */
+	@Autowired
+	@Qualifier("TransportRetryScheduler")
+	public void setRetryScheduler(ScheduledExecutorService retryScheduler) {
+		this.retryScheduler = retryScheduler;
+	}
+
+	/**
+	 * Sets the {@link ClientCertRestTemplateBuilder} to be used by this object
+	 * 
+	 * @param clientCertRestTemplateBuilder {@link ClientCertRestTemplateBuilder} to be used by this Object
+	 */
+	@Autowired
+	public void setClientCertRestTemplateBuilder(ClientCertRestTemplateBuilder clientCertRestTemplateBuilder) {
+		this.clientCertRestTemplateBuilder = clientCertRestTemplateBuilder;
+	}
+
+	/**
+	 * Sets the {@link HttpConnectionPoolManager} owning the pools of dedicated transports
+	 * 
+	 * @param connectionPoolManager {@link HttpConnectionPoolManager} to be used by this Object
+	 */
+	@Autowired
+	public void setConnectionPoolManager(HttpConnectionPoolManager connectionPoolManager) {
+		this.connectionPoolManager = connectionPoolManager;
+	}
+
+	/**
+	 * Sets the {@link RestTemplateBuilder} providing the message converters of the async transport
+	 * 
+	 * @param restTemplateBuilder {@link RestTemplateBuilder} to be used by this Object
+	 */
+	@Autowired
+	public void setRestTemplateBuilder(RestTemplateBuilder restTemplateBuilder) {
+		this.restTemplateBuilder = restTemplateBuilder;
+	}
+
+	/**
+	 * Sets the {@link RestTemplate} to be used for the initial pairing step (no 2-way-ssl)
+	 * 
+	 * @param pairingTemplate {@link RestTemplate} to be used by this Object
+	 */
+	@Autowired
+	@Qualifier("PairingTemplate")
+	public void setPairingTemplate(RestTemplate pairingTemplate) {
+		this.pairingTemplate = pairingTemplate;
+	}
+
+	/**
+	 * Sets the {@link ExecutorService} running asynchronous requests of blocking transports
+	 * 
+	 * @param transportExecutor {@link ExecutorService} to be used by this Object
+	 */
+	@Autowired
+	@Qualifier("TransportExecutor")
+	public void setTransportExecutor(ExecutorService transportExecutor) {
+		this.transportExecutor = transportExecutor;
+	}
+
+	/**
+	 * Sets the {@link TransportProperties} to be used by this object
+	 * 
+	 * @param properties {@link TransportProperties} to be used by this Object
+	 */
+	@Autowired
+	public void setProperties(TransportProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Sets the {@link HttpConnectionPoolProperties} used to size the async connection pools
+	 * 
+	 * @param poolProperties {@link HttpConnectionPoolProperties} to be used by this Object
+	 */
+	@Autowired
+	public void setPoolProperties(HttpConnectionPoolProperties poolProperties) {
+		this.poolProperties = poolProperties;
+	}
+
+	/**
+	 * Sets the {@link SslContextProvider} providing the SSL context of the pairing step
+	 * 
+	 * @param sslContextProvider {@link SslContextProvider} to be used by this Object
+	 */
+	@Autowired
+	public void setSslContextProvider(SslContextProvider sslContextProvider) {
+		this.sslContextProvider = sslContextProvider;
+	}
+
+	/**
+	 * Returns the transport for the initial pairing step (no 2-way-ssl)
+	 * 
+	 * @return {@link ConnectorTransport} without client certificate
+	 */
+	public ConnectorTransport getPairingTransport() {
+		if (pairingTransport == null) {
+			synchronized (this) {
+				if (pairingTransport == null) {
+					pairingTransport = properties.getType() == TransportProperties.Type.ASYNC_HTTP
+							? createAsyncTransport("pairing", sslContextProvider::getDefaultSslContext,
+									poolProperties.getMaxTotal())
+							: new RestTemplateTransport(pairingTemplate, transportExecutor);
+				}
+			}
+		}
+		return pairingTransport;
+	}
+
+	/**
+	 * Returns the 2-way-ssl enabled transport for the given {@link KeyStore} and pass.
+	 * 
+	 * @param clientCertificate keystore holding certificate and private key
+	 * @param keystorePassword  to access the keystore
+	 * @return {@link ConnectorTransport} that is 2-way-ssl enabled
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public ConnectorTransport getTransport(KeyStore clientCertificate, char[] keystorePassword) {
+		return getTransport(clientCertificate, keystorePassword,
+				clientCertRestTemplateBuilder.getCertificateFingerprint(clientCertificate));
+	}
+
+	/**
+	 * Creates an immutable {@link ConnectionSnapshot} of the given {@link ConnectionModel}
+	 * that is bound to the 2-way-ssl enabled transport of its key store.
+	 * 
+	 * The snapshot is remembered for the model instance as long as the model is in use and 
+	 * returned again while the model was not changed, so repeated calls with the same model
+	 * neither hash the certificate nor walk the key store. Key stores are compared by 
+	 * identity, a changed certificate has to be set as new {@link KeyStore} instance.
+	 * 
+	 * @param connectionModel model containing all details for the connection
+	 * @return {@link ConnectionSnapshot} with precomputed certificate data
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public ConnectionSnapshot createSnapshot(ConnectionModel connectionModel) {
+		ConnectionSnapshot snapshot = snapshots.getIfPresent(connectionModel);
+		if (snapshot != null && snapshot.matches(connectionModel)) {
+			return snapshot;
+		}
+
+		String certificateFingerprint = clientCertRestTemplateBuilder
+				.getCertificateFingerprint(connectionModel.getSslKey());
+
+		snapshot = new ConnectionSnapshot(connectionModel, certificateFingerprint, getTransport(
+				connectionModel.getSslKey(), connectionModel.getKeystorePass(), certificateFingerprint));
+		snapshots.put(connectionModel, snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Returns the circuit breaker shared by all transports of the given certificate
+	 * 
+	 * @param certificateFingerprint fingerprint of the certificate of the connection
+	 * @return {@link CircuitBreaker} of the connection or null if circuit breaking is disabled
+	 */
+	public CircuitBreaker getCircuitBreaker(String certificateFingerprint) {
+		if (!resilienceProperties.isEnabled() || !resilienceProperties.isCircuitBreakerEnabled()) {
+			return null;
+		}
+		return circuitBreakers.computeIfAbsent(certificateFingerprint, (name) -> new CircuitBreaker(name,
+				resilienceProperties, (state) -> metrics.recordCircuitBreakerTransition(state.name())));
+	}
+
+	/**
+	 * Returns the concurrency limiter shared by all transports of the given certificate
+	 * 
+	 * @param certificateFingerprint fingerprint of the certificate of the connection
+	 * @return {@link AdaptiveConcurrencyLimiter} of the connection or null if it is not limited
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter(String certificateFingerprint) {
+		return concurrencyLimitProperties.isEnabled() ? concurrencyLimiters.get(certificateFingerprint) : null;
+	}
+
+	/**
+	 * Closes the connections of the given certificate once the requests in flight on them 
+	 * completed, e.g. once the certificate was renewed, and removes its circuit breaker and 
+	 * concurrency limiter. Transports of the certificate still in use open new connections.
+	 * 
+	 * @param certificateFingerprint fingerprint of the certificate whose transport is closed
+	 */
+	public void retire(String certificateFingerprint) {
+		if (asyncConnectionManager != null) {
+			asyncConnectionManager.release(certificateFingerprint);
+		}
+		clientCertRestTemplateBuilder.evict(certificateFingerprint);
+		circuitBreakers.remove(certificateFingerprint);
+		concurrencyLimiters.remove(certificateFingerprint);
+	}
+
+	/**
+	 * Creates a new 2-way-ssl enabled transport that is not shared with other callers, e.g. for
+	 * callers that manage the lifecycle of their clients themselves. The transport has its own
+	 * connection pool, which is closed via {@link #release(ConnectorTransport)}. Circuit breaker
+	 * and concurrency limiter are shared with the other transports of the certificate.
+	 * 
+	 * @param clientCertificate      keystore holding certificate and private key
+	 * @param keystorePassword       to access the keystore
+	 * @param certificateFingerprint fingerprint of the certificate contained in the key store
+	 * @param maxConnections         maximum number of pooled connections of the transport
+	 * @return {@link ConnectorTransport} that is 2-way-ssl enabled
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public ConnectorTransport createDedicatedTransport(KeyStore clientCertificate, char[] keystorePassword,
+			String certificateFingerprint, int maxConnections) {
+
+		// distinct from the pool of the shared transports, which is named by the fingerprint
+		String poolName = certificateFingerprint + "#" + dedicatedPoolCounter.incrementAndGet();
+
+		ConnectorTransport transport;
+		if (properties.getType() == TransportProperties.Type.ASYNC_HTTP) {
+			transport = decorate(createAsyncTransport(poolName, () -> clientCertRestTemplateBuilder
+					.createSslContext(clientCertificate, keystorePassword, certificateFingerprint), maxConnections),
+					certificateFingerprint, maxConnections);
+		} else {
+			transport = decorate(new RestTemplateTransport(clientCertRestTemplateBuilder.createRestTemplate(
+					clientCertificate, keystorePassword, certificateFingerprint, poolName, maxConnections),
+					transportExecutor), certificateFingerprint, maxConnections);
+		}
+
+		dedicatedPools.put(transport, poolName);
+		return transport;
+	}
+
+	/**
+	 * Releases the connection pool of a transport created via 
+	 * {@link #createDedicatedTransport(KeyStore, char[], String, int)}. Its connections are closed 
+	 * once the requests in flight on them completed, the shared transports of the certificate
+	 * are not affected.
+	 * 
+	 * @param transport transport to be released
+	 */
+	public void release(ConnectorTransport transport) {
+		String poolName = dedicatedPools.remove(transport);
+		if (poolName == null) {
+			return;
+		}
+		if (properties.getType() == TransportProperties.Type.ASYNC_HTTP) {
+			asyncConnectionManager.release(poolName);
+		} else {
+			connectionPoolManager.release(poolName);
+		}
+	}
+
+	private ConnectorTransport getTransport(KeyStore clientCertificate, char[] keystorePassword,
+			String certificateFingerprint) {
+
+		if (properties.getType() == TransportProperties.Type.ASYNC_HTTP) {
+			return decorate(createAsyncTransport(certificateFingerprint, () -> clientCertRestTemplateBuilder
+					.createSslContext(clientCertificate, keystorePassword, certificateFingerprint),
+					poolProperties.getMaxTotal()), certificateFingerprint, poolProperties.getMaxTotal());
+		}
+
+		return decorate(new RestTemplateTransport(clientCertRestTemplateBuilder.applicationConnectorRestTemplate(
+				clientCertificate, keystorePassword, certificateFingerprint), transportExecutor), certificateFingerprint,
+				poolProperties.getMaxTotal());
+	}
+
+	private ConnectorTransport decorate(ConnectorTransport transport, String certificateFingerprint,
+			int maxConnections) {
+
+		ConnectorTransport result = transport;
+		if (concurrencyLimitProperties.isEnabled()) {
+			// every attempt of a retried request needs a permit, hence the limit is applied first
+			AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.computeIfAbsent(certificateFingerprint,
+					(name) -> new AdaptiveConcurrencyLimiter(name, concurrencyLimitProperties,
+							Math.min(poolProperties.getMaxPerRoute(), maxConnections)));
+			result = new LimitedTransport(result, limiter, transportExecutor, concurrencyLimitProperties.getMaxWaitMs());
+		}
+		if (resilienceProperties.isEnabled()) {
+			result = new ResilientTransport(result, retryPolicy, getCircuitBreaker(certificateFingerprint),
+					retryScheduler, metrics);
+		}
+		return result;
+	}
+
+	private AsyncHttpTransport createAsyncTransport(String poolName, Supplier<SSLContext> sslContext,
+			int maxConnections) {
+		// the context is created with the pool only, i.e. by the first request of the transport
+		return new AsyncHttpTransport(getAsyncClient(), asyncConnectionManager, poolName,
+				() -> createAsyncPool(sslContext.get(), maxConnections), messageConverters, transportExecutor);
+	}
+
+	private CloseableHttpAsyncClient getAsyncClient() {
+		if (asyncClient == null) {
+			synchronized (this) {
+				if (asyncClient == null) {
+					messageConverters = new ArrayList<HttpMessageConverter<?>>(
+							restTemplateBuilder.build().getMessageConverters());
+					asyncConnectionManager = new RoutingAsyncConnectionManager(poolProperties.getPoolIdleMs());
+
+					// a single I/O reactor serves the connection pools of all certificates
+					CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+							.setVersionPolicy(properties.isHttp2() ? HttpVersionPolicy.NEGOTIATE 
+									: HttpVersionPolicy.FORCE_HTTP_1)
+							.setConnectionManager(asyncConnectionManager)
+							.setIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(properties.getIoThreads()).build())
+							.setThreadFactory(new ThreadFactoryBuilder().setNameFormat("async-transport-%d")
+									.setDaemon(true).build())
+							.evictIdleConnections(TimeValue.ofMilliseconds(poolProperties.getMaxIdleMs()))
+							.disableCookieManagement()
+							.build();
+					client.start();
+					asyncClient = client;
+				}
+			}
+		}
+		return asyncClient;
+	}
+
+	private PoolingAsyncClientConnectionManager createAsyncPool(SSLContext sslContext, int maxConnections) {
+
+		// the hostname is verified once the handshake completed, the point to record it
+		HostnameVerifier hostnameVerifier = HttpsSupport.getDefaultHostnameVerifier();
+		HostnameVerifier recordingVerifier = (hostname, session) -> {
+			sslContextProvider.getHandshakeStatistics().record(session);
+			return hostnameVerifier.verify(hostname, session);
+		};
+
+		return PoolingAsyncClientConnectionManagerBuilder.create()
+				.setTlsStrategy(ClientTlsStrategyBuilder.create().setSslContext(sslContext)
+						.setHostnameVerifier(recordingVerifier).build())
+				.setMaxConnTotal(maxConnections)
+				.setMaxConnPerRoute(Math.min(poolProperties.getMaxPerRoute(), maxConnections))
+				.setValidateAfterInactivity(TimeValue.ofMilliseconds(poolProperties.getValidateAfterInactivityMs()))
+				.build();
+	}
+
+	/**
+	 * Closes the async client including the connections of all async transports
+	 */
+	@PreDestroy
+	public void close() {
+		if (asyncClient != null) {
+			asyncClient.close(CloseMode.GRACEFUL);
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package io.kyma.project.connector.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+
+/**
+ * Helper for gzip encoded request and response bodies
+ * 
+ * @see CompressionProperties
+ */
+public final class GzipCompression {
+
+	/**
+	 * Content coding of gzip compressed bodies
+	 */
+	public static final String GZIP = "gzip";
+
+	private GzipCompression() {
+	}
+
+	/**
+	 * Checks whether the Content-Encoding of the given headers is gzip
+	 * 
+	 * @param headers headers of a request or response
+	 * @return true if the body is gzip compressed
+	 */
+	public static boolean isGzip(HttpHeaders headers) {
+		String contentEncoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+		return contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.trim());
+	}
+
+	/**
+	 * Compresses the given bytes
+	 * 
+	 * @param content the uncompressed content
+	 * @return gzip compressed content
+	 */
+	public static byte[] compress(byte[] content) {
+		ByteArrayOutputStream result = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+		try (GZIPOutputStream gzip = new GZIPOutputStream(result, 8192)) {
+			gzip.write(content);
+		} catch (IOException e) {
+			throw new ApplicationConnectorException(e.getMessage(), e);
+		}
+		return result.toByteArray();
+	}
+
+	/**
+	 * Wraps the given stream so that everything written is compressed. The returned stream
+	 * has to be closed to write the gzip trailer, the wrapped stream stays open.
+	 * 
+	 * @param outputStream stream receiving the compressed content
+	 * @return stream to write uncompressed content to
+	 * @throws IOException if the gzip header cannot be written
+	 */
+	public static OutputStream compressing(OutputStream outputStream) throws IOException {
+		return new GZIPOutputStream(new NonClosingOutputStream(outputStream), 8192);
+	}
+
+	/**
+	 * Wraps the given stream so that the read content is decompressed
+	 * 
+	 * @param inputStream stream providing gzip compressed content
+	 * @return stream providing the uncompressed content
+	 * @throws IOException if the gzip header is invalid
+	 */
+	public static InputStream decompressing(InputStream inputStream) throws IOException {
+		return new GZIPInputStream(inputStream, 8192);
+	}
+
+	private static class NonClosingOutputStream extends OutputStream {
+
+		private final OutputStream delegate;
+
+		NonClosingOutputStream(OutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			delegate.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			delegate.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.flush();
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package io.kyma.project.connector.transport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * {@link ConnectorTransport} that limits the concurrent requests of another transport with
+ * an {@link AdaptiveConcurrencyLimiter} and reports the latency of every request to it.
+ * Asynchronous requests exceeding the limit are queued without blocking the calling thread
+ * and are sent on the given {@link Executor} once a permit is available.
+ *
+ * @see ConnectorTransportFactory
+ * @see ConcurrencyLimitProperties
+ */
+public class LimitedTransport implements ConnectorTransport {
+
+	private final ConnectorTransport delegate;
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+	private final Executor executor;
+
+	private final long maxWaitMs;
+
+	/**
+	 * Creates a transport that limits the concurrent requests of the given transport
+	 *
+	 * @param delegate transport executing the requests
+	 * @param limiter limiter of the connection
+	 * @param executor executor sending queued asynchronous requests
+	 * @param maxWaitMs maximum time in milliseconds a synchronous request waits for a permit
+	 */
+	public LimitedTransport(ConnectorTransport delegate, AdaptiveConcurrencyLimiter limiter, Executor executor,
+			long maxWaitMs) {
+		this.delegate = delegate;
+		this.limiter = limiter;
+		this.executor = executor;
+		this.maxWaitMs = maxWaitMs;
+	}
+
+	/**
+	 * Returns the transport executing the requests
+	 *
+	 * @return underlying {@link ConnectorTransport}
+	 */
+	public ConnectorTransport getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Returns the concurrency limiter of the connection
+	 *
+	 * @return {@link AdaptiveConcurrencyLimiter} of the connection
+	 */
+	public AdaptiveConcurrencyLimiter getLimiter() {
+		return limiter;
+	}
+
+	@Override
+	public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType) {
+		limiter.acquire(maxWaitMs);
+		long start = System.nanoTime();
+		try {
+			ResponseEntity<T> response = delegate.exchange(request, responseType);
+			limiter.release(System.nanoTime() - start, false);
+			return response;
+		} catch (RestClientException e) {
+			release(start, e);
+			throw e;
+		} catch (RuntimeException e) {
+			limiter.releaseIgnored();
+			throw e;
+		}
+	}
+
+	@Override
+	public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request, Class<T> responseType) {
+		CompletableFuture<Void> permit = limiter.acquireAsync();
+		if (permit.isDone()) {
+			return permit.thenCompose((granted) -> send(request, responseType));
+		}
+		// granted by the thread completing another request, which is neither delayed nor recursed into
+		return permit.thenComposeAsync((granted) -> send(request, responseType), executor);
+	}
+
+	private <T> CompletableFuture<ResponseEntity<T>> send(RequestEntity<?> request, Class<T> responseType) {
+		long start = System.nanoTime();
+		CompletableFuture<ResponseEntity<T>> response;
+		try {
+			response = delegate.exchangeAsync(request, responseType);
+		} catch (RuntimeException e) {
+			limiter.releaseIgnored();
+			throw e;
+		}
+
+		return response.whenComplete((result, error) -> {
+			if (error == null) {
+				limiter.release(System.nanoTime() - start, false);
+			} else {
+				release(start, ConnectorTransport.unwrap(error));
+			}
+		});
+	}
+
+	private void release(long start, RestClientException failure) {
+		if (failure instanceof HttpStatusCodeException) {
+			int status = ((HttpStatusCodeException) failure).getRawStatusCode();
+			limiter.release(System.nanoTime() - start, status == 429 || status == 503 || status == 504);
+		} else if (failure instanceof ResourceAccessException) {
+			limiter.release(System.nanoTime() - start, true);
+		} else {
+			limiter.releaseIgnored();
+		}
+	}
+
+}
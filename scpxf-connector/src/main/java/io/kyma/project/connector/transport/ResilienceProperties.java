@@ -0,0 +1,84 @@
+package io.kyma.project.connector.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for retries and circuit breaking of the requests sent with a
+ * client certificate, i.e. events, metadata, subscriptions, info and renewal
+ * (prefix <code>kyma.connector.resilience</code>).
+ *
+ * @see ResilientTransport
+ * @see RetryPolicy
+ * @see CircuitBreaker
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.resilience")
+public class ResilienceProperties {
+
+	/**
+	 * Apply retries and circuit breaking, if disabled every failure is reported immediately
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Maximum number of attempts per request including the first one, 1 disables retries
+	 */
+	private int maxAttempts = 3;
+
+	/**
+	 * Backoff before the first retry in milliseconds, the actual delay is randomized
+	 * between half and the full value
+	 */
+	private long initialBackoffMs = 200;
+
+	/**
+	 * Factor the backoff grows with per retry
+	 */
+	private double backoffMultiplier = 2.0;
+
+	/**
+	 * Upper limit of the backoff in milliseconds
+	 */
+	private long maxBackoffMs = 5000;
+
+	/**
+	 * Longest <code>Retry-After</code> in milliseconds that is waited for, requests asked to
+	 * wait longer fail immediately
+	 */
+	private long maxRetryAfterMs = 30000;
+
+	/**
+	 * Retry POST requests after I/O errors and 502/504 responses, i.e. when the request
+	 * may have been processed. Events are then delivered at least once, registrations of 
+	 * services may be duplicated, hence this is off by default. 429 and 503 responses are
+	 * always retried.
+	 */
+	private boolean retryPost = false;
+
+	/**
+	 * Fail fast while the gateway of a connection is unhealthy
+	 */
+	private boolean circuitBreakerEnabled = true;
+
+	/**
+	 * Number of consecutive failed attempts (I/O errors, 429 and 5xx responses) that opens
+	 * the circuit breaker of a connection
+	 */
+	private int failureThreshold = 10;
+
+	/**
+	 * Time in milliseconds an open circuit breaker rejects requests before trial requests
+	 * are let through
+	 */
+	private long openDurationMs = 30000;
+
+	/**
+	 * Number of concurrent trial requests of a half open circuit breaker
+	 */
+	private int halfOpenPermits = 1;
+
+}
@@ -0,0 +1,190 @@
+package io.kyma.project.connector.transport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import io.kyma.project.connector.exception.CircuitBreakerOpenException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+
+/**
+ * {@link ConnectorTransport} that retries failed requests of another transport according to
+ * a {@link RetryPolicy} and fails fast while the {@link CircuitBreaker} of the connection is
+ * open. Asynchronous retries are scheduled, no thread is blocked during the backoff.
+ *
+ * Request bodies have to be repeatable, i.e. they are converted again for every attempt.
+ *
+ * @see ConnectorTransportFactory
+ * @see ResilienceProperties
+ */
+public class ResilientTransport implements ConnectorTransport {
+
+	private final ConnectorTransport delegate;
+
+	private final RetryPolicy retryPolicy;
+
+	private final CircuitBreaker circuitBreaker;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final ConnectorMetrics metrics;
+
+	/**
+	 * Creates a transport that adds retries and circuit breaking to the given transport
+	 *
+	 * @param delegate transport executing the requests
+	 * @param retryPolicy policy deciding on retries
+	 * @param circuitBreaker breaker of the connection, null to disable circuit breaking
+	 * @param scheduler scheduler running the asynchronous retries
+	 * @param metrics metrics recording the retries
+	 */
+	public ResilientTransport(ConnectorTransport delegate, RetryPolicy retryPolicy, CircuitBreaker circuitBreaker,
+			ScheduledExecutorService scheduler, ConnectorMetrics metrics) {
+		this.delegate = delegate;
+		this.retryPolicy = retryPolicy;
+		this.circuitBreaker = circuitBreaker;
+		this.scheduler = scheduler;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the transport executing the requests
+	 *
+	 * @return underlying {@link ConnectorTransport}
+	 */
+	public ConnectorTransport getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Returns the circuit breaker of the connection
+	 *
+	 * @return {@link CircuitBreaker} or null if circuit breaking is disabled
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	@Override
+	public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType) {
+		for (int attempt = 1;; attempt++) {
+			acquire(request);
+			try {
+				ResponseEntity<T> response = delegate.exchange(request, responseType);
+				onSuccess();
+				return response;
+			} catch (RestClientException e) {
+				long delay = onFailure(request, e, attempt);
+				if (delay == RetryPolicy.NO_RETRY) {
+					throw e;
+				}
+				try {
+					TimeUnit.MILLISECONDS.sleep(delay);
+				} catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			} catch (RuntimeException e) {
+				// not caused by the gateway, the permission of the breaker is returned
+				release();
+				throw e;
+			}
+		}
+	}
+
+	@Override
+	public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request, Class<T> responseType) {
+		CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<ResponseEntity<T>>();
+		attempt(request, responseType, 1, result);
+		return result;
+	}
+
+	private <T> void attempt(RequestEntity<?> request, Class<T> responseType, int attempt,
+			CompletableFuture<ResponseEntity<T>> result) {
+		try {
+			acquire(request);
+		} catch (CircuitBreakerOpenException e) {
+			result.completeExceptionally(e);
+			return;
+		}
+
+		CompletableFuture<ResponseEntity<T>> response;
+		try {
+			response = delegate.exchangeAsync(request, responseType);
+		} catch (RestClientException e) {
+			response = new CompletableFuture<ResponseEntity<T>>();
+			response.completeExceptionally(e);
+		} catch (RuntimeException e) {
+			// not caused by the gateway, the permission of the breaker is returned
+			release();
+			result.completeExceptionally(e);
+			return;
+		}
+
+		response.whenComplete((value, error) -> {
+			if (error == null) {
+				onSuccess();
+				result.complete(value);
+				return;
+			}
+
+			RestClientException failure = ConnectorTransport.unwrap(error);
+			long delay = onFailure(request, failure, attempt);
+			if (delay == RetryPolicy.NO_RETRY) {
+				result.completeExceptionally(failure);
+				return;
+			}
+			try {
+				scheduler.schedule(() -> attempt(request, responseType, attempt + 1, result), delay,
+						TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				result.completeExceptionally(failure);
+			}
+		});
+	}
+
+	private void acquire(RequestEntity<?> request) {
+		if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+			throw new CircuitBreakerOpenException(String.format("Circuit breaker open, %s request for \"%s\" rejected",
+					request.getMethod(), request.getUrl()));
+		}
+	}
+
+	private void release() {
+		if (circuitBreaker != null) {
+			circuitBreaker.release();
+		}
+	}
+
+	private void onSuccess() {
+		if (circuitBreaker != null) {
+			circuitBreaker.onSuccess();
+		}
+	}
+
+	private long onFailure(RequestEntity<?> request, RestClientException failure, int attempt) {
+		if (circuitBreaker != null) {
+			if (RetryPolicy.isGatewayFailure(failure)) {
+				circuitBreaker.onFailure();
+			} else if (failure instanceof RestClientResponseException) {
+				circuitBreaker.onSuccess();
+			} else {
+				// never reached the gateway, e.g. rejected by the concurrency limiter
+				circuitBreaker.release();
+			}
+		}
+
+		long delay = retryPolicy.getRetryDelay(request, failure, attempt);
+		if (delay != RetryPolicy.NO_RETRY) {
+			metrics.recordRetry(RetryPolicy.getReason(failure));
+		}
+		return delay;
+	}
+
+}
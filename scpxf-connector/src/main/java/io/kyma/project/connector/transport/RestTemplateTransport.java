@@ -0,0 +1,61 @@
+package io.kyma.project.connector.transport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * {@link ConnectorTransport} based on a (blocking) {@link RestTemplate}. Asynchronous
+ * requests are executed on the given {@link Executor}, hence every request in flight 
+ * occupies one thread.
+ * 
+ * @see ConnectorTransportFactory
+ */
+public class RestTemplateTransport implements ConnectorTransport {
+
+	private final RestTemplate restTemplate;
+	
+	private final Executor executor;
+	
+	/**
+	 * Creates a transport for the given {@link RestTemplate}
+	 * 
+	 * @param restTemplate template used to execute requests
+	 * @param executor executor running asynchronous requests
+	 */
+	public RestTemplateTransport(RestTemplate restTemplate, Executor executor) {
+		this.restTemplate = restTemplate;
+		this.executor = executor;
+	}
+	
+	/**
+	 * Returns the underlying {@link RestTemplate}
+	 * 
+	 * @return {@link RestTemplate} used by this transport
+	 */
+	public RestTemplate getRestTemplate() {
+		return restTemplate;
+	}
+
+	@Override
+	public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType) {
+		return restTemplate.exchange(request, responseType);
+	}
+
+	@Override
+	public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request, Class<T> responseType) {
+		try {
+			return CompletableFuture.supplyAsync(() -> exchange(request, responseType), executor);
+		} catch (RejectedExecutionException e) {
+			CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<ResponseEntity<T>>();
+			result.completeExceptionally(new ResourceAccessException(e.getMessage()));
+			return result;
+		}
+	}
+
+}
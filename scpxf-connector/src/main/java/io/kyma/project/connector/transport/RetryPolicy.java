@@ -0,0 +1,132 @@
+package io.kyma.project.connector.transport;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import io.kyma.project.connector.exception.CircuitBreakerOpenException;
+
+/**
+ * Decides whether and when a failed request is retried. Retries are delayed with exponential
+ * backoff and jitter, so clients that failed at the same time do not retry at the same time.
+ * A <code>Retry-After</code> header of 429 and 503 responses takes precedence over the backoff.
+ *
+ * Retried are I/O errors and 429, 502, 503 and 504 responses. As the request may have been
+ * processed in case of I/O errors and 502/504 responses, POST requests are only retried in
+ * these cases if configured.
+ *
+ * @see ResilienceProperties
+ */
+public class RetryPolicy {
+
+	/**
+	 * Delay returned if a failure must not be retried
+	 */
+	public static final long NO_RETRY = -1;
+
+	private final ResilienceProperties properties;
+
+	/**
+	 * Creates a policy with the given configuration
+	 *
+	 * @param properties configuration of the policy, read on every decision
+	 */
+	public RetryPolicy(ResilienceProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Returns the delay before the next attempt of a failed request
+	 *
+	 * @param request the failed request
+	 * @param failure the failure of the attempt
+	 * @param attempt number of the failed attempt, starting with 1
+	 * @return delay in milliseconds or {@link #NO_RETRY} if the request must not be retried
+	 */
+	public long getRetryDelay(RequestEntity<?> request, RestClientException failure, int attempt) {
+		if (attempt >= properties.getMaxAttempts() || failure instanceof CircuitBreakerOpenException) {
+			return NO_RETRY;
+		}
+
+		boolean unsafe = HttpMethod.POST.equals(request.getMethod()) && !properties.isRetryPost();
+
+		if (failure instanceof HttpStatusCodeException) {
+			HttpStatusCodeException statusFailure = (HttpStatusCodeException) failure;
+			int status = statusFailure.getRawStatusCode();
+
+			if (status == 429 || status == 503) {
+				long retryAfter = getRetryAfter(statusFailure.getResponseHeaders());
+				if (retryAfter > properties.getMaxRetryAfterMs()) {
+					return NO_RETRY;
+				}
+				return retryAfter >= 0 ? retryAfter : getBackoff(attempt);
+			}
+			return (status == 502 || status == 504) && !unsafe ? getBackoff(attempt) : NO_RETRY;
+		}
+
+		return failure instanceof ResourceAccessException && !unsafe ? getBackoff(attempt) : NO_RETRY;
+	}
+
+	/**
+	 * Checks whether a failure indicates an unhealthy gateway, i.e. an I/O error or a 429 or
+	 * 5xx response
+	 *
+	 * @param failure failure of a request
+	 * @return true if the failure counts for the circuit breaker
+	 */
+	public static boolean isGatewayFailure(RestClientException failure) {
+		if (failure instanceof HttpStatusCodeException) {
+			int status = ((HttpStatusCodeException) failure).getRawStatusCode();
+			return status == 429 || status >= 500;
+		}
+		return failure instanceof ResourceAccessException;
+	}
+
+	/**
+	 * Returns the reason of a failure as used in metrics, the status code or <code>io</code>
+	 *
+	 * @param failure failure of a request
+	 * @return short reason of the failure
+	 */
+	public static String getReason(RestClientException failure) {
+		if (failure instanceof HttpStatusCodeException) {
+			return String.valueOf(((HttpStatusCodeException) failure).getRawStatusCode());
+		}
+		return failure instanceof ResourceAccessException ? "io" : "other";
+	}
+
+	private long getBackoff(int attempt) {
+		double backoff = properties.getInitialBackoffMs() * Math.pow(properties.getBackoffMultiplier(), attempt - 1);
+		long capped = (long) Math.min(backoff, properties.getMaxBackoffMs());
+		return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+	}
+
+	private long getRetryAfter(HttpHeaders headers) {
+		String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+		if (retryAfter == null || retryAfter.trim().isEmpty()) {
+			return -1;
+		}
+		try {
+			return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(retryAfter.trim())));
+		} catch (NumberFormatException e) {
+			// not delta seconds but an HTTP date
+		}
+		try {
+			long date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+					.toEpochMilli();
+			return Math.max(0, date - System.currentTimeMillis());
+		} catch (DateTimeParseException e) {
+			return -1;
+		}
+	}
+
+}
@@ -0,0 +1,351 @@
+package io.kyma.project.connector.transport;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Connection manager of the async client shared by all {@link AsyncHttpTransport}s. It keeps
+ * a separate connection pool per name (e.g. per client certificate, as the TLS settings are
+ * part of the pool), while the connections of all pools are served by the I/O reactor of the
+ * one client. Requests select their pool via the user token of their context, see
+ * {@link #acquire(String, Supplier)}.
+ *
+ * A released pool is closed once its last request completed and is created again by the
+ * next request for its name. Pools without requests for the given time are released by the
+ * idle connection eviction of the client.
+ *
+ * @see ConnectorTransportFactory
+ */
+public class RoutingAsyncConnectionManager implements AsyncClientConnectionManager, ConnPoolControl<HttpRoute> {
+
+	private final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<String, Pool>();
+
+	private final ConcurrentMap<AsyncConnectionEndpoint, Pool> endpoints =
+			new ConcurrentHashMap<AsyncConnectionEndpoint, Pool>();
+
+	private final long poolIdleMs;
+
+	/**
+	 * Creates a manager without pools
+	 *
+	 * @param poolIdleMs time in milliseconds without requests after which a pool is closed
+	 */
+	public RoutingAsyncConnectionManager(long poolIdleMs) {
+		this.poolIdleMs = poolIdleMs;
+	}
+
+	/**
+	 * Returns the pool with the given name for a request, the pool is created if it does not
+	 * exist. The pool has to be set as user token of the request context and to be returned
+	 * via {@link Pool#release()} once the request completed.
+	 *
+	 * @param poolName name of the pool
+	 * @param poolFactory creates the pool if it does not exist
+	 * @return {@link Pool} that is not closed before it was released
+	 */
+	public Pool acquire(String poolName, Supplier<PoolingAsyncClientConnectionManager> poolFactory) {
+		while (true) {
+			Pool pool = pools.computeIfAbsent(poolName, (name) -> new Pool(name, poolFactory.get()));
+			if (pool.acquire()) {
+				return pool;
+			}
+			// released concurrently, it is no longer in the map
+			pools.remove(poolName, pool);
+		}
+	}
+
+	/**
+	 * Removes the pool with the given name and closes its connections once the requests in
+	 * flight on it completed
+	 *
+	 * @param poolName name of the pool
+	 */
+	public void release(String poolName) {
+		Pool pool = pools.remove(poolName);
+		if (pool != null) {
+			pool.retire();
+		}
+	}
+
+	/**
+	 * Returns the statistics of the pool with the given name
+	 *
+	 * @param poolName name of the pool
+	 * @return {@link PoolStats} or null if there is no such pool
+	 */
+	public PoolStats getPoolStats(String poolName) {
+		Pool pool = pools.get(poolName);
+		return pool != null ? pool.manager.getTotalStats() : null;
+	}
+
+	/**
+	 * Returns the number of pools
+	 *
+	 * @return number of pools that were not released
+	 */
+	public int getPoolCount() {
+		return pools.size();
+	}
+
+	@Override
+	public Future<AsyncConnectionEndpoint> lease(String id, HttpRoute route, Object state, Timeout requestTimeout,
+			FutureCallback<AsyncConnectionEndpoint> callback) {
+
+		if (!(state instanceof Pool)) {
+			throw new IllegalStateException("No connection pool selected for request to " + route);
+		}
+		Pool pool = (Pool) state;
+
+		return pool.manager.lease(id, route, state, requestTimeout, new FutureCallback<AsyncConnectionEndpoint>() {
+
+			@Override
+			public void completed(AsyncConnectionEndpoint endpoint) {
+				endpoints.put(endpoint, pool);
+				if (callback != null) {
+					callback.completed(endpoint);
+				}
+			}
+
+			@Override
+			public void failed(Exception e) {
+				if (callback != null) {
+					callback.failed(e);
+				}
+			}
+
+			@Override
+			public void cancelled() {
+				if (callback != null) {
+					callback.cancelled();
+				}
+			}
+		});
+	}
+
+	@Override
+	public void release(AsyncConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+		Pool pool = endpoints.remove(endpoint);
+		if (pool != null) {
+			pool.manager.release(endpoint, newState, validDuration);
+		} else {
+			endpoint.close(CloseMode.IMMEDIATE);
+		}
+	}
+
+	@Override
+	public Future<AsyncConnectionEndpoint> connect(AsyncConnectionEndpoint endpoint,
+			ConnectionInitiator connectionInitiator, Timeout connectTimeout, Object attachment, HttpContext context,
+			FutureCallback<AsyncConnectionEndpoint> callback) {
+		return poolOf(endpoint).manager.connect(endpoint, connectionInitiator, connectTimeout, attachment, context,
+				callback);
+	}
+
+	@Override
+	public void upgrade(AsyncConnectionEndpoint endpoint, Object attachment, HttpContext context) {
+		poolOf(endpoint).manager.upgrade(endpoint, attachment, context);
+	}
+
+	@Override
+	public void closeIdle(TimeValue idleTime) {
+		long unusedSince = System.currentTimeMillis() - poolIdleMs;
+		List<String> unused = new ArrayList<String>();
+		pools.forEach((name, pool) -> {
+			if (pool.isUnusedSince(unusedSince)) {
+				unused.add(name);
+			} else {
+				pool.manager.closeIdle(idleTime);
+			}
+		});
+		for (String name : unused) {
+			Pool pool = pools.get(name);
+			if (pool != null && pool.isUnusedSince(unusedSince) && pools.remove(name, pool)) {
+				pool.retire();
+			}
+		}
+	}
+
+	@Override
+	public void closeExpired() {
+		pools.values().forEach((pool) -> pool.manager.closeExpired());
+	}
+
+	@Override
+	public PoolStats getTotalStats() {
+		int leased = 0;
+		int pending = 0;
+		int available = 0;
+		int max = 0;
+		for (Pool pool : pools.values()) {
+			PoolStats stats = pool.manager.getTotalStats();
+			leased += stats.getLeased();
+			pending += stats.getPending();
+			available += stats.getAvailable();
+			max += stats.getMax();
+		}
+		return new PoolStats(leased, pending, available, max);
+	}
+
+	@Override
+	public PoolStats getStats(HttpRoute route) {
+		int leased = 0;
+		int pending = 0;
+		int available = 0;
+		int max = 0;
+		for (Pool pool : pools.values()) {
+			PoolStats stats = pool.manager.getStats(route);
+			leased += stats.getLeased();
+			pending += stats.getPending();
+			available += stats.getAvailable();
+			max += stats.getMax();
+		}
+		return new PoolStats(leased, pending, available, max);
+	}
+
+	@Override
+	public Set<HttpRoute> getRoutes() {
+		Set<HttpRoute> routes = new HashSet<HttpRoute>();
+		pools.values().forEach((pool) -> routes.addAll(pool.manager.getRoutes()));
+		return routes;
+	}
+
+	@Override
+	public int getMaxTotal() {
+		return pools.values().stream().mapToInt((pool) -> pool.manager.getMaxTotal()).sum();
+	}
+
+	@Override
+	public void setMaxTotal(int max) {
+		throw new UnsupportedOperationException("Pools are sized when they are created");
+	}
+
+	@Override
+	public int getDefaultMaxPerRoute() {
+		return pools.values().stream().mapToInt((pool) -> pool.manager.getDefaultMaxPerRoute()).sum();
+	}
+
+	@Override
+	public void setDefaultMaxPerRoute(int max) {
+		throw new UnsupportedOperationException("Pools are sized when they are created");
+	}
+
+	@Override
+	public int getMaxPerRoute(HttpRoute route) {
+		return pools.values().stream().mapToInt((pool) -> pool.manager.getMaxPerRoute(route)).sum();
+	}
+
+	@Override
+	public void setMaxPerRoute(HttpRoute route, int max) {
+		throw new UnsupportedOperationException("Pools are sized when they are created");
+	}
+
+	@Override
+	public void close(CloseMode closeMode) {
+		pools.values().forEach((pool) -> pool.shutdown(closeMode));
+		pools.clear();
+	}
+
+	@Override
+	public void close() {
+		close(CloseMode.GRACEFUL);
+	}
+
+	private Pool poolOf(AsyncConnectionEndpoint endpoint) {
+		Pool pool = endpoints.get(endpoint);
+		if (pool == null) {
+			throw new IllegalStateException("Endpoint not leased from this connection manager");
+		}
+		return pool;
+	}
+
+	/**
+	 * Connection pool of a name with the number of requests using it, it is closed once it
+	 * was released and no request uses it anymore
+	 */
+	public static final class Pool {
+
+		private final String name;
+
+		private final PoolingAsyncClientConnectionManager manager;
+
+		private int users;
+
+		private boolean retired;
+
+		private long lastUsed = System.currentTimeMillis();
+
+		private Pool(String name, PoolingAsyncClientConnectionManager manager) {
+			this.name = name;
+			this.manager = manager;
+		}
+
+		/**
+		 * Returns a pool acquired via {@link RoutingAsyncConnectionManager#acquire(String, Supplier)}
+		 * once its request completed
+		 */
+		public void release() {
+			synchronized (this) {
+				users--;
+				lastUsed = System.currentTimeMillis();
+				if (!retired || users > 0) {
+					return;
+				}
+			}
+			manager.close(CloseMode.GRACEFUL);
+		}
+
+		private synchronized boolean acquire() {
+			if (retired) {
+				return false;
+			}
+			users++;
+			return true;
+		}
+
+		private void retire() {
+			synchronized (this) {
+				retired = true;
+				if (users > 0) {
+					return;
+				}
+			}
+			manager.close(CloseMode.GRACEFUL);
+		}
+
+		private synchronized boolean isUnusedSince(long time) {
+			return users == 0 && lastUsed < time;
+		}
+
+		private void shutdown(CloseMode closeMode) {
+			synchronized (this) {
+				retired = true;
+			}
+			manager.close(closeMode);
+		}
+
+		@Override
+		public String toString() {
+			return "Pool(" + name + ")";
+		}
+
+	}
+
+}
@@ -0,0 +1,44 @@
+package io.kyma.project.connector.transport;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Spring Configurations relevant for the transports
+ *
+ * @see ConnectorTransportFactory
+ * @see TransportProperties
+ */
+@Configuration
+public class TransportConfiguration {
+
+	/**
+	 * Creates the {@link ExecutorService} running asynchronous requests of blocking transports
+	 *
+	 * @param properties {@link TransportProperties} holding the pool size
+	 * @return {@link ExecutorService} with a fixed number of daemon threads
+	 */
+	@Bean(name = "TransportExecutor", destroyMethod = "shutdown")
+	public ExecutorService transportExecutor(TransportProperties properties) {
+		return Executors.newFixedThreadPool(properties.getBlockingThreads(),
+				new ThreadFactoryBuilder().setNameFormat("transport-%d").setDaemon(true).build());
+	}
+
+	/**
+	 * Creates the {@link ScheduledExecutorService} scheduling asynchronous retries after their backoff
+	 *
+	 * @return {@link ScheduledExecutorService} with a single daemon thread
+	 */
+	@Bean(name = "TransportRetryScheduler", destroyMethod = "shutdownNow")
+	public ScheduledExecutorService transportRetryScheduler() {
+		return Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("transport-retry-%d").setDaemon(true).build());
+	}
+
+}
@@ -0,0 +1,53 @@
+package io.kyma.project.connector.transport;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the transport used to communicate with Kyma / Extension 
+ * Factory (prefix <code>kyma.connector.transport</code>).
+ *
+ * @see ConnectorTransportFactory
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.transport")
+public class TransportProperties {
+
+	/**
+	 * Available transport implementations
+	 */
+	public enum Type {
+		/**
+		 * Blocking {@link RestTemplateTransport}, one thread per request in flight
+		 */
+		REST_TEMPLATE,
+		/**
+		 * Non-blocking {@link AsyncHttpTransport}, HTTP/2 if supported by the server
+		 */
+		ASYNC_HTTP
+	}
+
+	/**
+	 * Transport implementation to be used
+	 */
+	private Type type = Type.REST_TEMPLATE;
+
+	/**
+	 * Number of threads executing asynchronous requests of the {@link RestTemplateTransport}
+	 */
+	private int blockingThreads = 32;
+
+	/**
+	 * Number of I/O threads of the client shared by all {@link AsyncHttpTransport}s
+	 */
+	private int ioThreads = 2;
+
+	/**
+	 * Whether the {@link AsyncHttpTransport} negotiates HTTP/2 via ALPN, otherwise HTTP/1.1 is used
+	 */
+	private boolean http2 = true;
+
+}
@@ -2,9 +2,6 @@ package io.kyma.project.connector.util;
 
 import java.io.IOException;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -14,6 +11,7 @@ import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.bouncycastle.pkcs.PKCS10CertificationRequestBuilder;
 import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import io.kyma.project.connector.exception.ApplicationConnectorException;
@@ -25,30 +23,22 @@ import lombok.Data;
 * Utility Service that creates a Certificate Signing Request and returns 
 * the DER (w/o base64) encoded CSR in conjunction with the newly generated
 * key pair. The underlying libraries are from @link http://www.bouncycastle.org
+* Key pairs are taken from the {@link KeyPairPool}, which may generate them in advance.
 * 
 * @author Andreas Krause
 */
 @Service
 public class CertificateService {
 	
-	private KeyPair generateKeyPair(String algorithm) {
-		
-		if (!algorithm.equals("rsa2048")) {
-			throw new ApplicationConnectorException(
-					String.format("Key Algorith %s not supported", algorithm));
-		}
-		
-		try {
-			KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
-		
-			keyGen.initialize(2048, new SecureRandom());
-			return keyGen.generateKeyPair();
-		} catch (NoSuchAlgorithmException e) {
-			throw new ApplicationConnectorException(
-					String.format("Error generating Keypair: %s", e.getMessage()), 
-					e);
-		}
-		
+	private KeyPairPool keyPairPool;
+	
+	/**
+	 * Method used for setter injection
+	 * @param keyPairPool the pool providing the key pairs for signing requests
+	 */
+	@Autowired
+	public void setKeyPairPool(KeyPairPool keyPairPool) {
+		this.keyPairPool = keyPairPool;
 	}
 	
 	
@@ -77,7 +67,7 @@ public class CertificateService {
 	 * @throws ApplicationConnectorException if anything fails
 	 */
 	public CsrResult createCSR(String subject, String algorithm) {
-		KeyPair keypair = generateKeyPair(algorithm);
+		KeyPair keypair = keyPairPool.take(algorithm);
 		try {
 			byte[] csr = createSigningRequest(subject, keypair);
 			
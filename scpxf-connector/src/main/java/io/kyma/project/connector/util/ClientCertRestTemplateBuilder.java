@@ -1,22 +1,19 @@
 package io.kyma.project.connector.util;
 
-import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.Enumeration;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import javax.annotation.PostConstruct;
 import javax.net.ssl.SSLContext;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.http.client.HttpClient;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.ssl.SSLContextBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
@@ -25,8 +22,12 @@ import org.springframework.web.client.RestTemplate;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
 
 /**
  * Utility Service that creates a RestTemplate, that uses 2-way-ssl for
@@ -40,10 +41,17 @@ import io.kyma.project.connector.exception.RestTemplateCustomizerException;
 @Service
 public class ClientCertRestTemplateBuilder {
 
-	private static Cache<String, RestTemplate> cache = CacheBuilder.newBuilder().maximumSize(100)
-			.expireAfterAccess(10, TimeUnit.MINUTES).build();
+	private Cache<String, RestTemplate> cache;
 
 	private RestTemplateBuilder restTemplateBuilder;
+	
+	private HttpConnectionPoolManager connectionPoolManager;
+	
+	private SslContextProvider sslContextProvider;
+	
+	private HttpConnectionPoolProperties connectionPoolProperties;
+	
+	private ConnectorMetrics metrics;
 
 	/**
 	 * Sets the {@link RestTemplateBuilder} to be used by this object
@@ -55,8 +63,67 @@ public class ClientCertRestTemplateBuilder {
 	public void setRestTemplateBuilder(RestTemplateBuilder restTemplateBuilder) {
 		this.restTemplateBuilder = restTemplateBuilder;
 	}
+	
+	/**
+	 * Sets the {@link HttpConnectionPoolManager} to be used by this object
+	 * 
+	 * @param connectionPoolManager {@link HttpConnectionPoolManager} providing the pooled 
+	 *                              connections
+	 */
+	@Autowired
+	public void setConnectionPoolManager(HttpConnectionPoolManager connectionPoolManager) {
+		this.connectionPoolManager = connectionPoolManager;
+	}
+	
+	/**
+	 * Sets the {@link SslContextProvider} to be used by this object
+	 * 
+	 * @param sslContextProvider {@link SslContextProvider} providing the (cached) SSL contexts
+	 */
+	@Autowired
+	public void setSslContextProvider(SslContextProvider sslContextProvider) {
+		this.sslContextProvider = sslContextProvider;
+	}
+	
+	/**
+	 * Sets the {@link HttpConnectionPoolProperties} to be used by this object
+	 * 
+	 * @param connectionPoolProperties {@link HttpConnectionPoolProperties} holding the pool size
+	 */
+	@Autowired
+	public void setConnectionPoolProperties(HttpConnectionPoolProperties connectionPoolProperties) {
+		this.connectionPoolProperties = connectionPoolProperties;
+	}
+
+	/**
+	 * Sets the {@link ConnectorMetrics} to be used by this object
+	 * 
+	 * @param metrics {@link ConnectorMetrics} the client cache is reported to
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Creates the client cache sized as configured and registers its metrics
+	 */
+	@PostConstruct
+	public void start() {
+		cache = CacheBuilder.newBuilder().maximumSize(connectionPoolProperties.getClientCacheSize())
+				.expireAfterAccess(connectionPoolProperties.getClientIdleMinutes(), TimeUnit.MINUTES).recordStats()
+				.removalListener((RemovalListener<String, RestTemplate>) this::onRemoval).build();
+		metrics.monitorCache("client.templates", cache);
+	}
 
-	private String getCertificateFingerprint(KeyStore keyStore) {
+	/**
+	 * Returns the SHA-1 fingerprint of the first certificate contained in the {@link KeyStore}
+	 * 
+	 * @param keyStore keystore holding the client certificate
+	 * @return hex encoded fingerprint
+	 * @throws RestTemplateCustomizerException if the keystore holds no certificate
+	 */
+	public String getCertificateFingerprint(KeyStore keyStore) {
 		try {
 			Enumeration<String> aliases = keyStore.aliases();
 			
@@ -80,7 +147,7 @@ public class ClientCertRestTemplateBuilder {
 	 * Creates a {@link RestTemplate} for a given {@link KeyStore} and pass (for the
 	 * keystore). Rest template will use key and certificate from KeyStore to
 	 * establish 2-way-ssl (Client Certificate) connection. Rest Template uses
-	 * {@link HttpClient}
+	 * {@link HttpClient} with pooled connections provided by {@link HttpConnectionPoolManager}
 	 * 
 	 * @param clientCertificate      keystore holding certificate and private key
 	 * @param password               to access the keystore
@@ -88,41 +155,122 @@ public class ClientCertRestTemplateBuilder {
 	 * @throws RestTemplateCustomizerException if anything fails
 	 */
 	public RestTemplate applicationConnectorRestTemplate(KeyStore clientCertificate, char[] keystorePassword) {
+		return applicationConnectorRestTemplate(clientCertificate, keystorePassword, 
+				getCertificateFingerprint(clientCertificate));
+	}
+	
+	/**
+	 * Creates a {@link RestTemplate} like {@link #applicationConnectorRestTemplate(KeyStore, char[])}
+	 * for a certificate whose fingerprint is already known.
+	 * 
+	 * @param clientCertificate      keystore holding certificate and private key
+	 * @param password               to access the keystore
+	 * @param certificateFingerprint fingerprint as returned by {@link #getCertificateFingerprint(KeyStore)}
+	 * @return {@link RestTemplate} that is 2-way-ssl enabled
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public RestTemplate applicationConnectorRestTemplate(KeyStore clientCertificate, char[] keystorePassword,
+			String certificateFingerprint) {
 		
-		String certificateFingerprint = getCertificateFingerprint(clientCertificate);
-		
-		RestTemplate result = cache.getIfPresent(certificateFingerprint);
-		
+		// concurrent misses for the same certificate wait for a single template to be built
+		try {
+			return cache.get(certificateFingerprint, () -> createRestTemplate(clientCertificate, keystorePassword,
+					certificateFingerprint, certificateFingerprint, connectionPoolProperties.getMaxTotal()));
+		} catch (ExecutionException e) {
+			throw unwrap(e.getCause());
+		} catch (UncheckedExecutionException e) {
+			throw unwrap(e.getCause());
+		}
+	}
+	
+	/**
+	 * Creates a new {@link RestTemplate} like {@link #applicationConnectorRestTemplate(KeyStore, char[], String)}
+	 * that is not cached, e.g. for callers that manage the lifecycle of their clients themselves.
+	 * Its connections are pooled under the given pool name and closed via 
+	 * {@link HttpConnectionPoolManager#release(String)}.
+	 * 
+	 * @param clientCertificate      keystore holding certificate and private key
+	 * @param password               to access the keystore
+	 * @param certificateFingerprint fingerprint as returned by {@link #getCertificateFingerprint(KeyStore)}
+	 * @param poolName               name of the connection pool, e.g. the certificate fingerprint
+	 * @param maxConnections         maximum number of pooled connections
+	 * @return {@link RestTemplate} that is 2-way-ssl enabled
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public RestTemplate createRestTemplate(KeyStore clientCertificate, char[] keystorePassword,
+			String certificateFingerprint, String poolName, int maxConnections) {
 		
-		if (result == null) {
-
-			try {
-				SSLContext sslContext = SSLContextBuilder.create().loadKeyMaterial(clientCertificate, keystorePassword)
-						.build();
+		SSLContext sslContext = createSslContext(clientCertificate, keystorePassword, certificateFingerprint);
 
-				SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(sslContext);
+		SSLConnectionSocketFactory socketFactory = sslContextProvider.createSocketFactory(sslContext);
 
-				HttpClient client = HttpClients.custom().setSSLSocketFactory(socketFactory).build();
-				
-				result = restTemplateBuilder
-						.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(client)).build();
-				
-				cache.put(certificateFingerprint, result);
-				
-				return result;
-				
-			} catch (KeyManagementException e) {
-				throw new RestTemplateCustomizerException(e.getMessage(), e);
-			} catch (UnrecoverableKeyException e) {
-				throw new RestTemplateCustomizerException(e.getMessage(), e);
-			} catch (NoSuchAlgorithmException e) {
-				throw new RestTemplateCustomizerException(e.getMessage(), e);
-			} catch (KeyStoreException e) {
-				throw new RestTemplateCustomizerException(e.getMessage(), e);
-			}
-		} else {
-			return result;
+		HttpClient client = connectionPoolManager.createHttpClient(poolName, socketFactory, maxConnections);
+		
+		return restTemplateBuilder.requestFactory(() -> createRequestFactory(client)).build();
+	}
+	
+	/**
+	 * Removes the {@link RestTemplate} and {@link SSLContext} of the given certificate and closes 
+	 * its pooled connections once the requests in flight on them completed, e.g. once the 
+	 * certificate was renewed.
+	 * 
+	 * @param certificateFingerprint fingerprint as returned by {@link #getCertificateFingerprint(KeyStore)}
+	 */
+	public void evict(String certificateFingerprint) {
+		cache.invalidate(certificateFingerprint);
+		connectionPoolManager.release(certificateFingerprint);
+		sslContextProvider.evict(certificateFingerprint);
+	}
+	
+	private void onRemoval(RemovalNotification<String, RestTemplate> notification) {
+		// evicted templates may still be in use, their pool is closed once idle and created
+		// again by their next request; explicit removals release the pool themselves
+		if (notification.wasEvicted()) {
+			connectionPoolManager.release(notification.getKey());
+		}
+	}
+	
+	private RestTemplateCustomizerException unwrap(Throwable cause) {
+		if (cause instanceof RestTemplateCustomizerException) {
+			return (RestTemplateCustomizerException) cause;
 		}
+		return new RestTemplateCustomizerException(cause.getMessage(), cause);
+	}
+	
+	private HttpComponentsClientHttpRequestFactory createRequestFactory(HttpClient client) {
+		HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(client);
+		// stream request bodies (e.g. large registration files) instead of buffering them
+		requestFactory.setBufferRequestBody(false);
+		return requestFactory;
+	}
+	
+	/**
+	 * Returns an {@link SSLContext} that presents the key and certificate from the KeyStore 
+	 * as client certificate. The context is shared by all clients of the certificate, see
+	 * {@link SslContextProvider}.
+	 * 
+	 * @param clientCertificate      keystore holding certificate and private key
+	 * @param password               to access the keystore
+	 * @return {@link SSLContext} for 2-way-ssl
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public SSLContext createSslContext(KeyStore clientCertificate, char[] keystorePassword) {
+		return createSslContext(clientCertificate, keystorePassword, getCertificateFingerprint(clientCertificate));
+	}
+	
+	/**
+	 * Returns an {@link SSLContext} like {@link #createSslContext(KeyStore, char[])} for a 
+	 * certificate whose fingerprint is already known.
+	 * 
+	 * @param clientCertificate      keystore holding certificate and private key
+	 * @param password               to access the keystore
+	 * @param certificateFingerprint fingerprint as returned by {@link #getCertificateFingerprint(KeyStore)}
+	 * @return {@link SSLContext} for 2-way-ssl
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public SSLContext createSslContext(KeyStore clientCertificate, char[] keystorePassword,
+			String certificateFingerprint) {
+		return sslContextProvider.getSslContext(clientCertificate, keystorePassword, certificateFingerprint);
 	}
 
 }
@@ -0,0 +1,114 @@
+package io.kyma.project.connector.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Counts the completed TLS handshakes, distinguished in full and resumed handshakes.
+ * A handshake is counted as resumed if a session with the same id was seen before in the
+ * same session context, i.e. of the same {@link javax.net.ssl.SSLContext} and hence the
+ * same client certificate. Sessions without a context are distinguished by their peer.
+ * A TLS 1.3 resumption gets a new session id and is counted as full handshake.
+ *
+ * @see SslContextProvider
+ */
+public class HandshakeStatistics {
+
+	private final AtomicLong fullHandshakes = new AtomicLong();
+
+	private final AtomicLong resumedHandshakes = new AtomicLong();
+
+	private final Cache<SessionKey, Boolean> sessions;
+
+	HandshakeStatistics(int maximumSessions, long sessionTimeoutSeconds) {
+		CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(Math.max(1, maximumSessions));
+		if (sessionTimeoutSeconds > 0) {
+			builder.expireAfterWrite(sessionTimeoutSeconds, TimeUnit.SECONDS);
+		}
+		this.sessions = builder.build();
+	}
+
+	/**
+	 * Records a completed handshake
+	 *
+	 * @param session {@link SSLSession} established by the handshake
+	 */
+	public void record(SSLSession session) {
+		SessionKey key = new SessionKey(session.getSessionContext(),
+				session.getPeerHost() + ":" + session.getPeerPort(), session.getId());
+
+		if (sessions.asMap().putIfAbsent(key, Boolean.TRUE) == null) {
+			fullHandshakes.incrementAndGet();
+		} else {
+			resumedHandshakes.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the number of full handshakes
+	 *
+	 * @return number of handshakes that established a new session
+	 */
+	public long getFullHandshakes() {
+		return fullHandshakes.get();
+	}
+
+	/**
+	 * Returns the number of resumed handshakes
+	 *
+	 * @return number of handshakes that resumed a cached session
+	 */
+	public long getResumedHandshakes() {
+		return resumedHandshakes.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("HandshakeStatistics(fullHandshakes=%d, resumedHandshakes=%d)",
+				getFullHandshakes(), getResumedHandshakes());
+	}
+
+	/**
+	 * Id of a session within its session context, contexts are compared by identity
+	 */
+	private static final class SessionKey {
+
+		private final SSLSessionContext context;
+
+		private final String peer;
+
+		private final byte[] id;
+
+		private SessionKey(SSLSessionContext context, String peer, byte[] id) {
+			this.context = context;
+			// the peer only tells sessions apart that are not cached in a context
+			this.peer = context == null ? peer : null;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof SessionKey)) {
+				return false;
+			}
+			SessionKey other = (SessionKey) obj;
+			return context == other.context && (peer == null ? other.peer == null : peer.equals(other.peer))
+					&& Arrays.equals(id, other.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * System.identityHashCode(context) + (peer == null ? 0 : peer.hashCode()))
+					+ Arrays.hashCode(id);
+		}
+
+	}
+
+}
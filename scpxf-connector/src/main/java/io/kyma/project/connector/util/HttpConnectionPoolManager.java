@@ -0,0 +1,505 @@
+package io.kyma.project.connector.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+
+/**
+ * Utility Service that owns the pooled connections of all {@link CloseableHttpClient}s
+ * used to connect to Kyma / Extension Factory. Every pool is identified by a name 
+ * (e.g. the certificate fingerprint) and shares the configured sizing and keep alive 
+ * settings. Expired and idle connections of all pools are evicted by a single background 
+ * thread.
+ * 
+ * Clients do not hold on to a pool but look it up for every request, so they outlive the
+ * pool: a released pool is closed once its last request completed and is created again 
+ * by the next request of a client still in use. Pools without requests for the configured
+ * time are released by the background thread as well.
+ * 
+ * The connections of all pools together are limited to the configured global maximum, a
+ * request waits for a connection of its pool and only then for a free global connection.
+ * 
+ * @see HttpConnectionPoolProperties
+ * @see PoolingHttpClientConnectionManager
+ */
+@Service
+public class HttpConnectionPoolManager {
+
+	private static final Logger log = LoggerFactory.getLogger(HttpConnectionPoolManager.class);
+
+	private final ConcurrentMap<String, ConnectionPool> pools = new ConcurrentHashMap<String, ConnectionPool>();
+
+	private HttpConnectionPoolProperties properties;
+
+	private ScheduledExecutorService evictor;
+
+	private Semaphore globalConnections;
+
+	private ConnectorMetrics metrics;
+
+	/**
+	 * Sets the {@link HttpConnectionPoolProperties} to be used by this object
+	 * 
+	 * @param properties {@link HttpConnectionPoolProperties} to be used by this Object
+	 */
+	@Autowired
+	public void setProperties(HttpConnectionPoolProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Sets the {@link ConnectorMetrics} to be used by this object
+	 * 
+	 * @param metrics {@link ConnectorMetrics} the pool usage is reported to
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Starts the background eviction of expired and idle connections and registers the
+	 * gauges of the pool usage
+	 */
+	@PostConstruct
+	public void start() {
+		globalConnections = new Semaphore(properties.getGlobalMaxTotal(), true);
+
+		metrics.gauge("kyma.connector.http.pool.leased", "Connections leased from all pools", this,
+				(m) -> m.getTotalStats().getLeased());
+		metrics.gauge("kyma.connector.http.pool.available", "Idle connections in all pools", this,
+				(m) -> m.getTotalStats().getAvailable());
+		metrics.gauge("kyma.connector.http.pool.pending", "Requests waiting for a pooled connection", this,
+				(m) -> m.getTotalStats().getPending());
+		metrics.gauge("kyma.connector.http.pool.max", "Maximum connections of all pools", this,
+				(m) -> m.getTotalStats().getMax());
+		metrics.gauge("kyma.connector.http.pool.count", "Number of connection pools", pools, Map::size);
+		metrics.gauge("kyma.connector.http.pool.global.available",
+				"Connections that can still be leased within the global maximum", this,
+				(m) -> m.globalConnections.availablePermits());
+
+		evictor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("http-connection-evictor-%d").setDaemon(true).build());
+		evictor.scheduleWithFixedDelay(this::evictConnections, properties.getEvictionIntervalMs(),
+				properties.getEvictionIntervalMs(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background eviction and closes all pools
+	 */
+	@PreDestroy
+	public void stop() {
+		evictor.shutdownNow();
+		pools.values().forEach(ConnectionPool::shutdown);
+		pools.clear();
+	}
+
+	/**
+	 * Creates a {@link CloseableHttpClient} that uses the pool with the given name. If 
+	 * no such pool exists it is created with the given socket factory for https connections.
+	 * Closing the client does not close the pool, use {@link #release(String)} instead.
+	 * 
+	 * @param poolName name of the pool, clients with the same name share their connections
+	 * @param sslSocketFactory factory for https connections or null for the default factory
+	 * @return {@link CloseableHttpClient} backed by the pool
+	 */
+	public CloseableHttpClient createHttpClient(String poolName, SSLConnectionSocketFactory sslSocketFactory) {
+		return createHttpClient(poolName, sslSocketFactory, properties.getMaxTotal());
+	}
+
+	/**
+	 * Creates a {@link CloseableHttpClient} like {@link #createHttpClient(String, SSLConnectionSocketFactory)}
+	 * whose pool is limited to the given number of connections. All clients of a pool have to 
+	 * use the same limit.
+	 * 
+	 * @param poolName name of the pool, clients with the same name share their connections
+	 * @param sslSocketFactory factory for https connections or null for the default factory
+	 * @param maxConnections maximum number of connections of the pool
+	 * @return {@link CloseableHttpClient} backed by the pool
+	 * @throws RestTemplateCustomizerException if the pool exists with a different limit
+	 */
+	public CloseableHttpClient createHttpClient(String poolName, SSLConnectionSocketFactory sslSocketFactory,
+			int maxConnections) {
+		ConnectionPool existing = pools.get(poolName);
+		if (existing != null && existing.maxConnections != maxConnections) {
+			throw new RestTemplateCustomizerException(String.format(
+					"Connection pool %s is limited to %d connections, not %d", poolName, existing.maxConnections,
+					maxConnections));
+		}
+		return HttpClients.custom()
+				.setConnectionManager(new PoolConnectionManager(poolName, sslSocketFactory, maxConnections))
+				.setConnectionManagerShared(true)
+				.setKeepAliveStrategy(keepAliveStrategy())
+				// a pool serves a single client certificate, connections need not be bound to the 
+				// ssl principal, otherwise they would never be reused by subsequent requests
+				.disableConnectionState()
+				.build();
+	}
+
+	/**
+	 * Removes the pool with the given name and closes its connections once the requests in
+	 * flight on it completed. Clients of the pool remain usable, their next request creates
+	 * a new pool.
+	 * 
+	 * @param poolName name of the pool
+	 */
+	public void release(String poolName) {
+		ConnectionPool pool = pools.remove(poolName);
+		if (pool != null) {
+			pool.retire();
+		}
+	}
+
+	/**
+	 * Returns the statistics of the pool with the given name
+	 * 
+	 * @param poolName name of the pool
+	 * @return {@link PoolStats} or null if there is no such pool
+	 */
+	public PoolStats getPoolStats(String poolName) {
+		ConnectionPool pool = pools.get(poolName);
+		return pool != null ? pool.manager.getTotalStats() : null;
+	}
+
+	/**
+	 * Returns the statistics of all pools
+	 * 
+	 * @return unmodifiable map of pool name to {@link PoolStats}
+	 */
+	public Map<String, PoolStats> getPoolStats() {
+		Map<String, PoolStats> result = new HashMap<String, PoolStats>();
+		pools.forEach((name, pool) -> result.put(name, pool.manager.getTotalStats()));
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Returns the statistics summed up over all pools
+	 * 
+	 * @return {@link PoolStats} of all pools
+	 */
+	public PoolStats getTotalStats() {
+		int leased = 0;
+		int pending = 0;
+		int available = 0;
+		int max = 0;
+		for (ConnectionPool pool : pools.values()) {
+			PoolStats stats = pool.manager.getTotalStats();
+			leased += stats.getLeased();
+			pending += stats.getPending();
+			available += stats.getAvailable();
+			max += stats.getMax();
+		}
+		return new PoolStats(leased, pending, available, max);
+	}
+
+	private ConnectionPool acquire(String poolName, SSLConnectionSocketFactory sslSocketFactory, int maxConnections) {
+		while (true) {
+			ConnectionPool pool = pools.computeIfAbsent(poolName, (name) -> new ConnectionPool(
+					createConnectionManager(sslSocketFactory, maxConnections), maxConnections));
+			if (pool.acquire()) {
+				if (pool.maxConnections != maxConnections && pool.reportSizeConflict()) {
+					// the pool was created again by a client with another limit
+					log.warn("Connection pool {} is limited to {} connections, a client requested {}", poolName,
+							pool.maxConnections, maxConnections);
+				}
+				return pool;
+			}
+			// released concurrently, it is no longer in the map
+			pools.remove(poolName, pool);
+		}
+	}
+
+	private PoolingHttpClientConnectionManager createConnectionManager(SSLConnectionSocketFactory sslSocketFactory,
+			int maxConnections) {
+		Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", sslSocketFactory != null ? sslSocketFactory 
+						: SSLConnectionSocketFactory.getSocketFactory())
+				.build();
+
+		PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(socketFactories);
+		pool.setMaxTotal(maxConnections);
+		pool.setDefaultMaxPerRoute(Math.min(properties.getMaxPerRoute(), maxConnections));
+		pool.setValidateAfterInactivity(properties.getValidateAfterInactivityMs());
+		return pool;
+	}
+
+	private ConnectionKeepAliveStrategy keepAliveStrategy() {
+		long maxKeepAlive = properties.getKeepAliveMs();
+		return (response, context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? Math.min(keepAlive, maxKeepAlive) : maxKeepAlive;
+		};
+	}
+
+	private void evictConnections() {
+		long unusedSince = System.currentTimeMillis() - properties.getPoolIdleMs();
+		List<String> unused = new ArrayList<String>();
+		pools.forEach((name, pool) -> {
+			if (pool.isUnusedSince(unusedSince)) {
+				unused.add(name);
+			} else {
+				pool.manager.closeExpiredConnections();
+				pool.manager.closeIdleConnections(properties.getMaxIdleMs(), TimeUnit.MILLISECONDS);
+			}
+		});
+		for (String name : unused) {
+			ConnectionPool pool = pools.get(name);
+			if (pool != null && pool.isUnusedSince(unusedSince) && pools.remove(name, pool)) {
+				pool.retire();
+			}
+		}
+	}
+
+	/**
+	 * Pool of a name with the number of requests using it, it is closed once it was retired
+	 * and no request uses it anymore
+	 */
+	private static final class ConnectionPool {
+
+		private final PoolingHttpClientConnectionManager manager;
+
+		private final int maxConnections;
+
+		private int users;
+
+		private boolean retired;
+
+		private boolean sizeConflictReported;
+
+		private long lastUsed = System.currentTimeMillis();
+
+		private ConnectionPool(PoolingHttpClientConnectionManager manager, int maxConnections) {
+			this.manager = manager;
+			this.maxConnections = maxConnections;
+		}
+
+		private synchronized boolean reportSizeConflict() {
+			boolean first = !sizeConflictReported;
+			sizeConflictReported = true;
+			return first;
+		}
+
+		private synchronized boolean acquire() {
+			if (retired) {
+				return false;
+			}
+			users++;
+			return true;
+		}
+
+		private void release() {
+			synchronized (this) {
+				users--;
+				lastUsed = System.currentTimeMillis();
+				if (!retired || users > 0) {
+					return;
+				}
+			}
+			manager.shutdown();
+		}
+
+		private void retire() {
+			synchronized (this) {
+				retired = true;
+				if (users > 0) {
+					return;
+				}
+			}
+			manager.shutdown();
+		}
+
+		private synchronized boolean isUnusedSince(long time) {
+			return users == 0 && lastUsed < time;
+		}
+
+		private void shutdown() {
+			synchronized (this) {
+				retired = true;
+			}
+			manager.shutdown();
+		}
+
+	}
+
+	/**
+	 * Connection manager of a client that leases its connections from the current pool of
+	 * its name and counts the requests using the pool until their connection is released.
+	 * A connection is leased from the pool first and then holds one of the global connections
+	 * until it is released, both within the same connection request timeout.
+	 */
+	private final class PoolConnectionManager implements HttpClientConnectionManager {
+
+		private final String poolName;
+
+		private final SSLConnectionSocketFactory sslSocketFactory;
+
+		private final int maxConnections;
+
+		private final ConcurrentMap<HttpClientConnection, ConnectionPool> leased = 
+				new ConcurrentHashMap<HttpClientConnection, ConnectionPool>();
+
+		private PoolConnectionManager(String poolName, SSLConnectionSocketFactory sslSocketFactory,
+				int maxConnections) {
+			this.poolName = poolName;
+			this.sslSocketFactory = sslSocketFactory;
+			this.maxConnections = maxConnections;
+		}
+
+		@Override
+		public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+			ConnectionPool pool = acquire(poolName, sslSocketFactory, maxConnections);
+			AtomicBoolean done = new AtomicBoolean();
+			ConnectionRequest request;
+			try {
+				request = pool.manager.requestConnection(route, state);
+			} catch (RuntimeException e) {
+				pool.release();
+				throw e;
+			}
+
+			return new ConnectionRequest() {
+
+				@Override
+				public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+						throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+					// waits for the own pool first, so that callers queued on a busy pool do not hold
+					// global connections that the other pools could use
+					long start = System.nanoTime();
+					HttpClientConnection connection = null;
+					try {
+						connection = request.get(timeout, timeUnit);
+						// a timeout of zero waits without limit like the pools do
+						acquireGlobalConnection(timeout > 0
+								? timeUnit.toNanos(timeout) - (System.nanoTime() - start) : Long.MAX_VALUE);
+						leased.put(connection, pool);
+						return connection;
+					} catch (InterruptedException | ExecutionException | ConnectionPoolTimeoutException
+							| RuntimeException e) {
+						if (connection != null) {
+							pool.manager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+						}
+						if (done.compareAndSet(false, true)) {
+							pool.release();
+						}
+						throw e;
+					}
+				}
+
+				@Override
+				public boolean cancel() {
+					boolean cancelled = request.cancel();
+					if (cancelled && done.compareAndSet(false, true)) {
+						pool.release();
+					}
+					return cancelled;
+				}
+			};
+		}
+
+		@Override
+		public void releaseConnection(HttpClientConnection connection, Object newState, long validDuration,
+				TimeUnit timeUnit) {
+			ConnectionPool pool = leased.remove(connection);
+			if (pool != null) {
+				try {
+					pool.manager.releaseConnection(connection, newState, validDuration, timeUnit);
+				} finally {
+					globalConnections.release();
+					pool.release();
+				}
+			}
+		}
+
+		@Override
+		public void connect(HttpClientConnection connection, HttpRoute route, int connectTimeout,
+				HttpContext context) throws IOException {
+			poolOf(connection).manager.connect(connection, route, connectTimeout, context);
+		}
+
+		@Override
+		public void upgrade(HttpClientConnection connection, HttpRoute route, HttpContext context)
+				throws IOException {
+			poolOf(connection).manager.upgrade(connection, route, context);
+		}
+
+		@Override
+		public void routeComplete(HttpClientConnection connection, HttpRoute route, HttpContext context)
+				throws IOException {
+			poolOf(connection).manager.routeComplete(connection, route, context);
+		}
+
+		@Override
+		public void closeIdleConnections(long idleTime, TimeUnit timeUnit) {
+			// evicted by the background thread of the pool manager
+		}
+
+		@Override
+		public void closeExpiredConnections() {
+			// evicted by the background thread of the pool manager
+		}
+
+		@Override
+		public void shutdown() {
+			// the pools are shared, they are closed by the pool manager
+		}
+
+		private void acquireGlobalConnection(long timeoutNanos)
+				throws InterruptedException, ConnectionPoolTimeoutException {
+			if (!globalConnections.tryAcquire(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS)) {
+				throw new ConnectionPoolTimeoutException("Timeout waiting for a connection within the global maximum");
+			}
+		}
+
+		private ConnectionPool poolOf(HttpClientConnection connection) {
+			ConnectionPool pool = leased.get(connection);
+			if (pool == null) {
+				throw new IllegalStateException("Connection not leased from pool " + poolName);
+			}
+			return pool;
+		}
+
+	}
+
+}
@@ -0,0 +1,72 @@
+package io.kyma.project.connector.util;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the pooled HTTP connections to Kyma / Extension 
+ * Factory (prefix <code>kyma.connector.http</code>).
+ *
+ * @see HttpConnectionPoolManager
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.http")
+public class HttpConnectionPoolProperties {
+
+	/**
+	 * Maximum number of connections per pool
+	 */
+	private int maxTotal = 200;
+
+	/**
+	 * Maximum number of connections of all pools together
+	 */
+	private int globalMaxTotal = 1000;
+
+	/**
+	 * Maximum number of connections per route (host) of a pool
+	 */
+	private int maxPerRoute = 50;
+
+	/**
+	 * Maximum time in milliseconds an idle connection is kept alive, used if the server
+	 * does not send a shorter keep alive timeout
+	 */
+	private long keepAliveMs = 30000;
+
+	/**
+	 * Idle time in milliseconds after which a pooled connection is validated before reuse
+	 */
+	private int validateAfterInactivityMs = 2000;
+
+	/**
+	 * Idle time in milliseconds after which a pooled connection is closed by the background eviction
+	 */
+	private long maxIdleMs = 60000;
+
+	/**
+	 * Interval in milliseconds in which expired and idle connections are evicted
+	 */
+	private long evictionIntervalMs = 5000;
+
+	/**
+	 * Maximum number of cached clients, one per client certificate; clients of the least 
+	 * recently used certificates are released beyond it
+	 */
+	private int clientCacheSize = 1000;
+
+	/**
+	 * Time in minutes after which an unused cached client is released
+	 */
+	private long clientIdleMinutes = 10;
+
+	/**
+	 * Time in milliseconds without requests after which a pool is closed, it is created 
+	 * again by the next request
+	 */
+	private long poolIdleMs = 600000;
+
+}
@@ -0,0 +1,160 @@
+package io.kyma.project.connector.util;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+
+/**
+ * Pool of key pairs that are generated in the background, so that pairing and renewal do
+ * not wait for the (CPU intensive) RSA key generation. Each key pair is handed out
+ * exactly once. If the pool is disabled or exhausted, key pairs are generated on demand.
+ *
+ * @see CertificateService
+ * @see KeyPairPoolProperties
+ */
+@Component
+public class KeyPairPool {
+
+	/**
+	 * Algorithm supported by the Kyma / Extension Factory connector service
+	 */
+	public static final String RSA_2048 = "rsa2048";
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	private final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<String, Pool>();
+
+	private KeyPairPoolProperties properties;
+
+	private ExecutorService generator;
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration of the pool
+	 */
+	@Autowired
+	public void setProperties(KeyPairPoolProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Starts the background generation if the pool is enabled
+	 */
+	@PostConstruct
+	public void start() {
+		if (properties.isEnabled() && properties.getDepth() > 0) {
+			generator = Executors.newFixedThreadPool(Math.max(1, properties.getRefillThreads()),
+					new ThreadFactoryBuilder().setNameFormat("key-pair-generator-%d").setDaemon(true).build());
+			refill(pool(RSA_2048));
+		}
+	}
+
+	/**
+	 * Stops the background generation and discards all pooled key pairs
+	 */
+	@PreDestroy
+	public void close() {
+		if (generator != null) {
+			generator.shutdownNow();
+		}
+		pools.values().forEach((p) -> p.keyPairs.clear());
+	}
+
+	/**
+	 * Returns a new key pair for the given algorithm, taken from the pool if available
+	 *
+	 * @param algorithm algorithm string provided by the signingRequest/info endpoint
+	 * @return {@link KeyPair} that was not handed out before
+	 * @throws ApplicationConnectorException if the algorithm is not supported or generation fails
+	 */
+	public KeyPair take(String algorithm) {
+
+		if (!RSA_2048.equals(algorithm)) {
+			throw new ApplicationConnectorException(
+					String.format("Key Algorith %s not supported", algorithm));
+		}
+
+		if (generator == null) {
+			return generate();
+		}
+
+		Pool pool = pool(algorithm);
+		KeyPair keyPair = pool.keyPairs.poll();
+		refill(pool);
+
+		return keyPair != null ? keyPair : generate();
+	}
+
+	/**
+	 * Returns the number of key pairs ready to be handed out
+	 *
+	 * @param algorithm algorithm string provided by the signingRequest/info endpoint
+	 * @return number of pooled key pairs
+	 */
+	public int available(String algorithm) {
+		Pool pool = pools.get(algorithm);
+		return pool != null ? pool.keyPairs.size() : 0;
+	}
+
+	private Pool pool(String algorithm) {
+		return pools.computeIfAbsent(algorithm, (a) -> new Pool());
+	}
+
+	private void refill(Pool pool) {
+		while (pool.keyPairs.size() + pool.pending.get() < properties.getDepth()) {
+			pool.pending.incrementAndGet();
+			try {
+				generator.execute(() -> {
+					try {
+						pool.keyPairs.offer(generate());
+					} catch (ApplicationConnectorException e) {
+						// generated on demand by the next consumer
+					} finally {
+						pool.pending.decrementAndGet();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				pool.pending.decrementAndGet();
+				return;
+			}
+		}
+	}
+
+	private KeyPair generate() {
+		try {
+			KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+
+			keyGen.initialize(2048, secureRandom);
+			return keyGen.generateKeyPair();
+		} catch (NoSuchAlgorithmException e) {
+			throw new ApplicationConnectorException(
+					String.format("Error generating Keypair: %s", e.getMessage()),
+					e);
+		}
+	}
+
+	private static class Pool {
+		private final BlockingQueue<KeyPair> keyPairs = new LinkedBlockingQueue<KeyPair>();
+		private final AtomicInteger pending = new AtomicInteger();
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.kyma.project.connector.util;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the pool of pre-generated key pairs used for certificate
+ * signing requests (prefix <code>kyma.connector.keypool</code>).
+ *
+ * @see KeyPairPool
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.keypool")
+public class KeyPairPoolProperties {
+
+	/**
+	 * Generate key pairs in the background, if disabled each key pair is generated when
+	 * the certificate signing request is created
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Number of key pairs kept ready per algorithm
+	 */
+	private int depth = 4;
+
+	/**
+	 * Number of threads generating key pairs in the background
+	 */
+	private int refillThreads = 1;
+
+}
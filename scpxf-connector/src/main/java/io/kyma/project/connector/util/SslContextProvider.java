@@ -0,0 +1,206 @@
+package io.kyma.project.connector.util;
+
+import java.security.KeyManagementException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.UnrecoverableKeyException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+
+/**
+ * Provides the {@link SSLContext}s used to connect to Kyma / Extension Factory. Contexts
+ * are cached per client certificate, so clients that are rebuilt (after idle expiry or by
+ * another transport) share the TLS session cache of their predecessors and resume their
+ * sessions instead of performing full handshakes. The trust material is loaded only once
+ * and shared by all contexts.
+ *
+ * @see TlsProperties
+ * @see HandshakeStatistics
+ */
+@Component
+public class SslContextProvider {
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	private TlsProperties properties;
+
+	private TrustManager[] trustManagers;
+
+	private Cache<String, SSLContext> contexts;
+
+	private volatile SSLContext defaultContext;
+
+	private HandshakeStatistics handshakeStatistics;
+
+	private ConnectorMetrics metrics;
+
+	/**
+	 * Method used for setter injection
+	 * @param properties the configuration of session caches
+	 */
+	@Autowired
+	public void setProperties(TlsProperties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Method used for setter injection
+	 * @param metrics the metrics of context cache and handshakes
+	 */
+	@Autowired
+	public void setMetrics(ConnectorMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Loads the trust material and creates the context cache
+	 *
+	 * @throws RestTemplateCustomizerException if the trust material cannot be loaded
+	 */
+	@PostConstruct
+	public void start() {
+		try {
+			TrustManagerFactory trustManagerFactory = TrustManagerFactory
+					.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+			trustManagerFactory.init((KeyStore) null);
+			trustManagers = trustManagerFactory.getTrustManagers();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RestTemplateCustomizerException(e.getMessage(), e);
+		} catch (KeyStoreException e) {
+			throw new RestTemplateCustomizerException(e.getMessage(), e);
+		}
+
+		contexts = CacheBuilder.newBuilder().maximumSize(properties.getContextCacheSize())
+				.expireAfterAccess(properties.getContextIdleMinutes(), TimeUnit.MINUTES).recordStats().build();
+
+		handshakeStatistics = new HandshakeStatistics(
+				properties.getSessionCacheSize() > 0 ? properties.getSessionCacheSize() * 10 : 10000,
+				properties.getSessionTimeoutSeconds());
+
+		metrics.monitorCache("ssl.contexts", contexts);
+		metrics.counter("kyma.connector.tls.handshakes", "TLS handshakes by type", handshakeStatistics,
+				HandshakeStatistics::getFullHandshakes, "type", "full");
+		metrics.counter("kyma.connector.tls.handshakes", "TLS handshakes by type", handshakeStatistics,
+				HandshakeStatistics::getResumedHandshakes, "type", "resumed");
+	}
+
+	/**
+	 * Returns the {@link SSLContext} that presents the key and certificate from the KeyStore
+	 * as client certificate. The context is reused for the same certificate.
+	 *
+	 * @param clientCertificate      keystore holding certificate and private key
+	 * @param keystorePassword       to access the keystore
+	 * @param certificateFingerprint fingerprint of the certificate contained in the key store
+	 * @return {@link SSLContext} for 2-way-ssl
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public SSLContext getSslContext(KeyStore clientCertificate, char[] keystorePassword,
+			String certificateFingerprint) {
+		try {
+			return contexts.get(certificateFingerprint, () -> createSslContext(clientCertificate, keystorePassword));
+		} catch (ExecutionException e) {
+			throw new RestTemplateCustomizerException(e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the {@link SSLContext} without client certificate, e.g. for the pairing step
+	 *
+	 * @return shared {@link SSLContext} for 1-way-ssl
+	 * @throws RestTemplateCustomizerException if anything fails
+	 */
+	public SSLContext getDefaultSslContext() {
+		if (defaultContext == null) {
+			synchronized (this) {
+				if (defaultContext == null) {
+					defaultContext = createSslContext(null, null);
+				}
+			}
+		}
+		return defaultContext;
+	}
+
+	/**
+	 * Removes the {@link SSLContext} of the given certificate including its cached sessions,
+	 * e.g. once the certificate was renewed
+	 *
+	 * @param certificateFingerprint fingerprint of the certificate contained in the key store
+	 */
+	public void evict(String certificateFingerprint) {
+		contexts.invalidate(certificateFingerprint);
+	}
+
+	/**
+	 * Creates a socket factory for the given context that records its handshakes in the
+	 * {@link HandshakeStatistics}
+	 *
+	 * @param sslContext context as returned by this provider
+	 * @return {@link SSLConnectionSocketFactory} with default hostname verification
+	 */
+	public SSLConnectionSocketFactory createSocketFactory(SSLContext sslContext) {
+		return new SSLConnectionSocketFactory(sslContext) {
+			@Override
+			protected void prepareSocket(SSLSocket socket) {
+				socket.addHandshakeCompletedListener((event) -> handshakeStatistics.record(event.getSession()));
+			}
+		};
+	}
+
+	/**
+	 * Returns the handshake counters of all contexts provided by this object
+	 *
+	 * @return {@link HandshakeStatistics} shared by all contexts
+	 */
+	public HandshakeStatistics getHandshakeStatistics() {
+		return handshakeStatistics;
+	}
+
+	private SSLContext createSslContext(KeyStore clientCertificate, char[] keystorePassword) {
+		try {
+			KeyManagerFactory keyManagerFactory = null;
+			if (clientCertificate != null) {
+				keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+				keyManagerFactory.init(clientCertificate, keystorePassword);
+			}
+
+			SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(keyManagerFactory != null ? keyManagerFactory.getKeyManagers() : null, trustManagers,
+					secureRandom);
+
+			SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+			sessionContext.setSessionCacheSize(properties.getSessionCacheSize());
+			sessionContext.setSessionTimeout(properties.getSessionTimeoutSeconds());
+
+			return sslContext;
+		} catch (KeyManagementException e) {
+			throw new RestTemplateCustomizerException(e.getMessage(), e);
+		} catch (UnrecoverableKeyException e) {
+			throw new RestTemplateCustomizerException(e.getMessage(), e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new RestTemplateCustomizerException(e.getMessage(), e);
+		} catch (KeyStoreException e) {
+			throw new RestTemplateCustomizerException(e.getMessage(), e);
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package io.kyma.project.connector.util;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the TLS connections to Kyma / Extension Factory
+ * (prefix <code>kyma.connector.tls</code>).
+ *
+ * @see SslContextProvider
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "kyma.connector.tls")
+public class TlsProperties {
+
+	/**
+	 * Maximum number of TLS sessions cached per client certificate for resumption,
+	 * 0 means no limit
+	 */
+	private int sessionCacheSize = 1000;
+
+	/**
+	 * Time in seconds a cached TLS session can be resumed, 0 means no limit
+	 */
+	private int sessionTimeoutSeconds = 86400;
+
+	/**
+	 * Maximum number of client certificates whose SSL context (including its session cache)
+	 * is kept
+	 */
+	private int contextCacheSize = 1000;
+
+	/**
+	 * Time in minutes an unused SSL context is kept, it should outlive the clients built
+	 * on top of it so that rebuilt clients resume the cached sessions
+	 */
+	private long contextIdleMinutes = 60;
+
+}
@@ -0,0 +1,84 @@
+package io.kyma.project.connector.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.event.EventGatewayService;
+import io.kyma.project.connector.event.EventModel;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext
+public class CertificateRenewalManagerTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Autowired
+	private CertificateRenewalManager renewalManager;
+
+	@Autowired
+	private PairingService pairingService;
+
+	@Autowired
+	private EventGatewayService eventGatewayService;
+
+	private final List<ConnectionRenewalListener> listeners = new ArrayList<ConnectionRenewalListener>();
+
+	@After
+	public void tearDown() {
+		listeners.forEach(renewalManager::removeListener);
+	}
+
+	@Test
+	public void failingListenerDoesNotUndoRenewal() {
+		ConnectionModel connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl("app1"),
+				"test".toCharArray());
+		ManagedConnection connection = renewalManager.manage(connectionModel);
+		ConnectionSnapshot previous = connection.getSnapshot();
+
+		List<ConnectionSnapshot> notified = new ArrayList<ConnectionSnapshot>();
+		addListener((c, p, current) -> {
+			throw new IllegalStateException("Key store not writable");
+		});
+		addListener((c, p, current) -> notified.add(current));
+
+		ConnectionSnapshot renewed = renewalManager.renew(connection);
+
+		assertSame(renewed, connection.getSnapshot());
+		assertNotEquals(previous.getCertificateFingerprint(), renewed.getCertificateFingerprint());
+		assertEquals(Collections.singletonList(renewed), notified);
+
+		long received = stub.getReceivedEventCount("app1");
+		eventGatewayService.writeEvent(connection.getSnapshot(), new EventModel("order.created", "v1",
+				"2019-01-01T00:00:00Z", Collections.singletonMap("id", "1")));
+		assertEquals(received + 1, stub.getReceivedEventCount("app1"));
+
+		renewalManager.unmanage(connection);
+	}
+
+	private void addListener(ConnectionRenewalListener listener) {
+		listeners.add(listener);
+		renewalManager.addListener(listener);
+	}
+
+}
@@ -0,0 +1,122 @@
+package io.kyma.project.connector.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.event.EventGatewayService;
+import io.kyma.project.connector.event.EventModel;
+import io.kyma.project.connector.event.EventPublishResult;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.kyma.project.connector.util.HttpConnectionPoolManager;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext
+public class ConnectionRegistryTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Autowired
+	private ConnectionRegistry registry;
+
+	@Autowired
+	private PairingService pairingService;
+
+	@Autowired
+	private EventGatewayService eventGatewayService;
+
+	@Autowired
+	private HttpConnectionPoolManager connectionPoolManager;
+
+	@Autowired
+	private CertificateRenewalManager renewalManager;
+
+	private ConnectionModel connectionModel;
+
+	@Before
+	public void setUp() {
+		stub.getConfiguration().setLatencyMs(0);
+		connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl("app1"), "test".toCharArray());
+	}
+
+	@Test
+	public void releasingDedicatedClientKeepsSharedPool() {
+		long received = stub.getReceivedEventCount("app1");
+		eventGatewayService.writeEvent(connectionModel, createEvent());
+		String fingerprint = connectionModel.getCertificateFingerprint();
+		assertNotNull(connectionPoolManager.getPoolStats(fingerprint));
+
+		registry.register(connectionModel);
+		eventGatewayService.writeEvent(registry.get("app1"), createEvent());
+		registry.unregister("app1");
+
+		assertNotNull(connectionPoolManager.getPoolStats(fingerprint));
+		eventGatewayService.writeEvent(connectionModel, createEvent());
+		assertEquals(received + 3, stub.getReceivedEventCount("app1"));
+	}
+
+	@Test
+	public void snapshotRemainsUsableAfterItsClientWasReleased() {
+		registry.register(connectionModel);
+		ConnectionSnapshot connection = registry.get("app1");
+		long received = stub.getReceivedEventCount("app1");
+
+		registry.unregister("app1");
+		eventGatewayService.writeEvent(connection, createEvent());
+
+		assertEquals(received + 1, stub.getReceivedEventCount("app1"));
+	}
+
+	@Test
+	public void releaseCompletesRequestsInFlight() throws Exception {
+		registry.register(connectionModel);
+		ConnectionSnapshot connection = registry.get("app1");
+		stub.getConfiguration().setLatencyMs(500);
+
+		CompletableFuture<List<EventPublishResult>> results = CompletableFuture.supplyAsync(
+				() -> eventGatewayService.writeEvents(connection, Collections.singletonList(createEvent())));
+		Thread.sleep(200);
+		registry.unregister("app1");
+
+		assertEquals(EventPublishResult.Outcome.SENT, results.get(5, TimeUnit.SECONDS).get(0).getOutcome());
+	}
+
+	@Test
+	public void managedConnectionIsRegisteredAgainAfterRenewal() {
+		ManagedConnection managed = registry.manage(connectionModel);
+		String fingerprint = registry.get("app1").getCertificateFingerprint();
+
+		ConnectionSnapshot renewed = managed.renew();
+		assertNotEquals(fingerprint, renewed.getCertificateFingerprint());
+		assertEquals(renewed.getCertificateFingerprint(), registry.get("app1").getCertificateFingerprint());
+
+		registry.unregister("app1");
+		assertFalse(renewalManager.getConnections().contains(managed));
+	}
+
+	private EventModel createEvent() {
+		return new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", "1"));
+	}
+
+}
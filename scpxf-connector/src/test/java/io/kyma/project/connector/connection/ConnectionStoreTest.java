@@ -0,0 +1,135 @@
+package io.kyma.project.connector.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.stub.StubCertificateAuthority;
+
+public class ConnectionStoreTest {
+
+	private static final StubCertificateAuthority certificateAuthority = new StubCertificateAuthority();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final char[] storePassword = "store".toCharArray();
+
+	private ConnectionStoreProperties properties;
+
+	private ConnectionRegistry registry;
+
+	private ConnectionStore store;
+
+	@Before
+	public void setUp() {
+		properties = new ConnectionStoreProperties();
+		properties.setDirectory(folder.getRoot().getPath());
+		properties.setKeyDerivationIterations(1000);
+		registry = mock(ConnectionRegistry.class);
+
+		store = new ConnectionStore();
+		store.setObjectMapper(new ObjectMapper());
+		store.setProperties(properties);
+		store.setRegistry(registry);
+	}
+
+	@Test
+	public void loadsSavedConnection() {
+		ConnectionModel connectionModel = createConnection("app1");
+		store.save(connectionModel, storePassword);
+
+		ConnectionModel loaded = store.load("app1", storePassword);
+
+		assertEquals("app1", loaded.getApplicationName());
+		assertEquals(connectionModel.getEventsURL(), loaded.getEventsURL());
+		assertEquals(connectionModel.getMetadataUrl(), loaded.getMetadataUrl());
+		assertEquals(connectionModel.getCertificateFingerprint(), loaded.getCertificateFingerprint());
+		assertEquals(connectionModel.getCertificateExpirationDate(), loaded.getCertificateExpirationDate());
+		assertEquals(new String(connectionModel.getKeystorePass()), new String(loaded.getKeystorePass()));
+		assertNull(store.load("app2", storePassword));
+	}
+
+	@Test
+	public void rejectsTamperedFile() throws Exception {
+		store.save(createConnection("app1"), storePassword);
+		Path file = folder.getRoot().toPath().resolve("app1.connection");
+		byte[] content = Files.readAllBytes(file);
+		content[content.length - 20] ^= 1;
+		Files.write(file, content);
+
+		assertRejected("app1", storePassword);
+	}
+
+	@Test
+	public void rejectsWrongPassword() {
+		store.save(createConnection("app1"), storePassword);
+
+		assertRejected("app1", "wrong".toCharArray());
+	}
+
+	@Test
+	public void rejectsIterationsOutOfBounds() throws Exception {
+		store.save(createConnection("app1"), storePassword);
+		Path file = folder.getRoot().toPath().resolve("app1.connection");
+
+		for (int iterations : Arrays.asList(Integer.MAX_VALUE, 0, -1)) {
+			byte[] content = Files.readAllBytes(file);
+			ByteBuffer.wrap(content).putInt(4, iterations);
+			Files.write(file, content);
+
+			assertRejected("app1", storePassword);
+		}
+	}
+
+	@Test
+	public void restoresStoredConnections() {
+		store.save(createConnection("app1"), storePassword);
+		store.save(createConnection("app2"), storePassword);
+
+		assertEquals(2, store.restore(storePassword).size());
+		verify(registry, times(2)).manage(any(ConnectionModel.class));
+	}
+
+	private void assertRejected(String applicationName, char[] password) {
+		try {
+			store.load(applicationName, password);
+			fail("Connection was loaded");
+		} catch (ApplicationConnectorException e) {
+			// expected
+		}
+	}
+
+	private ConnectionModel createConnection(String applicationName) {
+		char[] keystorePassword = "test".toCharArray();
+		ConnectionModel connectionModel = new ConnectionModel();
+		connectionModel.setApplicationName(applicationName);
+		connectionModel.setEventsURL(URI.create("https://localhost/" + applicationName + "/v1/events"));
+		connectionModel.setMetadataUrl(URI.create("https://localhost/" + applicationName + "/v1/metadata/services"));
+		connectionModel.setKeystorePass(keystorePassword);
+		connectionModel.setSslKey(certificateAuthority.createClientKeyStore(applicationName, keystorePassword,
+				TimeUnit.DAYS.toMillis(1)));
+		return connectionModel;
+	}
+
+}
@@ -0,0 +1,93 @@
+package io.kyma.project.connector.event;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext
+public class AsyncEventPublisherTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Autowired
+	private PairingService pairingService;
+
+	@Autowired
+	private EventGatewayService eventGatewayService;
+
+	@Autowired
+	private ConnectorTransportFactory transportFactory;
+
+	@Autowired
+	private EventPublishingProperties properties;
+
+	private AsyncEventPublisher publisher;
+
+	private ConnectionModel connectionModel;
+
+	@Before
+	public void setUp() {
+		connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl("app1"), "test".toCharArray());
+
+		publisher = new AsyncEventPublisher();
+		publisher.setGatewayService(eventGatewayService);
+		publisher.setTransportFactory(transportFactory);
+		publisher.setProperties(properties);
+		publisher.start();
+	}
+
+	@After
+	public void tearDown() {
+		stub.getConfiguration().setErrorRate(0);
+		publisher.stop();
+	}
+
+	@Test
+	public void publishedEventIsSent() throws Exception {
+		assertEquals(EventPublishResult.Outcome.SENT, publisher.publish(connectionModel, createEvent())
+				.get(5, TimeUnit.SECONDS).getOutcome());
+	}
+
+	@Test
+	public void failedEventIsCompleted() throws Exception {
+		stub.getConfiguration().setErrorRate(1.0);
+
+		assertEquals(EventPublishResult.Outcome.FAILED, publisher.publish(connectionModel, createEvent())
+				.get(5, TimeUnit.SECONDS).getOutcome());
+	}
+
+	@Test
+	public void eventPublishedAfterStopIsDropped() throws Exception {
+		publisher.stop();
+
+		CompletableFuture<EventPublishResult> result = publisher.publish(connectionModel, createEvent());
+
+		assertEquals(EventPublishResult.Outcome.DROPPED, result.get(5, TimeUnit.SECONDS).getOutcome());
+	}
+
+	private EventModel createEvent() {
+		return new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", "1"));
+	}
+
+}
@@ -0,0 +1,131 @@
+package io.kyma.project.connector.event;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashCode;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.metrics.MetricsProperties;
+import io.kyma.project.connector.stub.StubCertificateAuthority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+public class EventDeduplicatorTest {
+
+	private EventPublishingProperties properties;
+
+	private ConnectionSnapshot connection;
+
+	@Before
+	public void setUp() {
+		properties = new EventPublishingProperties();
+		properties.setDeduplicationEnabled(true);
+
+		char[] keystorePassword = "test".toCharArray();
+		ConnectionModel connectionModel = new ConnectionModel();
+		connectionModel.setApplicationName("app1");
+		connectionModel.setEventsURL(URI.create("https://localhost/app1/v1/events"));
+		connectionModel.setSslKey(new StubCertificateAuthority().createClientKeyStore("app1", keystorePassword,
+				TimeUnit.DAYS.toMillis(1)));
+		connectionModel.setKeystorePass(keystorePassword);
+		connection = new ConnectionSnapshot(connectionModel, "app1", null);
+	}
+
+	@Test
+	public void deliveredEventIsDuplicateWithinWindow() throws Exception {
+		properties.setDeduplicationWindowMs(200);
+		properties.setDeduplicationPartitions(2);
+		EventDeduplicator deduplicator = createDeduplicator();
+
+		deduplicator.release(deduplicator.register(connection, createEvent("1")), true);
+		assertNull(deduplicator.register(connection, createEvent("1")));
+		assertNotNull(deduplicator.register(connection, createEvent("2")));
+
+		Thread.sleep(400);
+		assertNotNull(deduplicator.register(connection, createEvent("1")));
+	}
+
+	@Test
+	public void eventInFlightIsDuplicateUntilItFailed() {
+		EventDeduplicator deduplicator = createDeduplicator();
+
+		HashCode key = deduplicator.register(connection, createEvent("1"));
+		assertNull(deduplicator.register(connection, createEvent("1")));
+
+		deduplicator.release(key, false);
+		assertNotNull(deduplicator.register(connection, createEvent("1")));
+	}
+
+	@Test
+	public void eventInFlightExpires() throws Exception {
+		properties.setDeduplicationInFlightTimeoutMs(50);
+		EventDeduplicator deduplicator = createDeduplicator();
+
+		assertNotNull(deduplicator.register(connection, createEvent("1")));
+		Thread.sleep(100);
+
+		assertNotNull(deduplicator.register(connection, createEvent("1")));
+	}
+
+	@Test
+	public void fullPartitionIsRotated() {
+		properties.setDeduplicationPartitions(1);
+		properties.setDeduplicationExpectedEvents(2);
+		EventDeduplicator deduplicator = createDeduplicator();
+
+		for (int counter = 1; counter <= 4; counter++) {
+			deduplicator.release(deduplicator.register(connection, createEvent(String.valueOf(counter))), true);
+		}
+
+		assertNull(deduplicator.register(connection, createEvent("4")));
+		assertNotNull(deduplicator.register(connection, createEvent("1")));
+	}
+
+	@Test
+	public void dataObjectsAreComparedByTheirJson() {
+		EventDeduplicator deduplicator = createDeduplicator();
+
+		deduplicator.release(deduplicator.register(connection, createEvent(new Order("1"))), true);
+
+		assertNull(deduplicator.register(connection, createEvent(new Order("1"))));
+		assertNotNull(deduplicator.register(connection, createEvent(new Order("2"))));
+	}
+
+	private EventDeduplicator createDeduplicator() {
+		ConnectorMetrics metrics = new ConnectorMetrics();
+		metrics.setMeterRegistry(new SimpleMeterRegistry());
+		metrics.setProperties(new MetricsProperties());
+
+		EventDeduplicator deduplicator = new EventDeduplicator();
+		deduplicator.setProperties(properties);
+		deduplicator.setMetrics(metrics);
+		deduplicator.setObjectMapper(new ObjectMapper());
+		deduplicator.start();
+		return deduplicator;
+	}
+
+	private EventModel createEvent(Object id) {
+		return new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", id));
+	}
+
+	@Getter
+	@AllArgsConstructor
+	private static class Order {
+
+		private String id;
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package io.kyma.project.connector.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class EventEncoderTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private EventEncoder encoder;
+
+	@Before
+	public void setUp() {
+		encoder = new EventEncoder();
+		encoder.setObjectMapper(objectMapper);
+	}
+
+	@Test
+	public void encodesEnvelopeAndData() throws Exception {
+		Map<String, Object> data = new LinkedHashMap<String, Object>();
+		data.put("id", "1");
+		data.put("amount", 12.5);
+		data.put("items", Arrays.asList(Collections.singletonMap("sku", "a\"b"), "c"));
+		EventModel event = new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", data, "key");
+
+		JsonNode encoded = objectMapper.readTree(encoder.encode(event));
+
+		JsonNode expected = objectMapper.valueToTree(event);
+		((ObjectNode) expected).remove("idempotency-key");
+		assertEquals(expected, encoded);
+	}
+
+	@Test
+	public void encodesMissingData() throws Exception {
+		JsonNode encoded = objectMapper.readTree(encoder.encode(
+				new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", null)));
+
+		assertTrue(encoded.get("data").isNull());
+	}
+
+	@Test
+	public void reusedBufferDoesNotLeakPreviousEvent() throws Exception {
+		encoder.encode(new EventModel("order.created", "v1", "2019-01-01T00:00:00Z",
+				Collections.singletonMap("description", String.join("", Collections.nCopies(5000, "x")))));
+
+		byte[] encoded = encoder.encode(new EventModel("order.deleted", "v1", "2019-01-01T00:00:00Z",
+				Collections.singletonMap("id", "1")));
+
+		assertEquals("order.deleted", objectMapper.readTree(encoded).get("event-type").asText());
+		assertEquals("1", objectMapper.readTree(encoded).get("data").get("id").asText());
+	}
+
+	@Test
+	public void formatsEventTimeInUtc() {
+		assertEquals("2019-01-01T00:00:00Z", EventEncoder.formatEventTime(Instant.parse("2019-01-01T00:00:00Z")));
+	}
+
+}
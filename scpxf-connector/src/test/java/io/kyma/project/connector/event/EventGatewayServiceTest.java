@@ -0,0 +1,94 @@
+package io.kyma.project.connector.event;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.kyma.project.connector.transport.ConnectorTransport;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext
+public class EventGatewayServiceTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Autowired
+	private PairingService pairingService;
+
+	@Autowired
+	private EventGatewayService eventGatewayService;
+
+	private ConnectionModel connectionModel;
+
+	@Before
+	public void setUp() {
+		connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl("app1"), "test".toCharArray());
+	}
+
+	@Test
+	public void batchCompletesEveryEventIfSendingThrows() throws Exception {
+		ConnectionSnapshot connection = new ConnectionSnapshot(connectionModel, "failing", new FailingTransport());
+
+		try (EventBatchAccumulator accumulator = eventGatewayService.createBatchAccumulator(connection)) {
+			CompletableFuture<EventPublishResult> first = accumulator.append(createEvent("1"));
+			CompletableFuture<EventPublishResult> second = accumulator.append(createEvent("2"));
+			accumulator.flush();
+
+			assertEquals(EventPublishResult.Outcome.FAILED, first.get(5, TimeUnit.SECONDS).getOutcome());
+			assertEquals(EventPublishResult.Outcome.FAILED, second.get(5, TimeUnit.SECONDS).getOutcome());
+		}
+	}
+
+	@Test
+	public void writeEventsReportsFailuresPerEvent() {
+		ConnectionSnapshot connection = new ConnectionSnapshot(connectionModel, "failing", new FailingTransport());
+
+		List<EventPublishResult> results = eventGatewayService.writeEvents(connection,
+				Arrays.asList(createEvent("1"), createEvent("2")));
+
+		assertEquals(2, results.size());
+		results.forEach((result) -> assertEquals(EventPublishResult.Outcome.FAILED, result.getOutcome()));
+	}
+
+	private EventModel createEvent(String id) {
+		return new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", id));
+	}
+
+	private static class FailingTransport implements ConnectorTransport {
+
+		@Override
+		public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType) {
+			throw new IllegalStateException("Transport closed");
+		}
+
+		@Override
+		public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request,
+				Class<T> responseType) {
+			throw new IllegalStateException("Transport closed");
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+package io.kyma.project.connector.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+		"kyma.connector.events.subscription-retry-ms=60000",
+		"kyma.connector.resilience.circuit-breaker-enabled=false" })
+@DirtiesContext
+public class EventSubscriptionCacheTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Autowired
+	private EventSubscriptionCache subscriptionCache;
+
+	@Autowired
+	private PairingService pairingService;
+
+	@Autowired
+	private ConnectorTransportFactory transportFactory;
+
+	@After
+	public void tearDown() {
+		stub.getConfiguration().setErrorRate(0);
+		subscriptionCache.clear();
+	}
+
+	@Test
+	public void lastKnownSubscriptionsAreServedIfRefreshFails() {
+		ConnectionSnapshot connection = connect("app1");
+		stub.addSubscription("app1", "order.created", "v1");
+		assertTrue(subscriptionCache.isEventActive(connection, createEvent("order.created")));
+
+		stub.getConfiguration().setErrorRate(1.0);
+		try {
+			subscriptionCache.refresh(connection).join();
+			fail("Refresh did not fail");
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof ApplicationConnectorException);
+		}
+
+		assertTrue(subscriptionCache.isEventActive(connection, createEvent("order.created")));
+		assertFalse(subscriptionCache.isEventActive(connection, createEvent("order.deleted")));
+	}
+
+	@Test
+	public void eventsAreSentWithoutRepeatedReadsWhileSubscriptionsAreUnavailable() {
+		ConnectionSnapshot connection = connect("app2");
+		stub.getConfiguration().setErrorRate(1.0);
+
+		assertTrue(subscriptionCache.isEventActive(connection, createEvent("order.created")));
+		long requests = stub.getRequestCount();
+
+		for (int counter = 0; counter < 5; counter++) {
+			assertTrue(subscriptionCache.isEventActive(connection, createEvent("order.created")));
+		}
+		assertEquals(requests, stub.getRequestCount());
+
+		try {
+			subscriptionCache.getEventSubscriptions(connection);
+			fail("Subscriptions were returned");
+		} catch (ApplicationConnectorException e) {
+			assertEquals(requests, stub.getRequestCount());
+		}
+	}
+
+	private ConnectionSnapshot connect(String applicationName) {
+		return transportFactory.createSnapshot(pairingService.executeInitialPairing(
+				stub.createConnectUrl(applicationName), "test".toCharArray()));
+	}
+
+	private EventModel createEvent(String eventType) {
+		return new EventModel(eventType, "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", "1"));
+	}
+
+}
@@ -0,0 +1,63 @@
+package io.kyma.project.connector.event.outbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kyma.project.connector.event.EventModel;
+
+public class EventOutboxTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	public void acknowledgedSegmentsAreDeleted() throws Exception {
+		try (EventOutbox outbox = EventOutbox.open(folder.getRoot().toPath(), 512, objectMapper)) {
+			for (int counter = 0; counter < 20; counter++) {
+				outbox.append(createEvent(counter));
+			}
+			assertTrue(outbox.getSegmentCount() > 1);
+
+			List<OutboxRecord> records = outbox.read(20);
+			assertEquals(20, records.size());
+			outbox.acknowledge(records.get(19));
+
+			assertTrue(outbox.isEmpty());
+			assertEquals(1, outbox.getSegmentCount());
+		}
+	}
+
+	@Test
+	public void unacknowledgedEventsSurviveReopening() throws Exception {
+		Path directory = folder.getRoot().toPath();
+		try (EventOutbox outbox = EventOutbox.open(directory, 512, objectMapper)) {
+			for (int counter = 0; counter < 10; counter++) {
+				outbox.append(createEvent(counter));
+			}
+			outbox.acknowledge(outbox.read(4).get(3));
+		}
+
+		try (EventOutbox outbox = EventOutbox.open(directory, 512, objectMapper)) {
+			List<OutboxRecord> records = outbox.read(10);
+			assertEquals(6, records.size());
+			assertEquals(4, records.get(0).getEvent().getData().get("id"));
+		}
+	}
+
+	private EventModel createEvent(int id) {
+		return new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", id));
+	}
+
+}
@@ -0,0 +1,136 @@
+package io.kyma.project.connector.event.outbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.FileSystemUtils;
+
+import io.kyma.project.connector.connection.CertificateRenewalManager;
+import io.kyma.project.connector.connection.ManagedConnection;
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.event.EventGatewayService;
+import io.kyma.project.connector.event.EventModel;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.kyma.project.connector.transport.ConnectorTransportFactory;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+		"kyma.connector.events.outbox-enabled=true",
+		"kyma.connector.events.outbox-directory=target/outbox-test",
+		"kyma.connector.events.outbox-retry-interval-ms=100",
+		"kyma.connector.events.outbox-max-attempts=2",
+		"kyma.connector.resilience.circuit-breaker-enabled=false" })
+@DirtiesContext
+public class OutboxManagerTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Autowired
+	private OutboxManager outboxManager;
+
+	@Autowired
+	private PairingService pairingService;
+
+	@Autowired
+	private EventGatewayService eventGatewayService;
+
+	@Autowired
+	private ConnectorTransportFactory transportFactory;
+
+	@Autowired
+	private CertificateRenewalManager renewalManager;
+
+	@BeforeClass
+	public static void clearOutbox() {
+		FileSystemUtils.deleteRecursively(new File("target/outbox-test"));
+	}
+
+	@After
+	public void tearDown() {
+		stub.getConfiguration().setErrorRate(0);
+	}
+
+	@Test
+	public void undeliveredEventIsReplayed() throws Exception {
+		ConnectionSnapshot connection = connect("app1");
+		long received = stub.getReceivedEventCount("app1");
+
+		stub.getConfiguration().setErrorRate(1.0);
+		eventGatewayService.writeEvent(connection, createEvent("1"));
+		EventOutbox outbox = outboxManager.replay(connection).getOutbox();
+		assertFalse(outbox.isEmpty());
+
+		stub.getConfiguration().setErrorRate(0);
+		await(() -> outbox.isEmpty());
+
+		assertEquals(received + 1, stub.getReceivedEventCount("app1"));
+	}
+
+	@Test
+	public void eventIsMovedToDeadLettersAfterMaxAttempts() throws Exception {
+		ConnectionSnapshot connection = connect("app2");
+
+		stub.getConfiguration().setErrorRate(1.0);
+		eventGatewayService.writeEvent(connection, createEvent("1"));
+		OutboxManager.ApplicationOutbox outbox = outboxManager.replay(connection);
+
+		await(() -> outbox.getOutbox().isEmpty());
+
+		assertFalse(outbox.getDeadLetters().isEmpty());
+		assertEquals("1", outbox.getDeadLetters().read(1).get(0).getEvent().getData().get("id"));
+	}
+
+	@Test
+	public void renewedConnectionIsReplayed() throws Exception {
+		ConnectionModel connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl("app3"),
+				"test".toCharArray());
+		ManagedConnection connection = renewalManager.manage(connectionModel);
+		OutboxManager.ApplicationOutbox outbox = outboxManager.replay(connection.getSnapshot());
+
+		try {
+			ConnectionSnapshot renewed = renewalManager.renew(connection);
+
+			assertSame(renewed, outbox.getConnection());
+		} finally {
+			renewalManager.unmanage(connection);
+		}
+	}
+
+	private ConnectionSnapshot connect(String applicationName) {
+		ConnectionModel connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl(applicationName),
+				"test".toCharArray());
+		return transportFactory.createSnapshot(connectionModel);
+	}
+
+	private EventModel createEvent(String id) {
+		return new EventModel("order.created", "v1", "2019-01-01T00:00:00Z", Collections.singletonMap("id", id));
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertTrue("Condition not met in time", condition.getAsBoolean());
+	}
+
+}
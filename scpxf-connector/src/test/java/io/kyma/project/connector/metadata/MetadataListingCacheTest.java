@@ -0,0 +1,102 @@
+package io.kyma.project.connector.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.net.URI;
+import java.security.KeyStore;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.kyma.project.connector.transport.RestTemplateTransport;
+
+public class MetadataListingCacheTest {
+
+	@Rule
+	public final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration());
+
+	private ExecutorService executor;
+
+	private RestTemplateTransport transport;
+
+	private MetadataProperties properties;
+
+	private MetadataListingCache listingCache;
+
+	private URI metadataUrl;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newCachedThreadPool();
+
+		char[] keystorePassword = "test".toCharArray();
+		KeyStore keyStore = stub.getCertificateAuthority().createClientKeyStore("app1", keystorePassword,
+				TimeUnit.DAYS.toMillis(1));
+		RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+				.setSSLContext(stub.getCertificateAuthority().createClientSslContext(keyStore, keystorePassword))
+				.build()));
+		restTemplate.getMessageConverters().add(0, new MetadataIdentifierIndexHttpMessageConverter());
+		transport = new RestTemplateTransport(restTemplate, executor);
+
+		properties = new MetadataProperties();
+		listingCache = new MetadataListingCache();
+		listingCache.setProperties(properties);
+		metadataUrl = URI.create(stub.getBaseUrl() + "/app1/v1/metadata/services");
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void listingIsRevalidatedOnEveryUse() {
+		properties.setListingTtlMs(60000);
+		assertNull(listingCache.get(transport, metadataUrl).getId("service1"));
+
+		// registered by another replica
+		String id = register("service1");
+
+		assertEquals(id, listingCache.get(transport, metadataUrl).getId("service1"));
+	}
+
+	@Test
+	public void unchangedListingIsNotTransferredAgain() {
+		register("service1");
+		MetadataIdentifierIndex index = listingCache.get(transport, metadataUrl);
+		long requests = stub.getRequestCount();
+
+		MetadataIdentifierIndex revalidated = listingCache.get(transport, metadataUrl);
+
+		assertEquals(requests + 1, stub.getRequestCount());
+		assertNotNull(revalidated.getId("service1"));
+		assertEquals(index, revalidated);
+	}
+
+	@SuppressWarnings("unchecked")
+	private String register(String identifier) {
+		Map<String, Object> service = new HashMap<String, Object>();
+		service.put("identifier", identifier);
+		service.put("name", identifier);
+		service.put("provider", "test");
+		return (String) transport.exchange(RequestEntity.post(metadataUrl).contentType(MediaType.APPLICATION_JSON)
+				.body(service), Map.class).getBody().get("id");
+	}
+
+}
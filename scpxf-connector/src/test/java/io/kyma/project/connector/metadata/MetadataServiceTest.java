@@ -0,0 +1,112 @@
+package io.kyma.project.connector.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.exception.MetadataInvalidException;
+import io.kyma.project.connector.pairing.PairingService;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+		"kyma.connector.compression.metadata=true",
+		"kyma.connector.compression.min-size=0" })
+@DirtiesContext
+public class MetadataServiceTest {
+
+	@ClassRule
+	public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Autowired
+	private MetadataService metadataService;
+
+	@Autowired
+	private PairingService pairingService;
+
+	private ConnectionModel connectionModel;
+
+	@Before
+	public void setUp() {
+		connectionModel = pairingService.executeInitialPairing(stub.createConnectUrl("app1"), "test".toCharArray());
+	}
+
+	@Test
+	public void registersFileWithCredentials() {
+		MetadataRegistrationResult result = metadataService.registerMetadata(connectionModel,
+				new File("registration/registrationfile.json"), new MetadataBasicAuthentication("un", "pw"));
+
+		assertEquals(MetadataRegistrationResult.Outcome.CREATED, result.getOutcome());
+		JsonNode service = stub.getServices("app1").get(result.getId());
+		assertEquals("Person API", service.get("name").asText());
+		assertEquals("2.0", service.get("api").get("spec").get("swagger").asText());
+		assertEquals("un", service.get("api").get("credentials").get("basic").get("username").asText());
+	}
+
+	@Test
+	public void skipsUnchangedRegistration() throws IOException {
+		File file = createFile("unchanged", "Unchanged");
+
+		MetadataRegistrationResult created = metadataService.registerMetadata(connectionModel, file, null);
+		MetadataRegistrationResult skipped = metadataService.registerMetadata(connectionModel, file, null);
+		MetadataRegistrationResult updated = metadataService.registerMetadata(connectionModel, file,
+				new MetadataBasicAuthentication("un", "pw"));
+
+		assertEquals(MetadataRegistrationResult.Outcome.CREATED, created.getOutcome());
+		assertEquals(MetadataRegistrationResult.Outcome.SKIPPED, skipped.getOutcome());
+		assertEquals(MetadataRegistrationResult.Outcome.UPDATED, updated.getOutcome());
+		assertEquals(created.getId(), updated.getId());
+	}
+
+	@Test
+	public void registersFilesOfDirectory() throws IOException {
+		createFile("bulk1", "Bulk 1");
+		createFile("bulk2", "Bulk 2");
+		Files.write(folder.getRoot().toPath().resolve("bulk3.json"),
+				"{\"identifier\":\"bulk1\",\"name\":\"Duplicate\",\"provider\":\"test\"}".getBytes(StandardCharsets.UTF_8));
+		Files.write(folder.getRoot().toPath().resolve("invalid.json"), "[]".getBytes(StandardCharsets.UTF_8));
+
+		List<MetadataRegistrationResult> results = metadataService.registerMetadataDirectory(connectionModel,
+				folder.getRoot(), null);
+
+		assertEquals(Arrays.asList(MetadataRegistrationResult.Outcome.CREATED,
+				MetadataRegistrationResult.Outcome.CREATED, MetadataRegistrationResult.Outcome.FAILED,
+				MetadataRegistrationResult.Outcome.FAILED),
+				Arrays.asList(results.get(0).getOutcome(), results.get(1).getOutcome(), results.get(2).getOutcome(),
+						results.get(3).getOutcome()));
+		assertTrue(results.get(2).getError() instanceof MetadataInvalidException);
+		assertEquals("Bulk 1", stub.getServices("app1").get(results.get(0).getId()).get("name").asText());
+	}
+
+	private File createFile(String identifier, String name) throws IOException {
+		File file = folder.newFile(identifier + ".json");
+		Files.write(file.toPath(), String.format("{\"identifier\":\"%s\",\"name\":\"%s\",\"provider\":\"test\","
+				+ "\"api\":{\"targetUrl\":\"https://localhost\"}}", identifier, name).getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+}
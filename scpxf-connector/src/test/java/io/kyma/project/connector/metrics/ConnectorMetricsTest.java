@@ -0,0 +1,61 @@
+package io.kyma.project.connector.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConnectorMetricsTest {
+
+	private SimpleMeterRegistry registry;
+
+	private MetricsProperties properties;
+
+	private ConnectorMetrics metrics;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		properties = new MetricsProperties();
+		metrics = new ConnectorMetrics();
+		metrics.setMeterRegistry(registry);
+		metrics.setProperties(properties);
+	}
+
+	@Test
+	public void onlyListedEventTypesAreTagged() {
+		properties.setTaggedEventTypes(Collections.singleton("order.created"));
+
+		metrics.recordEvent(metrics.start(), "order.created", "v1", ConnectorMetrics.SUCCESS);
+		metrics.recordEvent(metrics.start(), "order.deleted", "v1", ConnectorMetrics.SUCCESS);
+		metrics.recordEvent(metrics.start(), "order.updated", "v2", ConnectorMetrics.SUCCESS);
+
+		assertEquals(1, registry.get("kyma.connector.events").tag("event.type", "order.created")
+				.tag("event.type.version", "v1").timer().count());
+		assertEquals(2, registry.get("kyma.connector.events").tag("event.type", "other")
+				.tag("event.type.version", "other").timer().count());
+		assertNull(registry.find("kyma.connector.events").tag("event.type", "order.deleted").timer());
+	}
+
+	@Test
+	public void expiryGaugesOfDifferentSourcesAreSeparate() {
+		Date expiry = new Date(System.currentTimeMillis() + 60000);
+		Meter registryGauge = metrics.monitorCertificateExpiry(ConnectorMetrics.SOURCE_REGISTRY, "app1", () -> expiry);
+		Meter renewalGauge = metrics.monitorCertificateExpiry(ConnectorMetrics.SOURCE_RENEWAL, "app1", () -> expiry);
+
+		metrics.remove(registryGauge);
+
+		assertNull(registry.find("kyma.connector.certificate.expiry").tag("source", "registry").gauge());
+		assertNotNull(registry.find("kyma.connector.certificate.expiry").tag("source", "renewal").gauge());
+		assertEquals(renewalGauge.getId(), registry.get("kyma.connector.certificate.expiry").gauge().getId());
+	}
+
+}
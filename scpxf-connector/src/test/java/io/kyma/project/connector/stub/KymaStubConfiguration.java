@@ -0,0 +1,92 @@
+package io.kyma.project.connector.stub;
+
+import lombok.Data;
+
+/**
+ * Behavior of the {@link KymaStubServer}, in particular the faults injected into the
+ * requests of the application endpoints (info, renewal, metadata and events). The one time
+ * token endpoints of the initial pairing are never faulted. Changes take effect with the
+ * next request, so faults can be switched on and off while a test is running.
+ *
+ * The fault rates are probabilities between 0 and 1 per request, their sum should not
+ * exceed 1. Faults are drawn from a {@link java.util.Random} with the configured seed, so
+ * a single threaded run is reproducible.
+ */
+@Data
+public class KymaStubConfiguration {
+
+	/**
+	 * Port the server listens on, 0 selects a free port
+	 */
+	private volatile int port = 0;
+
+	/**
+	 * Validity of issued client certificates in seconds
+	 */
+	private volatile long certificateValiditySeconds = 90L * 24 * 3600;
+
+	/**
+	 * Fixed latency added to every faulted endpoint in milliseconds
+	 */
+	private volatile long latencyMs = 0;
+
+	/**
+	 * Random latency added on top of the fixed latency, uniformly distributed between 0 and
+	 * this value in milliseconds
+	 */
+	private volatile long latencyJitterMs = 0;
+
+	/**
+	 * Probability of a <code>500 Internal Server Error</code> response
+	 */
+	private volatile double errorRate = 0;
+
+	/**
+	 * Probability of a <code>429 Too Many Requests</code> response
+	 */
+	private volatile double throttleRate = 0;
+
+	/**
+	 * Probability of a <code>503 Service Unavailable</code> response
+	 */
+	private volatile double unavailableRate = 0;
+
+	/**
+	 * Probability that the connection is closed without any response
+	 */
+	private volatile double dropRate = 0;
+
+	/**
+	 * Value of the <code>Retry-After</code> header of 429 and 503 responses in seconds,
+	 * negative values omit the header
+	 */
+	private volatile int retryAfterSeconds = 1;
+
+	/**
+	 * Seed of the random faults
+	 */
+	private volatile long seed = 42;
+
+	/**
+	 * Reads the configuration from system properties prefixed with <code>stub.</code>, e.g.
+	 * <code>-Dstub.latencyMs=50 -Dstub.throttleRate=0.1</code>
+	 *
+	 * @return configuration with defaults for properties that are not set
+	 */
+	public static KymaStubConfiguration fromSystemProperties() {
+		KymaStubConfiguration configuration = new KymaStubConfiguration();
+		configuration.setPort(Integer.getInteger("stub.port", 8443));
+		configuration.setCertificateValiditySeconds(
+				Long.getLong("stub.certificateValiditySeconds", configuration.getCertificateValiditySeconds()));
+		configuration.setLatencyMs(Long.getLong("stub.latencyMs", 0));
+		configuration.setLatencyJitterMs(Long.getLong("stub.latencyJitterMs", 0));
+		configuration.setErrorRate(Double.parseDouble(System.getProperty("stub.errorRate", "0")));
+		configuration.setThrottleRate(Double.parseDouble(System.getProperty("stub.throttleRate", "0")));
+		configuration.setUnavailableRate(Double.parseDouble(System.getProperty("stub.unavailableRate", "0")));
+		configuration.setDropRate(Double.parseDouble(System.getProperty("stub.dropRate", "0")));
+		configuration.setRetryAfterSeconds(Integer.getInteger("stub.retryAfterSeconds", 1));
+		configuration.setSeed(Long.getLong("stub.seed", 42));
+		return configuration;
+	}
+
+}
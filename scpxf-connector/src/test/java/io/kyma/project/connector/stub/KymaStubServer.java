@@ -0,0 +1,702 @@
+package io.kyma.project.connector.stub;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.junit.rules.ExternalResource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsExchange;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+
+/**
+ * Local stand-in for the Kyma Application Connector and the application gateway, so the
+ * connector can be load and resilience tested without a cluster or network. It implements
+ * the endpoints used by the services of this project:
+ * * <code>GET /v1/applications/signingRequests/info?token=</code> connect info (one time token)
+ * * <code>POST /v1/applications/certificates?token=</code> initial certificate signing
+ * * <code>GET /v1/applications/management/info</code> info
+ * * <code>POST /v1/applications/certificates/renewals</code> certificate renewal
+ * * <code>GET|POST /{application}/v1/metadata/services</code> listing and registration
+ * * <code>GET|PUT|DELETE /{application}/v1/metadata/services/{id}</code> service
+ * * <code>GET /{application}/v1/events/subscribed</code> active subscriptions
+ * * <code>POST /{application}/v1/events</code> event publishing
+ *
+ * All endpoints but the token endpoints require a client certificate issued by the
+ * {@link StubCertificateAuthority} of the server; its common name is the application name.
+ * Latency, error responses and connection drops are injected as configured in the
+ * {@link KymaStubConfiguration}.
+ *
+ * The server can be embedded (see {@link #start()}), used as JUnit rule or run standalone via
+ * {@link #main(String[])}. As <code>@ClassRule</code> or <code>@Rule</code> the server is
+ * started before and closed after the tests; with {@link #withTrustStore()} the default trust
+ * store of the JVM is replaced for that time, e.g. for Spring Boot tests:
+ * <pre>
+ * &#64;ClassRule
+ * public static final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration()).withTrustStore();
+ * </pre>
+ */
+public class KymaStubServer extends ExternalResource implements AutoCloseable {
+
+	private static final String TRUST_STORE_PROPERTY = "javax.net.ssl.trustStore";
+	private static final String TRUST_STORE_PASSWORD_PROPERTY = "javax.net.ssl.trustStorePassword";
+
+	private static final String CONNECT_INFO_PATH = "/v1/applications/signingRequests/info";
+	private static final String CERTIFICATES_PATH = "/v1/applications/certificates";
+	private static final String INFO_PATH = "/v1/applications/management/info";
+	private static final String RENEWAL_PATH = "/v1/applications/certificates/renewals";
+
+	private static final Pattern APPLICATION_PATH = Pattern
+			.compile("^/([^/]+)/v1/(metadata/services|events/subscribed|events)(?:/([^/]+))?$");
+
+	private static final String CERTIFICATE_SUBJECT = "OU=OrgUnit,O=Organization,L=Waldorf,ST=Waldorf,C=DE,CN=%s";
+
+	private final char[] keystorePassword = UUID.randomUUID().toString().toCharArray();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final KymaStubConfiguration configuration;
+
+	private final StubCertificateAuthority certificateAuthority = new StubCertificateAuthority();
+
+	private final ConcurrentMap<String, String> tokens = new ConcurrentHashMap<String, String>();
+
+	private final ConcurrentMap<String, Application> applications = new ConcurrentHashMap<String, Application>();
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicLong faultCount = new AtomicLong();
+
+	private final Random random;
+
+	private HttpsServer server;
+
+	private ExecutorService executor;
+
+	private boolean installTrustStore;
+
+	private File trustStore;
+
+	private String previousTrustStore;
+
+	private String previousTrustStorePassword;
+
+	/**
+	 * Creates a server with the given configuration, the server is not started yet
+	 *
+	 * @param configuration behavior of the server, can be changed while the server is running
+	 */
+	public KymaStubServer(KymaStubConfiguration configuration) {
+		this.configuration = configuration;
+		this.random = new Random(configuration.getSeed());
+	}
+
+	/**
+	 * Starts a server from the command line. The configuration is read from system properties
+	 * (see {@link KymaStubConfiguration#fromSystemProperties()}), the trust store of the stub CA
+	 * is written to <code>stub.trustStore</code> (default <code>target/stub-truststore.jks</code>,
+	 * password <code>changeit</code>) and a connect URL is printed per application name given
+	 * as argument.
+	 *
+	 * @param args names of the applications to create connect URLs for
+	 */
+	public static void main(String[] args) {
+		KymaStubServer server = new KymaStubServer(KymaStubConfiguration.fromSystemProperties());
+		server.start();
+
+		File trustStore = new File(System.getProperty("stub.trustStore", "target/stub-truststore.jks"));
+		server.getCertificateAuthority().exportTrustStore(trustStore, "changeit".toCharArray());
+
+		System.out.println(String.format("Kyma stub listening on %s", server.getBaseUrl()));
+		System.out.println(String.format("Connector JVM options: -Djavax.net.ssl.trustStore=%s "
+				+ "-Djavax.net.ssl.trustStorePassword=changeit", trustStore.getAbsolutePath()));
+
+		for (String applicationName : args.length > 0 ? args : new String[] { "stub-application" }) {
+			System.out.println(String.format("Connect URL (%s): %s", applicationName,
+					server.createConnectUrl(applicationName)));
+		}
+	}
+
+	/**
+	 * Starts the server on the configured port
+	 *
+	 * @throws IllegalStateException if the server cannot be started
+	 */
+	public synchronized void start() {
+		try {
+			KeyManagerFactory keyManagerFactory = KeyManagerFactory
+					.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+			keyManagerFactory.init(certificateAuthority.createServerKeyStore(keystorePassword), keystorePassword);
+
+			TrustManagerFactory trustManagerFactory = TrustManagerFactory
+					.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+			trustManagerFactory.init(certificateAuthority.createTrustStore());
+
+			SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+
+			server = HttpsServer.create(new InetSocketAddress("localhost", configuration.getPort()), 0);
+			server.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+				@Override
+				public void configure(HttpsParameters params) {
+					// client certificates are optional for the token endpoints, the others check them
+					SSLParameters sslParameters = getSSLContext().getDefaultSSLParameters();
+					sslParameters.setWantClientAuth(true);
+					params.setSSLParameters(sslParameters);
+				}
+			});
+
+			executor = Executors.newCachedThreadPool(
+					new ThreadFactoryBuilder().setNameFormat("kyma-stub-%d").setDaemon(true).build());
+			server.setExecutor(executor);
+			server.createContext("/", this::handle);
+			server.start();
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Stops the server immediately
+	 */
+	@Override
+	public synchronized void close() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	/**
+	 * Makes the default trust store of this JVM trust the server only while it is used as
+	 * rule, so that the connector started in the same JVM (e.g. in tests) connects to it. The
+	 * trust store is written to a temporary file and set via <code>javax.net.ssl.trustStore</code>,
+	 * the previous trust store is set again after the tests.
+	 *
+	 * @return this server
+	 */
+	public KymaStubServer withTrustStore() {
+		installTrustStore = true;
+		return this;
+	}
+
+	@Override
+	protected void before() throws IOException {
+		start();
+		if (installTrustStore) {
+			trustStore = File.createTempFile("kyma-stub-truststore", ".jks");
+			certificateAuthority.exportTrustStore(trustStore, "changeit".toCharArray());
+			previousTrustStore = System.getProperty(TRUST_STORE_PROPERTY);
+			previousTrustStorePassword = System.getProperty(TRUST_STORE_PASSWORD_PROPERTY);
+			System.setProperty(TRUST_STORE_PROPERTY, trustStore.getAbsolutePath());
+			System.setProperty(TRUST_STORE_PASSWORD_PROPERTY, "changeit");
+		}
+	}
+
+	@Override
+	protected void after() {
+		close();
+		if (trustStore != null) {
+			restoreProperty(TRUST_STORE_PROPERTY, previousTrustStore);
+			restoreProperty(TRUST_STORE_PASSWORD_PROPERTY, previousTrustStorePassword);
+			trustStore.delete();
+			trustStore = null;
+		}
+	}
+
+	/**
+	 * Returns the base URL of the running server
+	 *
+	 * @return URL like <code>https://localhost:8443</code>
+	 */
+	public String getBaseUrl() {
+		return String.format("https://localhost:%d", server.getAddress().getPort());
+	}
+
+	/**
+	 * Creates a connect URL with a new one time token for the given application, to be passed
+	 * to {@link io.kyma.project.connector.pairing.PairingService#executeInitialPairing(URI, char[])}
+	 *
+	 * @param applicationName name of the application
+	 * @return connect URL
+	 */
+	public URI createConnectUrl(String applicationName) {
+		String token = UUID.randomUUID().toString();
+		tokens.put(token, applicationName);
+		return URI.create(getBaseUrl() + CONNECT_INFO_PATH + "?token=" + token);
+	}
+
+	/**
+	 * Returns the configuration of the server, changes take effect with the next request
+	 *
+	 * @return {@link KymaStubConfiguration} of this server
+	 */
+	public KymaStubConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns the certificate authority issuing server and client certificates
+	 *
+	 * @return {@link StubCertificateAuthority} to be trusted by clients
+	 */
+	public StubCertificateAuthority getCertificateAuthority() {
+		return certificateAuthority;
+	}
+
+	/**
+	 * Adds an active event subscription for the given application
+	 *
+	 * @param applicationName name of the application
+	 * @param eventType type of the subscribed events
+	 * @param eventTypeVersion version of the subscribed events
+	 */
+	public void addSubscription(String applicationName, String eventType, String eventTypeVersion) {
+		Map<String, String> subscription = new LinkedHashMap<String, String>();
+		subscription.put("name", eventType);
+		subscription.put("version", eventTypeVersion);
+		application(applicationName).subscriptions.add(subscription);
+	}
+
+	/**
+	 * Returns the number of events accepted for the given application
+	 *
+	 * @param applicationName name of the application
+	 * @return number of events
+	 */
+	public long getReceivedEventCount(String applicationName) {
+		return application(applicationName).receivedEvents.get();
+	}
+
+	/**
+	 * Returns the services currently registered for the given application
+	 *
+	 * @param applicationName name of the application
+	 * @return copy of the registered services by id
+	 */
+	public Map<String, JsonNode> getServices(String applicationName) {
+		Application application = application(applicationName);
+		synchronized (application) {
+			return new LinkedHashMap<String, JsonNode>(application.services);
+		}
+	}
+
+	/**
+	 * Returns the number of requests received by the server
+	 *
+	 * @return number of requests, including faulted ones
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Returns the number of requests that were answered with an injected fault
+	 *
+	 * @return number of error responses and dropped connections
+	 */
+	public long getFaultCount() {
+		return faultCount.get();
+	}
+
+	private Application application(String applicationName) {
+		return applications.computeIfAbsent(applicationName, (name) -> new Application());
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		try {
+			String path = exchange.getRequestURI().getPath();
+			String method = exchange.getRequestMethod();
+
+			if (CONNECT_INFO_PATH.equals(path) && "GET".equals(method)) {
+				handleConnectInfo(exchange);
+				return;
+			}
+			if (CERTIFICATES_PATH.equals(path) && "POST".equals(method)) {
+				String token = getToken(exchange);
+				String applicationName = token != null ? tokens.remove(token) : null;
+				if (applicationName == null) {
+					respond(exchange, 403, error("Invalid or already used token"));
+				} else {
+					handleSigningRequest(exchange, applicationName);
+				}
+				return;
+			}
+
+			String applicationName = getClientApplication(exchange);
+			if (applicationName == null) {
+				respond(exchange, 403, error("Valid client certificate required"));
+				return;
+			}
+
+			if (injectFault(exchange)) {
+				return;
+			}
+
+			if (INFO_PATH.equals(path) && "GET".equals(method)) {
+				handleInfo(exchange, applicationName);
+				return;
+			}
+			if (RENEWAL_PATH.equals(path) && "POST".equals(method)) {
+				handleSigningRequest(exchange, applicationName);
+				return;
+			}
+
+			Matcher matcher = APPLICATION_PATH.matcher(path);
+			if (!matcher.matches()) {
+				respond(exchange, 404, error("Unknown path " + path));
+				return;
+			}
+			if (!matcher.group(1).equals(applicationName)) {
+				respond(exchange, 403, error("Client certificate not valid for application " + matcher.group(1)));
+				return;
+			}
+
+			Application application = application(applicationName);
+			String resource = matcher.group(2);
+			String id = matcher.group(3);
+
+			if ("metadata/services".equals(resource)) {
+				handleMetadata(exchange, application, method, id);
+			} else if ("events/subscribed".equals(resource) && id == null && "GET".equals(method)) {
+				respond(exchange, 200, Collections.singletonMap("eventsInfo", application.subscriptions));
+			} else if ("events".equals(resource) && id == null && "POST".equals(method)) {
+				handleEvent(exchange, application);
+			} else {
+				respond(exchange, 405, error("Method not allowed"));
+			}
+		} catch (IllegalArgumentException e) {
+			respond(exchange, 400, error(e.getMessage()));
+		} catch (RuntimeException e) {
+			respond(exchange, 500, error(e.getMessage()));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private boolean injectFault(HttpExchange exchange) throws IOException {
+		long latency = configuration.getLatencyMs();
+		if (configuration.getLatencyJitterMs() > 0) {
+			latency += ThreadLocalRandom.current().nextLong(configuration.getLatencyJitterMs() + 1);
+		}
+		if (latency > 0) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		double draw = random.nextDouble();
+		double threshold = configuration.getDropRate();
+		if (draw < threshold) {
+			faultCount.incrementAndGet();
+			// closing the exchange before any response was sent closes the connection
+			exchange.close();
+			return true;
+		}
+		threshold += configuration.getThrottleRate();
+		if (draw < threshold) {
+			faultCount.incrementAndGet();
+			respondRetryLater(exchange, 429, "Too many requests");
+			return true;
+		}
+		threshold += configuration.getUnavailableRate();
+		if (draw < threshold) {
+			faultCount.incrementAndGet();
+			respondRetryLater(exchange, 503, "Service unavailable");
+			return true;
+		}
+		threshold += configuration.getErrorRate();
+		if (draw < threshold) {
+			faultCount.incrementAndGet();
+			respond(exchange, 500, error("Injected failure"));
+			return true;
+		}
+		return false;
+	}
+
+	private void respondRetryLater(HttpExchange exchange, int status, String message) throws IOException {
+		if (configuration.getRetryAfterSeconds() >= 0) {
+			exchange.getResponseHeaders().set("Retry-After", String.valueOf(configuration.getRetryAfterSeconds()));
+		}
+		respond(exchange, status, error(message));
+	}
+
+	private String getToken(HttpExchange exchange) {
+		String query = exchange.getRequestURI().getQuery();
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				if (parameter.startsWith("token=")) {
+					return parameter.substring("token=".length());
+				}
+			}
+		}
+		return null;
+	}
+
+	private String getClientApplication(HttpExchange exchange) {
+		try {
+			Certificate[] peerCertificates = ((HttpsExchange) exchange).getSSLSession().getPeerCertificates();
+			X509Certificate clientCertificate = (X509Certificate) peerCertificates[0];
+			clientCertificate.checkValidity();
+			return getCommonName(clientCertificate);
+		} catch (SSLPeerUnverifiedException e) {
+			return null;
+		} catch (GeneralSecurityException e) {
+			return null;
+		}
+	}
+
+	private String getCommonName(X509Certificate certificate) {
+		try {
+			for (Rdn rdn : new LdapName(certificate.getSubjectX500Principal().getName()).getRdns()) {
+				if ("CN".equalsIgnoreCase(rdn.getType())) {
+					return rdn.getValue().toString();
+				}
+			}
+			return null;
+		} catch (InvalidNameException e) {
+			return null;
+		}
+	}
+
+	private void handleConnectInfo(HttpExchange exchange) throws IOException {
+		String token = getToken(exchange);
+		String applicationName = token != null ? tokens.get(token) : null;
+		if (applicationName == null) {
+			respond(exchange, 403, error("Invalid or already used token"));
+			return;
+		}
+
+		Map<String, Object> api = new LinkedHashMap<String, Object>();
+		api.put("metadataUrl", getBaseUrl() + "/" + applicationName + "/v1/metadata/services");
+		api.put("infoUrl", getBaseUrl() + INFO_PATH);
+		api.put("certificatesUrl", getBaseUrl() + CERTIFICATES_PATH);
+
+		Map<String, Object> certificate = new LinkedHashMap<String, Object>();
+		certificate.put("subject", String.format(CERTIFICATE_SUBJECT, applicationName));
+		certificate.put("extensions", "");
+		certificate.put("key-algorithm", "rsa2048");
+
+		Map<String, Object> connectInfo = new LinkedHashMap<String, Object>();
+		connectInfo.put("csrUrl", getBaseUrl() + CERTIFICATES_PATH + "?token=" + token);
+		connectInfo.put("api", api);
+		connectInfo.put("certificate", certificate);
+
+		respond(exchange, 200, connectInfo);
+	}
+
+	private void handleSigningRequest(HttpExchange exchange, String applicationName) throws IOException {
+		JsonNode request = readJson(exchange);
+		if (!request.hasNonNull("csr")) {
+			throw new IllegalArgumentException("Field csr missing");
+		}
+
+		String pem = new String(Base64.getMimeDecoder().decode(request.get("csr").asText()), StandardCharsets.UTF_8);
+		byte[] csr = Base64.getMimeDecoder().decode(pem.replaceAll("-----[A-Z ]+-----", "").trim());
+
+		X509Certificate clientCertificate = certificateAuthority.issue(csr,
+				TimeUnit.SECONDS.toMillis(configuration.getCertificateValiditySeconds()));
+		if (!applicationName.equals(getCommonName(clientCertificate))) {
+			throw new IllegalArgumentException("Subject of signing request does not match the application");
+		}
+
+		String clientPem = StubCertificateAuthority.toPem(clientCertificate);
+		String caPem = StubCertificateAuthority.toPem(certificateAuthority.getCertificate());
+
+		Base64.Encoder encoder = Base64.getEncoder();
+		Map<String, Object> response = new LinkedHashMap<String, Object>();
+		response.put("crt", encoder.encodeToString((clientPem + caPem).getBytes(StandardCharsets.UTF_8)));
+		response.put("clientCrt", encoder.encodeToString(clientPem.getBytes(StandardCharsets.UTF_8)));
+		response.put("caCrt", encoder.encodeToString(caPem.getBytes(StandardCharsets.UTF_8)));
+
+		respond(exchange, 201, response);
+	}
+
+	private void handleInfo(HttpExchange exchange, String applicationName) throws IOException {
+		String applicationUrl = getBaseUrl() + "/" + applicationName;
+
+		Map<String, Object> urls = new LinkedHashMap<String, Object>();
+		urls.put("eventsUrl", applicationUrl + "/v1/events");
+		urls.put("eventsInfoUrl", applicationUrl + "/v1/events/subscribed");
+		urls.put("metadataUrl", applicationUrl + "/v1/metadata/services");
+		urls.put("renewCertUrl", getBaseUrl() + RENEWAL_PATH);
+		urls.put("revocationCertUrl", getBaseUrl() + "/v1/applications/certificates/revocations");
+
+		Map<String, Object> info = new LinkedHashMap<String, Object>();
+		info.put("clientIdentity", Collections.singletonMap("application", applicationName));
+		info.put("urls", urls);
+
+		respond(exchange, 200, info);
+	}
+
+	private void handleMetadata(HttpExchange exchange, Application application, String method, String id)
+			throws IOException {
+
+		if (id == null && "GET".equals(method)) {
+			List<JsonNode> services;
+			String etag;
+			synchronized (application) {
+				services = new ArrayList<JsonNode>(application.services.values());
+				etag = "\"" + application.version + "\"";
+			}
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.getResponseHeaders().set("ETag", etag);
+				respond(exchange, 304, null);
+			} else {
+				exchange.getResponseHeaders().set("ETag", etag);
+				respond(exchange, 200, services);
+			}
+		} else if (id == null && "POST".equals(method)) {
+			ObjectNode service = readService(exchange);
+			String createdId = UUID.randomUUID().toString();
+			service.put("id", createdId);
+			synchronized (application) {
+				application.services.put(createdId, service);
+				application.version++;
+			}
+			respond(exchange, 200, Collections.singletonMap("id", createdId));
+		} else if (id != null && "GET".equals(method)) {
+			JsonNode service;
+			synchronized (application) {
+				service = application.services.get(id);
+			}
+			respond(exchange, service != null ? 200 : 404, service != null ? service : error("Service not found"));
+		} else if (id != null && "PUT".equals(method)) {
+			ObjectNode service = readService(exchange);
+			service.put("id", id);
+			boolean updated;
+			synchronized (application) {
+				updated = application.services.replace(id, service) != null;
+				application.version++;
+			}
+			respond(exchange, updated ? 204 : 404, updated ? null : error("Service not found"));
+		} else if (id != null && "DELETE".equals(method)) {
+			boolean deleted;
+			synchronized (application) {
+				deleted = application.services.remove(id) != null;
+				application.version++;
+			}
+			respond(exchange, deleted ? 204 : 404, deleted ? null : error("Service not found"));
+		} else {
+			respond(exchange, 405, error("Method not allowed"));
+		}
+	}
+
+	private ObjectNode readService(HttpExchange exchange) throws IOException {
+		JsonNode service = readJson(exchange);
+		if (!service.isObject() || !service.hasNonNull("name") || !service.hasNonNull("provider")) {
+			throw new IllegalArgumentException("Service registration requires name and provider");
+		}
+		return (ObjectNode) service;
+	}
+
+	private void handleEvent(HttpExchange exchange, Application application) throws IOException {
+		JsonNode event = readJson(exchange);
+		if (!event.hasNonNull("event-type") || !event.hasNonNull("event-type-version")) {
+			throw new IllegalArgumentException("Event requires event-type and event-type-version");
+		}
+		application.receivedEvents.incrementAndGet();
+		respond(exchange, 200, Collections.singletonMap("event-id", UUID.randomUUID().toString()));
+	}
+
+	private JsonNode readJson(HttpExchange exchange) throws IOException {
+		InputStream inputStream = exchange.getRequestBody();
+		if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+			inputStream = new GZIPInputStream(inputStream);
+		}
+		try {
+			JsonNode result = objectMapper.readTree(inputStream);
+			if (result == null) {
+				throw new IllegalArgumentException("Request body missing");
+			}
+			return result;
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage(), e);
+		}
+	}
+
+	private Map<String, Object> error(String message) {
+		Map<String, Object> error = new HashMap<String, Object>();
+		error.put("error", message);
+		return error;
+	}
+
+	private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+		if (body == null) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+		byte[] content = objectMapper.writeValueAsBytes(body);
+		exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+		exchange.sendResponseHeaders(status, content.length);
+		try (OutputStream outputStream = exchange.getResponseBody()) {
+			outputStream.write(content);
+		}
+	}
+
+	private static void restoreProperty(String name, String value) {
+		if (value == null) {
+			System.clearProperty(name);
+		} else {
+			System.setProperty(name, value);
+		}
+	}
+
+	private static class Application {
+		private final Map<String, JsonNode> services = new LinkedHashMap<String, JsonNode>();
+		private final List<Map<String, String>> subscriptions = new CopyOnWriteArrayList<Map<String, String>>();
+		private final AtomicLong receivedEvents = new AtomicLong();
+		private long version;
+	}
+
+}
@@ -0,0 +1,272 @@
+package io.kyma.project.connector.stub;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequest;
+
+/**
+ * Throwaway certificate authority of the {@link KymaStubServer}. It is generated in memory
+ * on creation and issues the server certificate as well as the client certificates requested
+ * by the connector. Clients have to trust its certificate, see {@link #exportTrustStore(File, char[])}.
+ */
+public class StubCertificateAuthority {
+
+	private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+	private final AtomicLong serialNumber = new AtomicLong(System.currentTimeMillis());
+
+	private final KeyPair keyPair;
+
+	private final X509Certificate certificate;
+
+	/**
+	 * Creates a new certificate authority with a self signed certificate valid for one year
+	 */
+	public StubCertificateAuthority() {
+		try {
+			keyPair = createKeyPair();
+			X500Name name = new X500Name("CN=Kyma Stub CA,O=Kyma Stub");
+			long now = System.currentTimeMillis();
+
+			certificate = sign(new JcaX509v3CertificateBuilder(name, nextSerialNumber(), new Date(now - 60000),
+					new Date(now + 365L * 24 * 3600 * 1000), name, keyPair.getPublic())
+					.addExtension(Extension.basicConstraints, true, new BasicConstraints(true))
+					.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign)));
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (OperatorCreationException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Returns the certificate of the authority
+	 *
+	 * @return self signed CA certificate
+	 */
+	public X509Certificate getCertificate() {
+		return certificate;
+	}
+
+	/**
+	 * Creates a key store holding a server certificate for <code>localhost</code> and
+	 * <code>127.0.0.1</code> issued by this authority
+	 *
+	 * @param keystorePassword password of the key store and key entry
+	 * @return {@link KeyStore} to be used by the server
+	 */
+	public KeyStore createServerKeyStore(char[] keystorePassword) {
+		try {
+			KeyPair serverKeyPair = createKeyPair();
+			long now = System.currentTimeMillis();
+
+			X509Certificate serverCertificate = sign(new JcaX509v3CertificateBuilder(certificate, nextSerialNumber(),
+					new Date(now - 60000), new Date(now + 365L * 24 * 3600 * 1000), new X500Name("CN=localhost"),
+					serverKeyPair.getPublic())
+					.addExtension(Extension.subjectAlternativeName, false, new GeneralNames(new GeneralName[] {
+							new GeneralName(GeneralName.dNSName, "localhost"),
+							new GeneralName(GeneralName.iPAddress, "127.0.0.1") })));
+
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(null, keystorePassword);
+			keyStore.setKeyEntry("server", serverKeyPair.getPrivate(), keystorePassword,
+					new Certificate[] { serverCertificate, certificate });
+			return keyStore;
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (OperatorCreationException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates a trust store holding the certificate of this authority
+	 *
+	 * @return {@link KeyStore} trusting this authority only
+	 */
+	public KeyStore createTrustStore() {
+		try {
+			KeyStore trustStore = KeyStore.getInstance("JKS");
+			trustStore.load(null, null);
+			trustStore.setCertificateEntry("kyma-stub-ca", certificate);
+			return trustStore;
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Writes a trust store holding the certificate of this authority, to be passed to the
+	 * connector via <code>javax.net.ssl.trustStore</code>
+	 *
+	 * @param file file to write to, parent directories are created
+	 * @param password password of the trust store
+	 */
+	public void exportTrustStore(File file, char[] password) {
+		KeyStore trustStore = createTrustStore();
+		if (file.getAbsoluteFile().getParentFile() != null) {
+			file.getAbsoluteFile().getParentFile().mkdirs();
+		}
+		try (OutputStream outputStream = new FileOutputStream(file)) {
+			trustStore.store(outputStream, password);
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Issues a client certificate for the given (DER encoded) signing request
+	 *
+	 * @param csr PKCS#10 signing request
+	 * @param validityMillis validity of the certificate in milliseconds
+	 * @return issued certificate
+	 * @throws IllegalArgumentException if the request is invalid
+	 */
+	public X509Certificate issue(byte[] csr, long validityMillis) {
+		try {
+			JcaPKCS10CertificationRequest request = new JcaPKCS10CertificationRequest(
+					new PKCS10CertificationRequest(csr));
+			long now = System.currentTimeMillis();
+
+			return sign(new JcaX509v3CertificateBuilder(certificate, nextSerialNumber(), new Date(now - 60000),
+					new Date(now + validityMillis), request.getSubject(), request.getPublicKey())
+					.addExtension(Extension.basicConstraints, true, new BasicConstraints(false)));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid signing request: " + e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("Invalid signing request: " + e.getMessage(), e);
+		} catch (OperatorCreationException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates a key store holding a client certificate for the given application issued by
+	 * this authority, like the one created by the pairing but without a signing request
+	 *
+	 * @param applicationName name of the application, the common name of the certificate
+	 * @param keystorePassword password of the key store and key entry
+	 * @param validityMillis validity of the certificate in milliseconds
+	 * @return {@link KeyStore} to be used by the connector
+	 */
+	public KeyStore createClientKeyStore(String applicationName, char[] keystorePassword, long validityMillis) {
+		try {
+			KeyPair clientKeyPair = createKeyPair();
+			long now = System.currentTimeMillis();
+
+			X509Certificate clientCertificate = sign(new JcaX509v3CertificateBuilder(certificate, nextSerialNumber(),
+					new Date(now - 60000), new Date(now + validityMillis),
+					new X500Name("CN=" + applicationName + ",O=Kyma Stub"), clientKeyPair.getPublic())
+					.addExtension(Extension.basicConstraints, true, new BasicConstraints(false)));
+
+			KeyStore keyStore = KeyStore.getInstance("JKS");
+			keyStore.load(null, keystorePassword);
+			keyStore.setKeyEntry(applicationName, clientKeyPair.getPrivate(), keystorePassword,
+					new Certificate[] { clientCertificate, certificate });
+			return keyStore;
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		} catch (OperatorCreationException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Creates an {@link SSLContext} trusting this authority only
+	 *
+	 * @param clientCertificate key store presented as client certificate or null
+	 * @param keystorePassword password of the key store
+	 * @return {@link SSLContext} to connect to the {@link KymaStubServer}
+	 */
+	public SSLContext createClientSslContext(KeyStore clientCertificate, char[] keystorePassword) {
+		try {
+			KeyManagerFactory keyManagerFactory = null;
+			if (clientCertificate != null) {
+				keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+				keyManagerFactory.init(clientCertificate, keystorePassword);
+			}
+			TrustManagerFactory trustManagerFactory = TrustManagerFactory
+					.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+			trustManagerFactory.init(createTrustStore());
+
+			SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(keyManagerFactory != null ? keyManagerFactory.getKeyManagers() : null,
+					trustManagerFactory.getTrustManagers(), null);
+			return sslContext;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Encodes a certificate in PEM format
+	 *
+	 * @param certificate certificate to be encoded
+	 * @return PEM encoded certificate
+	 */
+	public static String toPem(X509Certificate certificate) {
+		try {
+			return "-----BEGIN CERTIFICATE-----\n"
+					+ Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(certificate.getEncoded())
+					+ "\n-----END CERTIFICATE-----\n";
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private BigInteger nextSerialNumber() {
+		return BigInteger.valueOf(serialNumber.incrementAndGet());
+	}
+
+	private X509Certificate sign(X509v3CertificateBuilder builder)
+			throws OperatorCreationException, GeneralSecurityException {
+		return new JcaX509CertificateConverter()
+				.getCertificate(builder.build(new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(keyPair.getPrivate())));
+	}
+
+	private static KeyPair createKeyPair() throws GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		return generator.generateKeyPair();
+	}
+
+}
@@ -0,0 +1,121 @@
+package io.kyma.project.connector.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.kyma.project.connector.exception.ConcurrencyLimitExceededException;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+	private ConcurrencyLimitProperties properties;
+
+	@Before
+	public void setUp() {
+		properties = new ConcurrencyLimitProperties();
+		properties.setInitialLimit(4);
+		properties.setMaxQueued(2);
+	}
+
+	@Test
+	public void limitGrowsWhileLatencyHoldsSteady() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties, 100);
+
+		for (int counter = 0; counter < 100; counter++) {
+			releaseAtLimit(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+		}
+
+		assertTrue(limiter.toString(), limiter.getLimit() > 4);
+	}
+
+	@Test
+	public void limitShrinksOnOverload() {
+		properties.setInitialLimit(50);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties, 100);
+		for (int counter = 0; counter < 50; counter++) {
+			limiter.acquireAsync();
+		}
+
+		for (int counter = 0; counter < 10; counter++) {
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+		}
+
+		assertEquals(limiter.toString(), 17, limiter.getLimit());
+	}
+
+	@Test
+	public void limitShrinksWhenLatencyRises() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties, 100);
+		for (int counter = 0; counter < 100; counter++) {
+			releaseAtLimit(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		int limit = limiter.getLimit();
+
+		for (int counter = 0; counter < 5; counter++) {
+			releaseAtLimit(limiter, TimeUnit.SECONDS.toNanos(1));
+		}
+
+		assertTrue(limiter.toString(), limiter.getLimit() < limit);
+	}
+
+	@Test
+	public void waitingRequestsAreGrantedInOrder() throws Exception {
+		properties.setInitialLimit(1);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties, 1);
+
+		assertTrue(limiter.acquireAsync().isDone());
+		CompletableFuture<Void> first = limiter.acquireAsync();
+		CompletableFuture<Void> second = limiter.acquireAsync();
+		assertRejected(limiter.acquireAsync());
+
+		limiter.releaseIgnored();
+		assertTrue(first.isDone());
+		assertFalse(second.isDone());
+
+		limiter.releaseIgnored();
+		assertTrue(second.isDone());
+		assertEquals(1, limiter.getInFlight());
+	}
+
+	@Test
+	public void timedOutRequestLeavesQueue() {
+		properties.setInitialLimit(1);
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", properties, 1);
+		limiter.acquireAsync();
+
+		try {
+			limiter.acquire(50);
+			fail("Permit was granted");
+		} catch (ConcurrencyLimitExceededException e) {
+			assertEquals(0, limiter.getQueued());
+		}
+
+		limiter.releaseIgnored();
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	private void releaseAtLimit(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+		while (limiter.getInFlight() < limiter.getLimit()) {
+			limiter.acquireAsync();
+		}
+		limiter.release(rttNanos, false);
+	}
+
+	private void assertRejected(CompletableFuture<Void> permit) throws InterruptedException {
+		try {
+			permit.get();
+			fail("Permit was granted");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+		}
+	}
+
+}
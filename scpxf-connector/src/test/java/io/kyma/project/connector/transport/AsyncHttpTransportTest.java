@@ -0,0 +1,165 @@
+package io.kyma.project.connector.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+
+public class AsyncHttpTransportTest {
+
+	private final char[] keystorePassword = "test".toCharArray();
+
+	@Rule
+	public final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration());
+
+	private RoutingAsyncConnectionManager connectionManager;
+
+	private CloseableHttpAsyncClient client;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+
+		connectionManager = new RoutingAsyncConnectionManager(600000);
+		client = HttpAsyncClients.custom().setConnectionManager(connectionManager).build();
+		client.start();
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		client.close(CloseMode.IMMEDIATE);
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void postsEventsOfSeveralCertificatesOnOneClient() throws Exception {
+		AsyncHttpTransport first = createTransport("app1");
+		AsyncHttpTransport second = createTransport("app2");
+
+		assertEquals(200, first.exchange(createEvent("app1"), String.class).getStatusCodeValue());
+		assertEquals(200, second.exchange(createEvent("app2"), String.class).getStatusCodeValue());
+
+		assertEquals(1, stub.getReceivedEventCount("app1"));
+		assertEquals(1, stub.getReceivedEventCount("app2"));
+		assertEquals(2, connectionManager.getPoolCount());
+	}
+
+	@Test
+	public void streamsConvertedBodies() {
+		AsyncHttpTransport transport = createTransport("app1");
+		String service = "{\"name\":\"streamed\",\"provider\":\"test\",\"description\":\""
+				+ String.join("", Collections.nCopies(100000, "x")) + "\"}";
+
+		ResponseEntity<Map> response = transport.exchange(RequestEntity
+				.post(URI.create(stub.getBaseUrl() + "/app1/v1/metadata/services"))
+				.contentType(MediaType.APPLICATION_JSON).body(service), Map.class);
+
+		assertEquals(200, response.getStatusCodeValue());
+		assertEquals("streamed", stub.getServices("app1").get(response.getBody().get("id")).get("name").asText());
+	}
+
+	@Test
+	public void releasedPoolCompletesRequestsInFlight() throws Exception {
+		stub.getConfiguration().setLatencyMs(500);
+		AsyncHttpTransport transport = createTransport("app1");
+
+		CompletableFuture<ResponseEntity<String>> response = transport.exchangeAsync(createEvent("app1"),
+				String.class);
+		Thread.sleep(100);
+		transport.close();
+
+		assertEquals(200, response.get(5, TimeUnit.SECONDS).getStatusCodeValue());
+		assertEquals(0, connectionManager.getPoolCount());
+
+		// the transport remains usable with a new pool
+		assertEquals(200, transport.exchange(createEvent("app1"), String.class).getStatusCodeValue());
+		assertNotNull(connectionManager.getPoolStats("app1"));
+	}
+
+	@Test
+	public void reportsConversionErrorsViaFuture() throws Exception {
+		AsyncHttpTransport transport = createTransport("app1");
+
+		CompletableFuture<ResponseEntity<String>> response = transport.exchangeAsync(RequestEntity
+				.post(URI.create(stub.getBaseUrl() + "/app1/v1/events")).body(new Object()), String.class);
+
+		assertFailed(response, RestClientException.class);
+	}
+
+	@Test
+	public void reportsClosedClientViaFuture() throws Exception {
+		AsyncHttpTransport transport = createTransport("app1");
+		client.close(CloseMode.IMMEDIATE);
+
+		CompletableFuture<ResponseEntity<String>> response = transport.exchangeAsync(createEvent("app1"),
+				String.class);
+
+		assertFailed(response, ResourceAccessException.class);
+	}
+
+	private AsyncHttpTransport createTransport(String applicationName) {
+		KeyStore keyStore = stub.getCertificateAuthority().createClientKeyStore(applicationName, keystorePassword,
+				TimeUnit.DAYS.toMillis(1));
+		return new AsyncHttpTransport(client, connectionManager, applicationName, () -> createPool(keyStore),
+				new RestTemplate().getMessageConverters(), executor);
+	}
+
+	private PoolingAsyncClientConnectionManager createPool(KeyStore keyStore) {
+		return PoolingAsyncClientConnectionManagerBuilder.create()
+				.setTlsStrategy(ClientTlsStrategyBuilder.create()
+						.setSslContext(stub.getCertificateAuthority().createClientSslContext(keyStore, keystorePassword))
+						.build())
+				.build();
+	}
+
+	private RequestEntity<byte[]> createEvent(String applicationName) {
+		return RequestEntity.post(URI.create(stub.getBaseUrl() + "/" + applicationName + "/v1/events"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.body("{\"event-type\":\"order.created\",\"event-type-version\":\"v1\",\"data\":{}}".getBytes());
+	}
+
+	private void assertFailed(CompletableFuture<?> future, Class<? extends Exception> expected)
+			throws InterruptedException {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Request did not fail");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause().toString(), expected.isInstance(e.getCause()));
+		} catch (java.util.concurrent.TimeoutException e) {
+			fail("Request did not complete");
+		}
+	}
+
+}
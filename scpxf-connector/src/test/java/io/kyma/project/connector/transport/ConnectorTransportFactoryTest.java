@@ -0,0 +1,83 @@
+package io.kyma.project.connector.transport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.net.URI;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import io.kyma.project.connector.connection.model.ConnectionModel;
+import io.kyma.project.connector.connection.model.ConnectionSnapshot;
+import io.kyma.project.connector.stub.StubCertificateAuthority;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@DirtiesContext
+public class ConnectorTransportFactoryTest {
+
+	private final StubCertificateAuthority certificateAuthority = new StubCertificateAuthority();
+
+	@Autowired
+	private ConnectorTransportFactory transportFactory;
+
+	private ConnectionModel connectionModel;
+
+	@Before
+	public void setUp() {
+		connectionModel = new ConnectionModel();
+		connectionModel.setApplicationName("app1");
+		connectionModel.setEventsURL(URI.create("https://localhost/app1/v1/events"));
+		connectionModel.setKeystorePass("test".toCharArray());
+		connectionModel.setSslKey(createKeyStore());
+	}
+
+	@Test
+	public void snapshotOfUnchangedModelIsReused() {
+		ConnectionSnapshot snapshot = transportFactory.createSnapshot(connectionModel);
+
+		assertSame(snapshot, transportFactory.createSnapshot(connectionModel));
+	}
+
+	@Test
+	public void changedModelGetsNewSnapshot() {
+		ConnectionSnapshot snapshot = transportFactory.createSnapshot(connectionModel);
+
+		connectionModel.setEventsURL(URI.create("https://localhost/app2/v1/events"));
+		ConnectionSnapshot changed = transportFactory.createSnapshot(connectionModel);
+		assertNotSame(snapshot, changed);
+		assertEquals(connectionModel.getEventsURL(), changed.getEventsURL());
+
+		connectionModel.setSslKey(createKeyStore());
+		ConnectionSnapshot renewed = transportFactory.createSnapshot(connectionModel);
+		assertNotEquals(changed.getCertificateFingerprint(), renewed.getCertificateFingerprint());
+	}
+
+	@Test
+	public void snapshotKeepsItsOwnPassword() {
+		ConnectionSnapshot snapshot = transportFactory.createSnapshot(connectionModel);
+
+		connectionModel.getKeystorePass()[0] = 'x';
+		snapshot.getKeystorePass()[1] = 'x';
+		snapshot.toConnectionModel().getKeystorePass()[2] = 'x';
+
+		assertArrayEquals("test".toCharArray(), snapshot.getKeystorePass());
+		assertNotSame(snapshot, transportFactory.createSnapshot(connectionModel));
+	}
+
+	private KeyStore createKeyStore() {
+		return certificateAuthority.createClientKeyStore("app1", "test".toCharArray(), TimeUnit.DAYS.toMillis(1));
+	}
+
+}
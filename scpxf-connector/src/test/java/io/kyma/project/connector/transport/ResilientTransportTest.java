@@ -0,0 +1,195 @@
+package io.kyma.project.connector.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.security.KeyStore;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import io.kyma.project.connector.exception.CircuitBreakerOpenException;
+import io.kyma.project.connector.exception.ConcurrencyLimitExceededException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.metrics.MetricsProperties;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ResilientTransportTest {
+
+	@Rule
+	public final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration());
+
+	private ScheduledExecutorService scheduler;
+
+	private ResilienceProperties properties;
+
+	private FaultyTransport delegate;
+
+	private ResilientTransport transport;
+
+	@Before
+	public void setUp() {
+		scheduler = Executors.newScheduledThreadPool(2);
+
+		properties = new ResilienceProperties();
+		properties.setMaxAttempts(1);
+		properties.setFailureThreshold(2);
+		properties.setOpenDurationMs(200);
+
+		char[] keystorePassword = "test".toCharArray();
+		KeyStore keyStore = stub.getCertificateAuthority().createClientKeyStore("app1", keystorePassword,
+				TimeUnit.DAYS.toMillis(1));
+		RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+				.setSSLContext(stub.getCertificateAuthority().createClientSslContext(keyStore, keystorePassword))
+				.build()));
+
+		ConnectorMetrics metrics = new ConnectorMetrics();
+		metrics.setMeterRegistry(new SimpleMeterRegistry());
+		metrics.setProperties(new MetricsProperties());
+
+		delegate = new FaultyTransport(new RestTemplateTransport(restTemplate, scheduler));
+		transport = new ResilientTransport(delegate, new RetryPolicy(properties),
+				new CircuitBreaker("app1", properties, (state) -> { }), scheduler, metrics);
+	}
+
+	@After
+	public void tearDown() {
+		scheduler.shutdownNow();
+	}
+
+	@Test
+	public void halfOpenBreakerClosesOnceGatewayRecovered() throws Exception {
+		openCircuitBreaker();
+
+		assertFailed(transport.exchangeAsync(createEvent(), String.class), CircuitBreakerOpenException.class);
+
+		Thread.sleep(properties.getOpenDurationMs() + 50);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, transport.getCircuitBreaker().getState());
+
+		assertEquals(200, transport.exchangeAsync(createEvent(), String.class).get(5, TimeUnit.SECONDS)
+				.getStatusCodeValue());
+		assertEquals(CircuitBreaker.State.CLOSED, transport.getCircuitBreaker().getState());
+	}
+
+	@Test
+	public void halfOpenBreakerReopensOnFailure() throws Exception {
+		openCircuitBreaker();
+		Thread.sleep(properties.getOpenDurationMs() + 50);
+
+		stub.getConfiguration().setErrorRate(1.0);
+		assertFailed(transport.exchangeAsync(createEvent(), String.class), HttpServerErrorException.class);
+
+		assertEquals(CircuitBreaker.State.OPEN, transport.getCircuitBreaker().getState());
+	}
+
+	@Test
+	public void synchronousFailureReturnsPermit() throws Exception {
+		openCircuitBreaker();
+		Thread.sleep(properties.getOpenDurationMs() + 50);
+
+		delegate.failing = true;
+		assertFailed(transport.exchangeAsync(createEvent(), String.class), IllegalStateException.class);
+		delegate.failing = false;
+
+		assertEquals(200, transport.exchangeAsync(createEvent(), String.class).get(5, TimeUnit.SECONDS)
+				.getStatusCodeValue());
+		assertEquals(CircuitBreaker.State.CLOSED, transport.getCircuitBreaker().getState());
+	}
+
+	@Test
+	public void localRejectionKeepsBreakerHalfOpen() throws Exception {
+		openCircuitBreaker();
+		Thread.sleep(properties.getOpenDurationMs() + 50);
+
+		delegate.rejecting = true;
+		assertFailed(transport.exchangeAsync(createEvent(), String.class), ConcurrencyLimitExceededException.class);
+		delegate.rejecting = false;
+		assertEquals(CircuitBreaker.State.HALF_OPEN, transport.getCircuitBreaker().getState());
+
+		assertEquals(200, transport.exchangeAsync(createEvent(), String.class).get(5, TimeUnit.SECONDS)
+				.getStatusCodeValue());
+		assertEquals(CircuitBreaker.State.CLOSED, transport.getCircuitBreaker().getState());
+	}
+
+	private void openCircuitBreaker() throws InterruptedException {
+		stub.getConfiguration().setErrorRate(1.0);
+		for (int counter = 0; counter < properties.getFailureThreshold(); counter++) {
+			assertFailed(transport.exchangeAsync(createEvent(), String.class), HttpServerErrorException.class);
+		}
+		stub.getConfiguration().setErrorRate(0);
+		assertEquals(CircuitBreaker.State.OPEN, transport.getCircuitBreaker().getState());
+	}
+
+	private RequestEntity<byte[]> createEvent() {
+		return RequestEntity.post(URI.create(stub.getBaseUrl() + "/app1/v1/events"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.body("{\"event-type\":\"order.created\",\"event-type-version\":\"v1\",\"data\":{}}".getBytes());
+	}
+
+	private void assertFailed(CompletableFuture<?> future, Class<? extends Exception> expected)
+			throws InterruptedException {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Request did not fail");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause().toString(), expected.isInstance(e.getCause()));
+		} catch (java.util.concurrent.TimeoutException e) {
+			fail("Request did not complete");
+		}
+	}
+
+	private static class FaultyTransport implements ConnectorTransport {
+
+		private final ConnectorTransport delegate;
+
+		private volatile boolean failing;
+
+		private volatile boolean rejecting;
+
+		private FaultyTransport(ConnectorTransport delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public <T> ResponseEntity<T> exchange(RequestEntity<?> request, Class<T> responseType) {
+			if (failing) {
+				throw new IllegalStateException("Transport closed");
+			}
+			return delegate.exchange(request, responseType);
+		}
+
+		@Override
+		public <T> CompletableFuture<ResponseEntity<T>> exchangeAsync(RequestEntity<?> request,
+				Class<T> responseType) {
+			if (failing) {
+				throw new IllegalStateException("Transport closed");
+			}
+			if (rejecting) {
+				CompletableFuture<ResponseEntity<T>> rejected = new CompletableFuture<ResponseEntity<T>>();
+				rejected.completeExceptionally(new ConcurrencyLimitExceededException("Concurrency limit reached"));
+				return rejected;
+			}
+			return delegate.exchangeAsync(request, responseType);
+		}
+
+	}
+
+}
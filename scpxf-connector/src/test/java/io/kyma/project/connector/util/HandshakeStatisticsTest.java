@@ -0,0 +1,58 @@
+package io.kyma.project.connector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import org.junit.Test;
+
+public class HandshakeStatisticsTest {
+
+	private final HandshakeStatistics statistics = new HandshakeStatistics(100, 0);
+
+	@Test
+	public void sessionWithKnownIdIsResumed() {
+		SSLSessionContext context = mock(SSLSessionContext.class);
+
+		statistics.record(createSession(context, new byte[] { 1 }, 1000));
+		statistics.record(createSession(context, new byte[] { 1 }, 1000));
+
+		assertEquals(1, statistics.getFullHandshakes());
+		assertEquals(1, statistics.getResumedHandshakes());
+	}
+
+	@Test
+	public void concurrentSessionsAreFullHandshakes() {
+		SSLSessionContext context = mock(SSLSessionContext.class);
+
+		// same peer and creation time, different ids
+		statistics.record(createSession(context, new byte[] { 1 }, 1000));
+		statistics.record(createSession(context, new byte[] { 2 }, 1000));
+
+		assertEquals(2, statistics.getFullHandshakes());
+		assertEquals(0, statistics.getResumedHandshakes());
+	}
+
+	@Test
+	public void sessionsOfDifferentContextsAreFullHandshakes() {
+		statistics.record(createSession(mock(SSLSessionContext.class), new byte[] { 1 }, 1000));
+		statistics.record(createSession(mock(SSLSessionContext.class), new byte[] { 1 }, 1000));
+
+		assertEquals(2, statistics.getFullHandshakes());
+		assertEquals(0, statistics.getResumedHandshakes());
+	}
+
+	private SSLSession createSession(SSLSessionContext context, byte[] id, long creationTime) {
+		SSLSession session = mock(SSLSession.class);
+		when(session.getSessionContext()).thenReturn(context);
+		when(session.getId()).thenReturn(id);
+		when(session.getPeerHost()).thenReturn("localhost");
+		when(session.getPeerPort()).thenReturn(443);
+		when(session.getCreationTime()).thenReturn(creationTime);
+		return session;
+	}
+
+}
@@ -0,0 +1,185 @@
+package io.kyma.project.connector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import io.kyma.project.connector.exception.RestTemplateCustomizerException;
+import io.kyma.project.connector.metrics.ConnectorMetrics;
+import io.kyma.project.connector.metrics.MetricsProperties;
+import io.kyma.project.connector.stub.KymaStubConfiguration;
+import io.kyma.project.connector.stub.KymaStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class HttpConnectionPoolManagerTest {
+
+	@Rule
+	public final KymaStubServer stub = new KymaStubServer(new KymaStubConfiguration());
+
+	private HttpConnectionPoolProperties properties;
+
+	private HttpConnectionPoolManager poolManager;
+
+	private SSLConnectionSocketFactory socketFactory;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		// the client certificate makes the stub answer with the configured latency
+		char[] keystorePassword = "test".toCharArray();
+		KeyStore keyStore = stub.getCertificateAuthority().createClientKeyStore("app1", keystorePassword,
+				TimeUnit.DAYS.toMillis(1));
+		socketFactory = new SSLConnectionSocketFactory(
+				stub.getCertificateAuthority().createClientSslContext(keyStore, keystorePassword));
+
+		ConnectorMetrics metrics = new ConnectorMetrics();
+		metrics.setMeterRegistry(new SimpleMeterRegistry());
+		metrics.setProperties(new MetricsProperties());
+
+		properties = new HttpConnectionPoolProperties();
+		properties.setEvictionIntervalMs(50);
+		poolManager = new HttpConnectionPoolManager();
+		poolManager.setProperties(properties);
+		poolManager.setMetrics(metrics);
+		poolManager.start();
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		poolManager.stop();
+	}
+
+	@Test
+	public void releasedPoolCompletesRequestsInFlight() throws Exception {
+		stub.getConfiguration().setLatencyMs(500);
+		CloseableHttpClient client = poolManager.createHttpClient("tenant", socketFactory);
+
+		CompletableFuture<Integer> response = CompletableFuture.supplyAsync(() -> get(client));
+		awaitLeased("tenant");
+		poolManager.release("tenant");
+
+		assertNull(poolManager.getPoolStats("tenant"));
+		assertEquals(200, response.get(5, TimeUnit.SECONDS).intValue());
+	}
+
+	@Test
+	public void clientCreatesPoolAgainAfterRelease() {
+		CloseableHttpClient client = poolManager.createHttpClient("tenant", socketFactory);
+		assertEquals(200, get(client));
+
+		poolManager.release("tenant");
+
+		assertEquals(200, get(client));
+		assertNotNull(poolManager.getPoolStats("tenant"));
+	}
+
+	@Test
+	public void unusedPoolIsReleased() throws Exception {
+		properties.setPoolIdleMs(100);
+		CloseableHttpClient client = poolManager.createHttpClient("tenant", socketFactory);
+		assertEquals(200, get(client));
+		assertEquals(1, poolManager.getPoolStats("tenant").getAvailable());
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (poolManager.getPoolStats("tenant") != null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+
+		assertNull(poolManager.getPoolStats("tenant"));
+		assertEquals(200, get(client));
+	}
+
+	@Test
+	public void poolsShareGlobalMaximum() throws Exception {
+		poolManager.stop();
+		properties.setGlobalMaxTotal(1);
+		poolManager.start();
+		stub.getConfiguration().setLatencyMs(300);
+		CloseableHttpClient first = poolManager.createHttpClient("first", socketFactory);
+		CloseableHttpClient second = poolManager.createHttpClient("second", socketFactory);
+
+		long start = System.currentTimeMillis();
+		CompletableFuture<Integer> firstResponse = CompletableFuture.supplyAsync(() -> get(first), executor);
+		CompletableFuture<Integer> secondResponse = CompletableFuture.supplyAsync(() -> get(second), executor);
+
+		assertEquals(200, firstResponse.get(5, TimeUnit.SECONDS).intValue());
+		assertEquals(200, secondResponse.get(5, TimeUnit.SECONDS).intValue());
+		// the second request waited for the global connection of the first one
+		assertTrue(System.currentTimeMillis() - start >= 600);
+	}
+
+	@Test
+	public void saturatedPoolDoesNotBlockOtherPools() throws Exception {
+		poolManager.stop();
+		properties.setGlobalMaxTotal(2);
+		poolManager.start();
+		stub.getConfiguration().setLatencyMs(300);
+		CloseableHttpClient busy = poolManager.createHttpClient("busy", socketFactory, 1);
+		CloseableHttpClient other = poolManager.createHttpClient("other", socketFactory, 1);
+
+		List<CompletableFuture<Integer>> busyResponses = new ArrayList<CompletableFuture<Integer>>();
+		for (int i = 0; i < 4; i++) {
+			busyResponses.add(CompletableFuture.supplyAsync(() -> get(busy), executor));
+		}
+		awaitLeased("busy");
+		Thread.sleep(50);
+
+		assertEquals(200, get(other));
+		assertTrue(busyResponses.stream().filter(CompletableFuture::isDone).count() <= 1);
+		for (CompletableFuture<Integer> response : busyResponses) {
+			assertEquals(200, response.get(5, TimeUnit.SECONDS).intValue());
+		}
+	}
+
+	@Test(expected = RestTemplateCustomizerException.class)
+	public void rejectsConflictingPoolSize() {
+		CloseableHttpClient client = poolManager.createHttpClient("tenant", socketFactory, 10);
+		assertEquals(200, get(client));
+
+		poolManager.createHttpClient("tenant", socketFactory, 20);
+	}
+
+	private int get(CloseableHttpClient client) {
+		try {
+			return client.execute(new HttpGet(stub.getBaseUrl() + "/v1/applications/management/info"),
+					(response) -> response.getStatusLine().getStatusCode());
+		} catch (IOException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private void awaitLeased(String poolName) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			PoolStats stats = poolManager.getPoolStats(poolName);
+			if (stats != null && stats.getLeased() > 0) {
+				return;
+			}
+			Thread.sleep(5);
+		}
+		throw new AssertionError("No connection leased from " + poolName);
+	}
+
+}
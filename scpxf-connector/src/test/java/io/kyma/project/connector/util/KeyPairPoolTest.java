@@ -0,0 +1,74 @@
+package io.kyma.project.connector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPublicKey;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.kyma.project.connector.exception.ApplicationConnectorException;
+
+public class KeyPairPoolTest {
+
+	private KeyPairPoolProperties properties;
+
+	private KeyPairPool pool;
+
+	@Before
+	public void setUp() {
+		properties = new KeyPairPoolProperties();
+		properties.setEnabled(true);
+		properties.setDepth(2);
+		pool = new KeyPairPool();
+		pool.setProperties(properties);
+	}
+
+	@After
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Test
+	public void poolIsFilledInBackgroundAndRefilledAfterTake() throws Exception {
+		pool.start();
+		awaitAvailable(2);
+
+		KeyPair first = pool.take(KeyPairPool.RSA_2048);
+		KeyPair second = pool.take(KeyPairPool.RSA_2048);
+
+		assertNotSame(first, second);
+		assertEquals(2048, ((RSAPublicKey) first.getPublic()).getModulus().bitLength());
+		awaitAvailable(2);
+	}
+
+	@Test
+	public void disabledPoolGeneratesOnDemand() {
+		properties.setEnabled(false);
+		pool.start();
+
+		assertEquals(2048, ((RSAPublicKey) pool.take(KeyPairPool.RSA_2048).getPublic()).getModulus().bitLength());
+		assertEquals(0, pool.available(KeyPairPool.RSA_2048));
+	}
+
+	@Test(expected = ApplicationConnectorException.class)
+	public void rejectsUnsupportedAlgorithm() {
+		pool.start();
+
+		pool.take("ec256");
+	}
+
+	private void awaitAvailable(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30000;
+		while (pool.available(KeyPairPool.RSA_2048) < count) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Pool was not filled");
+			}
+			Thread.sleep(20);
+		}
+	}
+
+}